@@ -27,6 +27,8 @@ import java.util.Map;
 import java.util.Random;
 
 import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.utils.KeyPartitioner;
+import org.apache.samoa.utils.SamoaKryoRegistrar;
 
 import com.datatorrent.api.DefaultPartition;
 import com.datatorrent.api.Partitioner;
@@ -43,10 +45,11 @@ public class ApexStreamUtils {
      * partition
      */
     private static final long serialVersionUID = -7144877905889718517L;
+    private final org.apache.samoa.utils.Partitioner partitioner = new KeyPartitioner();
 
     @Override
     public int getPartition(T t) {
-      return t.getKey().hashCode();
+      return partitioner.hash(t);
     }
   }
 
@@ -120,6 +123,7 @@ public class ApexStreamUtils {
     public JavaSerializationStreamCodec() {
      super();
      this.kryo.setDefaultSerializer(JavaSerializer.class);
+     SamoaKryoRegistrar.register(this.kryo);
     }
 
     @Override
@@ -0,0 +1,36 @@
+package org.apache.samoa.core;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A ContentEvent that carries a precomputed numeric routing key. Streams partitioned by key route these events on the
+ * routing key instead of hashing the String returned by {@link #getKey()}, so they do not need to build or hash a key
+ * string. Events with the same routing key must always have the same key string, and vice versa.
+ */
+public interface KeyedContentEvent extends ContentEvent {
+
+  /**
+   * Gets the routing key of the event.
+   * 
+   * @return the routing key
+   */
+  public long getRoutingKey();
+}
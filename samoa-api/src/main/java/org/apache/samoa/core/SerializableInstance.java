@@ -22,6 +22,16 @@ package org.apache.samoa.core;
 
 import org.apache.samoa.instances.DenseInstance;
 import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.instances.SchemaRegistry;
+import org.apache.samoa.utils.SamoaKryoRegistrar.InstanceSerializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 /**
  * License
@@ -65,4 +75,40 @@ public class SerializableInstance extends DenseInstance {
     super(inst);
   }
 
+  /**
+   * Serializes an instance without its header: only the schema id of the header, the weight and the values go on the
+   * wire, and the receiver reattaches the header registered under the id in the {@link SchemaRegistry} of its JVM.
+   * The header of the sender is registered on the fly, while the headers reaching a JVM with the processors of a
+   * topology are registered when deserialized. A receiver that has not deserialized the header of a stream, e.g. a
+   * worker whose processors do not hold it, fails with a KryoException, so this serializer is opt-in: it replaces the
+   * {@link InstanceSerializer} of {@link org.apache.samoa.utils.SamoaKryoRegistrar} only when registered before it,
+   * e.g. with an entry of the Samza registration file.
+   */
+  public static final class HeaderFreeSerializer extends Serializer<SerializableInstance> {
+
+    @Override
+    public void write(Kryo kryo, Output output, SerializableInstance instance) {
+      Instances header = instance.instanceHeader;
+      output.writeInt(header == null ? SchemaRegistry.NO_SCHEMA : SchemaRegistry.register(header));
+      output.writeDouble(instance.weight);
+      InstanceSerializer.writeValues(output, instance);
+    }
+
+    @Override
+    public SerializableInstance read(Kryo kryo, Input input, Class<SerializableInstance> type) {
+      int schemaId = input.readInt();
+      InstancesHeader header = null;
+      if (schemaId != SchemaRegistry.NO_SCHEMA) {
+        header = SchemaRegistry.lookup(schemaId);
+        if (header == null) {
+          throw new KryoException("No header is registered under schema id " + schemaId);
+        }
+      }
+      SerializableInstance instance = (SerializableInstance) InstanceSerializer.readValues(input, input.readDouble(),
+          SerializableInstance.class);
+      instance.instanceHeader = header;
+      return instance;
+    }
+  }
+
 }
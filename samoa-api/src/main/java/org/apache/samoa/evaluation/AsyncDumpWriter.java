@@ -0,0 +1,261 @@
+package org.apache.samoa.evaluation;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Line writer for the result and prediction dumps of the evaluators. The processing thread only appends lines to an in
+ * memory buffer; a background thread writes the buffer out when it reaches {@link #DEFAULT_BUFFER_SIZE} characters or
+ * every {@link #DEFAULT_FLUSH_INTERVAL_MS} milliseconds, whichever comes first, so that no row costs a system call on
+ * the processing thread. Appending blocks only while more than {@link #MAX_PENDING_BUFFERS} buffers are waiting for a
+ * slow disk.
+ * 
+ * Files whose name ends with ".gz" are gzip compressed. A shutdown hook closes the writer if the JVM exits before
+ * {@link #close()} is called, so that an aborted run still leaves the lines appended so far in a readable file.
+ */
+final class AsyncDumpWriter implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncDumpWriter.class);
+
+  static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+  static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+  static final int MAX_PENDING_BUFFERS = 4;
+
+  private static final String GZIP_SUFFIX = ".gz";
+
+  private final File file;
+  private final Writer out;
+  private final int bufferSize;
+  private final long flushIntervalMillis;
+  private final Thread thread;
+  private final Thread shutdownHook;
+
+  private final Object lock = new Object();
+  private StringBuilder pending;
+  private StringBuilder spare;
+  // flush requests are numbered, the background thread reports the last one it completed
+  private long flushRequested;
+  private long flushCompleted;
+  private boolean closed;
+  private boolean stopped;
+  private IOException failure;
+
+  AsyncDumpWriter(File file, boolean append) throws IOException {
+    this(file, append, DEFAULT_BUFFER_SIZE, DEFAULT_FLUSH_INTERVAL_MS);
+  }
+
+  AsyncDumpWriter(File file, boolean append, int bufferSize, long flushIntervalMillis) throws IOException {
+    this.file = file;
+    this.bufferSize = bufferSize;
+    this.flushIntervalMillis = flushIntervalMillis;
+    OutputStream stream = new FileOutputStream(file, append);
+    if (file.getName().endsWith(GZIP_SUFFIX)) {
+      // appending adds a new gzip member, which readers decompress as the continuation of the previous ones
+      stream = new GZIPOutputStream(stream, 1 << 16);
+    }
+    this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+    this.pending = new StringBuilder(bufferSize + (bufferSize >> 3));
+    this.spare = new StringBuilder(bufferSize + (bufferSize >> 3));
+    this.thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "samoa-dump-" + file.getName());
+    this.thread.setDaemon(true);
+    this.thread.start();
+    this.shutdownHook = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          close();
+        } catch (IOException e) {
+          logger.error("Failed to close {} on shutdown: {}", AsyncDumpWriter.this.file.getAbsolutePath(),
+              e.toString());
+        }
+      }
+    }, "samoa-dump-shutdown-" + file.getName());
+    Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+  }
+
+  /**
+   * Appends a line, to be called by a single thread.
+   * 
+   * @throws IOException
+   *           if an earlier write failed
+   */
+  void println(String line) throws IOException {
+    synchronized (lock) {
+      if (closed) {
+        throw new IOException("Dump writer for " + file + " is closed");
+      }
+      try {
+        while (failure == null && pending.length() >= MAX_PENDING_BUFFERS * bufferSize) {
+          lock.wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the dump writer of " + file);
+      }
+      checkFailure();
+      pending.append(line).append('\n');
+      if (pending.length() >= bufferSize) {
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Writes all the lines appended so far and flushes the file, waiting for the background thread to be done.
+   * 
+   * @throws IOException
+   *           if a write failed
+   */
+  void flush() throws IOException {
+    synchronized (lock) {
+      if (stopped) {
+        checkFailure();
+        return;
+      }
+      long request = ++flushRequested;
+      lock.notifyAll();
+      try {
+        while (flushCompleted < request && !stopped) {
+          lock.wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while flushing the dump writer of " + file);
+      }
+      checkFailure();
+    }
+  }
+
+  /**
+   * Writes all the lines appended so far, stops the background thread and closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException e) {
+      // the JVM is shutting down, this may be the hook itself
+    }
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing the dump writer of " + file);
+    }
+    synchronized (lock) {
+      checkFailure();
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    if (failure != null) {
+      throw new IOException("Failed to write " + file, failure);
+    }
+  }
+
+  private void writeLoop() {
+    try {
+      while (true) {
+        StringBuilder batch;
+        long request;
+        boolean last;
+        synchronized (lock) {
+          long deadline = System.currentTimeMillis() + flushIntervalMillis;
+          long remaining = flushIntervalMillis;
+          while (!closed && flushRequested == flushCompleted && pending.length() < bufferSize && remaining > 0) {
+            lock.wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+          }
+          batch = pending;
+          pending = spare;
+          request = flushRequested;
+          last = closed;
+          // make room for a producer blocked on a full buffer
+          lock.notifyAll();
+        }
+        out.append(batch);
+        if (last) {
+          out.close();
+        } else {
+          out.flush();
+        }
+        batch.setLength(0);
+        synchronized (lock) {
+          spare = batch;
+          flushCompleted = request;
+          lock.notifyAll();
+        }
+        if (last) {
+          return;
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Failed to write {}: {}", file.getAbsolutePath(), e.toString());
+      synchronized (lock) {
+        failure = e;
+      }
+    } catch (InterruptedException e) {
+      logger.warn("Dump writer of {} interrupted, lines appended later are lost", file.getAbsolutePath());
+      synchronized (lock) {
+        failure = new InterruptedIOException("Dump writer of " + file + " interrupted");
+        try {
+          out.append(pending);
+        } catch (IOException ignored) {
+          // already failed
+        }
+      }
+    } finally {
+      // closing writes the gzip trailer, and is a no-op if the file is already closed
+      try {
+        out.close();
+      } catch (IOException e) {
+        logger.error("Failed to close {}: {}", file.getAbsolutePath(), e.toString());
+      }
+      synchronized (lock) {
+        stopped = true;
+        lock.notifyAll();
+      }
+    }
+  }
+}
@@ -21,9 +21,7 @@ package org.apache.samoa.evaluation;
  */
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Vector;
@@ -55,8 +53,8 @@ public class EvaluatorProcessor implements Processor {
   private final File dumpFile;
   private final File predictionFile;
   private final int labelSamplingFrequency;
-  private transient PrintStream immediateResultStream = null;
-  private transient PrintStream immediatePredictionStream = null;
+  private transient AsyncDumpWriter immediateResultStream = null;
+  private transient AsyncDumpWriter immediatePredictionStream = null;
   private transient boolean firstDump = true;
   private transient boolean firstVoteDump = true;
 
@@ -117,21 +115,11 @@ public class EvaluatorProcessor implements Processor {
     this.id = id;
     this.learningCurve = new LearningCurve(ORDERING_MEASUREMENT_NAME);
 
+    // the dumps are written by a background thread, see AsyncDumpWriter
     if (this.dumpFile != null) {
       try {
-        if (dumpFile.exists()) {
-          this.immediateResultStream = new PrintStream(
-              new FileOutputStream(dumpFile, true), true);
-        } else {
-          this.immediateResultStream = new PrintStream(
-              new FileOutputStream(dumpFile), true);
-        }
-
-      } catch (FileNotFoundException e) {
-        this.immediateResultStream = null;
-        logger.error("File not found exception for {}:{}", this.dumpFile.getAbsolutePath(), e.toString());
-
-      } catch (Exception e) {
+        this.immediateResultStream = new AsyncDumpWriter(dumpFile, dumpFile.exists());
+      } catch (IOException e) {
         this.immediateResultStream = null;
         logger.error("Exception when creating {}:{}", this.dumpFile.getAbsolutePath(), e.toString());
       }
@@ -139,11 +127,8 @@ public class EvaluatorProcessor implements Processor {
 
     if (this.predictionFile != null) {
       try {
-        this.immediatePredictionStream = new PrintStream(new FileOutputStream(predictionFile), true);
-      } catch (FileNotFoundException e) {
-        this.immediatePredictionStream = null;
-        logger.error("File not found exception for {}:{}", this.predictionFile.getAbsolutePath(), e.toString());
-      } catch (Exception e) {
+        this.immediatePredictionStream = new AsyncDumpWriter(predictionFile, false);
+      } catch (IOException e) {
         this.immediatePredictionStream = null;
         logger.error("Exception when creating {}:{}", this.predictionFile.getAbsolutePath(), e.toString());
       }
@@ -194,13 +179,17 @@ public class EvaluatorProcessor implements Processor {
     logger.info(learningEvaluation.toString());
 
     if (immediateResultStream != null) {
-      if (firstDump) {
-        immediateResultStream.println(learningCurve.headerToString());
-        firstDump = false;
-      }
+      try {
+        if (firstDump) {
+          immediateResultStream.println(learningCurve.headerToString());
+          firstDump = false;
+        }
 
-      immediateResultStream.println(learningCurve.entryToString(learningCurve.numEntries() - 1));
-      immediateResultStream.flush();
+        immediateResultStream.println(learningCurve.entryToString(learningCurve.numEntries() - 1));
+      } catch (IOException e) {
+        logger.error("Exception when writing {}:{}", this.dumpFile.getAbsolutePath(), e.toString());
+        immediateResultStream = null;
+      }
     }
   }
 
@@ -214,13 +203,17 @@ public class EvaluatorProcessor implements Processor {
     logger.debug("evaluator id = {}", this.id);
 
     if (immediatePredictionStream != null) {
-      if (firstVoteDump) {
-        immediatePredictionStream.println(learningCurve.voteHeaderToString());
-        firstVoteDump = false;
-      }
+      try {
+        if (firstVoteDump) {
+          immediatePredictionStream.println(learningCurve.voteHeaderToString());
+          firstVoteDump = false;
+        }
 
-      immediatePredictionStream.println(learningCurve.voteEntryToString());
-      immediatePredictionStream.flush();
+        immediatePredictionStream.println(learningCurve.voteEntryToString());
+      } catch (IOException e) {
+        logger.error("Exception when writing {}:{}", this.predictionFile.getAbsolutePath(), e.toString());
+        immediatePredictionStream = null;
+      }
     }
   }
 
@@ -236,11 +229,24 @@ public class EvaluatorProcessor implements Processor {
     logger.info("total evaluation time: {} seconds for {} instances", totalExperimentTime, totalCount);
 
     if (immediateResultStream != null) {
-      immediateResultStream.println("# COMPLETED");
-      //
-      immediateResultStream
-          .println("# Total evaluation time: " + totalExperimentTime + " seconds for " + totalCount + " instances");
-      immediateResultStream.flush();
+      try {
+        immediateResultStream.println("# COMPLETED");
+        //
+        immediateResultStream
+            .println("# Total evaluation time: " + totalExperimentTime + " seconds for " + totalCount + " instances");
+        immediateResultStream.close();
+      } catch (IOException e) {
+        logger.error("Exception when writing {}:{}", this.dumpFile.getAbsolutePath(), e.toString());
+      }
+      immediateResultStream = null;
+    }
+    if (immediatePredictionStream != null) {
+      try {
+        immediatePredictionStream.close();
+      } catch (IOException e) {
+        logger.error("Exception when writing {}:{}", this.predictionFile.getAbsolutePath(), e.toString());
+      }
+      immediatePredictionStream = null;
     }
     // logger.info("average throughput rate: {} instances/seconds",
     // (totalCount/totalExperimentTime));
@@ -31,6 +31,11 @@ import org.apache.samoa.instances.Instance;
 
 import java.io.Serializable;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * The Class InstanceContent.
  */
@@ -71,6 +76,16 @@ final public class InstanceContent implements Serializable {
     this.isTesting = isTesting;
   }
 
+  /**
+   * Creates a content referencing the given instance instead of wrapping it, so that several events can share one
+   * instance. The receivers must not modify it.
+   */
+  static InstanceContent sharing(long index, SerializableInstance instance, boolean isTraining, boolean isTesting) {
+    InstanceContent content = new InstanceContent(index, null, isTraining, isTesting);
+    content.instance = instance;
+    return content;
+  }
+
   /**
    * Gets the single instance of InstanceEvent.
    * 
@@ -200,4 +215,39 @@ final public class InstanceContent implements Serializable {
             "InstanceContent [instanceIndex=%s, classifierIndex=%s, evaluationIndex=%s, instance=%s, isTraining=%s, isTesting=%s, isLast=%s]",
             instanceIndex, classifierIndex, evaluationIndex, instance, isTraining, isTesting, isLast);
   }
+
+  /**
+   * The Kryo serializer class for InstanceContent. The indices are written as variable-length integers and the flags
+   * in a single byte.
+   */
+  public static final class InstanceContentSerializer extends Serializer<InstanceContent> {
+
+    private static final int TRAINING = 1;
+    private static final int TESTING = 2;
+    private static final int LAST = 4;
+
+    @Override
+    public void write(Kryo kryo, Output output, InstanceContent content) {
+      output.writeLong(content.instanceIndex, false);
+      output.writeInt(content.classifierIndex, false);
+      output.writeInt(content.evaluationIndex, false);
+      output.writeByte((content.isTraining ? TRAINING : 0) | (content.isTesting ? TESTING : 0)
+          | (content.isLast ? LAST : 0));
+      kryo.writeObjectOrNull(output, content.instance, SerializableInstance.class);
+    }
+
+    @Override
+    public InstanceContent read(Kryo kryo, Input input, Class<InstanceContent> type) {
+      InstanceContent content = new InstanceContent();
+      content.instanceIndex = input.readLong(false);
+      content.classifierIndex = input.readInt(false);
+      content.evaluationIndex = input.readInt(false);
+      int flags = input.readByte();
+      content.isTraining = (flags & TRAINING) != 0;
+      content.isTesting = (flags & TESTING) != 0;
+      content.isLast = (flags & LAST) != 0;
+      content.instance = kryo.readObjectOrNull(input, SerializableInstance.class);
+      return content;
+    }
+  }
 }
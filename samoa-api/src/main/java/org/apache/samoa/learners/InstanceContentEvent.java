@@ -28,6 +28,11 @@ import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.core.SerializableInstance;
 import org.apache.samoa.instances.Instance;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 import net.jcip.annotations.Immutable;
 
 /**
@@ -61,6 +66,55 @@ final public class InstanceContentEvent implements ContentEvent {
     this.instanceContent = new InstanceContent(index, instance, isTraining, isTesting);
   }
 
+  private InstanceContentEvent(InstanceContent instanceContent) {
+    this.instanceContent = instanceContent;
+  }
+
+  /**
+   * Creates an event that shares the given instance with other events instead of copying it, e.g. to send the same
+   * test instance to every member of an ensemble. The receivers must not modify the instance; those that attach their
+   * own header, like the VHT model aggregator and SimpleClassifierAdapter, do it on a shallow {@link Instance#copy()}.
+   * 
+   * @param index
+   *          the index
+   * @param instance
+   *          the shared instance
+   * @param isTraining
+   *          the is training
+   * @param isTesting
+   *          the is testing
+   * @return the event
+   */
+  public static InstanceContentEvent sharingInstance(long index, Instance instance, boolean isTraining,
+      boolean isTesting) {
+    SerializableInstance shared = instance instanceof SerializableInstance ? (SerializableInstance) instance
+        : new SerializableInstance(instance);
+    return new InstanceContentEvent(InstanceContent.sharing(index, shared, isTraining, isTesting));
+  }
+
+  /**
+   * Creates an event whose instance is a weighted view of the given one: the attribute values are shared and only the
+   * weight is overridden. As for {@link #sharingInstance}, the receivers must not modify the instance.
+   * 
+   * @param index
+   *          the index
+   * @param instance
+   *          the instance whose values are shared
+   * @param weight
+   *          the weight of the view
+   * @param isTraining
+   *          the is training
+   * @param isTesting
+   *          the is testing
+   * @return the event
+   */
+  public static InstanceContentEvent weightedInstance(long index, Instance instance, double weight,
+      boolean isTraining, boolean isTesting) {
+    SerializableInstance view = new SerializableInstance(instance);
+    view.setWeight(weight);
+    return new InstanceContentEvent(InstanceContent.sharing(index, view, isTraining, isTesting));
+  }
+
   /**
    * Gets the single instance of InstanceEvent.
    * 
@@ -203,4 +257,20 @@ final public class InstanceContentEvent implements ContentEvent {
   public InstanceContent getInstanceContent() {
     return instanceContent;
   }
+
+  /**
+   * The Kryo serializer class for InstanceContentEvent.
+   */
+  public static final class InstanceCESerializer extends Serializer<InstanceContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, InstanceContentEvent event) {
+      kryo.writeObjectOrNull(output, event.instanceContent, InstanceContent.class);
+    }
+
+    @Override
+    public InstanceContentEvent read(Kryo kryo, Input input, Class<InstanceContentEvent> type) {
+      return new InstanceContentEvent(kryo.readObjectOrNull(input, InstanceContent.class));
+    }
+  }
 }
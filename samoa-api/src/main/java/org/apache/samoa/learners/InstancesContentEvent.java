@@ -31,6 +31,11 @@ import java.util.List;
 
 import org.apache.samoa.core.ContentEvent;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * The Class InstanceEvent.
  */
@@ -124,4 +129,28 @@ final public class InstancesContentEvent implements ContentEvent {
   public List<InstanceContent> getList() {
     return this.instanceList;
   }
+
+  /**
+   * The Kryo serializer class for InstancesContentEvent: the number of contents followed by each content.
+   */
+  public static final class InstancesCESerializer extends Serializer<InstancesContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, InstancesContentEvent event) {
+      output.writeInt(event.instanceList.size(), true);
+      for (InstanceContent content : event.instanceList) {
+        kryo.writeObject(output, content);
+      }
+    }
+
+    @Override
+    public InstancesContentEvent read(Kryo kryo, Input input, Class<InstancesContentEvent> type) {
+      InstancesContentEvent event = new InstancesContentEvent();
+      int size = input.readInt(true);
+      for (int i = 0; i < size; i++) {
+        event.add(kryo.readObject(input, InstanceContent.class));
+      }
+      return event;
+    }
+  }
 }
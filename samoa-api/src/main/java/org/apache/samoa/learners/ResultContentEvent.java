@@ -20,18 +20,25 @@ package org.apache.samoa.learners;
  * #L%
  */
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
 import org.apache.samoa.core.SerializableInstance;
 import org.apache.samoa.instances.Instance;
+import org.apache.samoa.moa.core.Utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 /**
  * License
  */
 
 /**
- * The Class ResultEvent.
+ * The Class ResultEvent. Results are keyed by instance index, so that all the predictions made for one instance by the
+ * members of an ensemble reach the same replica of a combiner.
  */
-final public class ResultContentEvent implements ContentEvent {
+final public class ResultContentEvent implements KeyedContentEvent {
 
   /**
 	 * 
@@ -44,6 +51,8 @@ final public class ResultContentEvent implements ContentEvent {
 
   private int classId;
   private double[] classVotes;
+  // set instead of the class votes by compact results
+  private int predictedClass = -1;
 
   private final boolean isLast;
 
@@ -78,6 +87,25 @@ final public class ResultContentEvent implements ContentEvent {
     this.isLast = isLast;
   }
 
+  /**
+   * Instantiates a new compact result event, which only carries the predicted class instead of the class votes. It is
+   * enough for evaluators that only look at the class with the highest vote.
+   * 
+   * @param instanceIndex
+   *          the instance index
+   * @param instance
+   *          the instance
+   * @param classId
+   *          the class id
+   * @param predictedClass
+   *          the index of the predicted class
+   */
+  public ResultContentEvent(long instanceIndex, Instance instance, int classId,
+      int predictedClass, boolean isLast) {
+    this(instanceIndex, instance, classId, (double[]) null, isLast);
+    this.predictedClass = predictedClass;
+  }
+
   /**
    * Gets the single instance of ResultEvent.
    * 
@@ -125,14 +153,41 @@ final public class ResultContentEvent implements ContentEvent {
   }
 
   /**
-   * Gets the class votes.
+   * Gets the class votes. For compact results, the votes are built on demand and only the predicted class has a vote.
    * 
    * @return the class votes
    */
   public double[] getClassVotes() {
+    if (classVotes == null && predictedClass >= 0) {
+      int numClasses = instance == null ? predictedClass + 1 : Math.max(instance.numClasses(), predictedClass + 1);
+      double[] votes = new double[numClasses];
+      votes[predictedClass] = 1.0;
+      return votes;
+    }
     return classVotes;
   }
 
+  /**
+   * Gets the predicted class, i.e. the class with the highest vote.
+   * 
+   * @return the index of the predicted class, or -1 if there is no prediction
+   */
+  public int getPredictedClass() {
+    if (predictedClass >= 0 || classVotes == null) {
+      return predictedClass;
+    }
+    return Utils.maxIndex(classVotes);
+  }
+
+  /**
+   * Checks whether the result only carries the predicted class.
+   * 
+   * @return true if the result is compact
+   */
+  public boolean isCompact() {
+    return classVotes == null && predictedClass >= 0;
+  }
+
   /**
    * Sets the class votes.
    * 
@@ -195,9 +250,14 @@ final public class ResultContentEvent implements ContentEvent {
           + 1000 * this.getInstanceIndex());
   }
 
+  @Override
+  public long getRoutingKey() {
+    return this.instanceIndex;
+  }
+
   @Override
   public String getKey() {
-    return Long.toString(this.getEvaluationIndex() % 100);
+    return Long.toString(this.instanceIndex);
   }
 
   @Override
@@ -210,4 +270,48 @@ final public class ResultContentEvent implements ContentEvent {
     return isLast;
   }
 
+  /**
+   * The Kryo serializer class for ResultContentEvent. The class votes are written with their length plus one, so that
+   * zero stands for compact results without votes.
+   */
+  public static final class ResultCESerializer extends Serializer<ResultContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, ResultContentEvent event) {
+      output.writeBoolean(event.isLast);
+      output.writeLong(event.instanceIndex, false);
+      output.writeInt(event.classifierIndex, false);
+      output.writeInt(event.evaluationIndex, false);
+      output.writeInt(event.classId, false);
+      output.writeInt(event.predictedClass, false);
+      if (event.classVotes == null) {
+        output.writeInt(0, true);
+      } else {
+        output.writeInt(event.classVotes.length + 1, true);
+        for (double vote : event.classVotes) {
+          output.writeDouble(vote);
+        }
+      }
+      kryo.writeObjectOrNull(output, event.instance, SerializableInstance.class);
+    }
+
+    @Override
+    public ResultContentEvent read(Kryo kryo, Input input, Class<ResultContentEvent> type) {
+      ResultContentEvent event = new ResultContentEvent(input.readBoolean());
+      event.instanceIndex = input.readLong(false);
+      event.classifierIndex = input.readInt(false);
+      event.evaluationIndex = input.readInt(false);
+      event.classId = input.readInt(false);
+      event.predictedClass = input.readInt(false);
+      int numVotes = input.readInt(true) - 1;
+      if (numVotes >= 0) {
+        event.classVotes = new double[numVotes];
+        for (int i = 0; i < numVotes; i++) {
+          event.classVotes[i] = input.readDouble();
+        }
+      }
+      event.instance = kryo.readObjectOrNull(input, SerializableInstance.class);
+      return event;
+    }
+  }
 }
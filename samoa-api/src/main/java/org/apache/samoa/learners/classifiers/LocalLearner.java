@@ -25,13 +25,14 @@ import java.util.Map;
 
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.instances.Instances;
+import org.apache.samoa.moa.core.Prototype;
 
 /**
  * Learner interface for non-distributed learners.
  * 
  * @author abifet
  */
-public interface LocalLearner extends Serializable {
+public interface LocalLearner extends Serializable, Prototype<LocalLearner> {
 
   /**
    * Creates a new learner object.
@@ -30,6 +30,7 @@ import org.apache.samoa.instances.Instance;
 import org.apache.samoa.learners.InstanceContentEvent;
 import org.apache.samoa.learners.ResultContentEvent;
 import org.apache.samoa.moa.classifiers.core.driftdetection.ChangeDetector;
+import org.apache.samoa.moa.core.Prototypes;
 import org.apache.samoa.topology.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -203,7 +204,7 @@ final public class LocalLearnerProcessor implements Processor {
     }
 
     if (originProcessor.getChangeDetector() != null) {
-      newProcessor.setChangeDetector(originProcessor.getChangeDetector());
+      newProcessor.setChangeDetector(Prototypes.create(originProcessor.getChangeDetector()));
     }
 
     newProcessor.setOutputStream(originProcessor.getOutputStream());
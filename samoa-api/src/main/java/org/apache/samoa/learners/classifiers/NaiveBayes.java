@@ -25,6 +25,8 @@ import java.util.Map;
 
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.NonZeroVisitor;
+import org.apache.samoa.instances.SparseInstance;
 import org.apache.samoa.moa.classifiers.core.attributeclassobservers.GaussianNumericAttributeClassObserver;
 import org.apache.samoa.moa.core.GaussianEstimator;
 import org.slf4j.Logger;
@@ -119,39 +121,44 @@ public class NaiveBayes implements LocalLearner {
   @Override
   public double[] getVotesForInstance(Instance inst) {
     // Prepare the results array
-    double[] votes = new double[getNumberOfClasses()];
-    // Over all classes
+    final double[] votes = new double[getNumberOfClasses()];
+    // Get the prior for every class
     for (int classIndex = 0; classIndex < votes.length; classIndex++) {
-      // Get the prior for this class
       votes[classIndex] = Math.log(getPrior(classIndex));
-      // Iterate over the instance attributes
-      for (int index = 0; index < inst.numAttributes(); index++) {
-        int attributeID = inst.index(index);
+    }
+    // Iterate over the attributes of the instance
+    final int instClassIndex = inst.classIndex();
+    forEachValue(inst, new NonZeroVisitor() {
+      @Override
+      public void visit(int attributeID, double value) {
         // Skip class attribute
-        if (attributeID == inst.classIndex())
-          continue;
-        Double value = inst.value(attributeID);
+        if (attributeID == instClassIndex)
+          return;
         // Get the observer for the given attribute
         GaussianNumericAttributeClassObserver obs = attributeObservers.get(attributeID);
-        // Init the estimator to null by default
-        GaussianEstimator estimator = null;
-        if (obs != null && obs.getEstimator(classIndex) != null) {
-          // Get the estimator
-          estimator = obs.getEstimator(classIndex);
-        }
-        double valueNonZero;
-        // The null case should be handled by smoothing!
-        if (estimator != null) {
-          // Get the score for a NON-ZERO attribute value
-          valueNonZero = estimator.probabilityDensity(value);
+        for (int classIndex = 0; classIndex < votes.length; classIndex++) {
+          // Init the estimator to null by default
+          GaussianEstimator estimator = null;
+          if (obs != null && obs.getEstimator(classIndex) != null) {
+            // Get the estimator
+            estimator = obs.getEstimator(classIndex);
+          }
+          double valueNonZero;
+          // The null case should be handled by smoothing!
+          if (estimator != null) {
+            // Get the score for a NON-ZERO attribute value
+            valueNonZero = estimator.probabilityDensity(value);
+          }
+          // We don't have an estimator
+          else {
+            // Assign a very small probability that we do see this value
+            valueNonZero = ADDITIVE_SMOOTHING_FACTOR;
+          }
+          votes[classIndex] += Math.log(valueNonZero); // - Math.log(valueZero);
         }
-        // We don't have an estimator
-        else {
-          // Assign a very small probability that we do see this value
-          valueNonZero = ADDITIVE_SMOOTHING_FACTOR;
-        }
-        votes[classIndex] += Math.log(valueNonZero); // - Math.log(valueZero);
       }
+    });
+    for (int classIndex = 0; classIndex < votes.length; classIndex++) {
       // Check for null in the case of prequential evaluation
       if (this.classPrototypes.get(classIndex) != null) {
         // Add the prototype for the class, already in log space
@@ -213,22 +220,68 @@ public class NaiveBayes implements LocalLearner {
       classPrototype = 1.;
 
     // Iterate over the attributes of the given instance
-    for (int attributePosition = 0; attributePosition < inst
-        .numAttributes(); attributePosition++) {
-      // Get the attribute index - Dense -> 1:1, Sparse is remapped
-      int attributeID = inst.index(attributePosition);
+    AttributeLearner learner = new AttributeLearner(inst.classIndex(), classIndex, inst.weight(), classPrototype);
+    forEachValue(inst, learner);
+    // Store the class prototype
+    this.classPrototypes.put(classIndex, learner.classPrototype);
+    // Count another training instance
+    this.instancesSeen++;
+  }
+
+  @Override
+  public void setDataset(Instances dataset) {
+    // Do nothing
+  }
+
+  /**
+   * Visits every attribute of a dense instance, zeros included, and only the stored values of a sparse instance, whose
+   * zeros are accounted for by the class prototypes.
+   * 
+   * @param inst
+   *          the instance
+   * @param visitor
+   *          the visitor of the attribute values
+   */
+  private static void forEachValue(Instance inst, NonZeroVisitor visitor) {
+    if (inst instanceof SparseInstance || inst.numValues() != inst.numAttributes()) {
+      inst.forEachNonZero(visitor);
+    } else {
+      for (int index = 0; index < inst.numAttributes(); index++) {
+        visitor.visit(inst.index(index), inst.valueSparse(index));
+      }
+    }
+  }
+
+  /**
+   * Learns the attribute values of a training instance and updates the prototype of its class.
+   */
+  private final class AttributeLearner implements NonZeroVisitor {
+
+    private final int instClassIndex;
+    private final int classIndex;
+    private final double weight;
+    private double classPrototype;
+
+    AttributeLearner(int instClassIndex, int classIndex, double weight, double classPrototype) {
+      this.instClassIndex = instClassIndex;
+      this.classIndex = classIndex;
+      this.weight = weight;
+      this.classPrototype = classPrototype;
+    }
+
+    @Override
+    public void visit(int attributeID, double value) {
       // Skip class attribute
-      if (attributeID == inst.classIndex())
-        continue;
+      if (attributeID == instClassIndex)
+        return;
       // Get the attribute observer for the current attribute
-      GaussianNumericAttributeClassObserver obs = this.attributeObservers
-          .get(attributeID);
+      GaussianNumericAttributeClassObserver obs = attributeObservers.get(attributeID);
       // Lazy init of observers, if null, instantiate a new one
       if (obs == null) {
         // FIXME: At this point, we model everything as a numeric
         // attribute
         obs = new GaussianNumericAttributeClassObserver();
-        this.attributeObservers.put(attributeID, obs);
+        attributeObservers.put(attributeID, obs);
       }
 
       // Get the probability density function under the current model
@@ -241,8 +294,7 @@ public class NaiveBayes implements LocalLearner {
 
       // FIXME: Sanity check on data values, for now just learn
       // Learn attribute value for given class
-      obs.observeAttributeClass(inst.valueSparse(attributePosition),
-          (int) inst.classValue(), inst.weight());
+      obs.observeAttributeClass(value, classIndex, weight);
 
       // Update obs_estimator to fetch the pdf from the updated model
       obs_estimator = obs.getEstimator(classIndex);
@@ -251,14 +303,5 @@ public class NaiveBayes implements LocalLearner {
       // Update the class prototype
       classPrototype += probDens_zero_updated;
     }
-    // Store the class prototype
-    this.classPrototypes.put(classIndex, classPrototype);
-    // Count another training instance
-    this.instancesSeen++;
-  }
-
-  @Override
-  public void setDataset(Instances dataset) {
-    // Do nothing
   }
 }
@@ -116,6 +116,8 @@ public class SimpleClassifierAdapter implements LocalLearner, Configurable {
       this.learner.prepareForUse();
     }
     if (inst.weight() > 0) {
+      // the instance may be shared with other ensemble members, set the header on a shallow copy
+      inst = inst.copy();
       inst.setDataset(dataset);
       learner.trainOnInstance(inst);
     }
@@ -132,6 +134,7 @@ public class SimpleClassifierAdapter implements LocalLearner, Configurable {
   @Override
   public double[] getVotesForInstance(Instance inst) {
     double[] ret;
+    inst = inst.copy();
     inst.setDataset(dataset);
     if (!this.isInit) {
       ret = new double[dataset.numClasses()];
@@ -0,0 +1,261 @@
+package org.apache.samoa.learners.classifiers;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+
+import com.github.javacliparser.Configurable;
+import com.github.javacliparser.FloatOption;
+
+/**
+ * Multinomial Naive Bayes for sparse, text-like streams.
+ * 
+ * Attribute values are read as term frequencies: the score of a class is its prior times the product, over the non-zero
+ * attributes of the instance, of the smoothed frequency of the attribute in the class raised to the attribute value.
+ * Zero attributes do not contribute, so both training and prediction only visit the values stored in the instance and
+ * cost O(nnz) and O(nnz * classes) respectively, whatever the number of attributes. Negative and missing values are
+ * ignored.
+ * 
+ * The statistics are kept in primitive arrays: the class weights and the total frequency of every class, and an open
+ * addressing table from attribute index to a row of per-class frequencies. Only attributes seen with a non-zero value
+ * get a row, i.e. about (4 + 8 * classes) * 2 bytes per attribute at the maximum load factor of 0.5.
+ * 
+ * Unlike {@link NaiveBayes}, the votes are normalized class membership probabilities, so the learner can be combined by
+ * the ensembles.
+ */
+public class SparseNaiveBayes implements LocalLearner, Configurable {
+
+  private static final long serialVersionUID = -3409187420918725436L;
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private static final int FREE = -1;
+
+  public FloatOption smoothingOption = new FloatOption("smoothing", 'a',
+      "Additive (Laplace) smoothing of the attribute frequencies.", 1.0, Double.MIN_VALUE, Double.MAX_VALUE);
+
+  /**
+   * Number of class slots in every row of {@link #frequencies}.
+   */
+  private int stride;
+
+  /**
+   * Number of classes seen so far.
+   */
+  private int numClasses;
+
+  /**
+   * Number of attributes, class excluded, i.e. the size of the vocabulary used to smooth the frequencies.
+   */
+  private int numFeatures;
+
+  private double[] classWeights;
+
+  private double[] classFrequencies;
+
+  private int[] keys;
+
+  private double[] frequencies;
+
+  private int size;
+
+  /**
+   * Explicit no-arg constructor.
+   */
+  public SparseNaiveBayes() {
+    resetLearning();
+  }
+
+  @Override
+  public SparseNaiveBayes create() {
+    SparseNaiveBayes learner = new SparseNaiveBayes();
+    learner.smoothingOption.setValue(this.smoothingOption.getValue());
+    return learner;
+  }
+
+  @Override
+  public void resetLearning() {
+    this.stride = 0;
+    this.numClasses = 0;
+    this.numFeatures = 0;
+    this.classWeights = new double[0];
+    this.classFrequencies = new double[0];
+    this.keys = new int[DEFAULT_CAPACITY];
+    Arrays.fill(this.keys, FREE);
+    this.frequencies = new double[0];
+    this.size = 0;
+  }
+
+  @Override
+  public void trainOnInstance(Instance inst) {
+    double weight = inst.weight();
+    if (weight <= 0 || inst.classIsMissing()) {
+      return;
+    }
+    int classValue = (int) inst.classValue();
+    if (classValue >= stride) {
+      growClasses(Math.max(classValue + 1, inst.numClasses()));
+    }
+    numClasses = Math.max(numClasses, classValue + 1);
+    numFeatures = Math.max(numFeatures, inst.numAttributes() - 1);
+    classWeights[classValue] += weight;
+
+    int classIndex = inst.classIndex();
+    double total = 0;
+    for (int i = 0, n = inst.numValues(); i < n; i++) {
+      int index = inst.index(i);
+      double value = inst.valueSparse(i);
+      // also skips NaN
+      if (index == classIndex || !(value > 0)) {
+        continue;
+      }
+      double frequency = weight * value;
+      // the row must be resolved first as adding it may reallocate the frequencies
+      int row = row(index);
+      frequencies[row + classValue] += frequency;
+      total += frequency;
+    }
+    classFrequencies[classValue] += total;
+  }
+
+  /**
+   * Predicts the class memberships for a given instance. If the learner has not been trained, the returned array is
+   * empty.
+   * 
+   * @param inst
+   *          the instance to be classified
+   * @return the normalized class membership probabilities
+   */
+  @Override
+  public double[] getVotesForInstance(Instance inst) {
+    double[] votes = new double[numClasses];
+    if (numClasses == 0) {
+      return votes;
+    }
+    double smoothing = smoothingOption.getValue();
+    double vocabulary = smoothing * Math.max(numFeatures, size);
+
+    int classIndex = inst.classIndex();
+    double length = 0;
+    for (int i = 0, n = inst.numValues(); i < n; i++) {
+      int index = inst.index(i);
+      double value = inst.valueSparse(i);
+      if (index == classIndex || !(value > 0)) {
+        continue;
+      }
+      length += value;
+      int slot = slot(index);
+      if (keys[slot] == FREE) {
+        // same smoothed frequency in every class, only the normalization differs
+        continue;
+      }
+      int offset = slot * stride;
+      for (int c = 0; c < numClasses; c++) {
+        votes[c] += value * Math.log(frequencies[offset + c] + smoothing);
+      }
+    }
+
+    double max = Double.NEGATIVE_INFINITY;
+    for (int c = 0; c < numClasses; c++) {
+      if (classWeights[c] > 0) {
+        votes[c] += Math.log(classWeights[c]) - length * Math.log(classFrequencies[c] + vocabulary);
+        max = Math.max(max, votes[c]);
+      }
+    }
+    double sum = 0;
+    for (int c = 0; c < numClasses; c++) {
+      votes[c] = classWeights[c] > 0 ? Math.exp(votes[c] - max) : 0;
+      sum += votes[c];
+    }
+    for (int c = 0; c < numClasses; c++) {
+      votes[c] /= sum;
+    }
+    return votes;
+  }
+
+  @Override
+  public void setDataset(Instances dataset) {
+    // Do nothing
+  }
+
+  /**
+   * @return the number of attributes seen with a non-zero value
+   */
+  int numObservedAttributes() {
+    return size;
+  }
+
+  /**
+   * @return the offset in {@link #frequencies} of the row of the given attribute, which is added if missing
+   */
+  private int row(int index) {
+    int slot = slot(index);
+    if (keys[slot] == FREE) {
+      keys[slot] = index;
+      if (++size << 1 > keys.length) {
+        resize(keys.length << 1);
+        slot = slot(index);
+      }
+    }
+    return slot * stride;
+  }
+
+  private int slot(int index) {
+    int mask = keys.length - 1;
+    int hash = index * 0x9e3779b9;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (keys[slot] != FREE && keys[slot] != index) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void resize(int newCapacity) {
+    int[] oldKeys = keys;
+    double[] oldFrequencies = frequencies;
+    keys = new int[newCapacity];
+    Arrays.fill(keys, FREE);
+    frequencies = new double[newCapacity * stride];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        System.arraycopy(oldFrequencies, i * stride, frequencies, slot * stride, stride);
+      }
+    }
+  }
+
+  private void growClasses(int newStride) {
+    classWeights = Arrays.copyOf(classWeights, newStride);
+    classFrequencies = Arrays.copyOf(classFrequencies, newStride);
+    double[] newFrequencies = new double[keys.length * newStride];
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE) {
+        System.arraycopy(frequencies, i * stride, newFrequencies, i * newStride, stride);
+      }
+    }
+    frequencies = newFrequencies;
+    stride = newStride;
+  }
+}
@@ -61,6 +61,20 @@ public class AdaptiveBagging implements ClassificationLearner, Configurable {
   public IntOption ensembleSizeOption = new IntOption("ensembleSize", 's',
       "The number of models in the bag.", 10, 1, Integer.MAX_VALUE);
 
+  /** The maximum vote delay option. */
+  public IntOption maxVoteDelayOption = new IntOption("maxVoteDelay", 'w',
+      "Number of instances after which a prediction is combined without the missing votes (0 waits for all).",
+      0, 0, Integer.MAX_VALUE);
+
+  /** The combiner parallelism option. */
+  public IntOption combinerParallelismOption = new IntOption("combinerParallelism", 'p',
+      "The number of replicas of the prediction combiner.", 1, 1, Integer.MAX_VALUE);
+
+  /** The pre-aggregation option. */
+  public IntOption preAggregationGroupsOption = new IntOption("preAggregationGroups", 'g',
+      "The number of groups of members whose votes are merged before the final combiner (0 for none).",
+      0, 0, Integer.MAX_VALUE);
+
   public ClassOption driftDetectionMethodOption = new ClassOption("driftDetectionMethod", 'd',
       "Drift detection method to use.", ChangeDetector.class, ADWINChangeDetector.class.getName());
 
@@ -105,17 +119,11 @@ public class AdaptiveBagging implements ClassificationLearner, Configurable {
 
     PredictionCombinerProcessor predictionCombinerP = new PredictionCombinerProcessor();
     predictionCombinerP.setEnsembleSize(ensembleSize);
-    this.builder.addProcessor(predictionCombinerP, 1);
+    predictionCombinerP.setMaxVoteDelay(this.maxVoteDelayOption.getValue());
 
     // Streams
-    resultStream = builder.createStream(predictionCombinerP);
-    predictionCombinerP.setOutputStream(resultStream);
-
-    for (AdaptiveLearner member : ensemble) {
-      for (Stream subResultStream : member.getResultStreams()) { // a learner can have multiple output streams
-        this.builder.connectInputKeyStream(subResultStream, predictionCombinerP); // the key is the instance id to combine predictions
-      }
-    }
+    resultStream = PredictionCombinerTopology.connect(builder, predictionCombinerP, ensemble,
+        this.combinerParallelismOption.getValue(), this.preAggregationGroupsOption.getValue());
 
     ensembleStreams = new Stream[ensembleSize];
     for (int i = 0; i < ensembleSize; i++) {
@@ -60,8 +60,8 @@ public class BaggingDistributorProcessor implements Processor {
    * @return true, if successful
    */
   public boolean process(ContentEvent event) {
-    Preconditions.checkState(ensembleSize == ensembleStreams.length, String.format(
-        "Ensemble size ({}) and number of enseble streams ({}) do not match.", ensembleSize, ensembleStreams.length));
+    Preconditions.checkState(ensembleSize == ensembleStreams.length,
+        "Ensemble size (%s) and number of ensemble streams (%s) do not match.", ensembleSize, ensembleStreams.length);
     InstanceContentEvent inEvent = (InstanceContentEvent) event;
 
     if (inEvent.getInstanceIndex() < 0) {
@@ -72,15 +72,7 @@ public class BaggingDistributorProcessor implements Processor {
     }
 
     if (inEvent.isTesting()) {
-      Instance testInstance = inEvent.getInstance();
-      for (int i = 0; i < ensembleSize; i++) {
-        Instance instanceCopy = testInstance.copy();
-        InstanceContentEvent instanceContentEvent = new InstanceContentEvent(inEvent.getInstanceIndex(), instanceCopy,
-            false, true);
-        instanceContentEvent.setClassifierIndex(i); //TODO probably not needed anymore
-        instanceContentEvent.setEvaluationIndex(inEvent.getEvaluationIndex()); //TODO probably not needed anymore
-        ensembleStreams[i].put(instanceContentEvent);
-      }
+      test(inEvent);
     }
 
     // estimate model parameters using the training data
@@ -91,7 +83,22 @@ public class BaggingDistributorProcessor implements Processor {
   }
 
   /**
-   * Train.
+   * Test. The members only read the test instance, so a single event is shared by all of them.
+   * 
+   * @param inEvent
+   *          the in event
+   */
+  protected void test(InstanceContentEvent inEvent) {
+    InstanceContentEvent testEvent = InstanceContentEvent.sharingInstance(inEvent.getInstanceIndex(),
+        inEvent.getInstance(), false, true);
+    testEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
+    for (int i = 0; i < ensembleSize; i++) {
+      ensembleStreams[i].put(testEvent);
+    }
+  }
+
+  /**
+   * Train. Each member with a non-zero Poisson weight gets a weighted view of the instance, sharing its values.
    * 
    * @param inEvent
    *          the in event
@@ -101,10 +108,8 @@ public class BaggingDistributorProcessor implements Processor {
     for (int i = 0; i < ensembleSize; i++) {
       int k = MiscUtils.poisson(1.0, this.random);
       if (k > 0) {
-        Instance weightedInstance = trainInstance.copy();
-        weightedInstance.setWeight(trainInstance.weight() * k);
-        InstanceContentEvent instanceContentEvent = new InstanceContentEvent(inEvent.getInstanceIndex(),
-            weightedInstance, true, false);
+        InstanceContentEvent instanceContentEvent = InstanceContentEvent.weightedInstance(inEvent.getInstanceIndex(),
+            trainInstance, trainInstance.weight() * k, true, false);
         instanceContentEvent.setClassifierIndex(i);
         instanceContentEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
         ensembleStreams[i].put(instanceContentEvent);
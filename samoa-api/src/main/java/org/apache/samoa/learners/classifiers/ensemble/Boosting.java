@@ -56,6 +56,18 @@ public class Boosting implements ClassificationLearner, Configurable {
   public IntOption ensembleSizeOption = new IntOption("ensembleSize", 's',
       "The number of models in the bag.", 10, 1, Integer.MAX_VALUE);
 
+  /** The maximum vote delay option. */
+  public IntOption maxVoteDelayOption = new IntOption("maxVoteDelay", 'w',
+      "Number of instances after which a prediction is combined without the missing votes (0 waits for all).",
+      0, 0, Integer.MAX_VALUE);
+
+  /**
+   * The combiner parallelism option. The combiner learns the weights of the members from every instance it combines,
+   * so replicas would each learn different weights from a part of the stream: only a single combiner is accepted.
+   */
+  public IntOption combinerParallelismOption = new IntOption("combinerParallelism", 'p',
+      "The number of replicas of the prediction combiner (Boosting needs a single one).", 1, 1, 1);
+
   /** The distributor processor. */
   private BoostingDistributorProcessor distributorP;
 
@@ -86,15 +98,12 @@ public class Boosting implements ClassificationLearner, Configurable {
 
     BoostingPredictionCombinerProcessor predictionCombinerP = new BoostingPredictionCombinerProcessor();
     predictionCombinerP.setEnsembleSize(sizeEnsemble);
-    this.builder.addProcessor(predictionCombinerP, 1);
+    predictionCombinerP.setMaxVoteDelay(this.maxVoteDelayOption.getValue());
 
     // Streams
-    resultStream = this.builder.createStream(predictionCombinerP);
-    predictionCombinerP.setOutputStream(resultStream);
-
-    for (Stream subResultStream : classifier.getResultStreams()) {
-      this.builder.connectInputKeyStream(subResultStream, predictionCombinerP);
-    }
+    // the member weights are only known to the combiner, so votes cannot be pre-aggregated
+    resultStream = PredictionCombinerTopology.connect(this.builder, predictionCombinerP, new Learner[] { classifier },
+        this.combinerParallelismOption.getValue(), 0);
 
     /* The testing stream. */
     Stream testingStream = this.builder.createStream(distributorP);
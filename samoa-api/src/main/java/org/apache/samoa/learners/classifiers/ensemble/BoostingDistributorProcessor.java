@@ -1,6 +1,7 @@
 package org.apache.samoa.learners.classifiers.ensemble;
 
 import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.topology.Stream;
 
 /*
  * #%L
@@ -27,6 +28,19 @@ import org.apache.samoa.learners.InstanceContentEvent;
  */
 public class BoostingDistributorProcessor extends BaggingDistributorProcessor {
 
+  @Override
+  protected void test(InstanceContentEvent inEvent) {
+    // the members are routed by classifier index, so each gets its own event, but they all share the instance
+    Stream[] ensembleStreams = getOutputStreams();
+    for (int i = 0; i < getEnsembleSize(); i++) {
+      InstanceContentEvent testEvent = InstanceContentEvent.sharingInstance(inEvent.getInstanceIndex(),
+          inEvent.getInstance(), false, true);
+      testEvent.setClassifierIndex(i);
+      testEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
+      ensembleStreams[i].put(testEvent);
+    }
+  }
+
   @Override
   protected void train(InstanceContentEvent inEvent) {
     // Boosting is trained from the prediction combiner, not from the input
@@ -27,7 +27,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.Processor;
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.learners.InstanceContentEvent;
 import org.apache.samoa.learners.ResultContentEvent;
@@ -48,41 +48,41 @@ public class BoostingPredictionCombinerProcessor extends PredictionCombinerProce
   // Weights instance
   protected double[] swms;
 
-  /**
-   * On event.
-   * 
-   * @param event
-   *          the event
-   * @return true, if successful
-   */
   @Override
-  public boolean process(ContentEvent event) {
+  protected VoteTable.Votes addStatisticsForInstanceReceived(ResultContentEvent inEvent, int add) {
+    // Boosting
+    addPredictions(inEvent.getInstanceIndex(), inEvent, inEvent.getClassVotes());
+    return super.addStatisticsForInstanceReceived(inEvent, add);
+  }
 
-    ResultContentEvent inEvent = (ResultContentEvent) event;
-    double[] prediction = inEvent.getClassVotes();
-    int instanceIndex = (int) inEvent.getInstanceIndex();
+  @Override
+  protected boolean isComplete(VoteTable.Votes votes, ResultContentEvent inEvent) {
+    return inEvent.isLastEvent() || super.isComplete(votes, inEvent);
+  }
 
-    addStatisticsForInstanceReceived(instanceIndex, inEvent.getClassifierIndex(), prediction, 1);
+  @Override
+  protected double[] getCombinedVote(VoteTable.Votes votes, ResultContentEvent inEvent) {
+    return votes.toArray();
+  }
+
+  @Override
+  protected void emitCombinedVote(ResultContentEvent inEvent, double[] combinedVote, boolean isLastEvent) {
+    super.emitCombinedVote(inEvent, combinedVote, isLastEvent);
     // Boosting
-    addPredictions(instanceIndex, inEvent, prediction);
+    computeBoosting(inEvent, inEvent.getInstanceIndex());
+  }
 
-    if (inEvent.isLastEvent() || hasAllVotesArrivedInstance(instanceIndex)) {
-      DoubleVector combinedVote = this.mapVotesforInstanceReceived.get(instanceIndex);
-      if (combinedVote == null) {
-        combinedVote = new DoubleVector();
-      }
-      ResultContentEvent outContentEvent = new ResultContentEvent(inEvent.getInstanceIndex(),
-          inEvent.getInstance(), inEvent.getClassId(),
-          combinedVote.getArrayCopy(), inEvent.isLastEvent());
-      outContentEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
-      outputStream.put(outContentEvent);
-      clearStatisticsInstance(instanceIndex);
-      // Boosting
-      computeBoosting(inEvent, instanceIndex);
-      return true;
+  @Override
+  public Processor newProcessor(Processor sourceProcessor) {
+    BoostingPredictionCombinerProcessor newProcessor = new BoostingPredictionCombinerProcessor();
+    BoostingPredictionCombinerProcessor originProcessor = (BoostingPredictionCombinerProcessor) sourceProcessor;
+    if (originProcessor.getOutputStream() != null) {
+      newProcessor.setOutputStream(originProcessor.getOutputStream());
     }
-    return false;
-
+    newProcessor.setTrainingStream(originProcessor.getTrainingStream());
+    newProcessor.setEnsembleSize(originProcessor.getEnsembleSize());
+    newProcessor.setMaxVoteDelay(originProcessor.getMaxVoteDelay());
+    return newProcessor;
   }
 
   protected Random random;
@@ -107,14 +107,14 @@ public class BoostingPredictionCombinerProcessor extends PredictionCombinerProce
     this.swms = new double[this.ensembleSize];
   }
 
-  private boolean correctlyClassifies(int i, Instance inst, int instanceIndex) {
+  private boolean correctlyClassifies(int i, Instance inst, long instanceIndex) {
     int predictedClass = (int) mapPredictions.get(instanceIndex).getValue(i);
     return predictedClass == (int) inst.classValue();
   }
 
-  protected Map<Integer, DoubleVector> mapPredictions;
+  protected Map<Long, DoubleVector> mapPredictions;
 
-  private void addPredictions(int instanceIndex, ResultContentEvent inEvent, double[] prediction) {
+  private void addPredictions(long instanceIndex, ResultContentEvent inEvent, double[] prediction) {
     if (this.mapPredictions == null) {
       this.mapPredictions = new HashMap<>();
     }
@@ -126,7 +126,7 @@ public class BoostingPredictionCombinerProcessor extends PredictionCombinerProce
     this.mapPredictions.put(instanceIndex, predictions);
   }
 
-  private void computeBoosting(ResultContentEvent inEvent, int instanceIndex) {
+  private void computeBoosting(ResultContentEvent inEvent, long instanceIndex) {
     // Starts code for Boosting
     // Send instances to train
     double lambda_d = 1.0;
@@ -134,11 +134,9 @@ public class BoostingPredictionCombinerProcessor extends PredictionCombinerProce
       double k = lambda_d;
       Instance inst = inEvent.getInstance();
       if (k > 0.0) {
-        Instance weightedInst = inst.copy();
-        weightedInst.setWeight(inst.weight() * k);
         // this.ensemble[i].trainOnInstance(weightedInst);
-        InstanceContentEvent instanceContentEvent = new InstanceContentEvent(
-            inEvent.getInstanceIndex(), weightedInst, true, false);
+        InstanceContentEvent instanceContentEvent = InstanceContentEvent.weightedInstance(
+            inEvent.getInstanceIndex(), inst, inst.weight() * k, true, false);
         instanceContentEvent.setClassifierIndex(i);
         instanceContentEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
         trainingStream.put(instanceContentEvent);
@@ -151,6 +149,7 @@ public class BoostingPredictionCombinerProcessor extends PredictionCombinerProce
         lambda_d *= this.trainingWeightSeenByModel / (2 * this.swms[i]);
       }
     }
+    this.mapPredictions.remove(instanceIndex);
   }
 
   /**
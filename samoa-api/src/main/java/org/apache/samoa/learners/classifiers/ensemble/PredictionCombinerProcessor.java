@@ -23,17 +23,24 @@ package org.apache.samoa.learners.classifiers.ensemble;
 /**
  * License
  */
-import java.util.HashMap;
-import java.util.Map;
-
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.core.Processor;
+import org.apache.samoa.instances.Instance;
 import org.apache.samoa.learners.ResultContentEvent;
-import org.apache.samoa.moa.core.DoubleVector;
 import org.apache.samoa.topology.Stream;
 
 /**
  * Combines predictions coming from an ensemble. Equivalent to a majority-vote classifier.
+ * 
+ * The votes of the instances being combined are accumulated in a table keyed by the primitive instance index, and the
+ * combined vote of an instance is emitted as soon as all the members have voted. When a maximum vote delay is set, the
+ * highest instance index seen acts as a watermark: an instance that falls more than the delay behind it is combined
+ * with the votes received so far, and the votes arriving later for it are dropped. This bounds the memory of the
+ * combiner when some members never answer, e.g., because their events were lost.
+ * 
+ * The combiner can run with any parallelism as long as its input streams are grouped by key, since results are keyed
+ * by instance index. With pre-aggregation, each combiner merges the votes of a group of members and a final combiner
+ * adds up the partial votes of the groups as they are, see {@link #setPreAggregated(boolean)}.
  */
 public class PredictionCombinerProcessor implements Processor {
 
@@ -49,6 +56,16 @@ public class PredictionCombinerProcessor implements Processor {
    */
   protected Stream outputStream;
 
+  /**
+   * The maximum number of instances an instance may lag behind the watermark, 0 to wait for all the votes.
+   */
+  protected int maxVoteDelay;
+
+  /**
+   * Whether the inputs are partial votes of pre-aggregating combiners.
+   */
+  protected boolean preAggregated;
+
   /**
    * Sets the output stream.
    * 
@@ -87,9 +104,56 @@ public class PredictionCombinerProcessor implements Processor {
     this.ensembleSize = ensembleSize;
   }
 
-  protected Map<Integer, Integer> mapCountsforInstanceReceived;
+  /**
+   * Gets the maximum vote delay.
+   * 
+   * @return the number of instances after which an incomplete vote is emitted, 0 if votes are never expired
+   */
+  public int getMaxVoteDelay() {
+    return maxVoteDelay;
+  }
 
-  protected Map<Integer, DoubleVector> mapVotesforInstanceReceived;
+  /**
+   * Sets the maximum vote delay. Once the highest instance index received is more than maxVoteDelay ahead of an
+   * instance, the instance is combined with the votes that have arrived so far. Since no instance follows the last
+   * event of the stream, the first last event received then flushes all the pending instances.
+   * 
+   * @param maxVoteDelay
+   *          the number of instances, 0 (the default) to always wait for all the members
+   */
+  public void setMaxVoteDelay(int maxVoteDelay) {
+    this.maxVoteDelay = maxVoteDelay;
+  }
+
+  /**
+   * Checks whether the inputs are pre-aggregated.
+   * 
+   * @return true if the inputs are partial votes of pre-aggregating combiners
+   */
+  public boolean isPreAggregated() {
+    return preAggregated;
+  }
+
+  /**
+   * Sets whether the inputs are partial votes of pre-aggregating combiners. Partial votes are already normalized and
+   * weighted, so they are added up as they are, and the ensemble size is then the number of pre-aggregating combiners.
+   * 
+   * @param preAggregated
+   *          true if the inputs are pre-aggregated
+   */
+  public void setPreAggregated(boolean preAggregated) {
+    this.preAggregated = preAggregated;
+  }
+
+  private VoteTable pendingVotes;
+
+  private long watermark = Long.MIN_VALUE;
+
+  private long numExpiredInstances;
+
+  private long numLateVotes;
+
+  private boolean endOfStream;
 
   /**
    * On event.
@@ -101,23 +165,27 @@ public class PredictionCombinerProcessor implements Processor {
   public boolean process(ContentEvent event) {
 
     ResultContentEvent inEvent = (ResultContentEvent) event;
-    double[] prediction = inEvent.getClassVotes();
-    int instanceIndex = (int) inEvent.getInstanceIndex();
-
-    addStatisticsForInstanceReceived(instanceIndex, inEvent.getClassifierIndex(), prediction, 1);
-    if (hasAllVotesArrivedInstance(instanceIndex)) {
-      DoubleVector combinedVote = this.mapVotesforInstanceReceived.get(instanceIndex);
-      if (combinedVote == null) {
-        combinedVote = new DoubleVector(new double[inEvent.getInstance().numClasses()]);
-      }
-      ResultContentEvent outContentEvent = new ResultContentEvent(inEvent.getInstanceIndex(), inEvent.getInstance(),
-          inEvent.getClassId(), combinedVote.getArrayCopy(), inEvent.isLastEvent());
-      outContentEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
-      outputStream.put(outContentEvent);
-      clearStatisticsInstance(instanceIndex);
+    long instanceIndex = inEvent.getInstanceIndex();
+    if (endOfStream || isBehindWatermark(instanceIndex)) {
+      numLateVotes++;
+      return false;
+    }
+
+    VoteTable.Votes votes = addStatisticsForInstanceReceived(inEvent, 1);
+    if (votes.isEndOfStream() && (maxVoteDelay > 0 || isComplete(votes, inEvent))) {
+      // the instances still pending will not get more votes, the ones of the members that dropped them included
+      flushVotes();
       return true;
     }
-    return false;
+    boolean combined = false;
+    if (isComplete(votes, inEvent)) {
+      combine(votes, votes.isEndOfStream());
+      combined = true;
+    }
+    if (maxVoteDelay > 0) {
+      expireVotes(instanceIndex);
+    }
+    return combined;
 
   }
 
@@ -141,44 +209,138 @@ public class PredictionCombinerProcessor implements Processor {
       newProcessor.setOutputStream(originProcessor.getOutputStream());
     }
     newProcessor.setEnsembleSize(originProcessor.getEnsembleSize());
+    newProcessor.setMaxVoteDelay(originProcessor.getMaxVoteDelay());
+    newProcessor.setPreAggregated(originProcessor.isPreAggregated());
     return newProcessor;
   }
 
-  protected void addStatisticsForInstanceReceived(int instanceIndex, int classifierIndex, double[] prediction, int add) {
-    if (this.mapCountsforInstanceReceived == null) {
-      this.mapCountsforInstanceReceived = new HashMap<>();
-      this.mapVotesforInstanceReceived = new HashMap<>();
-    }
-    DoubleVector vote = new DoubleVector(prediction);
-    if (vote.sumOfValues() > 0.0) {
-      vote.normalize();
-      DoubleVector combinedVote = this.mapVotesforInstanceReceived.get(instanceIndex);
-      if (combinedVote == null) {
-        combinedVote = new DoubleVector();
-      }
-      vote.scaleValues(getEnsembleMemberWeight(classifierIndex));
-      combinedVote.addValues(vote);
+  /**
+   * Gets the number of instances emitted before all the members had voted.
+   * 
+   * @return the number of expired instances
+   */
+  public long getNumExpiredInstances() {
+    return numExpiredInstances;
+  }
+
+  /**
+   * Gets the number of votes dropped because their instance was already behind the watermark.
+   * 
+   * @return the number of late votes
+   */
+  public long getNumLateVotes() {
+    return numLateVotes;
+  }
 
-      this.mapVotesforInstanceReceived.put(instanceIndex, combinedVote);
+  /**
+   * Gets the number of instances waiting for votes.
+   * 
+   * @return the number of pending instances
+   */
+  public int getNumPendingInstances() {
+    return pendingVotes == null ? 0 : pendingVotes.size();
+  }
+
+  protected VoteTable.Votes addStatisticsForInstanceReceived(ResultContentEvent inEvent, int add) {
+    if (this.pendingVotes == null) {
+      this.pendingVotes = new VoteTable(maxVoteDelay > 0);
     }
-    Integer count = this.mapCountsforInstanceReceived.get(instanceIndex);
-    if (count == null) {
-      count = 0;
+    VoteTable.Votes votes = this.pendingVotes.getOrCreate(inEvent.getInstanceIndex());
+    if (this.preAggregated) {
+      votes.addCombined(inEvent.getClassVotes());
+    } else if (inEvent.isCompact()) {
+      // no need to build the votes of a compact result
+      int predictedClass = inEvent.getPredictedClass();
+      Instance instance = inEvent.getInstance();
+      int length = instance == null ? predictedClass + 1 : Math.max(instance.numClasses(), predictedClass + 1);
+      votes.addPredictedClass(predictedClass, length, getEnsembleMemberWeight(inEvent.getClassifierIndex()));
+    } else if (inEvent.getClassVotes() != null) {
+      votes.add(inEvent.getClassVotes(), getEnsembleMemberWeight(inEvent.getClassifierIndex()));
     }
-    this.mapCountsforInstanceReceived.put(instanceIndex, count + add);
+    votes.addCount(add);
+    votes.setLastEvent(inEvent);
+    return votes;
+  }
+
+  /**
+   * Checks whether the combined vote of an instance can be emitted after receiving the given event.
+   * 
+   * @param votes
+   *          the votes received for the instance, including the event
+   * @param inEvent
+   *          the event just received
+   * @return true if all the members have voted
+   */
+  protected boolean isComplete(VoteTable.Votes votes, ResultContentEvent inEvent) {
+    return votes.getCount() == this.ensembleSize;
   }
 
-  protected boolean hasAllVotesArrivedInstance(int instanceIndex) {
-    return (this.mapCountsforInstanceReceived.get(instanceIndex) == this.ensembleSize);
+  /**
+   * Emits the combined vote of an instance. Subclasses can override it to act on every combined instance, including
+   * the ones emitted by the watermark.
+   * 
+   * @param inEvent
+   *          the last event received for the instance
+   * @param combinedVote
+   *          the combined vote, owned by the callee
+   * @param isLastEvent
+   *          whether this is the last event of the stream
+   */
+  protected void emitCombinedVote(ResultContentEvent inEvent, double[] combinedVote, boolean isLastEvent) {
+    ResultContentEvent outContentEvent = new ResultContentEvent(inEvent.getInstanceIndex(), inEvent.getInstance(),
+        inEvent.getClassId(), combinedVote, isLastEvent);
+    outContentEvent.setEvaluationIndex(inEvent.getEvaluationIndex());
+    outputStream.put(outContentEvent);
+  }
+
+  protected double[] getCombinedVote(VoteTable.Votes votes, ResultContentEvent inEvent) {
+    return votes.hasVotes() ? votes.toArray() : new double[inEvent.getInstance().numClasses()];
   }
 
-  protected void clearStatisticsInstance(int instanceIndex) {
-    this.mapCountsforInstanceReceived.remove(instanceIndex);
-    this.mapVotesforInstanceReceived.remove(instanceIndex);
+  protected void clearStatisticsInstance(long instanceIndex) {
+    this.pendingVotes.remove(instanceIndex);
   }
 
   protected double getEnsembleMemberWeight(int i) {
     return 1.0;
   }
 
+  private void combine(VoteTable.Votes votes, boolean isLastEvent) {
+    ResultContentEvent inEvent = votes.getLastEvent();
+    emitCombinedVote(inEvent, getCombinedVote(votes, inEvent), isLastEvent);
+    clearStatisticsInstance(votes.getInstanceIndex());
+  }
+
+  private boolean isBehindWatermark(long instanceIndex) {
+    return maxVoteDelay > 0 && watermark != Long.MIN_VALUE && instanceIndex < watermark - maxVoteDelay;
+  }
+
+  private void expireVotes(long instanceIndex) {
+    if (instanceIndex <= watermark) {
+      return;
+    }
+    watermark = instanceIndex;
+    VoteTable.Votes votes;
+    while ((votes = this.pendingVotes.pollBehind(watermark - maxVoteDelay)) != null) {
+      numExpiredInstances++;
+      combine(votes, votes.isEndOfStream());
+    }
+  }
+
+  /**
+   * Combines all the pending instances in index order, the last one as the last event of the stream, and drops the
+   * votes that arrive afterwards.
+   */
+  private void flushVotes() {
+    long[] instanceIndexes = this.pendingVotes.instanceIndexes();
+    for (int i = 0; i < instanceIndexes.length; i++) {
+      VoteTable.Votes votes = this.pendingVotes.get(instanceIndexes[i]);
+      if (votes.getCount() < this.ensembleSize) {
+        numExpiredInstances++;
+      }
+      combine(votes, i == instanceIndexes.length - 1);
+    }
+    endOfStream = true;
+  }
+
 }
@@ -0,0 +1,91 @@
+package org.apache.samoa.learners.classifiers.ensemble;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.samoa.learners.Learner;
+import org.apache.samoa.topology.Stream;
+import org.apache.samoa.topology.TopologyBuilder;
+
+/**
+ * Adds the prediction combiner of an ensemble to a topology and connects the members to it. Results are grouped by
+ * instance index, so the combiner can have several replicas. With pre-aggregation, the members are split in groups, the
+ * votes of each group are merged by a combiner of their own, and the final combiner only receives one partial vote per
+ * group and instance.
+ */
+final class PredictionCombinerTopology {
+
+  private PredictionCombinerTopology() {
+  }
+
+  /**
+   * Adds the combiner and connects the result streams of the members to it, either directly or through pre-aggregating
+   * combiners. The ensemble size and maximum vote delay of the combiner must be set.
+   * 
+   * @param builder
+   *          the topology builder
+   * @param combiner
+   *          the final combiner
+   * @param members
+   *          the members of the ensemble
+   * @param parallelism
+   *          the parallelism of the combiner and of each pre-aggregating combiner
+   * @param numGroups
+   *          the number of pre-aggregating combiners, or 0 to connect the members to the final combiner
+   * @return the result stream of the combiner
+   */
+  static Stream connect(TopologyBuilder builder, PredictionCombinerProcessor combiner, Learner[] members,
+      int parallelism, int numGroups) {
+    builder.addProcessor(combiner, parallelism);
+    Stream resultStream = builder.createStream(combiner);
+    combiner.setOutputStream(resultStream);
+
+    if (numGroups <= 1 || combiner.getEnsembleSize() <= numGroups) {
+      for (Learner member : members) {
+        for (Stream subResultStream : member.getResultStreams()) { // a learner can have multiple output streams
+          builder.connectInputKeyStream(subResultStream, combiner); // the key is the instance id to combine predictions
+        }
+      }
+      return resultStream;
+    }
+
+    int ensembleSize = combiner.getEnsembleSize();
+    for (int g = 0; g < numGroups; g++) {
+      // members [first, last) are merged by the g-th pre-aggregating combiner
+      int first = g * ensembleSize / numGroups;
+      int last = (g + 1) * ensembleSize / numGroups;
+      PredictionCombinerProcessor preAggregator = new PredictionCombinerProcessor();
+      preAggregator.setEnsembleSize(last - first);
+      preAggregator.setMaxVoteDelay(combiner.getMaxVoteDelay());
+      builder.addProcessor(preAggregator, parallelism);
+      Stream partialStream = builder.createStream(preAggregator);
+      preAggregator.setOutputStream(partialStream);
+      builder.connectInputKeyStream(partialStream, combiner);
+      for (int i = first; i < last; i++) {
+        for (Stream subResultStream : members[i].getResultStreams()) {
+          builder.connectInputKeyStream(subResultStream, preAggregator);
+        }
+      }
+    }
+    combiner.setEnsembleSize(numGroups);
+    combiner.setPreAggregated(true);
+    return resultStream;
+  }
+}
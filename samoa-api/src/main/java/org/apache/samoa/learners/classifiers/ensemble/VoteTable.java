@@ -0,0 +1,328 @@
+package org.apache.samoa.learners.classifiers.ensemble;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.samoa.learners.ResultContentEvent;
+
+/**
+ * Votes of the instances still being combined by a {@link PredictionCombinerProcessor}, keyed by the primitive
+ * instance index. Instances are kept in an open addressing table of long keys, and the accumulator of a combined
+ * instance is recycled for the next one, so that adding a vote does not allocate once the table has warmed up.
+ * 
+ * When arrivals are tracked, the table also remembers the order in which the instances received their first vote, so
+ * that the instances left behind by a watermark can be found without scanning the table.
+ */
+final class VoteTable implements Serializable {
+
+  private static final long serialVersionUID = 4620913352487190376L;
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAX_POOLED = 64;
+
+  private long[] keys;
+  private Votes[] entries;
+  private int size;
+
+  private Votes[] pool;
+  private int pooled;
+
+  private final boolean trackArrivals;
+  private long[] arrivals;
+  private int firstArrival;
+  private int numArrivals;
+
+  VoteTable(boolean trackArrivals) {
+    this.keys = new long[DEFAULT_CAPACITY];
+    this.entries = new Votes[DEFAULT_CAPACITY];
+    this.pool = new Votes[MAX_POOLED];
+    this.trackArrivals = trackArrivals;
+    this.arrivals = trackArrivals ? new long[DEFAULT_CAPACITY] : null;
+  }
+
+  /**
+   * @return the votes of the given instance, or null if it has none
+   */
+  Votes get(long instanceIndex) {
+    return entries[slot(instanceIndex)];
+  }
+
+  /**
+   * @return the votes of the given instance, created empty if it has none
+   */
+  Votes getOrCreate(long instanceIndex) {
+    int slot = slot(instanceIndex);
+    Votes votes = entries[slot];
+    if (votes == null) {
+      votes = pooled > 0 ? pool[--pooled] : new Votes();
+      votes.instanceIndex = instanceIndex;
+      keys[slot] = instanceIndex;
+      entries[slot] = votes;
+      if (++size << 1 > entries.length) {
+        resize(entries.length << 1);
+      }
+      if (trackArrivals) {
+        addArrival(instanceIndex);
+      }
+    }
+    return votes;
+  }
+
+  /**
+   * Removes the votes of the given instance and recycles their accumulator.
+   * 
+   * @return true if the instance had votes
+   */
+  boolean remove(long instanceIndex) {
+    int slot = slot(instanceIndex);
+    Votes votes = entries[slot];
+    if (votes == null) {
+      return false;
+    }
+    size--;
+    // backward shift deletion keeps the probe sequences free of holes
+    int mask = entries.length - 1;
+    int next = (slot + 1) & mask;
+    while (entries[next] != null) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        entries[slot] = entries[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    entries[slot] = null;
+    if (pooled < MAX_POOLED) {
+      votes.clear();
+      pool[pooled++] = votes;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the earliest arrived instance whose index is lower than the given watermark and that is still in the
+   * table. Arrivals of instances that have been removed meanwhile are discarded on the way. Only available when
+   * arrivals are tracked.
+   * 
+   * @return the votes of the instance, or null if no instance in the table has arrived behind the watermark
+   */
+  Votes pollBehind(long watermark) {
+    while (numArrivals > 0) {
+      long instanceIndex = arrivals[firstArrival];
+      Votes votes = get(instanceIndex);
+      if (votes != null && instanceIndex >= watermark) {
+        return null;
+      }
+      firstArrival = (firstArrival + 1) & (arrivals.length - 1);
+      numArrivals--;
+      if (votes != null) {
+        return votes;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the indices of the instances in the table, in ascending order
+   */
+  long[] instanceIndexes() {
+    long[] instanceIndexes = new long[size];
+    int n = 0;
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i] != null) {
+        instanceIndexes[n++] = keys[i];
+      }
+    }
+    Arrays.sort(instanceIndexes);
+    return instanceIndexes;
+  }
+
+  /**
+   * @return the number of instances with at least one vote
+   */
+  int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "VoteTable [instances=" + size + ", capacity=" + entries.length + ", pooled=" + pooled + "]";
+  }
+
+  private void addArrival(long instanceIndex) {
+    if (numArrivals == arrivals.length) {
+      long[] grown = new long[arrivals.length << 1];
+      for (int i = 0; i < numArrivals; i++) {
+        grown[i] = arrivals[(firstArrival + i) & (arrivals.length - 1)];
+      }
+      arrivals = grown;
+      firstArrival = 0;
+    }
+    arrivals[(firstArrival + numArrivals) & (arrivals.length - 1)] = instanceIndex;
+    numArrivals++;
+  }
+
+  private int slot(long instanceIndex) {
+    int mask = entries.length - 1;
+    int slot = hash(instanceIndex) & mask;
+    while (entries[slot] != null && keys[slot] != instanceIndex) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void resize(int newCapacity) {
+    long[] oldKeys = keys;
+    Votes[] oldEntries = entries;
+    keys = new long[newCapacity];
+    entries = new Votes[newCapacity];
+    for (int i = 0; i < oldEntries.length; i++) {
+      if (oldEntries[i] != null) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        entries[slot] = oldEntries[i];
+      }
+    }
+  }
+
+  private static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  /**
+   * Reusable accumulator of the weighted, normalized votes received for one instance.
+   */
+  static final class Votes implements Serializable {
+
+    private static final long serialVersionUID = -2391562364817090754L;
+
+    private long instanceIndex;
+    private double[] votes = new double[2];
+    private int numClasses;
+    private int count;
+    private ResultContentEvent lastEvent;
+    private boolean endOfStream;
+
+    /**
+     * Normalizes the prediction of an ensemble member, scales it by the weight of the member and adds it to the
+     * combined vote. Predictions summing to zero are ignored.
+     */
+    void add(double[] prediction, double weight) {
+      double sum = 0.0;
+      for (double p : prediction) {
+        sum += p;
+      }
+      if (sum > 0.0) {
+        if (prediction.length > votes.length) {
+          votes = Arrays.copyOf(votes, Math.max(prediction.length, votes.length << 1));
+        }
+        double scale = 1.0 / sum;
+        for (int j = 0; j < prediction.length; j++) {
+          votes[j] += prediction[j] * scale * weight;
+        }
+        numClasses = Math.max(numClasses, prediction.length);
+      }
+    }
+
+    /**
+     * Adds votes that are already normalized and weighted, e.g., the partial combination of a group of members.
+     */
+    void addCombined(double[] combinedVote) {
+      if (combinedVote.length > votes.length) {
+        votes = Arrays.copyOf(votes, Math.max(combinedVote.length, votes.length << 1));
+      }
+      for (int j = 0; j < combinedVote.length; j++) {
+        votes[j] += combinedVote[j];
+      }
+      numClasses = Math.max(numClasses, combinedVote.length);
+    }
+
+    /**
+     * Adds the vote of a member that only predicted a class, i.e. a prediction of the given length with all the
+     * weight on the predicted class.
+     */
+    void addPredictedClass(int predictedClass, int length, double weight) {
+      if (length > votes.length) {
+        votes = Arrays.copyOf(votes, Math.max(length, votes.length << 1));
+      }
+      votes[predictedClass] += weight;
+      numClasses = Math.max(numClasses, length);
+    }
+
+    long getInstanceIndex() {
+      return instanceIndex;
+    }
+
+    int getCount() {
+      return count;
+    }
+
+    void addCount(int add) {
+      count += add;
+    }
+
+    /**
+     * @return the last event received for the instance, used to emit a combined vote without waiting for more
+     */
+    ResultContentEvent getLastEvent() {
+      return lastEvent;
+    }
+
+    void setLastEvent(ResultContentEvent lastEvent) {
+      this.lastEvent = lastEvent;
+      this.endOfStream |= lastEvent.isLastEvent();
+    }
+
+    /**
+     * @return true if any of the events received for the instance was the last event of its stream
+     */
+    boolean isEndOfStream() {
+      return endOfStream;
+    }
+
+    /**
+     * @return true if at least one prediction with a positive sum has been added
+     */
+    boolean hasVotes() {
+      return numClasses > 0;
+    }
+
+    /**
+     * @return a copy of the combined vote, as long as the longest prediction added
+     */
+    double[] toArray() {
+      return Arrays.copyOf(votes, numClasses);
+    }
+
+    private void clear() {
+      Arrays.fill(votes, 0, numClasses, 0.0);
+      numClasses = 0;
+      count = 0;
+      lastEvent = null;
+      endOfStream = false;
+    }
+  }
+}
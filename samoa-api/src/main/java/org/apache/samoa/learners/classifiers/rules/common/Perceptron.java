@@ -23,6 +23,7 @@ package org.apache.samoa.learners.classifiers.rules.common;
 import java.io.Serializable;
 
 import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.NonZeroVisitor;
 import org.apache.samoa.moa.classifiers.AbstractClassifier;
 import org.apache.samoa.moa.classifiers.Regressor;
 import org.apache.samoa.moa.core.DoubleVector;
@@ -230,11 +231,17 @@ public class Perceptron extends AbstractClassifier implements Regressor {
     this.perceptronInstancesSeen++;
     this.perceptronYSeen++;
 
-    for (int j = 0; j < inst.numAttributes() - 1; j++)
-    {
-      perceptronattributeStatistics.addToValue(j, inst.value(j));
-      squaredperceptronattributeStatistics.addToValue(j, inst.value(j) * inst.value(j));
-    }
+    // zeros leave the sums unchanged, only visit the non-zero values
+    final int numInputAttributes = inst.numAttributes() - 1;
+    inst.forEachNonZero(new NonZeroVisitor() {
+      @Override
+      public void visit(int j, double value) {
+        if (j < numInputAttributes) {
+          perceptronattributeStatistics.addToValue(j, value);
+          squaredperceptronattributeStatistics.addToValue(j, value * value);
+        }
+      }
+    });
     this.perceptronsumY += inst.classValue();
     this.squaredperceptronsumY += inst.classValue() * inst.classValue();
 
@@ -20,16 +20,21 @@ package org.apache.samoa.learners.classifiers.rules.distributed;
  * #L%
  */
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
 import org.apache.samoa.instances.Instance;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * Forwarded instances from Model Agrregator to Learners/Default Rule Learner.
  * 
  * @author Anh Thu Vu
  * 
  */
-public class AssignmentContentEvent implements ContentEvent {
+public class AssignmentContentEvent implements KeyedContentEvent {
 
   /**
 	 * 
@@ -48,6 +53,11 @@ public class AssignmentContentEvent implements ContentEvent {
     this.instance = instance;
   }
 
+  @Override
+  public long getRoutingKey() {
+    return this.ruleNumberID;
+  }
+
   @Override
   public String getKey() {
     return Integer.toString(this.ruleNumberID);
@@ -71,4 +81,21 @@ public class AssignmentContentEvent implements ContentEvent {
     return this.ruleNumberID;
   }
 
+  /**
+   * The Kryo serializer class for AssignmentContentEvent.
+   */
+  public static final class AssignmentCESerializer extends Serializer<AssignmentContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, AssignmentContentEvent event) {
+      output.writeInt(event.ruleNumberID, false);
+      kryo.writeClassAndObject(output, event.instance);
+    }
+
+    @Override
+    public AssignmentContentEvent read(Kryo kryo, Input input, Class<AssignmentContentEvent> type) {
+      int ruleNumberID = input.readInt(false);
+      return new AssignmentContentEvent(ruleNumberID, (Instance) kryo.readClassAndObject(input));
+    }
+  }
 }
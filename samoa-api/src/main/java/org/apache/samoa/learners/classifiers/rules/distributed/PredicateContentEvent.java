@@ -20,17 +20,22 @@ package org.apache.samoa.learners.classifiers.rules.distributed;
  * #L%
  */
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
 import org.apache.samoa.learners.classifiers.rules.common.RulePassiveRegressionNode;
 import org.apache.samoa.learners.classifiers.rules.common.RuleSplitNode;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * New features (of newly expanded rules) from Learners to Model Aggregators.
  * 
  * @author Anh Thu Vu
  * 
  */
-public class PredicateContentEvent implements ContentEvent {
+public class PredicateContentEvent implements KeyedContentEvent {
 
   /**
 	 * 
@@ -54,6 +59,11 @@ public class PredicateContentEvent implements ContentEvent {
     this.learningNode = learningNode;
   }
 
+  @Override
+  public long getRoutingKey() {
+    return this.ruleNumberID;
+  }
+
   @Override
   public String getKey() {
     return Integer.toString(this.ruleNumberID);
@@ -81,4 +91,24 @@ public class PredicateContentEvent implements ContentEvent {
     return this.learningNode;
   }
 
+  /**
+   * The Kryo serializer class for PredicateContentEvent.
+   */
+  public static final class PredicateCESerializer extends Serializer<PredicateContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, PredicateContentEvent event) {
+      output.writeInt(event.ruleNumberID, false);
+      kryo.writeObjectOrNull(output, event.ruleSplitNode, RuleSplitNode.class);
+      kryo.writeObjectOrNull(output, event.learningNode, RulePassiveRegressionNode.class);
+    }
+
+    @Override
+    public PredicateContentEvent read(Kryo kryo, Input input, Class<PredicateContentEvent> type) {
+      int ruleNumberID = input.readInt(false);
+      RuleSplitNode ruleSplitNode = kryo.readObjectOrNull(input, RuleSplitNode.class);
+      RulePassiveRegressionNode learningNode = kryo.readObjectOrNull(input, RulePassiveRegressionNode.class);
+      return new PredicateContentEvent(ruleNumberID, ruleSplitNode, learningNode);
+    }
+  }
 }
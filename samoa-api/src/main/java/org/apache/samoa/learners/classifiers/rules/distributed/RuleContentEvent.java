@@ -20,16 +20,21 @@ package org.apache.samoa.learners.classifiers.rules.distributed;
  * #L%
  */
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
 import org.apache.samoa.learners.classifiers.rules.common.ActiveRule;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * New rule from Model Aggregator/Default Rule Learner to Learners or removed rule from Learner to Model Aggregators.
  * 
  * @author Anh Thu Vu
  * 
  */
-public class RuleContentEvent implements ContentEvent {
+public class RuleContentEvent implements KeyedContentEvent {
 
   /**
 	 * 
@@ -50,6 +55,11 @@ public class RuleContentEvent implements ContentEvent {
     this.addingRule = rule;
   }
 
+  @Override
+  public long getRoutingKey() {
+    return this.ruleNumberID;
+  }
+
   @Override
   public String getKey() {
     return Integer.toString(this.ruleNumberID);
@@ -77,4 +87,23 @@ public class RuleContentEvent implements ContentEvent {
     return this.isRemoving;
   }
 
+  /**
+   * The Kryo serializer class for RuleContentEvent.
+   */
+  public static final class RuleCESerializer extends Serializer<RuleContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, RuleContentEvent event) {
+      output.writeInt(event.ruleNumberID, false);
+      output.writeBoolean(event.isRemoving);
+      kryo.writeObjectOrNull(output, event.addingRule, ActiveRule.class);
+    }
+
+    @Override
+    public RuleContentEvent read(Kryo kryo, Input input, Class<RuleContentEvent> type) {
+      int ruleNumberID = input.readInt(false);
+      boolean isRemoving = input.readBoolean();
+      return new RuleContentEvent(ruleNumberID, kryo.readObjectOrNull(input, ActiveRule.class), isRemoving);
+    }
+  }
 }
@@ -20,8 +20,8 @@ package org.apache.samoa.learners.classifiers.trees;
  * #L%
  */
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
@@ -37,25 +37,32 @@ final class ActiveLearningNode extends LearningNode {
 
   private double weightSeenAtLastSplitEvaluation;
 
-  private final Map<Integer, String> attributeContentEventKeys;
-
   private AttributeSplitSuggestion bestSuggestion;
   private AttributeSplitSuggestion secondBestSuggestion;
 
   private final long id;
   private final int parallelismHint;
+  private final int splitBufferSize;
   private int suggestionCtr;
   private int thrownAwayInstance;
 
   private boolean isSplitting;
 
+  // instances that reached the node while it was splitting, replayed once the
+  // split attempt is over
+  private List<Instance> splitBuffer;
+
   ActiveLearningNode(double[] classObservation, int parallelismHint) {
+    this(classObservation, parallelismHint, 0);
+  }
+
+  ActiveLearningNode(double[] classObservation, int parallelismHint, int splitBufferSize) {
     super(classObservation);
     this.weightSeenAtLastSplitEvaluation = this.getWeightSeen();
     this.id = VerticalHoeffdingTree.LearningNodeIdGenerator.generate();
-    this.attributeContentEventKeys = new HashMap<>();
     this.isSplitting = false;
     this.parallelismHint = parallelismHint;
+    this.splitBufferSize = splitBufferSize;
   }
 
   long getId() {
@@ -75,47 +82,37 @@ final class ActiveLearningNode extends LearningNode {
   @Override
   void learnFromInstance(Instance inst, ModelAggregatorProcessor proc) {
     // TODO: what statistics should we keep for unused instance?
-    if (isSplitting) { // currently throw all instance will splitting
-      this.thrownAwayInstance++;
+    if (isSplitting) { // keep the instance until the split is over, throw it away if the buffer is full
+      if (this.splitBuffer == null && this.splitBufferSize > 0) {
+        this.splitBuffer = new ArrayList<>();
+      }
+      if (this.splitBuffer != null && this.splitBuffer.size() < this.splitBufferSize) {
+        this.splitBuffer.add(inst);
+        proc.onInstanceBuffered();
+      } else {
+        this.thrownAwayInstance++;
+        proc.onInstanceThrownAway();
+      }
       return;
     }
     this.observedClassDistribution.addToValue((int) inst.classValue(),
         inst.weight());
-    // done: parallelize by sending attributes one by one
-    // TODO: meanwhile, we can try to use the ThreadPool to execute it
-    // separately
-    // TODO: parallelize by sending in batch, i.e. split the attributes into
-    // chunk instead of send the attribute one by one
+    // done: parallelize by sending attributes in batch, one columnar event
+    // per attribute holding the values of all the instances of the batch
+    int classValue = (int) inst.classValue();
+    double weight = inst.weight();
     for (int i = 0; i < inst.numAttributes() - 1; i++) {
       int instAttIndex = modelAttIndexToInstanceAttIndex(i, inst);
-      Integer obsIndex = i;
-      String key = attributeContentEventKeys.get(obsIndex);
-
-      if (key == null) {
-        key = this.generateKey(i);
-        attributeContentEventKeys.put(obsIndex, key);
-      }
-      AttributeContentEvent ace = new AttributeContentEvent.Builder(
-          this.id, i, key)
-          .attrValue(inst.value(instAttIndex))
-          .classValue((int) inst.classValue())
-          .weight(inst.weight())
-          .isNominal(inst.attribute(instAttIndex).isNominal())
-          .build();
       if (this.attributeBatchContentEvent == null) {
         this.attributeBatchContentEvent = new AttributeBatchContentEvent[inst.numAttributes() - 1];
       }
       if (this.attributeBatchContentEvent[i] == null) {
         this.attributeBatchContentEvent[i] = new AttributeBatchContentEvent.Builder(
-            this.id, i, key)
-            // .attrValue(inst.value(instAttIndex))
-            // .classValue((int) inst.classValue())
-            // .weight(inst.weight()]
+            this.id, i)
             .isNominal(inst.attribute(instAttIndex).isNominal())
             .build();
       }
-      this.attributeBatchContentEvent[i].add(ace);
-      // proc.sendToAttributeStream(ace);
+      this.attributeBatchContentEvent[i].add(inst.value(instAttIndex), classValue, weight);
     }
   }
 
@@ -182,6 +179,17 @@ final class ActiveLearningNode extends LearningNode {
     this.secondBestSuggestion = null;
   }
 
+  /**
+   * Returns the instances buffered while the node was splitting and empties the buffer.
+   * 
+   * @return the buffered instances, or null if there is none
+   */
+  List<Instance> drainSplitBuffer() {
+    List<Instance> buffered = this.splitBuffer;
+    this.splitBuffer = null;
+    return buffered;
+  }
+
   AttributeSplitSuggestion getDistributedBestSuggestion() {
     return this.bestSuggestion;
   }
@@ -197,12 +205,4 @@ final class ActiveLearningNode extends LearningNode {
   private static int modelAttIndexToInstanceAttIndex(int index, Instance inst) {
     return inst.classIndex() > index ? index : index + 1;
   }
-
-  private String generateKey(int obsIndex) {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + (int) (this.id ^ (this.id >>> 32));
-    result = prime * result + obsIndex;
-    return Integer.toString(result);
-  }
 }
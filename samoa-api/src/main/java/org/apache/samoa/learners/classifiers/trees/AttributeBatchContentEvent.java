@@ -20,53 +20,98 @@ package org.apache.samoa.learners.classifiers.trees;
  * #L%
  */
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 /**
- * Attribute Content Event represents the instances that split vertically based on their attribute
+ * Attribute Batch Content Event carries the values of a single attribute for a batch of instances that reached the
+ * same learning node. The values, class values and weights are kept in parallel primitive arrays, i.e. entry i of each
+ * array belongs to the i-th instance of the batch.
  * 
  * @author Arinto Murdopo
  * 
  */
-final class AttributeBatchContentEvent implements ContentEvent {
+public final class AttributeBatchContentEvent implements KeyedContentEvent {
 
   private static final long serialVersionUID = 6652815649846676832L;
 
+  static final int DEFAULT_CAPACITY = 16;
+
   private final long learningNodeId;
   private final int obsIndex;
-  private final List<ContentEvent> contentEventList;
-  private final transient String key;
   private final boolean isNominal;
 
+  private int size;
+  private double[] values;
+  private int[] classes;
+  private double[] weights;
+
   public AttributeBatchContentEvent() {
     learningNodeId = -1;
     obsIndex = -1;
-    contentEventList = new LinkedList<>();
-    key = "";
     isNominal = true;
+    values = new double[0];
+    classes = new int[0];
+    weights = new double[0];
   }
 
   private AttributeBatchContentEvent(Builder builder) {
     this.learningNodeId = builder.learningNodeId;
     this.obsIndex = builder.obsIndex;
-    this.contentEventList = new LinkedList<>();
-    if (builder.contentEvent != null) {
-      this.contentEventList.add(builder.contentEvent);
-    }
     this.isNominal = builder.isNominal;
-    this.key = builder.key;
+    this.values = new double[builder.capacity];
+    this.classes = new int[builder.capacity];
+    this.weights = new double[builder.capacity];
+  }
+
+  private AttributeBatchContentEvent(long learningNodeId, int obsIndex, boolean isNominal, int size, double[] values,
+      int[] classes, double[] weights) {
+    this.learningNodeId = learningNodeId;
+    this.obsIndex = obsIndex;
+    this.isNominal = isNominal;
+    this.size = size;
+    this.values = values;
+    this.classes = classes;
+    this.weights = weights;
   }
 
-  public void add(ContentEvent contentEvent) {
-    this.contentEventList.add(contentEvent);
+  /**
+   * Appends the attribute value of one instance to the batch.
+   * 
+   * @param value
+   *          the attribute value
+   * @param classValue
+   *          the class value of the instance
+   * @param weight
+   *          the weight of the instance
+   */
+  void add(double value, int classValue, double weight) {
+    if (this.size == this.values.length) {
+      int newCapacity = Math.max(DEFAULT_CAPACITY, this.size << 1);
+      this.values = Arrays.copyOf(this.values, newCapacity);
+      this.classes = Arrays.copyOf(this.classes, newCapacity);
+      this.weights = Arrays.copyOf(this.weights, newCapacity);
+    }
+    this.values[this.size] = value;
+    this.classes[this.size] = classValue;
+    this.weights[this.size] = weight;
+    this.size++;
+  }
+
+  @Override
+  public long getRoutingKey() {
+    return AttributeContentEvent.routingKey(this.learningNodeId, this.obsIndex);
   }
 
   @Override
   public String getKey() {
-    return this.key;
+    return Long.toString(this.getRoutingKey());
   }
 
   @Override
@@ -88,43 +133,51 @@ final class AttributeBatchContentEvent implements ContentEvent {
     return this.obsIndex;
   }
 
-  public List<ContentEvent> getContentEventList() {
-    return this.contentEventList;
-  }
-
   boolean isNominal() {
     return this.isNominal;
   }
 
+  /**
+   * @return the number of instances in the batch. Only the first size() entries of the value, class and weight arrays
+   *         are meaningful.
+   */
+  int size() {
+    return this.size;
+  }
+
+  double[] getValues() {
+    return this.values;
+  }
+
+  int[] getClasses() {
+    return this.classes;
+  }
+
+  double[] getWeights() {
+    return this.weights;
+  }
+
   static final class Builder {
 
     // required parameters
     private final long learningNodeId;
     private final int obsIndex;
-    private final String key;
 
-    private ContentEvent contentEvent;
     private boolean isNominal = false;
+    private int capacity = DEFAULT_CAPACITY;
 
-    Builder(long id, int obsIndex, String key) {
+    Builder(long id, int obsIndex) {
       this.learningNodeId = id;
       this.obsIndex = obsIndex;
-      this.key = key;
     }
 
-    private Builder(long id, int obsIndex) {
-      this.learningNodeId = id;
-      this.obsIndex = obsIndex;
-      this.key = "";
-    }
-
-    Builder contentEvent(ContentEvent contentEvent) {
-      this.contentEvent = contentEvent;
+    Builder isNominal(boolean val) {
+      this.isNominal = val;
       return this;
     }
 
-    Builder isNominal(boolean val) {
-      this.isNominal = val;
+    Builder capacity(int val) {
+      this.capacity = val;
       return this;
     }
 
@@ -133,4 +186,89 @@ final class AttributeBatchContentEvent implements ContentEvent {
     }
   }
 
+  /**
+   * The Kryo serializer class for AttributeBatchContentEvent. This class allow us to change the precision of the
+   * statistics. Only the filled part of the arrays is written.
+   * 
+   */
+  public static final class AttributeBatchCESerializer extends Serializer<AttributeBatchContentEvent> {
+
+    private static double PRECISION = 1000000.0;
+
+    @Override
+    public void write(Kryo kryo, Output output, AttributeBatchContentEvent event) {
+      output.writeLong(event.learningNodeId, true);
+      output.writeInt(event.obsIndex, true);
+      output.writeBoolean(event.isNominal);
+      output.writeInt(event.size, true);
+      for (int i = 0; i < event.size; i++) {
+        output.writeDouble(event.values[i], PRECISION, true);
+        output.writeInt(event.classes[i], true);
+        output.writeDouble(event.weights[i], PRECISION, true);
+      }
+    }
+
+    @Override
+    public AttributeBatchContentEvent read(Kryo kryo, Input input, Class<AttributeBatchContentEvent> type) {
+      long learningNodeId = input.readLong(true);
+      int obsIndex = input.readInt(true);
+      boolean isNominal = input.readBoolean();
+      int size = input.readInt(true);
+      double[] values = new double[size];
+      int[] classes = new int[size];
+      double[] weights = new double[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = input.readDouble(PRECISION, true);
+        classes[i] = input.readInt(true);
+        weights[i] = input.readDouble(PRECISION, true);
+      }
+      return new AttributeBatchContentEvent(learningNodeId, obsIndex, isNominal, size, values, classes, weights);
+    }
+  }
+
+  /**
+   * The Kryo serializer class for AttributeBatchContentEvent with full precision of the statistics. The columns are
+   * written one after the other.
+   * 
+   */
+  public static final class AttributeBatchCEFullPrecSerializer extends Serializer<AttributeBatchContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, AttributeBatchContentEvent event) {
+      output.writeLong(event.learningNodeId, true);
+      output.writeInt(event.obsIndex, true);
+      output.writeBoolean(event.isNominal);
+      output.writeInt(event.size, true);
+      for (int i = 0; i < event.size; i++) {
+        output.writeDouble(event.values[i]);
+      }
+      for (int i = 0; i < event.size; i++) {
+        output.writeInt(event.classes[i], true);
+      }
+      for (int i = 0; i < event.size; i++) {
+        output.writeDouble(event.weights[i]);
+      }
+    }
+
+    @Override
+    public AttributeBatchContentEvent read(Kryo kryo, Input input, Class<AttributeBatchContentEvent> type) {
+      long learningNodeId = input.readLong(true);
+      int obsIndex = input.readInt(true);
+      boolean isNominal = input.readBoolean();
+      int size = input.readInt(true);
+      double[] values = new double[size];
+      int[] classes = new int[size];
+      double[] weights = new double[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = input.readDouble();
+      }
+      for (int i = 0; i < size; i++) {
+        classes[i] = input.readInt(true);
+      }
+      for (int i = 0; i < size; i++) {
+        weights[i] = input.readDouble();
+      }
+      return new AttributeBatchContentEvent(learningNodeId, obsIndex, isNominal, size, values, classes, weights);
+    }
+  }
 }
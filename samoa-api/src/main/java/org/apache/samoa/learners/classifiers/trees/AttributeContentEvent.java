@@ -20,7 +20,7 @@ package org.apache.samoa.learners.classifiers.trees;
  * #L%
  */
 
-import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
@@ -33,7 +33,7 @@ import com.esotericsoftware.kryo.io.Output;
  * @author Arinto Murdopo
  * 
  */
-public final class AttributeContentEvent implements ContentEvent {
+public final class AttributeContentEvent implements KeyedContentEvent {
 
   private static final long serialVersionUID = 6652815649846676832L;
 
@@ -42,7 +42,6 @@ public final class AttributeContentEvent implements ContentEvent {
   private final double attrVal;
   private final int classVal;
   private final double weight;
-  private final transient String key;
   private final boolean isNominal;
 
   public AttributeContentEvent() {
@@ -51,7 +50,6 @@ public final class AttributeContentEvent implements ContentEvent {
     attrVal = 0.0;
     classVal = -1;
     weight = 0.0;
-    key = "";
     isNominal = true;
   }
 
@@ -62,12 +60,16 @@ public final class AttributeContentEvent implements ContentEvent {
     this.classVal = builder.classVal;
     this.weight = builder.weight;
     this.isNominal = builder.isNominal;
-    this.key = builder.key;
+  }
+
+  @Override
+  public long getRoutingKey() {
+    return routingKey(this.learningNodeId, this.obsIndex);
   }
 
   @Override
   public String getKey() {
-    return this.key;
+    return Long.toString(this.getRoutingKey());
   }
 
   @Override
@@ -105,12 +107,19 @@ public final class AttributeContentEvent implements ContentEvent {
     return this.isNominal;
   }
 
+  /**
+   * Packs a learning node id and an attribute index into the key used to route attribute events to local statistics
+   * processors. Every event of the same (node, attribute) pair ends up on the same processor.
+   */
+  static long routingKey(long learningNodeId, int obsIndex) {
+    return (learningNodeId << 32) | (obsIndex & 0xffffffffL);
+  }
+
   static final class Builder {
 
     // required parameters
     private final long learningNodeId;
     private final int obsIndex;
-    private final String key;
 
     // optional parameters
     private double attrVal = 0.0;
@@ -118,16 +127,9 @@ public final class AttributeContentEvent implements ContentEvent {
     private double weight = 0.0;
     private boolean isNominal = false;
 
-    Builder(long id, int obsIndex, String key) {
-      this.learningNodeId = id;
-      this.obsIndex = obsIndex;
-      this.key = key;
-    }
-
-    private Builder(long id, int obsIndex) {
+    Builder(long id, int obsIndex) {
       this.learningNodeId = id;
       this.obsIndex = obsIndex;
-      this.key = "";
     }
 
     Builder attrValue(double val) {
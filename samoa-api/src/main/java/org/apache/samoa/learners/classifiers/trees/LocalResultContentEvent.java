@@ -23,6 +23,11 @@ package org.apache.samoa.learners.classifiers.trees;
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * Local Result Content Event is the content event that represents local calculation of statistic in Local Statistic
  * Processor.
@@ -30,7 +35,7 @@ import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
  * @author Arinto Murdopo
  * 
  */
-final class LocalResultContentEvent implements ContentEvent {
+public final class LocalResultContentEvent implements ContentEvent {
 
   private static final long serialVersionUID = -4206620993777418571L;
 
@@ -92,4 +97,25 @@ final class LocalResultContentEvent implements ContentEvent {
   public boolean isLastEvent() {
     return false;
   }
+
+  /**
+   * The Kryo serializer class for LocalResultContentEvent.
+   */
+  public static final class LocalResultCESerializer extends Serializer<LocalResultContentEvent> {
+
+    @Override
+    public void write(Kryo kryo, Output output, LocalResultContentEvent event) {
+      output.writeLong(event.splitId, false);
+      kryo.writeObjectOrNull(output, event.bestSuggestion, AttributeSplitSuggestion.class);
+      kryo.writeObjectOrNull(output, event.secondBestSuggestion, AttributeSplitSuggestion.class);
+    }
+
+    @Override
+    public LocalResultContentEvent read(Kryo kryo, Input input, Class<LocalResultContentEvent> type) {
+      long splitId = input.readLong(false);
+      AttributeSplitSuggestion best = kryo.readObjectOrNull(input, AttributeSplitSuggestion.class);
+      AttributeSplitSuggestion secondBest = kryo.readObjectOrNull(input, AttributeSplitSuggestion.class);
+      return new LocalResultContentEvent(splitId, best, secondBest);
+    }
+  }
 }
@@ -20,11 +20,11 @@ package org.apache.samoa.learners.classifiers.trees;
  * #L%
  */
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.core.Processor;
@@ -34,13 +34,11 @@ import org.apache.samoa.moa.classifiers.core.attributeclassobservers.GaussianNum
 import org.apache.samoa.moa.classifiers.core.attributeclassobservers.NominalAttributeClassObserver;
 import org.apache.samoa.moa.classifiers.core.splitcriteria.InfoGainSplitCriterion;
 import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
+import org.apache.samoa.moa.core.Prototypes;
 import org.apache.samoa.topology.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
-
 /**
  * Local Statistic Processor contains the local statistic of a subset of the attributes.
  * 
@@ -55,9 +53,15 @@ final class LocalStatisticsProcessor implements Processor {
   private static final long serialVersionUID = -3967695130634517631L;
   private static Logger logger = LoggerFactory.getLogger(LocalStatisticsProcessor.class);
 
+  // pools evaluating the split suggestions in parallel, one per compute
+  // parallelism and shared by all the processors of the JVM, so that VHT
+  // replicas and ensemble members do not start a pool each. Their idle
+  // (daemon) workers are stopped by the pool itself.
+  private static final ConcurrentMap<Integer, ForkJoinPool> computePools = new ConcurrentHashMap<>();
+
   // Collection of AttributeObservers, for each ActiveLearningNode and
   // AttributeId
-  private Table<Long, Integer, AttributeClassObserver> localStats;
+  private LocalStatisticsTable localStats;
 
   private Stream computationResultStream;
 
@@ -65,6 +69,16 @@ final class LocalStatisticsProcessor implements Processor {
   private final boolean binarySplit;
   private final AttributeClassObserver nominalClassObserver;
   private final AttributeClassObserver numericClassObserver;
+  private final int computeParallelism;
+
+  // shared pool evaluating the split suggestions of a leaf in parallel, only
+  // used when computeParallelism > 1
+  private transient ForkJoinPool computePool;
+
+  // latency of the compute events, in nanoseconds
+  private long numComputes;
+  private long totalComputeNanos;
+  private long maxComputeNanos;
 
   // the two observer classes below are also needed to be setup from the Tree
   private LocalStatisticsProcessor(Builder builder) {
@@ -72,6 +86,7 @@ final class LocalStatisticsProcessor implements Processor {
     this.binarySplit = builder.binarySplit;
     this.nominalClassObserver = builder.nominalClassObserver;
     this.numericClassObserver = builder.numericClassObserver;
+    this.computeParallelism = builder.computeParallelism;
   }
 
   @Override
@@ -79,22 +94,23 @@ final class LocalStatisticsProcessor implements Processor {
     // process AttributeContentEvent by updating the subset of local statistics
     if (event instanceof AttributeBatchContentEvent) {
       AttributeBatchContentEvent abce = (AttributeBatchContentEvent) event;
-      List<ContentEvent> contentEventList = abce.getContentEventList();
-      for (ContentEvent contentEvent : contentEventList) {
-        AttributeContentEvent ace = (AttributeContentEvent) contentEvent;
-        Long learningNodeId = ace.getLearningNodeId();
-        Integer obsIndex = ace.getObsIndex();
-
-        AttributeClassObserver obs = localStats.get(
-            learningNodeId, obsIndex);
-
-        if (obs == null) {
-          obs = ace.isNominal() ? newNominalClassObserver()
-              : newNumericClassObserver();
-          localStats.put(ace.getLearningNodeId(), obsIndex, obs);
-        }
-        obs.observeAttributeClass(ace.getAttrVal(), ace.getClassVal(),
-            ace.getWeight());
+      long learningNodeId = abce.getLearningNodeId();
+      int obsIndex = abce.getObsIndex();
+
+      // all the values of a batch belong to the same observer
+      AttributeClassObserver obs = localStats.get(
+          learningNodeId, obsIndex);
+
+      if (obs == null) {
+        obs = abce.isNominal() ? newNominalClassObserver()
+            : newNumericClassObserver();
+        localStats.put(learningNodeId, obsIndex, obs);
+      }
+      double[] values = abce.getValues();
+      int[] classes = abce.getClasses();
+      double[] weights = abce.getWeights();
+      for (int i = 0, size = abce.size(); i < size; i++) {
+        obs.observeAttributeClass(values[i], classes[i], weights[i]);
       }
 
       /*
@@ -114,55 +130,38 @@ final class LocalStatisticsProcessor implements Processor {
       // process ComputeContentEvent by calculating the local statistic
       // and send back the calculation results via computation result stream.
       ComputeContentEvent cce = (ComputeContentEvent) event;
-      Long learningNodeId = cce.getLearningNodeId();
-      double[] preSplitDist = cce.getPreSplitDist();
-
-      Map<Integer, AttributeClassObserver> learningNodeRowMap = localStats
-          .row(learningNodeId);
-      List<AttributeSplitSuggestion> suggestions = new Vector<>();
-
-      for (Entry<Integer, AttributeClassObserver> entry : learningNodeRowMap.entrySet()) {
-        AttributeClassObserver obs = entry.getValue();
-        AttributeSplitSuggestion suggestion = obs
-            .getBestEvaluatedSplitSuggestion(splitCriterion,
-                preSplitDist, entry.getKey(), binarySplit);
-        if (suggestion != null) {
-          suggestions.add(suggestion);
-        }
-      }
-
-      AttributeSplitSuggestion[] bestSuggestions = suggestions
-          .toArray(new AttributeSplitSuggestion[suggestions.size()]);
-
-      Arrays.sort(bestSuggestions);
-
-      AttributeSplitSuggestion bestSuggestion = null;
-      AttributeSplitSuggestion secondBestSuggestion = null;
-
-      if (bestSuggestions.length >= 1) {
-        bestSuggestion = bestSuggestions[bestSuggestions.length - 1];
-
-        if (bestSuggestions.length >= 2) {
-          secondBestSuggestion = bestSuggestions[bestSuggestions.length - 2];
-        }
-      }
+      long startNanos = System.nanoTime();
+      TopSuggestions top = this.computeTopSuggestions(localStats.row(cce.getLearningNodeId()),
+          cce.getPreSplitDist());
 
       // create the local result content event
       LocalResultContentEvent lcre =
-          new LocalResultContentEvent(cce.getSplitId(), bestSuggestion, secondBestSuggestion);
+          new LocalResultContentEvent(cce.getSplitId(), top.getBest(), top.getSecondBest());
       computationResultStream.put(lcre);
-      logger.debug("Finish compute event");
+
+      long elapsedNanos = System.nanoTime() - startNanos;
+      this.numComputes++;
+      this.totalComputeNanos += elapsedNanos;
+      this.maxComputeNanos = Math.max(this.maxComputeNanos, elapsedNanos);
+      if (logger.isDebugEnabled()) {
+        logger.debug("Finish compute event in {} us (avg {} us, max {} us over {} computes), {}",
+            TimeUnit.NANOSECONDS.toMicros(elapsedNanos),
+            TimeUnit.NANOSECONDS.toMicros(this.totalComputeNanos / this.numComputes),
+            TimeUnit.NANOSECONDS.toMicros(this.maxComputeNanos), this.numComputes, localStats);
+      }
     } else if (event instanceof DeleteContentEvent) {
       DeleteContentEvent dce = (DeleteContentEvent) event;
-      Long learningNodeId = dce.getLearningNodeId();
-      localStats.rowMap().remove(learningNodeId);
+      localStats.removeRow(dce.getLearningNodeId());
     }
     return false;
   }
 
   @Override
   public void onCreate(int id) {
-    this.localStats = HashBasedTable.create();
+    this.localStats = new LocalStatisticsTable();
+    if (this.computeParallelism > 1) {
+      this.computePool = computePool(this.computeParallelism);
+    }
   }
 
   @Override
@@ -175,6 +174,36 @@ final class LocalStatisticsProcessor implements Processor {
     return newProcessor;
   }
 
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(super.toString());
+
+    sb.append(" ComputeParallelism: ").append(computeParallelism);
+    sb.append(" ComputeCount: ").append(numComputes);
+    if (numComputes > 0) {
+      sb.append(" AvgComputeMicros: ").append(TimeUnit.NANOSECONDS.toMicros(totalComputeNanos / numComputes));
+      sb.append(" MaxComputeMicros: ").append(TimeUnit.NANOSECONDS.toMicros(maxComputeNanos));
+    }
+    sb.append(' ').append(localStats);
+    return sb.toString();
+  }
+
+  private static ForkJoinPool computePool(int parallelism) {
+    ForkJoinPool pool = computePools.get(parallelism);
+    if (pool == null) {
+      // the pool starts its threads on demand, a pool losing the race is free
+      ForkJoinPool newPool = new ForkJoinPool(parallelism);
+      pool = computePools.putIfAbsent(parallelism, newPool);
+      if (pool == null) {
+        pool = newPool;
+      } else {
+        newPool.shutdown();
+      }
+    }
+    return pool;
+  }
+
   /**
    * Method to set the computation result when using this processor to build a topology.
    * 
@@ -184,12 +213,50 @@ final class LocalStatisticsProcessor implements Processor {
     this.computationResultStream = computeStream;
   }
 
+  /**
+   * Evaluates the best split suggestion of every observer of a leaf and keeps the two best ones. The evaluation is
+   * split among the compute pool when there is one.
+   */
+  private TopSuggestions computeTopSuggestions(LocalStatisticsTable.Row row, double[] preSplitDist) {
+    if (row == null) {
+      return new TopSuggestions();
+    }
+    AttributeClassObserver[] observers = new AttributeClassObserver[row.size()];
+    int[] obsIndices = new int[row.size()];
+    int numObservers = 0;
+    for (int slot = 0; slot < row.capacity(); slot++) {
+      if (row.observerAt(slot) != null) {
+        observers[numObservers] = row.observerAt(slot);
+        obsIndices[numObservers] = row.obsIndexAt(slot);
+        numObservers++;
+      }
+    }
+    EvaluationTask task = new EvaluationTask(this, observers, obsIndices, preSplitDist, 0, numObservers);
+    return this.computePool == null ? task.compute() : this.computePool.invoke(task);
+  }
+
+  long getNumComputes() {
+    return this.numComputes;
+  }
+
+  long getTotalComputeNanos() {
+    return this.totalComputeNanos;
+  }
+
+  long getMaxComputeNanos() {
+    return this.maxComputeNanos;
+  }
+
+  ForkJoinPool getComputePool() {
+    return this.computePool;
+  }
+
   private AttributeClassObserver newNominalClassObserver() {
-    return (AttributeClassObserver) this.nominalClassObserver.copy();
+    return Prototypes.create(this.nominalClassObserver);
   }
 
   private AttributeClassObserver newNumericClassObserver() {
-    return (AttributeClassObserver) this.numericClassObserver.copy();
+    return Prototypes.create(this.numericClassObserver);
   }
 
   /**
@@ -204,6 +271,7 @@ final class LocalStatisticsProcessor implements Processor {
     private boolean binarySplit = false;
     private AttributeClassObserver nominalClassObserver = new NominalAttributeClassObserver();
     private AttributeClassObserver numericClassObserver = new GaussianNumericAttributeClassObserver();
+    private int computeParallelism = 1;
 
     Builder() {
 
@@ -212,6 +280,7 @@ final class LocalStatisticsProcessor implements Processor {
     Builder(LocalStatisticsProcessor oldProcessor) {
       this.splitCriterion = oldProcessor.splitCriterion;
       this.binarySplit = oldProcessor.binarySplit;
+      this.computeParallelism = oldProcessor.computeParallelism;
     }
 
     Builder splitCriterion(SplitCriterion splitCriterion) {
@@ -234,9 +303,94 @@ final class LocalStatisticsProcessor implements Processor {
       return this;
     }
 
+    Builder computeParallelism(int computeParallelism) {
+      this.computeParallelism = computeParallelism;
+      return this;
+    }
+
     LocalStatisticsProcessor build() {
       return new LocalStatisticsProcessor(this);
     }
   }
 
+  /**
+   * The two best split suggestions seen so far, selected without sorting. Ties go to the suggestion offered last.
+   */
+  static final class TopSuggestions {
+
+    private AttributeSplitSuggestion best;
+    private AttributeSplitSuggestion secondBest;
+
+    void offer(AttributeSplitSuggestion suggestion) {
+      if (suggestion == null) {
+        return;
+      }
+      if (best == null || suggestion.compareTo(best) >= 0) {
+        secondBest = best;
+        best = suggestion;
+      } else if (secondBest == null || suggestion.compareTo(secondBest) >= 0) {
+        secondBest = suggestion;
+      }
+    }
+
+    void merge(TopSuggestions other) {
+      offer(other.secondBest);
+      offer(other.best);
+    }
+
+    AttributeSplitSuggestion getBest() {
+      return best;
+    }
+
+    AttributeSplitSuggestion getSecondBest() {
+      return secondBest;
+    }
+  }
+
+  /**
+   * Fork-join task evaluating a range of observers. Ranges larger than the threshold are split in two halves.
+   */
+  private static final class EvaluationTask extends RecursiveTask<TopSuggestions> {
+
+    private static final long serialVersionUID = -2433911254813540553L;
+
+    private static final int THRESHOLD = 4;
+
+    private final LocalStatisticsProcessor processor;
+    private final AttributeClassObserver[] observers;
+    private final int[] obsIndices;
+    private final double[] preSplitDist;
+    private final int from;
+    private final int to;
+
+    EvaluationTask(LocalStatisticsProcessor processor, AttributeClassObserver[] observers, int[] obsIndices,
+        double[] preSplitDist, int from, int to) {
+      this.processor = processor;
+      this.observers = observers;
+      this.obsIndices = obsIndices;
+      this.preSplitDist = preSplitDist;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected TopSuggestions compute() {
+      if (processor.computePool == null || to - from <= THRESHOLD) {
+        TopSuggestions top = new TopSuggestions();
+        for (int i = from; i < to; i++) {
+          top.offer(observers[i].getBestEvaluatedSplitSuggestion(processor.splitCriterion,
+              preSplitDist, obsIndices[i], processor.binarySplit));
+        }
+        return top;
+      }
+      int middle = (from + to) >>> 1;
+      EvaluationTask left = new EvaluationTask(processor, observers, obsIndices, preSplitDist, from, middle);
+      EvaluationTask right = new EvaluationTask(processor, observers, obsIndices, preSplitDist, middle, to);
+      left.fork();
+      TopSuggestions rightTop = right.compute();
+      TopSuggestions top = left.join();
+      top.merge(rightTop);
+      return top;
+    }
+  }
 }
@@ -0,0 +1,261 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Serializable;
+
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.AttributeClassObserver;
+
+/**
+ * Store of the attribute class observers of a local statistics processor, keyed by the primitive (learning node id,
+ * attribute index) pair. Learning nodes are kept in an open addressing table of long keys, and every node owns a
+ * {@link Row}, i.e. a small open addressing table of int keys holding the observers of the attributes routed to this
+ * processor.
+ * 
+ * Footprint of the index (observers excluded, 64-bit JVM with compressed oops, load factor 0.5): each attribute costs
+ * between 8 and 16 bytes in its row (int key + reference, doubled by the load factor), and each learning node costs
+ * between 12 and 24 bytes in the node table plus about 48 bytes of row and array headers. The Guava HashBasedTable used
+ * before needed a boxed Integer (16 bytes) and a hash map entry (about 40 bytes) per attribute, plus a boxed Long and a
+ * nested LinkedHashMap (more than 100 bytes) per learning node. {@link #estimateFootprint()} reports the actual numbers
+ * of a live store.
+ * 
+ */
+final class LocalStatisticsTable implements Serializable {
+
+  private static final long serialVersionUID = -6013539402155001522L;
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] keys;
+  private Row[] rows;
+  private int size;
+  private int numObservers;
+
+  LocalStatisticsTable() {
+    this.keys = new long[DEFAULT_CAPACITY];
+    this.rows = new Row[DEFAULT_CAPACITY];
+  }
+
+  /**
+   * @return the observer of the given attribute for the given learning node, or null if there is none
+   */
+  AttributeClassObserver get(long learningNodeId, int obsIndex) {
+    Row row = row(learningNodeId);
+    return row == null ? null : row.get(obsIndex);
+  }
+
+  /**
+   * Stores the observer of the given attribute for the given learning node, replacing the previous one if any.
+   */
+  void put(long learningNodeId, int obsIndex, AttributeClassObserver observer) {
+    int slot = slot(learningNodeId);
+    Row row = rows[slot];
+    if (row == null) {
+      row = new Row();
+      keys[slot] = learningNodeId;
+      rows[slot] = row;
+      if (++size << 1 > rows.length) {
+        resize(rows.length << 1);
+      }
+    }
+    if (row.put(obsIndex, observer)) {
+      numObservers++;
+    }
+  }
+
+  /**
+   * @return all the observers of the given learning node, or null if the node has none
+   */
+  Row row(long learningNodeId) {
+    return rows[slot(learningNodeId)];
+  }
+
+  /**
+   * Removes all the observers of the given learning node.
+   * 
+   * @return true if the node had observers
+   */
+  boolean removeRow(long learningNodeId) {
+    int slot = slot(learningNodeId);
+    Row row = rows[slot];
+    if (row == null) {
+      return false;
+    }
+    numObservers -= row.size;
+    size--;
+    // backward shift deletion keeps the probe sequences free of holes
+    int mask = rows.length - 1;
+    int next = (slot + 1) & mask;
+    while (rows[next] != null) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        rows[slot] = rows[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    rows[slot] = null;
+    return true;
+  }
+
+  /**
+   * @return the number of learning nodes with at least one observer
+   */
+  int numRows() {
+    return size;
+  }
+
+  /**
+   * @return the total number of observers
+   */
+  int size() {
+    return numObservers;
+  }
+
+  /**
+   * @return an estimate in bytes of the memory used by the index itself, without the observers
+   */
+  long estimateFootprint() {
+    long bytes = arrayBytes(keys.length, 8) + arrayBytes(rows.length, 4);
+    for (Row row : rows) {
+      if (row != null) {
+        bytes += Row.HEADER_BYTES + arrayBytes(row.obsIndices.length, 4) + arrayBytes(row.observers.length, 4);
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public String toString() {
+    return "LocalStatisticsTable [rows=" + size + ", observers=" + numObservers + ", index bytes="
+        + estimateFootprint() + "]";
+  }
+
+  private int slot(long learningNodeId) {
+    int mask = rows.length - 1;
+    int slot = hash(learningNodeId) & mask;
+    while (rows[slot] != null && keys[slot] != learningNodeId) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void resize(int newCapacity) {
+    long[] oldKeys = keys;
+    Row[] oldRows = rows;
+    keys = new long[newCapacity];
+    rows = new Row[newCapacity];
+    for (int i = 0; i < oldRows.length; i++) {
+      if (oldRows[i] != null) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        rows[slot] = oldRows[i];
+      }
+    }
+  }
+
+  private static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  private static long arrayBytes(int length, int elementBytes) {
+    return 16 + (long) length * elementBytes;
+  }
+
+  /**
+   * The observers of a single learning node, keyed by attribute index. Slots can be scanned with
+   * {@link #capacity()}, {@link #observerAt(int)} and {@link #obsIndexAt(int)}; empty slots hold a null observer.
+   */
+  static final class Row implements Serializable {
+
+    private static final long serialVersionUID = 3213316151297016487L;
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final long HEADER_BYTES = 24;
+
+    private int[] obsIndices;
+    private AttributeClassObserver[] observers;
+    private int size;
+
+    private Row() {
+      this.obsIndices = new int[DEFAULT_CAPACITY];
+      this.observers = new AttributeClassObserver[DEFAULT_CAPACITY];
+    }
+
+    AttributeClassObserver get(int obsIndex) {
+      return observers[slot(obsIndex)];
+    }
+
+    int size() {
+      return size;
+    }
+
+    int capacity() {
+      return observers.length;
+    }
+
+    AttributeClassObserver observerAt(int slot) {
+      return observers[slot];
+    }
+
+    int obsIndexAt(int slot) {
+      return obsIndices[slot];
+    }
+
+    private boolean put(int obsIndex, AttributeClassObserver observer) {
+      int slot = slot(obsIndex);
+      boolean added = observers[slot] == null;
+      obsIndices[slot] = obsIndex;
+      observers[slot] = observer;
+      if (added && ++size << 1 > observers.length) {
+        resize(observers.length << 1);
+      }
+      return added;
+    }
+
+    private int slot(int obsIndex) {
+      int mask = observers.length - 1;
+      int hash = obsIndex * 0x9e3779b9;
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (observers[slot] != null && obsIndices[slot] != obsIndex) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private void resize(int newCapacity) {
+      int[] oldIndices = obsIndices;
+      AttributeClassObserver[] oldObservers = observers;
+      obsIndices = new int[newCapacity];
+      observers = new AttributeClassObserver[newCapacity];
+      for (int i = 0; i < oldObservers.length; i++) {
+        if (oldObservers[i] != null) {
+          int slot = slot(oldIndices[i]);
+          obsIndices[slot] = oldIndices[i];
+          observers[slot] = oldObservers[i];
+        }
+      }
+    }
+  }
+}
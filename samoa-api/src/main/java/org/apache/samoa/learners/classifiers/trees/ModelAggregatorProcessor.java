@@ -27,13 +27,8 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.samoa.core.ContentEvent;
@@ -49,6 +44,7 @@ import org.apache.samoa.moa.classifiers.core.driftdetection.ChangeDetector;
 import org.apache.samoa.moa.classifiers.core.splitcriteria.InfoGainSplitCriterion;
 import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
 import org.apache.samoa.topology.Stream;
+import org.apache.samoa.utils.HashedWheelTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,14 +79,12 @@ final class ModelAggregatorProcessor implements Processor {
   // to support concurrent split
   private long splitId;
   private ConcurrentMap<Long, SplittingNodeInfo> splittingNodes;
-  private BlockingQueue<Long> timedOutSplittingNodes;
 
   // available streams
   private Stream resultStream;
   private Stream attributeStream;
   private Stream controlStream;
-
-  private transient ScheduledExecutorService executor;
+  private Stream timeOutStream;
 
   private final SplitCriterion splitCriterion;
   private final double splitConfidence;
@@ -98,6 +92,15 @@ final class ModelAggregatorProcessor implements Processor {
   private final int gracePeriod;
   private final int parallelismHint;
   private final long timeOut;
+  private final int splitBufferSize;
+  private final boolean compactPredictions;
+
+  // reused by the predictions that do not leave the processor
+  private transient double[] votesBuffer;
+
+  // instances that reached a splitting leaf, either buffered or thrown away
+  private long bufferedInstanceCount;
+  private long thrownAwayInstanceCount;
 
   // private constructor based on Builder pattern
   private ModelAggregatorProcessor(Builder builder) {
@@ -108,6 +111,8 @@ final class ModelAggregatorProcessor implements Processor {
     this.gracePeriod = builder.gracePeriod;
     this.parallelismHint = builder.parallelismHint;
     this.timeOut = builder.timeOut;
+    this.splitBufferSize = builder.splitBufferSize;
+    this.compactPredictions = builder.compactPredictions;
     this.changeDetector = builder.changeDetector;
 
     InstancesHeader ih = new InstancesHeader(dataset);
@@ -117,17 +122,16 @@ final class ModelAggregatorProcessor implements Processor {
   @Override
   public boolean process(ContentEvent event) {
 
-    // Poll the blocking queue shared between ModelAggregator and the time-out
-    // threads
-    Long timedOutSplitId = timedOutSplittingNodes.poll();
-    if (timedOutSplitId != null) { // time out has been reached!
-      SplittingNodeInfo splittingNode = splittingNodes.get(timedOutSplitId);
-      if (splittingNode != null) {
-        this.splittingNodes.remove(timedOutSplitId);
-        this.continueAttemptToSplit(splittingNode.activeLearningNode, splittingNode.foundNode);
-
+    // Time out has been reached, the event is sent by the time-out handler
+    // through the time-out stream, so that the split is continued on the
+    // processor's own thread
+    if (event instanceof SplitTimeOutContentEvent) {
+      SplitTimeOutContentEvent stoce = (SplitTimeOutContentEvent) event;
+      // time-out events are broadcast to all the model aggregators
+      if (stoce.getProcessorId() == this.processorId) {
+        this.onSplitTimeOut(stoce.getSplitId());
       }
-
+      return false;
     }
 
     // Receive a new instance from source
@@ -171,7 +175,7 @@ final class ModelAggregatorProcessor implements Processor {
         activeLearningNode.addDistributedSuggestions(lrce.getBestSuggestion(), lrce.getSecondBestSuggestion());
 
         if (activeLearningNode.isAllSuggestionsCollected()) {
-          splittingNodeInfo.scheduledFuture.cancel(false);
+          splittingNodeInfo.timeOut.cancel();
           this.splittingNodes.remove(lrceSplitId);
           this.continueAttemptToSplit(activeLearningNode, splittingNodeInfo.foundNode);
         }
@@ -192,11 +196,7 @@ final class ModelAggregatorProcessor implements Processor {
     this.growthAllowed = true;
 
     this.splittingNodes = new ConcurrentHashMap<>();
-    this.timedOutSplittingNodes = new LinkedBlockingQueue<>();
     this.splitId = 0;
-
-    // Executor for scheduling time-out threads
-    this.executor = Executors.newScheduledThreadPool(8);
   }
 
   @Override
@@ -207,6 +207,7 @@ final class ModelAggregatorProcessor implements Processor {
     newProcessor.setResultStream(oldProcessor.resultStream);
     newProcessor.setAttributeStream(oldProcessor.attributeStream);
     newProcessor.setControlStream(oldProcessor.controlStream);
+    newProcessor.setTimeOutStream(oldProcessor.timeOutStream);
     return newProcessor;
   }
 
@@ -219,6 +220,8 @@ final class ModelAggregatorProcessor implements Processor {
     sb.append("InactiveLeafNodeCount: ").append(inactiveLeafNodeCount);
     sb.append("DecisionNodeCount: ").append(decisionNodeCount);
     sb.append("Growth allowed: ").append(growthAllowed);
+    sb.append("BufferedInstanceCount: ").append(bufferedInstanceCount);
+    sb.append("ThrownAwayInstanceCount: ").append(thrownAwayInstanceCount);
     return sb.toString();
   }
 
@@ -234,6 +237,32 @@ final class ModelAggregatorProcessor implements Processor {
     this.controlStream = controlStream;
   }
 
+  /**
+   * Sets the stream used to deliver split time-outs back to this processor. It must be connected to the input of the
+   * processor with all grouping.
+   * 
+   * @param timeOutStream
+   */
+  void setTimeOutStream(Stream timeOutStream) {
+    this.timeOutStream = timeOutStream;
+  }
+
+  void onInstanceBuffered() {
+    this.bufferedInstanceCount++;
+  }
+
+  void onInstanceThrownAway() {
+    this.thrownAwayInstanceCount++;
+  }
+
+  long getBufferedInstanceCount() {
+    return this.bufferedInstanceCount;
+  }
+
+  long getThrownAwayInstanceCount() {
+    return this.thrownAwayInstanceCount;
+  }
+
   void sendToAttributeStream(ContentEvent event) {
     this.attributeStream.put(event);
   }
@@ -259,6 +288,24 @@ final class ModelAggregatorProcessor implements Processor {
     return rce;
   }
 
+  /**
+   * Helper method to generate a compact ResultContentEvent that carries the predicted class instead of the class
+   * votes.
+   * 
+   * @param predictedClass
+   *          The predicted class index from the decision tree model.
+   * @param inEvent
+   *          The associated instance content event
+   * @return ResultContentEvent to be sent into Evaluator PI or other destination PI.
+   */
+  private ResultContentEvent newCompactResultContentEvent(int predictedClass, InstanceContent inEvent) {
+    ResultContentEvent rce = new ResultContentEvent(inEvent.getInstanceIndex(), inEvent.getInstance(),
+        inEvent.getClassId(), predictedClass, inEvent.isLastEvent());
+    rce.setClassifierIndex(this.processorId);
+    rce.setEvaluationIndex(inEvent.getEvaluationIndex());
+    return rce;
+  }
+
   private List<InstancesContentEvent> contentEventList = new LinkedList<>();
 
   /**
@@ -286,25 +333,32 @@ final class ModelAggregatorProcessor implements Processor {
 
   private void processInstances(InstancesContentEvent instContentEvent) {
     for (InstanceContent instContent : instContentEvent.getList()) {
-      Instance inst = instContent.getInstance();
+      // the instance may be shared with other ensemble members, set the header on a shallow copy
+      Instance inst = instContent.getInstance().copy();
       boolean isTesting = instContent.isTesting();
       boolean isTraining = instContent.isTraining();
       inst.setDataset(this.dataset);
       // Check the instance whether it is used for testing or training
       // boolean testAndTrain = isTraining; //Train after testing
-      double[] prediction = null;
+      int predictedClass = -1;
       if (isTesting) {
-        prediction = getVotesForInstance(inst, false);
-        this.resultStream.put(newResultContentEvent(prediction, instContent));
+        if (this.compactPredictions) {
+          predictedClass = predictClass(inst);
+          this.resultStream.put(newCompactResultContentEvent(predictedClass, instContent));
+        } else {
+          double[] prediction = getVotesForInstance(inst, false);
+          predictedClass = maxIndex(prediction);
+          this.resultStream.put(newResultContentEvent(prediction, instContent));
+        }
       }
 
       if (isTraining) {
         trainOnInstanceImpl(inst);
         if (this.changeDetector != null) {
-          if (prediction == null) {
-            prediction = getVotesForInstance(inst);
+          if (predictedClass < 0) {
+            predictedClass = predictClass(inst);
           }
-          boolean correctlyClassifies = this.correctlyClassifies(inst, prediction);
+          boolean correctlyClassifies = predictedClass == (int) inst.classValue();
           double oldEstimation = this.changeDetector.getEstimation();
           this.changeDetector.input(correctlyClassifies ? 0 : 1);
           if (this.changeDetector.getEstimation() > oldEstimation) {
@@ -318,10 +372,6 @@ final class ModelAggregatorProcessor implements Processor {
     }
   }
 
-  private boolean correctlyClassifies(Instance inst, double[] prediction) {
-    return maxIndex(prediction) == (int) inst.classValue();
-  }
-
   private void resetLearning() {
     this.treeRoot = null;
     // Remove nodes
@@ -362,11 +412,12 @@ final class ModelAggregatorProcessor implements Processor {
    * @param inst
    * @return
    */
-  private double[] getVotesForInstance(Instance inst) {
-    return getVotesForInstance(inst, false);
-  }
-
   private double[] getVotesForInstance(Instance inst, boolean isTraining) {
+    if (!isTraining) {
+      // read-only path, the returned votes are the only allocation
+      Node leafNode = findLeafNode(inst);
+      return leafNode == null ? new double[this.dataset.numClasses()] : leafNode.getClassVotes(inst, this);
+    }
     double[] ret;
     FoundNode foundNode = null;
     if (this.treeRoot != null) {
@@ -395,6 +446,48 @@ final class ModelAggregatorProcessor implements Processor {
     return ret;
   }
 
+  /**
+   * Helper method to get the predicted class without allocating. The votes are written into a buffer owned by the
+   * processor.
+   * 
+   * @param inst
+   * @return the index of the predicted class
+   */
+  private int predictClass(Instance inst) {
+    if (this.votesBuffer == null || this.votesBuffer.length != this.dataset.numClasses()) {
+      this.votesBuffer = new double[this.dataset.numClasses()];
+    }
+    Node leafNode = findLeafNode(inst);
+    if (leafNode == null) {
+      return 0;
+    }
+    return maxIndex(leafNode.getClassVotes(inst, this.votesBuffer));
+  }
+
+  /**
+   * Helper method to route an instance down to the node that predicts it, without building a FoundNode. When the
+   * branch of the instance has no child yet, the split node itself predicts it.
+   * 
+   * @param inst
+   * @return the predicting node, or null if there is no tree yet
+   */
+  private Node findLeafNode(Instance inst) {
+    Node node = this.treeRoot;
+    while (node instanceof SplitNode) {
+      SplitNode splitNode = (SplitNode) node;
+      int childIndex = splitNode.instanceChildIndex(inst);
+      if (childIndex < 0) {
+        break;
+      }
+      Node child = splitNode.getChild(childIndex);
+      if (child == null) {
+        break;
+      }
+      node = child;
+    }
+    return node;
+  }
+
   /**
    * Helper method that represent training of an instance. Since it is decision tree, this method routes the incoming
    * instance into the correct leaf and then update the statistic on the found leaf.
@@ -444,9 +537,13 @@ final class ModelAggregatorProcessor implements Processor {
       // Increment the split ID
       this.splitId++;
 
-      // Schedule time-out thread
-      ScheduledFuture<?> timeOutHandler = this.executor.schedule(new AggregationTimeOutHandler(this.splitId,
-              this.timedOutSplittingNodes), this.timeOut, TimeUnit.SECONDS);
+      // Schedule time-out handler on the shared timer
+      if (this.timeOutStream == null) {
+        throw new IllegalStateException("The time-out stream must be set before the model aggregator splits a leaf.");
+      }
+      HashedWheelTimer.Timeout timeOutHandler = HashedWheelTimer.getShared().newTimeout(
+          new AggregationTimeOutHandler(this.splitId, this.processorId, this.timeOutStream), this.timeOut,
+          TimeUnit.SECONDS);
 
       // Keep track of the splitting node information, so that we can continue the
       // split
@@ -460,6 +557,20 @@ final class ModelAggregatorProcessor implements Processor {
     }
   }
 
+  /**
+   * Helper method to give up waiting for the local calculation results of a split and continue the attempt with the
+   * results received so far.
+   * 
+   * @param timedOutSplitId
+   *          The ID of the split whose time out has been reached
+   */
+  private void onSplitTimeOut(long timedOutSplitId) {
+    SplittingNodeInfo splittingNode = this.splittingNodes.remove(timedOutSplitId);
+    if (splittingNode != null) {
+      this.continueAttemptToSplit(splittingNode.activeLearningNode, splittingNode.foundNode);
+    }
+  }
+
   /**
    * Helper method to continue the attempt to split once all local calculation results are received.
    * 
@@ -531,6 +642,15 @@ final class ModelAggregatorProcessor implements Processor {
     // housekeeping
     activeLearningNode.endSplitting();
     activeLearningNode.setWeightSeenAtLastSplitEvaluation(activeLearningNode.getWeightSeen());
+
+    // replay the instances that arrived during the split, they reach either
+    // the new children or the same leaf
+    List<Instance> bufferedInstances = activeLearningNode.drainSplitBuffer();
+    if (bufferedInstances != null) {
+      for (Instance inst : bufferedInstances) {
+        trainOnInstanceImpl(inst);
+      }
+    }
   }
 
   /**
@@ -562,7 +682,7 @@ final class ModelAggregatorProcessor implements Processor {
   private LearningNode newLearningNode(double[] initialClassObservations, int parallelismHint) {
     // for VHT optimization, we need to dynamically instantiate the appropriate
     // ActiveLearningNode
-    return new ActiveLearningNode(initialClassObservations, parallelismHint);
+    return new ActiveLearningNode(initialClassObservations, parallelismHint, this.splitBufferSize);
   }
 
   /**
@@ -587,7 +707,8 @@ final class ModelAggregatorProcessor implements Processor {
 
   /**
    * AggregationTimeOutHandler is a class to support time-out feature while waiting for local computation results from
-   * the local statistic PIs.
+   * the local statistic PIs. It runs on the shared timer thread and sends a time-out event to the model aggregator
+   * through its time-out stream, which the engine delivers on the thread of the processor.
    * 
    * @author Arinto Murdopo
    * 
@@ -595,22 +716,20 @@ final class ModelAggregatorProcessor implements Processor {
   static class AggregationTimeOutHandler implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(AggregationTimeOutHandler.class);
-    private final Long splitId;
-    private final BlockingQueue<Long> toBeSplittedNodes;
+    private final long splitId;
+    private final int processorId;
+    private final Stream timeOutStream;
 
-    AggregationTimeOutHandler(Long splitId, BlockingQueue<Long> toBeSplittedNodes) {
+    AggregationTimeOutHandler(long splitId, int processorId, Stream timeOutStream) {
       this.splitId = splitId;
-      this.toBeSplittedNodes = toBeSplittedNodes;
+      this.processorId = processorId;
+      this.timeOutStream = timeOutStream;
     }
 
     @Override
     public void run() {
       logger.debug("Time out is reached. AggregationTimeOutHandler is started.");
-      try {
-        toBeSplittedNodes.put(splitId);
-      } catch (InterruptedException e) {
-        logger.warn("Interrupted while trying to put the ID into the queue");
-      }
+      timeOutStream.put(new SplitTimeOutContentEvent(processorId, splitId));
       logger.debug("AggregationTimeOutHandler is finished.");
     }
   }
@@ -625,12 +744,12 @@ final class ModelAggregatorProcessor implements Processor {
 
     private final ActiveLearningNode activeLearningNode;
     private final FoundNode foundNode;
-    private final transient ScheduledFuture<?> scheduledFuture;
+    private final transient HashedWheelTimer.Timeout timeOut;
 
-    SplittingNodeInfo(ActiveLearningNode activeLearningNode, FoundNode foundNode, ScheduledFuture<?> scheduledFuture) {
+    SplittingNodeInfo(ActiveLearningNode activeLearningNode, FoundNode foundNode, HashedWheelTimer.Timeout timeOut) {
       this.activeLearningNode = activeLearningNode;
       this.foundNode = foundNode;
-      this.scheduledFuture = scheduledFuture;
+      this.timeOut = timeOut;
     }
   }
 
@@ -663,6 +782,8 @@ final class ModelAggregatorProcessor implements Processor {
     private int parallelismHint = 1;
     private long timeOut = 30;
     private ChangeDetector changeDetector = null;
+    private int splitBufferSize = 0;
+    private boolean compactPredictions = false;
 
     Builder(Instances dataset) {
       this.dataset = dataset;
@@ -676,6 +797,8 @@ final class ModelAggregatorProcessor implements Processor {
       this.gracePeriod = oldProcessor.gracePeriod;
       this.parallelismHint = oldProcessor.parallelismHint;
       this.timeOut = oldProcessor.timeOut;
+      this.splitBufferSize = oldProcessor.splitBufferSize;
+      this.compactPredictions = oldProcessor.compactPredictions;
     }
 
     Builder splitCriterion(SplitCriterion splitCriterion) {
@@ -713,6 +836,16 @@ final class ModelAggregatorProcessor implements Processor {
       return this;
     }
 
+    Builder splitBufferSize(int splitBufferSize) {
+      this.splitBufferSize = splitBufferSize;
+      return this;
+    }
+
+    Builder compactPredictions(boolean compactPredictions) {
+      this.compactPredictions = compactPredictions;
+      return this;
+    }
+
     ModelAggregatorProcessor build() {
       return new ModelAggregatorProcessor(this);
     }
@@ -20,6 +20,8 @@ package org.apache.samoa.learners.classifiers.trees;
  * #L%
  */
 
+import java.util.Arrays;
+
 import org.apache.samoa.core.DoubleVector;
 import org.apache.samoa.instances.Instance;
 
@@ -59,6 +61,24 @@ abstract class Node implements java.io.Serializable {
    */
   abstract double[] getClassVotes(Instance inst, ModelAggregatorProcessor map);
 
+  /**
+   * Method to write the predicted class distribution of the instance into a buffer instead of a new array. Classes
+   * the node has not observed get a zero vote.
+   * 
+   * @param inst
+   *          To-be-predicted instance
+   * @param votes
+   *          Buffer receiving the class distribution, one entry per class
+   * @return The buffer
+   */
+  double[] getClassVotes(Instance inst, double[] votes) {
+    double[] observed = this.observedClassDistribution.getArrayRef();
+    int length = Math.min(observed.length, votes.length);
+    System.arraycopy(observed, 0, votes, 0, length);
+    Arrays.fill(votes, length, votes.length, 0.0);
+    return votes;
+  }
+
   /**
    * Method to check whether the node is a leaf node or not.
    * 
@@ -0,0 +1,68 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.apache.samoa.core.ContentEvent;
+
+/**
+ * Split Time Out Content Event is the content event that Model Aggregator Processor sends to itself when the time to
+ * wait for the local statistic results of a split is over. It is broadcast to all the model aggregators, and only the
+ * one that started the split handles it.
+ * 
+ */
+final class SplitTimeOutContentEvent implements ContentEvent {
+
+  private static final long serialVersionUID = 3586356235113617512L;
+
+  private final int processorId;
+  private final long splitId;
+
+  public SplitTimeOutContentEvent() {
+    this(-1, -1);
+  }
+
+  SplitTimeOutContentEvent(int processorId, long splitId) {
+    this.processorId = processorId;
+    this.splitId = splitId;
+  }
+
+  @Override
+  public String getKey() {
+    return null;
+  }
+
+  @Override
+  public void setKey(String key) {
+    // do nothing
+  }
+
+  @Override
+  public boolean isLastEvent() {
+    return false;
+  }
+
+  int getProcessorId() {
+    return this.processorId;
+  }
+
+  long getSplitId() {
+    return this.splitId;
+  }
+}
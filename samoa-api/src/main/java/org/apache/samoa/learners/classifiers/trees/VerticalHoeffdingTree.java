@@ -93,9 +93,24 @@ public final class VerticalHoeffdingTree implements ClassificationLearner, Adapt
       "The duration to wait all distributed computation results from local statistics PI",
       30, 1, Integer.MAX_VALUE);
 
+  public IntOption computeParallelismOption = new IntOption(
+      "computeParallelism",
+      'e',
+      "The number of threads evaluating the split suggestions of a local statistics PI, from a pool shared by the PIs of the JVM (1 evaluates them sequentially)",
+      1, 1, Integer.MAX_VALUE);
+
+  public IntOption splitBufferSizeOption = new IntOption(
+      "splitBufferSize",
+      'r',
+      "The maximum number of instances a leaf buffers while it is splitting, replayed once the split is over (0 throws them away)",
+      0, 0, Integer.MAX_VALUE);
+
   public FlagOption binarySplitsOption = new FlagOption("binarySplits", 'b',
       "Only allow binary splits.");
 
+  public FlagOption compactPredictionsOption = new FlagOption("compactPredictions", 'k',
+      "Only send the predicted class to the evaluator, instead of the class votes.");
+
   private Stream resultStream;
 
   private FilterProcessor filterProc;
@@ -117,6 +132,8 @@ public final class VerticalHoeffdingTree implements ClassificationLearner, Adapt
         .gracePeriod(gracePeriodOption.getValue())
         .parallelismHint(parallelismHintOption.getValue())
         .timeOut(timeOutOption.getValue())
+        .splitBufferSize(splitBufferSizeOption.getValue())
+        .compactPredictions(compactPredictionsOption.isSet())
         .changeDetector(this.getChangeDetector())
         .build();
 
@@ -133,11 +150,16 @@ public final class VerticalHoeffdingTree implements ClassificationLearner, Adapt
     Stream controlStream = topologyBuilder.createStream(modelAggrProc);
     modelAggrProc.setControlStream(controlStream);
 
+    Stream timeOutStream = topologyBuilder.createStream(modelAggrProc);
+    modelAggrProc.setTimeOutStream(timeOutStream);
+    topologyBuilder.connectInputAllStream(timeOutStream, modelAggrProc);
+
     LocalStatisticsProcessor locStatProc = new LocalStatisticsProcessor.Builder()
         .splitCriterion((SplitCriterion) this.splitCriterionOption.getValue())
         .binarySplit(binarySplitsOption.isSet())
         .nominalClassObserver((AttributeClassObserver) this.nominalEstimatorOption.getValue())
         .numericClassObserver((AttributeClassObserver) this.numericEstimatorOption.getValue())
+        .computeParallelism(computeParallelismOption.getValue())
         .build();
 
     topologyBuilder.addProcessor(locStatProc, parallelismHintOption.getValue());
@@ -23,6 +23,11 @@ package org.apache.samoa.moa.classifiers.core;
 import org.apache.samoa.moa.AbstractMOAObject;
 import org.apache.samoa.moa.classifiers.core.conditionaltests.InstanceConditionalTest;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * Class for computing attribute split suggestions given a split test.
  * 
@@ -66,4 +71,48 @@ public class AttributeSplitSuggestion extends AbstractMOAObject implements Compa
   public void getDescription(StringBuilder sb, int indent) {
     // do nothing
   }
+
+  /**
+   * The Kryo serializer class for AttributeSplitSuggestion. The split test is written with its class, the classes of
+   * the tests are registered with their own serializers.
+   */
+  public static final class AttributeSplitSuggestionSerializer extends Serializer<AttributeSplitSuggestion> {
+
+    @Override
+    public void write(Kryo kryo, Output output, AttributeSplitSuggestion suggestion) {
+      output.writeDouble(suggestion.merit);
+      kryo.writeClassAndObject(output, suggestion.splitTest);
+      double[][] distributions = suggestion.resultingClassDistributions;
+      if (distributions == null) {
+        output.writeInt(0, true);
+        return;
+      }
+      output.writeInt(distributions.length + 1, true);
+      for (double[] distribution : distributions) {
+        output.writeInt(distribution.length, true);
+        for (double value : distribution) {
+          output.writeDouble(value);
+        }
+      }
+    }
+
+    @Override
+    public AttributeSplitSuggestion read(Kryo kryo, Input input, Class<AttributeSplitSuggestion> type) {
+      AttributeSplitSuggestion suggestion = new AttributeSplitSuggestion();
+      suggestion.merit = input.readDouble();
+      suggestion.splitTest = (InstanceConditionalTest) kryo.readClassAndObject(input);
+      int numSplits = input.readInt(true) - 1;
+      if (numSplits >= 0) {
+        suggestion.resultingClassDistributions = new double[numSplits][];
+        for (int i = 0; i < numSplits; i++) {
+          double[] distribution = new double[input.readInt(true)];
+          for (int j = 0; j < distribution.length; j++) {
+            distribution[j] = input.readDouble();
+          }
+          suggestion.resultingClassDistributions[i] = distribution;
+        }
+      }
+      return suggestion;
+    }
+  }
 }
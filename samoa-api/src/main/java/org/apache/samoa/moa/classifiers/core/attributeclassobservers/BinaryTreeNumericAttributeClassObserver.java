@@ -27,6 +27,7 @@ import org.apache.samoa.moa.classifiers.core.conditionaltests.NumericAttributeBi
 import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
 import org.apache.samoa.moa.core.DoubleVector;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
@@ -39,7 +40,7 @@ import org.apache.samoa.moa.tasks.TaskMonitor;
  * @version $Revision: 7 $
  */
 public class BinaryTreeNumericAttributeClassObserver extends AbstractOptionHandler
-    implements NumericAttributeClassObserver {
+    implements NumericAttributeClassObserver, Prototype<AttributeClassObserver> {
 
   private static final long serialVersionUID = 1L;
 
@@ -181,4 +182,8 @@ public class BinaryTreeNumericAttributeClassObserver extends AbstractOptionHandl
     throw new UnsupportedOperationException("Not supported yet.");
   }
 
+  @Override
+  public AttributeClassObserver create() {
+    return new BinaryTreeNumericAttributeClassObserver();
+  }
 }
@@ -25,6 +25,7 @@ import java.io.Serializable;
 import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
 import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
@@ -41,7 +42,7 @@ import org.apache.samoa.moa.tasks.TaskMonitor;
  * @version $Revision: 2$
  */
 public class BinaryTreeNumericAttributeClassObserverRegression extends AbstractOptionHandler
-    implements NumericAttributeClassObserver {
+    implements NumericAttributeClassObserver, Prototype<AttributeClassObserver> {
 
   public static final long serialVersionUID = 1L;
 
@@ -146,4 +147,9 @@ public class BinaryTreeNumericAttributeClassObserverRegression extends AbstractO
   @Override
   protected void prepareForUseImpl(TaskMonitor monitor, ObjectRepository repository) {
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    return new BinaryTreeNumericAttributeClassObserverRegression();
+  }
 }
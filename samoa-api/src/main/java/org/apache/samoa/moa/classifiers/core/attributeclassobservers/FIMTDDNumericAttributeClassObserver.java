@@ -247,4 +247,9 @@ public class FIMTDDNumericAttributeClassObserver extends BinaryTreeNumericAttrib
   protected void prepareForUseImpl(TaskMonitor monitor, ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    return new FIMTDDNumericAttributeClassObserver();
+  }
 }
@@ -30,6 +30,7 @@ import org.apache.samoa.moa.core.AutoExpandVector;
 import org.apache.samoa.moa.core.DoubleVector;
 import org.apache.samoa.moa.core.GaussianEstimator;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.core.Utils;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
@@ -45,7 +46,7 @@ import com.github.javacliparser.IntOption;
  * @version $Revision: 7 $
  */
 public class GaussianNumericAttributeClassObserver extends AbstractOptionHandler
-    implements NumericAttributeClassObserver {
+    implements NumericAttributeClassObserver, Prototype<AttributeClassObserver> {
 
   private static final long serialVersionUID = 1L;
 
@@ -179,4 +180,11 @@ public class GaussianNumericAttributeClassObserver extends AbstractOptionHandler
   public void observeAttributeTarget(double attVal, double target) {
     throw new UnsupportedOperationException("Not supported yet.");
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    GaussianNumericAttributeClassObserver observer = new GaussianNumericAttributeClassObserver();
+    observer.numBinsOption.setValue(this.numBinsOption.getValue());
+    return observer;
+  }
 }
@@ -27,6 +27,7 @@ import org.apache.samoa.moa.core.AutoExpandVector;
 import org.apache.samoa.moa.core.DoubleVector;
 import org.apache.samoa.moa.core.GreenwaldKhannaQuantileSummary;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.core.Utils;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
@@ -42,7 +43,7 @@ import com.github.javacliparser.IntOption;
  * @version $Revision: 7 $
  */
 public class GreenwaldKhannaNumericAttributeClassObserver extends AbstractOptionHandler implements
-    NumericAttributeClassObserver {
+    NumericAttributeClassObserver, Prototype<AttributeClassObserver> {
 
   private static final long serialVersionUID = 1L;
 
@@ -124,4 +125,11 @@ public class GreenwaldKhannaNumericAttributeClassObserver extends AbstractOption
   public void observeAttributeTarget(double attVal, double target) {
     throw new UnsupportedOperationException("Not supported yet.");
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    GreenwaldKhannaNumericAttributeClassObserver observer = new GreenwaldKhannaNumericAttributeClassObserver();
+    observer.numTuplesOption.setValue(this.numTuplesOption.getValue());
+    return observer;
+  }
 }
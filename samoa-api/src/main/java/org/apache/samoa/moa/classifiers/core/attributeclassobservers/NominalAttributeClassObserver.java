@@ -27,6 +27,7 @@ import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
 import org.apache.samoa.moa.core.AutoExpandVector;
 import org.apache.samoa.moa.core.DoubleVector;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.core.Utils;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
@@ -38,7 +39,8 @@ import org.apache.samoa.moa.tasks.TaskMonitor;
  * @author Richard Kirkby (rkirkby@cs.waikato.ac.nz)
  * @version $Revision: 7 $
  */
-public class NominalAttributeClassObserver extends AbstractOptionHandler implements DiscreteAttributeClassObserver {
+public class NominalAttributeClassObserver extends AbstractOptionHandler implements
+    DiscreteAttributeClassObserver, Prototype<AttributeClassObserver> {
 
   private static final long serialVersionUID = 1L;
 
@@ -173,4 +175,8 @@ public class NominalAttributeClassObserver extends AbstractOptionHandler impleme
     throw new UnsupportedOperationException("Not supported yet.");
   }
 
+  @Override
+  public AttributeClassObserver create() {
+    return new NominalAttributeClassObserver();
+  }
 }
@@ -23,6 +23,7 @@ package org.apache.samoa.moa.classifiers.core.attributeclassobservers;
 import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
 import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
@@ -33,7 +34,8 @@ import org.apache.samoa.moa.tasks.TaskMonitor;
  * @author Richard Kirkby (rkirkby@cs.waikato.ac.nz)
  * @version $Revision: 7 $
  */
-public class NullAttributeClassObserver extends AbstractOptionHandler implements AttributeClassObserver {
+public class NullAttributeClassObserver extends AbstractOptionHandler implements
+    AttributeClassObserver, Prototype<AttributeClassObserver> {
 
   private static final long serialVersionUID = 1L;
 
@@ -76,4 +78,9 @@ public class NullAttributeClassObserver extends AbstractOptionHandler implements
   public void observeAttributeTarget(double attVal, double target) {
     throw new UnsupportedOperationException("Not supported yet.");
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    return new NullAttributeClassObserver();
+  }
 }
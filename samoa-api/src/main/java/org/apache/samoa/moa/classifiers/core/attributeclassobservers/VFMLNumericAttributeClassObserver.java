@@ -29,6 +29,7 @@ import org.apache.samoa.moa.classifiers.core.conditionaltests.NumericAttributeBi
 import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
 import org.apache.samoa.moa.core.DoubleVector;
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.core.Utils;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
@@ -42,7 +43,8 @@ import com.github.javacliparser.IntOption;
  * @author Richard Kirkby (rkirkby@cs.waikato.ac.nz)
  * @version $Revision: 7 $
  */
-public class VFMLNumericAttributeClassObserver extends AbstractOptionHandler implements NumericAttributeClassObserver {
+public class VFMLNumericAttributeClassObserver extends AbstractOptionHandler implements
+    NumericAttributeClassObserver, Prototype<AttributeClassObserver> {
 
   private static final long serialVersionUID = 1L;
 
@@ -219,4 +221,11 @@ public class VFMLNumericAttributeClassObserver extends AbstractOptionHandler imp
   protected void prepareForUseImpl(TaskMonitor monitor, ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    VFMLNumericAttributeClassObserver observer = new VFMLNumericAttributeClassObserver();
+    observer.numBinsOption.setValue(this.numBinsOption.getValue());
+    return observer;
+  }
 }
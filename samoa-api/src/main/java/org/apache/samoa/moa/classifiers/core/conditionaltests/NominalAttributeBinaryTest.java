@@ -23,6 +23,11 @@ package org.apache.samoa.moa.classifiers.core.conditionaltests;
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.instances.InstancesHeader;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * Nominal binary conditional test for instances to use to split nodes in Hoeffding trees.
  * 
@@ -70,4 +75,21 @@ public class NominalAttributeBinaryTest extends InstanceConditionalBinaryTest {
   public int[] getAttsTestDependsOn() {
     return new int[] { this.attIndex };
   }
+
+  /**
+   * The Kryo serializer class for NominalAttributeBinaryTest.
+   */
+  public static final class NominalAttributeBinaryTestSerializer extends Serializer<NominalAttributeBinaryTest> {
+
+    @Override
+    public void write(Kryo kryo, Output output, NominalAttributeBinaryTest test) {
+      output.writeInt(test.attIndex, true);
+      output.writeInt(test.attValue, true);
+    }
+
+    @Override
+    public NominalAttributeBinaryTest read(Kryo kryo, Input input, Class<NominalAttributeBinaryTest> type) {
+      return new NominalAttributeBinaryTest(input.readInt(true), input.readInt(true));
+    }
+  }
 }
@@ -23,6 +23,11 @@ package org.apache.samoa.moa.classifiers.core.conditionaltests;
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.instances.InstancesHeader;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * Nominal multi way conditional test for instances to use to split nodes in Hoeffding trees.
  * 
@@ -68,4 +73,20 @@ public class NominalAttributeMultiwayTest extends InstanceConditionalTest {
   public int[] getAttsTestDependsOn() {
     return new int[] { this.attIndex };
   }
+
+  /**
+   * The Kryo serializer class for NominalAttributeMultiwayTest.
+   */
+  public static final class NominalAttributeMultiwayTestSerializer extends Serializer<NominalAttributeMultiwayTest> {
+
+    @Override
+    public void write(Kryo kryo, Output output, NominalAttributeMultiwayTest test) {
+      output.writeInt(test.attIndex, true);
+    }
+
+    @Override
+    public NominalAttributeMultiwayTest read(Kryo kryo, Input input, Class<NominalAttributeMultiwayTest> type) {
+      return new NominalAttributeMultiwayTest(input.readInt(true));
+    }
+  }
 }
@@ -23,6 +23,11 @@ package org.apache.samoa.moa.classifiers.core.conditionaltests;
 import org.apache.samoa.instances.Instance;
 import org.apache.samoa.instances.InstancesHeader;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 /**
  * Numeric binary conditional test for instances to use to split nodes in Hoeffding trees.
  * 
@@ -89,4 +94,22 @@ public class NumericAttributeBinaryTest extends InstanceConditionalBinaryTest {
   public double getSplitValue() {
     return this.attValue;
   }
+
+  /**
+   * The Kryo serializer class for NumericAttributeBinaryTest.
+   */
+  public static final class NumericAttributeBinaryTestSerializer extends Serializer<NumericAttributeBinaryTest> {
+
+    @Override
+    public void write(Kryo kryo, Output output, NumericAttributeBinaryTest test) {
+      output.writeInt(test.attIndex, true);
+      output.writeDouble(test.attValue);
+      output.writeBoolean(test.equalsPassesTest);
+    }
+
+    @Override
+    public NumericAttributeBinaryTest read(Kryo kryo, Input input, Class<NumericAttributeBinaryTest> type) {
+      return new NumericAttributeBinaryTest(input.readInt(true), input.readDouble(), input.readBoolean());
+    }
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.driftdetection;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
 import com.github.javacliparser.FloatOption;
@@ -34,7 +35,7 @@ import com.github.javacliparser.FloatOption;
  * @author Albert Bifet (abifet at cs dot waikato dot ac dot nz)
  * @version $Revision: 7 $
  */
-public class ADWINChangeDetector extends AbstractChangeDetector {
+public class ADWINChangeDetector extends AbstractChangeDetector implements Prototype<ChangeDetector> {
 
   protected ADWIN adwin;
 
@@ -67,4 +68,11 @@ public class ADWINChangeDetector extends AbstractChangeDetector {
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public ChangeDetector create() {
+    ADWINChangeDetector detector = new ADWINChangeDetector();
+    detector.deltaAdwinOption.setValue(this.deltaAdwinOption.getValue());
+    return detector;
+  }
 }
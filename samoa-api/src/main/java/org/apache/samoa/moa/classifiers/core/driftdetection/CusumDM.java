@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.driftdetection;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
 import com.github.javacliparser.FloatOption;
@@ -33,7 +34,7 @@ import com.github.javacliparser.IntOption;
  * @author Manuel Baena (mbaena@lcc.uma.es)
  * @version $Revision: 7 $
  */
-public class CusumDM extends AbstractChangeDetector {
+public class CusumDM extends AbstractChangeDetector implements Prototype<ChangeDetector> {
 
   private static final long serialVersionUID = -3518369648142099719L;
 
@@ -108,4 +109,14 @@ public class CusumDM extends AbstractChangeDetector {
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public ChangeDetector create() {
+    CusumDM detector = new CusumDM();
+    detector.minNumInstancesOption.setValue(this.minNumInstancesOption.getValue());
+    detector.deltaOption.setValue(this.deltaOption.getValue());
+    detector.lambdaOption.setValue(this.lambdaOption.getValue());
+    detector.resetLearning();
+    return detector;
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.driftdetection;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
 import com.github.javacliparser.IntOption;
@@ -35,7 +36,7 @@ import com.github.javacliparser.IntOption;
  * @author Manuel Baena (mbaena@lcc.uma.es)
  * @version $Revision: 7 $
  */
-public class DDM extends AbstractChangeDetector {
+public class DDM extends AbstractChangeDetector implements Prototype<ChangeDetector> {
 
   private static final long serialVersionUID = -3518369648142099719L;
 
@@ -116,4 +117,12 @@ public class DDM extends AbstractChangeDetector {
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public ChangeDetector create() {
+    DDM detector = new DDM();
+    detector.minNumInstancesOption.setValue(this.minNumInstancesOption.getValue());
+    detector.resetLearning();
+    return detector;
+  }
 }
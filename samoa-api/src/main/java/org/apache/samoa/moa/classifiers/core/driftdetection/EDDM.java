@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.driftdetection;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
 /**
@@ -34,7 +35,7 @@ import org.apache.samoa.moa.tasks.TaskMonitor;
  * @author Manuel Baena (mbaena@lcc.uma.es)
  * @version $Revision: 7 $
  */
-public class EDDM extends AbstractChangeDetector {
+public class EDDM extends AbstractChangeDetector implements Prototype<ChangeDetector> {
 
   /**
      *
@@ -136,4 +137,9 @@ public class EDDM extends AbstractChangeDetector {
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public ChangeDetector create() {
+    return new EDDM();
+  }
 }
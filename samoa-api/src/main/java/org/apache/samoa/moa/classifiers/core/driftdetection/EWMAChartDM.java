@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.driftdetection;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
 import com.github.javacliparser.FloatOption;
@@ -33,7 +34,7 @@ import com.github.javacliparser.IntOption;
  * @author Manuel Baena (mbaena@lcc.uma.es)
  * @version $Revision: 7 $
  */
-public class EWMAChartDM extends AbstractChangeDetector {
+public class EWMAChartDM extends AbstractChangeDetector implements Prototype<ChangeDetector> {
 
   private static final long serialVersionUID = -3518369648142099719L;
 
@@ -119,4 +120,13 @@ public class EWMAChartDM extends AbstractChangeDetector {
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public ChangeDetector create() {
+    EWMAChartDM detector = new EWMAChartDM();
+    detector.minNumInstancesOption.setValue(this.minNumInstancesOption.getValue());
+    detector.lambdaOption.setValue(this.lambdaOption.getValue());
+    detector.resetLearning();
+    return detector;
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.driftdetection;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
 import com.github.javacliparser.FloatOption;
@@ -33,7 +34,7 @@ import com.github.javacliparser.IntOption;
  * @author Manuel Baena (mbaena@lcc.uma.es)
  * @version $Revision: 7 $
  */
-public class GeometricMovingAverageDM extends AbstractChangeDetector {
+public class GeometricMovingAverageDM extends AbstractChangeDetector implements Prototype<ChangeDetector> {
 
   private static final long serialVersionUID = -3518369648142099719L;
 
@@ -106,4 +107,14 @@ public class GeometricMovingAverageDM extends AbstractChangeDetector {
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public ChangeDetector create() {
+    GeometricMovingAverageDM detector = new GeometricMovingAverageDM();
+    detector.minNumInstancesOption.setValue(this.minNumInstancesOption.getValue());
+    detector.lambdaOption.setValue(this.lambdaOption.getValue());
+    detector.alphaOption.setValue(this.alphaOption.getValue());
+    detector.resetLearning();
+    return detector;
+  }
 }
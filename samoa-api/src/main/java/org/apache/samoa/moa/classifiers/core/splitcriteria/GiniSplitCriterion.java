@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.splitcriteria;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.core.Utils;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
@@ -33,7 +34,7 @@ import org.apache.samoa.moa.tasks.TaskMonitor;
  * @version $Revision: 7 $
  */
 public class GiniSplitCriterion extends AbstractOptionHandler implements
-    SplitCriterion {
+    SplitCriterion, Prototype<SplitCriterion> {
 
   private static final long serialVersionUID = 1L;
 
@@ -81,4 +82,9 @@ public class GiniSplitCriterion extends AbstractOptionHandler implements
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public SplitCriterion create() {
+    return new GiniSplitCriterion();
+  }
 }
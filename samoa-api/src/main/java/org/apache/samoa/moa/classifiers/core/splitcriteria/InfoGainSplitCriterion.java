@@ -21,6 +21,7 @@ package org.apache.samoa.moa.classifiers.core.splitcriteria;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.core.Utils;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
@@ -35,7 +36,7 @@ import com.github.javacliparser.FloatOption;
  * @version $Revision: 7 $
  */
 public class InfoGainSplitCriterion extends AbstractOptionHandler implements
-    SplitCriterion {
+    SplitCriterion, Prototype<SplitCriterion> {
 
   private static final long serialVersionUID = 1L;
 
@@ -114,4 +115,11 @@ public class InfoGainSplitCriterion extends AbstractOptionHandler implements
       ObjectRepository repository) {
     // TODO Auto-generated method stub
   }
+
+  @Override
+  public SplitCriterion create() {
+    InfoGainSplitCriterion criterion = new InfoGainSplitCriterion();
+    criterion.minBranchFracOption.setValue(this.minBranchFracOption.getValue());
+    return criterion;
+  }
 }
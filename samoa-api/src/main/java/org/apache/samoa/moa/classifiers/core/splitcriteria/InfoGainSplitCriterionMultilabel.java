@@ -50,4 +50,11 @@ public class InfoGainSplitCriterionMultilabel extends InfoGainSplitCriterion {
     }
     return sum > 0.0 ? entropy : 0.0;
   }
+
+  @Override
+  public SplitCriterion create() {
+    InfoGainSplitCriterionMultilabel criterion = new InfoGainSplitCriterionMultilabel();
+    criterion.minBranchFracOption.setValue(this.minBranchFracOption.getValue());
+    return criterion;
+  }
 }
@@ -30,4 +30,8 @@ public class SDRSplitCriterion extends VarianceReductionSplitCriterion {
     return Math.sqrt((sumSq - ((sum * sum) / N)) / N);
   }
 
+  @Override
+  public SplitCriterion create() {
+    return new SDRSplitCriterion();
+  }
 }
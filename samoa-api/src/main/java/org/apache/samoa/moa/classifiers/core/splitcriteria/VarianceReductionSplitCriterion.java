@@ -21,10 +21,12 @@ package org.apache.samoa.moa.classifiers.core.splitcriteria;
  */
 
 import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.core.Prototype;
 import org.apache.samoa.moa.options.AbstractOptionHandler;
 import org.apache.samoa.moa.tasks.TaskMonitor;
 
-public class VarianceReductionSplitCriterion extends AbstractOptionHandler implements SplitCriterion {
+public class VarianceReductionSplitCriterion extends AbstractOptionHandler implements
+    SplitCriterion, Prototype<SplitCriterion> {
 
   private static final long serialVersionUID = 1L;
 
@@ -91,4 +93,8 @@ public class VarianceReductionSplitCriterion extends AbstractOptionHandler imple
     // TODO Auto-generated method stub
   }
 
+  @Override
+  public SplitCriterion create() {
+    return new VarianceReductionSplitCriterion();
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.samoa.moa.classifiers.rules.core.attributeclassobservers;
  * #L%
  */
 
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.AttributeClassObserver;
 import org.apache.samoa.moa.classifiers.core.attributeclassobservers.FIMTDDNumericAttributeClassObserver;
 
 import com.github.javacliparser.IntOption;
@@ -118,4 +119,11 @@ public class FIMTDDNumericAttributeClassLimitObserver extends FIMTDDNumericAttri
       }
     }
   }
+
+  @Override
+  public AttributeClassObserver create() {
+    FIMTDDNumericAttributeClassLimitObserver observer = new FIMTDDNumericAttributeClassLimitObserver();
+    observer.maxNodes = this.maxNodes;
+    return observer;
+  }
 }
@@ -96,4 +96,8 @@ public class SDRSplitCriterionAMRules extends SDRSplitCriterion implements Split
 
   }
 
+  @Override
+  public SplitCriterion create() {
+    return new SDRSplitCriterionAMRules();
+  }
 }
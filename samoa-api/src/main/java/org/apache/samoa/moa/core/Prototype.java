@@ -0,0 +1,39 @@
+package org.apache.samoa.moa.core;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Object that can create new, empty instances of itself without going through serialization. The created instance is
+ * configured like the prototype (same options) but holds none of its learned state, as if it was just constructed.
+ * 
+ * @param <T>
+ *          type of the created instances
+ * @see Prototypes#create(Object)
+ */
+public interface Prototype<T> {
+
+  /**
+   * Creates a new, empty object configured like this one.
+   * 
+   * @return the new object
+   */
+  T create();
+}
@@ -0,0 +1,77 @@
+package org.apache.samoa.moa.core;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+import org.apache.samoa.moa.MOAObject;
+
+/**
+ * Creates new instances from prototypes such as the attribute class observers, split criteria and change detectors
+ * configured through options. Objects implementing {@link Prototype} are created directly; the others (and subclasses
+ * that do not override {@link Prototype#create()}) are copied through serialization, which also copies any state the
+ * prototype has learned.
+ */
+public final class Prototypes {
+
+  private Prototypes() {
+  }
+
+  /**
+   * Creates a new object configured like the prototype.
+   * 
+   * @param prototype
+   *          the prototype, expected to hold no learned state
+   * @return the new object, of the same class as the prototype
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T create(T prototype) {
+    if (prototype instanceof Prototype) {
+      Object created = ((Prototype<?>) prototype).create();
+      if (created != null && created.getClass() == prototype.getClass()) {
+        return (T) created;
+      }
+    }
+    return copy(prototype);
+  }
+
+  /**
+   * Copies an object through serialization, the fallback of {@link #create(Object)}.
+   * 
+   * @param obj
+   *          the object to copy
+   * @return the copy
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T copy(T obj) {
+    if (obj instanceof MOAObject) {
+      return (T) ((MOAObject) obj).copy();
+    }
+    if (!(obj instanceof Serializable)) {
+      throw new IllegalArgumentException("Cannot copy " + obj);
+    }
+    try {
+      return (T) SerializeUtils.copyObject((Serializable) obj);
+    } catch (Exception e) {
+      throw new RuntimeException("Object copy failed.", e);
+    }
+  }
+}
@@ -20,10 +20,10 @@ package org.apache.samoa.streams;
  * #L%
  */
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.channels.Channels;
 
+import org.apache.samoa.instances.ArffLoader;
 import org.apache.samoa.instances.Instances;
 import org.apache.samoa.moa.core.InstanceExample;
 import org.apache.samoa.moa.core.ObjectRepository;
@@ -46,7 +46,6 @@ public class ArffFileStream extends FileStream {
       -1, -1, Integer.MAX_VALUE);*/
 
   protected InstanceExample lastInstanceRead;
-  private transient BufferedReader fileReader;
 
   @Override
   public void prepareForUseImpl(TaskMonitor monitor, ObjectRepository repository) {
@@ -72,9 +71,9 @@ public class ArffFileStream extends FileStream {
 
   @Override
   protected boolean getNextFileStream() {
-    if (this.fileReader != null)
+    if (this.inputStream != null)
       try {
-        this.fileReader.close();
+        this.inputStream.close();
       } catch (IOException ioe) {
         ioe.printStackTrace();
       }
@@ -83,8 +82,8 @@ public class ArffFileStream extends FileStream {
     if (inputStream == null)
       return false;
 
-    this.fileReader = new BufferedReader(new InputStreamReader(this.inputStream));
-    this.instances = new Instances(this.fileReader, 1, -1);
+    // the loader reads the bytes of the file, without decoding them through a Reader
+    this.instances = new Instances(new ArffLoader(Channels.newChannel(this.inputStream), -1));
     if (this.classIndexOption.getValue() < 0) {
       this.instances.setClassIndex(this.instances.numAttributes() - 1);
     } else if (this.classIndexOption.getValue() > 0) {
@@ -97,14 +96,14 @@ public class ArffFileStream extends FileStream {
   @Override
   protected boolean readNextInstanceFromFile() {
     try {
-      if (this.instances.readInstance(this.fileReader)) {
+      if (this.instances.readInstance()) {
         this.lastInstanceRead = new InstanceExample(this.instances.instance(0));
         this.instances.delete(); // keep instances clean
         return true;
       }
-      if (this.fileReader != null) {
-        this.fileReader.close();
-        this.fileReader = null;
+      if (this.inputStream != null) {
+        this.inputStream.close();
+        this.inputStream = null;
       }
       return false;
     } catch (IOException ioe) {
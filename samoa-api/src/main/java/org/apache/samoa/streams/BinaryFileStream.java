@@ -0,0 +1,134 @@
+package org.apache.samoa.streams;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.IOException;
+
+import org.apache.samoa.instances.BinaryInstancesLoader;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.moa.core.InstanceExample;
+import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.options.AbstractOptionHandler;
+import org.apache.samoa.moa.tasks.TaskMonitor;
+
+import com.github.javacliparser.FileOption;
+import com.github.javacliparser.IntOption;
+
+/**
+ * InstanceStream for the binary instance files written by {@link org.apache.samoa.tasks.WriteBinaryFile}. The file is
+ * memory-mapped and its instances are built without parsing, which makes repeated experiments on the same data much
+ * faster than reading ARFF files.
+ */
+public class BinaryFileStream extends AbstractOptionHandler implements InstanceStream {
+
+  private static final long serialVersionUID = 2541394758431260457L;
+
+  public FileOption binaryFileOption = new FileOption("binaryFile", 'f',
+      "Binary instance file to load.", null, "bin", false);
+
+  public IntOption classIndexOption = new IntOption("classIndex", 'c',
+      "Class index of data. 0 for the class index stored in the file or -1 for last attribute.", 0, -1,
+      Integer.MAX_VALUE);
+
+  private transient BinaryInstancesLoader loader;
+  private Instances instances;
+  private Instance nextInstance;
+  private long numInstancesRead;
+
+  @Override
+  public void prepareForUseImpl(TaskMonitor monitor, ObjectRepository repository) {
+    try {
+      this.loader = new BinaryInstancesLoader(this.binaryFileOption.getFile());
+    } catch (IOException ioe) {
+      throw new RuntimeException("BinaryFileStream failed to open " + this.binaryFileOption.getFile(), ioe);
+    }
+    this.instances = new Instances(loader);
+    if (this.classIndexOption.getValue() < 0) {
+      this.instances.setClassIndex(this.instances.numAttributes() - 1);
+    } else if (this.classIndexOption.getValue() > 0) {
+      this.instances.setClassIndex(this.classIndexOption.getValue() - 1);
+    }
+    this.numInstancesRead = 0;
+    this.nextInstance = readInstance();
+  }
+
+  private Instance readInstance() {
+    Instance instance = loader.readInstance();
+    if (instance != null) {
+      instance.setDataset(this.instances);
+    }
+    return instance;
+  }
+
+  /*
+   * implement InstanceStream
+   */
+  @Override
+  public InstancesHeader getHeader() {
+    return new InstancesHeader(this.instances);
+  }
+
+  @Override
+  public long estimatedRemainingInstances() {
+    return loader.numInstances() - numInstancesRead;
+  }
+
+  @Override
+  public boolean hasMoreInstances() {
+    return this.nextInstance != null;
+  }
+
+  @Override
+  public InstanceExample nextInstance() {
+    if (this.nextInstance == null) {
+      return null;
+    }
+    InstanceExample example = new InstanceExample(this.nextInstance);
+    this.numInstancesRead++;
+    this.nextInstance = readInstance();
+    return example;
+  }
+
+  @Override
+  public boolean isRestartable() {
+    return true;
+  }
+
+  @Override
+  public void restart() {
+    try {
+      loader.seek(0);
+    } catch (IOException ioe) {
+      throw new RuntimeException("BinaryFileStream restart failed.", ioe);
+    }
+    this.numInstancesRead = 0;
+    this.nextInstance = readInstance();
+  }
+
+  /*
+   * extend org.apache.samoa.moa.MOAObject
+   */
+  @Override
+  public void getDescription(StringBuilder sb, int indent) {
+    sb.append("Instances of the binary file ").append(binaryFileOption.getValue());
+  }
+}
@@ -0,0 +1,354 @@
+package org.apache.samoa.streams;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.samoa.instances.ArffLoader;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.InstanceInformation;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.moa.core.InstanceExample;
+import org.apache.samoa.moa.core.ObjectRepository;
+import org.apache.samoa.moa.options.AbstractOptionHandler;
+import org.apache.samoa.moa.tasks.TaskMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.javacliparser.FileOption;
+import com.github.javacliparser.FlagOption;
+import com.github.javacliparser.IntOption;
+import com.github.javacliparser.MultiChoiceOption;
+
+/**
+ * InstanceStream for local ARFF or CSV files, parsed in parallel. Each file is split into line-aligned chunks that are
+ * parsed by a pool of worker threads into instances, so that the entrance processor only hands out instances that are
+ * already built. At most a fixed number of chunks are parsed ahead of the consumer, which bounds the memory used.
+ * 
+ * Chunks are handed out in the order of the files and of their lines, or, with relaxed ordering, as soon as they are
+ * parsed. The files of a directory are read in the order of their names.
+ * 
+ * CSV files are expected to start with a line of column names, which is skipped; their attributes are given by the
+ * header of an ARFF file.
+ */
+public class ParallelFileStream extends AbstractOptionHandler implements InstanceStream {
+
+  private static final long serialVersionUID = -3394624186478532587L;
+
+  private static final Logger logger = LoggerFactory.getLogger(ParallelFileStream.class);
+
+  public FileOption fileOption = new FileOption("file", 'f',
+      "File, or directory of files, to load.", null, null, false);
+
+  public MultiChoiceOption formatOption = new MultiChoiceOption("format", 'e', "Format of the files.",
+      new String[] { "arff", "csv" }, new String[] { "ARFF files", "CSV files with a line of column names" }, 0);
+
+  public FileOption headerFileOption = new FileOption("headerFile", 'h',
+      "ARFF file declaring the attributes of CSV files.", null, "arff", false);
+
+  public IntOption classIndexOption = new IntOption("classIndex", 'c',
+      "Class index of data. 0 for none or -1 for last attribute in file.", -1, -1, Integer.MAX_VALUE);
+
+  public IntOption numThreadsOption = new IntOption("numThreads", 't',
+      "Number of threads parsing chunks.", 2, 1, Integer.MAX_VALUE);
+
+  public IntOption chunkSizeOption = new IntOption("chunkSize", 'k',
+      "Size of the chunks, in KB.", 4096, 1, 1 << 20);
+
+  public IntOption maxPendingChunksOption = new IntOption("maxPendingChunks", 'q',
+      "Maximum number of chunks parsed ahead of the stream consumer.", 8, 1, Integer.MAX_VALUE);
+
+  public FlagOption relaxedOrderOption = new FlagOption("relaxedOrder", 'r',
+      "Hand out chunks as soon as they are parsed instead of in file order.");
+
+  private transient List<File> files;
+  private transient InstancesHeader header;
+  private transient ExecutorService executor;
+  private transient CompletionService<List<Instance>> completionService;
+  private transient Queue<Future<List<Instance>>> pendingChunks;
+  private transient Iterator<Chunk> chunks;
+  private transient Iterator<Instance> currentChunk;
+
+  @Override
+  public void prepareForUseImpl(TaskMonitor monitor, ObjectRepository repository) {
+    File path = this.fileOption.getFile();
+    if (path.isDirectory()) {
+      final String extension = "." + formatOption.getChosenLabel();
+      File[] filesInDir = path.listFiles(new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+          return new File(dir, name).isFile() && name.toLowerCase().endsWith(extension);
+        }
+      });
+      Arrays.sort(filesInDir);
+      this.files = Arrays.asList(filesInDir);
+    } else {
+      this.files = Arrays.asList(path);
+    }
+    restart();
+  }
+
+  /*
+   * implement InstanceStream
+   */
+  @Override
+  public InstancesHeader getHeader() {
+    return this.header;
+  }
+
+  @Override
+  public long estimatedRemainingInstances() {
+    return -1;
+  }
+
+  @Override
+  public boolean hasMoreInstances() {
+    while (!currentChunk.hasNext()) {
+      Future<List<Instance>> chunk = takeChunk();
+      if (chunk == null) {
+        shutdown();
+        return false;
+      }
+      try {
+        currentChunk = chunk.get().iterator();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("ParallelFileStream interrupted.", e);
+      } catch (ExecutionException e) {
+        shutdown();
+        throw new RuntimeException("ParallelFileStream failed to parse a chunk.", e.getCause());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public InstanceExample nextInstance() {
+    if (!hasMoreInstances()) {
+      return null;
+    }
+    return new InstanceExample(currentChunk.next());
+  }
+
+  @Override
+  public boolean isRestartable() {
+    return true;
+  }
+
+  @Override
+  public void restart() {
+    shutdown();
+    List<Chunk> allChunks = new ArrayList<Chunk>();
+    try {
+      for (File file : files) {
+        split(file, allChunks);
+      }
+    } catch (IOException ioe) {
+      throw new RuntimeException("ParallelFileStream failed to split the files.", ioe);
+    }
+    if (allChunks.isEmpty()) {
+      throw new RuntimeException("ParallelFileStream is empty.");
+    }
+    this.header = new InstancesHeader(allChunks.get(0).dataset);
+    logger.info("Parsing {} chunks of {} files with {} threads", allChunks.size(), files.size(),
+        numThreadsOption.getValue());
+
+    this.executor = Executors.newFixedThreadPool(numThreadsOption.getValue(), new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "ParallelFileStream");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.completionService = new ExecutorCompletionService<List<Instance>>(executor);
+    this.pendingChunks = new ArrayDeque<Future<List<Instance>>>();
+    this.chunks = allChunks.iterator();
+    this.currentChunk = new ArrayList<Instance>(0).iterator();
+    while (pendingChunks.size() < maxPendingChunksOption.getValue() && chunks.hasNext()) {
+      submitChunk();
+    }
+  }
+
+  private boolean submitChunk() {
+    if (!chunks.hasNext()) {
+      return false;
+    }
+    // in file order, the futures are not taken from the completion service, which would keep them
+    Chunk chunk = chunks.next();
+    pendingChunks.add(relaxedOrderOption.isSet() ? completionService.submit(chunk) : executor.submit(chunk));
+    return true;
+  }
+
+  /**
+   * Takes the next parsed chunk, the oldest one in file order or the first one parsed with relaxed ordering, and
+   * submits another chunk in its place.
+   * 
+   * @return the chunk, or null if all chunks were taken
+   */
+  private Future<List<Instance>> takeChunk() {
+    if (pendingChunks == null || pendingChunks.isEmpty()) {
+      return null;
+    }
+    Future<List<Instance>> chunk;
+    if (relaxedOrderOption.isSet()) {
+      try {
+        chunk = completionService.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("ParallelFileStream interrupted.", e);
+      }
+      pendingChunks.remove(chunk);
+    } else {
+      chunk = pendingChunks.poll();
+    }
+    submitChunk();
+    return chunk;
+  }
+
+  private void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+      pendingChunks = null;
+    }
+  }
+
+  /**
+   * Reads the header of a file and splits its data section into chunks that start and end at line boundaries.
+   */
+  private void split(File file, List<Chunk> allChunks) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      ArffLoader headerLoader;
+      long dataStart;
+      if (formatOption.getChosenIndex() == 0) {
+        headerLoader = new ArffLoader(channel, classIndexOption.getValue());
+        dataStart = headerLoader.getPosition();
+      } else {
+        headerLoader = ArffLoader.open(headerFileOption.getFile(), classIndexOption.getValue());
+        headerLoader.close();
+        dataStart = nextLine(channel, 0);
+      }
+      InstanceInformation information = headerLoader.getStructure();
+      Instances dataset = new Instances(headerLoader);
+
+      long chunkSize = chunkSizeOption.getValue() * 1024L;
+      long size = channel.size();
+      for (long start = dataStart; start < size;) {
+        long end = start + chunkSize >= size ? size : nextLine(channel, start + chunkSize);
+        allChunks.add(new Chunk(file, start, end, information, dataset));
+        start = end;
+      }
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  /**
+   * @return the position following the first end of line at or after the given position, or the size of the file
+   */
+  private static long nextLine(FileChannel channel, long position) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    while (true) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        return channel.size();
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+  }
+
+  /**
+   * Line-aligned part of the data section of a file, parsed into instances by a worker thread.
+   */
+  private static final class Chunk implements Callable<List<Instance>> {
+
+    private final File file;
+    private final long start;
+    private final long end;
+    private final InstanceInformation information;
+    private final Instances dataset;
+
+    Chunk(File file, long start, long end, InstanceInformation information, Instances dataset) {
+      this.file = file;
+      this.start = start;
+      this.end = end;
+      this.information = information;
+      this.dataset = dataset;
+    }
+
+    @Override
+    public List<Instance> call() throws IOException {
+      ByteBuffer data;
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+      try {
+        // the mapping stays valid after the file is closed
+        data = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, start, end - start);
+      } finally {
+        randomAccessFile.close();
+      }
+      ArffLoader loader = new ArffLoader(data, information);
+      List<Instance> instances = new ArrayList<Instance>();
+      Instance instance;
+      while ((instance = loader.readInstance()) != null) {
+        instance.setDataset(dataset);
+        instances.add(instance);
+      }
+      return instances;
+    }
+  }
+
+  /*
+   * extend org.apache.samoa.moa.MOAObject
+   */
+  @Override
+  public void getDescription(StringBuilder sb, int indent) {
+    sb.append("Instances of ").append(fileOption.getValue()).append(" parsed in chunks by ")
+        .append(numThreadsOption.getValue()).append(" threads");
+  }
+}
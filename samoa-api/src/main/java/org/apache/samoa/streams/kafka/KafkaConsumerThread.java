@@ -30,37 +30,54 @@ package org.apache.samoa.streams.kafka;
  * limitations under the License.
  * #L%
  */
-
-
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.samoa.utils.SpscRingBuffer;
 
 /**
+ * Thread polling Kafka and handing the messages over to a single reader
+ * through a bounded ring buffer. When the buffer is full the assigned
+ * partitions are paused (the consumer keeps polling, so it stays in the
+ * group) and resumed once the reader has freed half of the buffer.
  *
  * @author pwawrzyniak
  */
 class KafkaConsumerThread extends Thread {
 
+    static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    // Upper bound of a poll while partitions are paused, so that they are resumed quickly
+    private static final long PAUSED_POLL_TIMEOUT = 10;
+
     // Consumer class for internal use to retrieve messages from Kafka
-    private transient KafkaConsumer<String, byte[]> consumer;
+    private transient Consumer<String, byte[]> consumer;
 
     private Logger log = Logger.getLogger(KafkaConsumerThread.class.getName());
 
     private final Properties consumerProperties;
     private final Collection<String> topics;
     private final long consumerTimeout;
-    private final List<byte[]> buffer;
-    // used to synchronize things
+    // messages (raw or deserialized) waiting for the reader
+    private final SpscRingBuffer<Object> buffer;
+    // messages of the last poll that did not fit into the buffer, owned by this thread
+    private final Queue<Object> overflow;
+    // null when raw messages are handed over
+    private final KafkaDeserializer deserializer;
+    // used to wake up a waiting reader
     private final Object lock;
-    private boolean running;
+    private volatile boolean readerWaiting;
+    private volatile boolean running;
+    private volatile boolean paused;
 
     /**
      * Class constructor
@@ -70,14 +87,39 @@ class KafkaConsumerThread extends Thread {
      * @param consumerTimeout Timeout for data polling
      */
     KafkaConsumerThread(Properties consumerProperties, Collection<String> topics, long consumerTimeout) {
+        this(consumerProperties, topics, consumerTimeout, null, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param consumerProperties Properties of Consumer
+     * @param topics Topics to fetch (subscribe)
+     * @param consumerTimeout Timeout for data polling
+     * @param deserializer Deserializer applied on the polling thread, or null
+     * to hand over raw messages
+     * @param bufferSize Capacity of the buffer between the polling thread and
+     * the reader
+     */
+    KafkaConsumerThread(Properties consumerProperties, Collection<String> topics, long consumerTimeout, KafkaDeserializer deserializer, int bufferSize) {
         this.running = false;
         this.consumerProperties = consumerProperties;
         this.topics = topics;
         this.consumerTimeout = consumerTimeout;
-        this.buffer = new ArrayList<>();
+        this.deserializer = deserializer;
+        this.buffer = new SpscRingBuffer<>(bufferSize);
+        this.overflow = new ArrayDeque<>();
         lock = new Object();
     }
 
+    /**
+     * Class constructor using an already created consumer, e.g. a mock one
+     */
+    KafkaConsumerThread(Consumer<String, byte[]> consumer, Collection<String> topics, long consumerTimeout, KafkaDeserializer deserializer, int bufferSize) {
+        this((Properties) null, topics, consumerTimeout, deserializer, bufferSize);
+        this.consumer = consumer;
+    }
+
     @Override
     public void run() {
 
@@ -98,8 +140,10 @@ class KafkaConsumerThread extends Thread {
         if (consumer != null) {
             if (!consumer.subscription().isEmpty()) {
                 try {
-                    List<byte[]> kafkaMsg = getMessagesBytes(consumer.poll(consumerTimeout));
-                    fillBufferAndNotifyWaits(kafkaMsg);
+                    drainOverflow();
+                    ConsumerRecords<String, byte[]> records = consumer.poll(paused ? Math.min(PAUSED_POLL_TIMEOUT, consumerTimeout) : consumerTimeout);
+                    fillBufferAndNotifyWaits(records);
+                    updatePause();
                 } catch (Throwable t) {
                     Logger.getLogger(KafkaConsumerThread.class.getName()).log(Level.SEVERE, null, t);
                 }
@@ -108,15 +152,52 @@ class KafkaConsumerThread extends Thread {
     }
 
     /**
-     * Copies received messages to class buffer and notifies Processor to grab
-     * the data.
+     * Deserializes the received messages straight into the buffer, keeping the
+     * ones that do not fit for later, and notifies a waiting reader.
      *
-     * @param kafkaMsg Messages received from Kafka
+     * @param records Messages received from Kafka
      */
-    private void fillBufferAndNotifyWaits(List<byte[]> kafkaMsg) {
-        synchronized (lock) {
-            buffer.addAll(kafkaMsg);
-            if (buffer.size() > 0) {
+    private void fillBufferAndNotifyWaits(ConsumerRecords<String, byte[]> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        for (ConsumerRecord<String, byte[]> record : records) {
+            Object message = deserializer == null ? record.value() : deserializer.deserialize(record.value());
+            if (message == null) {
+                continue;
+            }
+            if (!overflow.isEmpty() || !buffer.offer(message)) {
+                overflow.add(message);
+            }
+        }
+        notifyReader();
+    }
+
+    private void drainOverflow() {
+        boolean moved = false;
+        while (!overflow.isEmpty() && buffer.offer(overflow.peek())) {
+            overflow.poll();
+            moved = true;
+        }
+        if (moved) {
+            notifyReader();
+        }
+    }
+
+    private void updatePause() {
+        if (!overflow.isEmpty()) {
+            // also covers partitions assigned by a rebalance since the last pause
+            consumer.pause(consumer.assignment());
+            paused = true;
+        } else if (paused && buffer.remainingCapacity() >= buffer.capacity() / 2) {
+            consumer.resume(consumer.paused());
+            paused = false;
+        }
+    }
+
+    private void notifyReader() {
+        if (readerWaiting) {
+            synchronized (lock) {
                 lock.notifyAll();
             }
         }
@@ -135,40 +216,69 @@ class KafkaConsumerThread extends Thread {
         log.log(Level.INFO, "Instantiating Kafka consumer");
         if (consumer == null) {
             consumer = new KafkaConsumer<>(consumerProperties);
-            running = true;
         }
+        running = true;
         consumer.subscribe(topics);
     }
 
-    private List<byte[]> getMessagesBytes(ConsumerRecords<String, byte[]> poll) {
-        Iterator<ConsumerRecord<String, byte[]>> iterator = poll.iterator();
-        List<byte[]> ret = new ArrayList<>();
-        while (iterator.hasNext()) {
-            ret.add(iterator.next().value());
-        }
-        return ret;
-    }
-
     void close() {
         running = false;
     }
 
-    List<byte[]> getKafkaMessages() {
-        synchronized (lock) {
-            if (buffer.isEmpty()) {
+    boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Takes the next message, waiting up to the consumer timeout when the
+     * buffer is empty. To be called by a single reader thread.
+     *
+     * @return Next message (deserialized if a deserializer was given) or null
+     * if none arrived in time
+     */
+    Object nextMessage() {
+        Object message = buffer.poll();
+        if (message == null) {
+            synchronized (lock) {
+                readerWaiting = true;
                 try {
-                    // block the call until new messages are received
-                    lock.wait();
+                    message = buffer.poll();
+                    if (message == null) {
+                        lock.wait(Math.max(consumerTimeout, 1));
+                        message = buffer.poll();
+                    }
                 } catch (InterruptedException ex) {
-                    Logger.getLogger(KafkaConsumerThread.class.getName()).log(Level.SEVERE, null, ex);
+                    Thread.currentThread().interrupt();
+                } finally {
+                    readerWaiting = false;
                 }
             }
-            ArrayList<byte[]> ret = new ArrayList<>();
-            // copy buffer to return list
-            ret.addAll(buffer);
-            // clear message buffer
-            buffer.clear();
-            return ret;
         }
+        return message;
+    }
+
+    /**
+     * Takes the next message, blocking until one is received. To be called by
+     * a single reader thread.
+     *
+     * @return Next message or null if the reader was interrupted
+     */
+    Object takeMessage() {
+        Object message = nextMessage();
+        while (message == null && !Thread.currentThread().isInterrupted()) {
+            message = nextMessage();
+        }
+        return message;
+    }
+
+    List<byte[]> getKafkaMessages() {
+        // block the call until new messages are received
+        Object message = takeMessage();
+        List<byte[]> ret = new ArrayList<>(buffer.size() + 1);
+        while (message != null) {
+            ret.add((byte[]) message);
+            message = buffer.poll();
+        }
+        return ret;
     }
 }
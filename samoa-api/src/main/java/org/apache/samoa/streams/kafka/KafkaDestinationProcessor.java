@@ -55,6 +55,7 @@ public class KafkaDestinationProcessor implements Processor {
     private final KafkaUtils kafkaUtils;
     private final String topic;
     private final KafkaSerializer serializer;
+    private final boolean async;
 
     /**
      * Class constructor
@@ -64,26 +65,77 @@ public class KafkaDestinationProcessor implements Processor {
      * @param serializer Implementation of KafkaSerializer that handles arriving data serialization
      */
     public KafkaDestinationProcessor(Properties props, String topic, KafkaSerializer serializer) {
-        this.kafkaUtils = new KafkaUtils(null, props, 0);
-        this.topic = topic;
-        this.serializer = serializer;
+        this(new KafkaUtils(null, props, 0), topic, serializer, false);
+    }
+
+    /**
+     * Class constructor of the pipelined (asynchronous) sink. Messages are sent
+     * without waiting for the broker, batched by the producer according to
+     * linger.ms and batch.size, and flushed only when the last event arrives
+     * or on {@link #flush()}. Delivery failures are counted, see
+     * {@link #getErrorCount()}
+     * @param props Properties of Kafka Producer
+     * @see <a href="http://kafka.apache.org/documentation/#producerconfigs">Kafka Producer configuration</a>
+     * @param topic Topic this destination processor will write into
+     * @param serializer Implementation of KafkaSerializer that handles arriving data serialization
+     * @param maxInFlight Maximal number of unacknowledged messages, further sends block until one completes
+     * @param lingerMs Time the producer waits for additional messages before sending a batch, used unless linger.ms is set in props
+     * @param batchSize Maximal size of a batch in bytes, used unless batch.size is set in props
+     */
+    public KafkaDestinationProcessor(Properties props, String topic, KafkaSerializer serializer, int maxInFlight, int lingerMs, int batchSize) {
+        this(new KafkaUtils(null, withBatching(props, lingerMs, batchSize), 0, maxInFlight), topic, serializer, true);
     }
-    
-    private KafkaDestinationProcessor(KafkaUtils kafkaUtils, String topic, KafkaSerializer serializer){
+
+    KafkaDestinationProcessor(KafkaUtils kafkaUtils, String topic, KafkaSerializer serializer, boolean async){
         this.kafkaUtils = kafkaUtils;
         this.topic = topic;
         this.serializer = serializer;
+        this.async = async;
+    }
+
+    private static Properties withBatching(Properties props, int lingerMs, int batchSize) {
+        Properties batchingProps = new Properties();
+        batchingProps.putAll(props);
+        if (!batchingProps.containsKey("linger.ms")) {
+            batchingProps.setProperty("linger.ms", Integer.toString(lingerMs));
+        }
+        if (!batchingProps.containsKey("batch.size")) {
+            batchingProps.setProperty("batch.size", Integer.toString(batchSize));
+        }
+        return batchingProps;
     }
 
     @Override
     public boolean process(ContentEvent event) {
         try {
-            kafkaUtils.sendKafkaMessage(topic, serializer.serialize(event));
+            if (!async) {
+                kafkaUtils.sendKafkaMessage(topic, serializer.serialize(event));
+                return true;
+            }
+            boolean sent = kafkaUtils.sendKafkaMessageAsync(topic, serializer.serialize(event));
+            if (event.isLastEvent()) {
+                kafkaUtils.flushProducer();
+            }
+            return sent;
         } catch (Exception ex) {
             Logger.getLogger(KafkaEntranceProcessor.class.getName()).log(Level.SEVERE, null, ex);
             return false;
         }
-        return true;
+    }
+
+    /**
+     * Blocks until all messages sent so far are acknowledged, to be called at
+     * checkpoints
+     */
+    public void flush() {
+        kafkaUtils.flushProducer();
+    }
+
+    /**
+     * @return Number of messages that could not be delivered in asynchronous mode
+     */
+    public long getErrorCount() {
+        return kafkaUtils.getErrorCount();
     }
 
     @Override
@@ -94,7 +146,7 @@ public class KafkaDestinationProcessor implements Processor {
     @Override
     public Processor newProcessor(Processor processor) {
         KafkaDestinationProcessor kdp = (KafkaDestinationProcessor)processor;
-        return new KafkaDestinationProcessor(new KafkaUtils(kdp.kafkaUtils), kdp.topic, kdp.serializer);
+        return new KafkaDestinationProcessor(new KafkaUtils(kdp.kafkaUtils), kdp.topic, kdp.serializer, kdp.async);
     }
 
 }
@@ -34,12 +34,8 @@ package org.apache.samoa.streams.kafka;
  */
 
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Properties;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.core.EntranceProcessor;
 import org.apache.samoa.core.Processor;
@@ -53,9 +49,10 @@ import org.apache.samoa.core.Processor;
 public class KafkaEntranceProcessor implements EntranceProcessor {
 
     transient private final KafkaUtils kafkaUtils;
-    private List<byte[]> buffer;
+    private transient ContentEvent next;
     private final KafkaDeserializer deserializer;
     private final String topic;
+    private final int bufferSize;
 
     /**
      * Class constructor
@@ -66,21 +63,32 @@ public class KafkaEntranceProcessor implements EntranceProcessor {
      * @param deserializer Instance of the implementation of {@link KafkaDeserializer}
      */
     public KafkaEntranceProcessor(Properties props, String topic, int timeout, KafkaDeserializer deserializer) {
-        this.kafkaUtils = new KafkaUtils(props, null, timeout);
-        this.deserializer = deserializer;
-        this.topic = topic;
+        this(props, topic, timeout, deserializer, KafkaConsumerThread.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Class constructor
+     * @param props Properties of Kafka consumer
+     * @see  <a href="https://kafka.apache.org/documentation/#newconsumerconfigs"> Apache Kafka consumer configuration</a>
+     * @param topic Topic from which the messages should be read
+     * @param timeout Timeout used when polling Kafka for new messages
+     * @param deserializer Instance of the implementation of {@link KafkaDeserializer}
+     * @param bufferSize Number of deserialized messages buffered ahead of the topology, the consumer pauses when they are not taken
+     */
+    public KafkaEntranceProcessor(Properties props, String topic, int timeout, KafkaDeserializer deserializer, int bufferSize) {
+        this(new KafkaUtils(props, null, timeout), deserializer, topic, bufferSize);
     }
 
-    private KafkaEntranceProcessor(KafkaUtils kafkaUtils, KafkaDeserializer deserializer, String topic) {
+    KafkaEntranceProcessor(KafkaUtils kafkaUtils, KafkaDeserializer deserializer, String topic, int bufferSize) {
         this.kafkaUtils = kafkaUtils;
         this.deserializer = deserializer;
         this.topic = topic;
+        this.bufferSize = bufferSize;
     }
 
     @Override
     public void onCreate(int id) {
-        this.buffer = new ArrayList<>(100);
-        this.kafkaUtils.initializeConsumer(Arrays.asList(this.topic));
+        this.kafkaUtils.initializeConsumer(Arrays.asList(this.topic), deserializer, bufferSize);
     }
 
     @Override
@@ -90,20 +98,18 @@ public class KafkaEntranceProcessor implements EntranceProcessor {
 
     @Override
     public boolean hasNext() {
-        if (buffer.isEmpty()) {
-            try {
-                buffer.addAll(kafkaUtils.getKafkaMessages());
-            } catch (Exception ex) {
-                Logger.getLogger(KafkaEntranceProcessor.class.getName()).log(Level.SEVERE, null, ex);
-            }
+        if (next == null) {
+            next = kafkaUtils.getNextKafkaEvent();
         }
-        return buffer.size() > 0;
+        return next != null;
     }
 
     @Override
     public ContentEvent nextEvent() {
-        // assume this will never be called when buffer is empty!        
-        return this.deserializer.deserialize(buffer.remove(0));
+        // assume this will never be called when hasNext() returned false!
+        ContentEvent event = next;
+        next = null;
+        return event;
     }
 
     @Override
@@ -114,7 +120,7 @@ public class KafkaEntranceProcessor implements EntranceProcessor {
     @Override
     public Processor newProcessor(Processor processor) {
         KafkaEntranceProcessor kep = (KafkaEntranceProcessor) processor;
-        return new KafkaEntranceProcessor(new KafkaUtils(kep.kafkaUtils), kep.deserializer, kep.topic);
+        return new KafkaEntranceProcessor(new KafkaUtils(kep.kafkaUtils), kep.deserializer, kep.topic, kep.bufferSize);
     }
 
     @Override
@@ -34,12 +34,19 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.samoa.core.ContentEvent;
 
 /**
  * Internal class responsible for Kafka Stream handling (both consume and
@@ -53,7 +60,13 @@ class KafkaUtils {
 
     private transient KafkaConsumerThread kafkaConsumerThread;
 
-    private transient KafkaProducer<String, byte[]> producer;
+    private transient Producer<String, byte[]> producer;
+
+    // Window of asynchronous sends not yet acknowledged by the broker
+    private transient Semaphore inFlight;
+
+    // Number of asynchronous sends that failed
+    private transient AtomicLong errorCount;
 
     // Properties of the consumer, as defined in Kafka documentation
     private final Properties consumerProperties;
@@ -61,7 +74,9 @@ class KafkaUtils {
 
     // Timeout for Kafka Consumer    
     private long consumerTimeout;
-        
+
+    // Maximal number of unacknowledged asynchronous sends
+    private final int maxInFlight;
 
     /**
      * Class constructor
@@ -71,9 +86,24 @@ class KafkaUtils {
      * @param consumerTimeout Timeout for consumer poll requests
      */
     public KafkaUtils(Properties consumerProperties, Properties producerProperties, long consumerTimeout) {
+        this(consumerProperties, producerProperties, consumerTimeout, 0);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param consumerProperties Properties of consumer
+     * @param producerProperties Properties of producer
+     * @param consumerTimeout Timeout for consumer poll requests
+     * @param maxInFlight Maximal number of asynchronous sends awaiting
+     * acknowledgement, further sends block until one completes. Values lower
+     * than 1 leave the window unbounded
+     */
+    public KafkaUtils(Properties consumerProperties, Properties producerProperties, long consumerTimeout, int maxInFlight) {
         this.consumerProperties = consumerProperties;
         this.producerProperties = producerProperties;
         this.consumerTimeout = consumerTimeout;
+        this.maxInFlight = maxInFlight;
     }
 
     /**
@@ -84,6 +114,7 @@ class KafkaUtils {
         this.consumerProperties = kafkaUtils.consumerProperties;
         this.producerProperties = kafkaUtils.producerProperties;
         this.consumerTimeout = kafkaUtils.consumerTimeout;
+        this.maxInFlight = kafkaUtils.maxInFlight;
     }
 
     /**
@@ -97,6 +128,28 @@ class KafkaUtils {
         kafkaConsumerThread.start();        
     }
 
+    /**
+     * Method used to initialize Kafka Consumer Thread that deserializes the
+     * messages on its own and hands them over through a bounded buffer
+     *
+     * @param topics List of Kafka topics that consumer should subscribe to
+     * @param deserializer Deserializer of the messages
+     * @param bufferSize Number of messages buffered before the consumer pauses
+     */
+    public void initializeConsumer(Collection<String> topics, KafkaDeserializer deserializer, int bufferSize) {
+        kafkaConsumerThread = new KafkaConsumerThread(consumerProperties, topics, consumerTimeout, deserializer, bufferSize);
+        kafkaConsumerThread.start();
+    }
+
+    /**
+     * Method used to initialize Kafka Consumer Thread with an already created
+     * consumer, e.g. a mock one
+     */
+    void initializeConsumer(Consumer<String, byte[]> consumer, Collection<String> topics, KafkaDeserializer deserializer, int bufferSize) {
+        kafkaConsumerThread = new KafkaConsumerThread(consumer, topics, consumerTimeout, deserializer, bufferSize);
+        kafkaConsumerThread.start();
+    }
+
     public void closeConsumer() {
         kafkaConsumerThread.close();
     }
@@ -104,10 +157,22 @@ class KafkaUtils {
     public void initializeProducer() {
         // lazy instantiation
         if (producer == null) {
-            producer = new KafkaProducer<>(producerProperties);
+            initializeProducer(new KafkaProducer<String, byte[]>(producerProperties));
         }
     }
 
+    /**
+     * Method used to initialize producer side with an already created
+     * producer, e.g. a mock one
+     *
+     * @param producer Kafka producer to be used
+     */
+    void initializeProducer(Producer<String, byte[]> producer) {
+        this.producer = producer;
+        this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+        this.errorCount = new AtomicLong();
+    }
+
     public void closeProducer(){
         if(producer != null){
             producer.close(1, TimeUnit.MINUTES);
@@ -125,6 +190,20 @@ class KafkaUtils {
         return kafkaConsumerThread.getKafkaMessages();
     }
 
+    /**
+     * Method for reading the next deserialized message, blocking until one is
+     * received. Requires the consumer to be initialized with a deserializer.
+     *
+     * @return Next message or null if the calling thread was interrupted
+     */
+    public ContentEvent getNextKafkaEvent() {
+        return (ContentEvent) kafkaConsumerThread.takeMessage();
+    }
+
+    boolean isConsumerPaused() {
+        return kafkaConsumerThread.isPaused();
+    }
+
     public long sendKafkaMessage(String topic, byte[] message) {
         if (producer != null) {
             try{
@@ -139,4 +218,78 @@ class KafkaUtils {
         }
         return -1;
     }
+
+    /**
+     * Method for sending a message without waiting for broker acknowledgement.
+     * Batching of the messages is left to the producer (see linger.ms and
+     * batch.size). When the in-flight window is full, the call blocks until
+     * one of the previous sends completes. Failed deliveries are not logged
+     * one by one but counted, see {@link #getErrorCount()}
+     *
+     * @param topic Kafka topic to write into
+     * @param message Message to be sent
+     * @return true if the message was handed over to the producer
+     */
+    public boolean sendKafkaMessageAsync(String topic, byte[] message) {
+        if (producer == null) {
+            return false;
+        }
+        if (inFlight != null) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        try {
+            producer.send(new ProducerRecord<String, byte[]>(topic, message), new SendCallback());
+        } catch (RuntimeException e) {
+            onSendCompleted(e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until all the messages sent so far are acknowledged (or failed)
+     */
+    public void flushProducer() {
+        if (producer != null) {
+            producer.flush();
+        }
+    }
+
+    /**
+     * @return Number of asynchronous sends that failed
+     */
+    public long getErrorCount() {
+        return errorCount == null ? 0 : errorCount.get();
+    }
+
+    /**
+     * @return Number of asynchronous sends awaiting acknowledgement, or -1 if
+     * the in-flight window is unbounded
+     */
+    int getInFlightCount() {
+        return inFlight == null ? -1 : maxInFlight - inFlight.availablePermits();
+    }
+
+    private void onSendCompleted(Exception exception) {
+        if (inFlight != null) {
+            inFlight.release();
+        }
+        if (exception != null && errorCount.incrementAndGet() == 1) {
+            // only the first failure is logged, the rest is just counted
+            Logger.getLogger(KafkaUtils.class.getName()).log(Level.WARNING, "Asynchronous send failed", exception);
+        }
+    }
+
+    private class SendCallback implements Callback {
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            onSendCompleted(exception);
+        }
+    }
 }
@@ -94,13 +94,13 @@ public class PrequentialEvaluation implements Task, Configurable {
       "Prequential_"
           + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date()));
 
-  public FileOption dumpFileOption = new FileOption("dumpFile", 'd', "File to append intermediate csv results to",
+  public FileOption dumpFileOption = new FileOption("dumpFile", 'd', "File to append intermediate csv results to, gzip compressed if the name ends with .gz",
       null, "csv", true);
 
   // The name of the CSV file in which model output (and in the case of classification also votes for individual classes)
-  // will be saved
-  public FileOption resultFileOption = new FileOption("resultFile", 'g', "File to append intermediate model output to",
-      null, "csv", true);
+  // will be saved, gzip compressed if the name ends with .gz
+  public FileOption resultFileOption = new FileOption("resultFile", 'g',
+      "File to append intermediate model output to, gzip compressed if the name ends with .gz", null, "csv", true);
 
   // Default=0: no delay/waiting
   public IntOption sourceDelayOption = new IntOption("sourceDelay", 'w',
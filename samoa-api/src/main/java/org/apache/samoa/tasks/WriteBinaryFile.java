@@ -0,0 +1,151 @@
+package org.apache.samoa.tasks;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.github.javacliparser.*;
+import org.apache.samoa.instances.BinaryInstancesWriter;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.moa.options.AbstractOptionHandler;
+import org.apache.samoa.streams.InstanceStream;
+import org.apache.samoa.streams.clustering.RandomRBFGeneratorEvents;
+import org.apache.samoa.streams.PrequentialSourceProcessor;
+import org.apache.samoa.topology.ComponentFactory;
+import org.apache.samoa.topology.Stream;
+import org.apache.samoa.topology.Topology;
+import org.apache.samoa.topology.TopologyBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * A task that writes a stream to a binary instance file, to be read back with
+ * {@link org.apache.samoa.streams.BinaryFileStream}.
+ */
+public class WriteBinaryFile implements Task, Configurable {
+
+
+    private static final long serialVersionUID = 5140219740349562201L;
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBinaryFile.class);
+
+    public ClassOption streamOption = new ClassOption("stream", 's', "Input stream.", InstanceStream.class,
+            RandomRBFGeneratorEvents.class.getName());
+
+    public FileOption binaryFileOption = new FileOption("binaryFile", 'f',
+            "Destination binary instance file.", null, "bin", true);
+
+    public IntOption maxInstancesOption = new IntOption("maxInstances", 'm',
+            "Maximum number of instances to write to file.", 10000000, 0,
+            Integer.MAX_VALUE);
+
+    public FlagOption sparseOption = new FlagOption("sparse",
+            'p', "Write the instances in sparse form.");
+
+    public IntOption blockSizeOption = new IntOption("blockSize", 'b',
+            "Number of instances of a block.", 4096, 1, Integer.MAX_VALUE);
+
+    public FlagOption blockIndexOption = new FlagOption("blockIndex",
+            'i', "Append an index of the blocks, for seeking.");
+
+
+    public void getDescription(StringBuilder sb) {
+        sb.append("Writing a stream to a binary instance file");
+    }
+
+    @Override
+    public void init() {
+
+        if (builder == null) {
+            logger.warn("Builder was not initialized, initializing it from the Task");
+
+            builder = new TopologyBuilder();
+            logger.debug("Successfully instantiating TopologyBuilder");
+
+            builder.initTopology(binaryFileOption.getValue());
+            logger.debug("Successfully initializing SAMOA topology with name {}", binaryFileOption.getValue());
+        }
+
+        InstanceStream stream = this.streamOption.getValue();
+        initStream(stream);
+
+        preqSource = new PrequentialSourceProcessor();
+        preqSource.setStreamSource(stream);
+        preqSource.setMaxNumInstances(this.maxInstancesOption.getValue());
+        builder.addEntranceProcessor(preqSource);
+
+        Stream sourcePiOutputStream = builder.createStream(preqSource);
+
+        File destFile = this.binaryFileOption.getFile();
+        if (destFile != null) {
+            try {
+                // file streams only know their header once they have read an instance
+                Instance first = stream.hasMoreInstances() ? stream.nextInstance().getData() : null;
+                BinaryInstancesWriter w = new BinaryInstancesWriter(destFile, stream.getHeader(),
+                        this.sparseOption.isSet(), this.blockSizeOption.getValue(), this.blockIndexOption.isSet());
+                if (first != null && this.maxInstancesOption.getValue() > 0) {
+                    w.write(first);
+                }
+                while ((w.getNumInstances() < this.maxInstancesOption.getValue())
+                        && stream.hasMoreInstances()) {
+                    w.write(stream.nextInstance().getData());
+                }
+                w.close();
+                logger.info("Wrote {} instances to {}", w.getNumInstances(), destFile);
+            } catch (Exception ex) {
+                throw new RuntimeException(
+                        "Failed writing to file " + destFile, ex);
+            }
+            this.topology = builder.build();
+            return;
+        }
+        throw new IllegalArgumentException("No destination file to write to.");
+    }
+
+    private Topology topology;
+
+    private TopologyBuilder builder;
+
+    private PrequentialSourceProcessor preqSource;
+
+    @Override
+    public void setFactory(ComponentFactory factory) {
+        // TODO unify this code with init() for now, it's used by S4 App
+        // dynamic binding theoretically will solve this problem
+        builder = new TopologyBuilder(factory);
+        logger.debug("Successfully instantiated TopologyBuilder");
+
+        builder.initTopology(binaryFileOption.getValue());
+        logger.debug("Successfully initialized SAMOA topology with name {}", binaryFileOption.getValue());
+
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    private void initStream(InstanceStream stream) {
+        if (stream instanceof AbstractOptionHandler) {
+            ((AbstractOptionHandler) (stream)).prepareForUse();
+        }
+
+    }
+}
@@ -0,0 +1,221 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timer scheduling many coarse grained timeouts on a single thread. Timeouts are hashed into the buckets of a wheel
+ * that advances once per tick, so scheduling and cancelling are O(1) and a timeout fires at most one tick late.
+ * 
+ * Tasks run on the timer thread and must be short, e.g. handing an event over to a stream. A single shared instance is
+ * available through {@link #getShared()}, so that the processors of a JVM do not need a scheduler each.
+ * 
+ */
+public final class HashedWheelTimer {
+
+  private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+  private static final long DEFAULT_TICK_MILLIS = 100;
+  private static final int DEFAULT_WHEEL_SIZE = 512;
+
+  private static final HashedWheelTimer SHARED = new HashedWheelTimer("samoa-timer", DEFAULT_TICK_MILLIS,
+      TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+
+  private final String name;
+  private final long tickNanos;
+  private final List<Timeout>[] wheel;
+  private final int mask;
+  private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+  private Thread worker;
+  private volatile boolean stopped;
+  private long startTime;
+
+  /**
+   * @return the timer shared by all the processors of the JVM
+   */
+  public static HashedWheelTimer getShared() {
+    return SHARED;
+  }
+
+  @SuppressWarnings("unchecked")
+  public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+    }
+    if (wheelSize <= 0) {
+      throw new IllegalArgumentException("Wheel size must be positive: " + wheelSize);
+    }
+    int size = Integer.highestOneBit(wheelSize - 1) << 1;
+    size = Math.max(size, 1);
+    this.name = name;
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.wheel = new List[size];
+    for (int i = 0; i < size; i++) {
+      this.wheel[i] = new ArrayList<>();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * Schedules a task to run once after the given delay.
+   * 
+   * @return the handle to cancel the task
+   */
+  public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+    if (task == null) {
+      throw new NullPointerException("task");
+    }
+    if (stopped) {
+      throw new IllegalStateException("Timer " + name + " is stopped");
+    }
+    start();
+    Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+    pendingTimeouts.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * Stops the timer thread. Pending timeouts never fire.
+   */
+  public synchronized void stop() {
+    stopped = true;
+    if (worker != null) {
+      worker.interrupt();
+    }
+  }
+
+  private synchronized void start() {
+    if (worker == null) {
+      startTime = System.nanoTime();
+      worker = new Thread(new Worker(), name);
+      worker.setDaemon(true);
+      worker.start();
+    }
+  }
+
+  /**
+   * Handle of a scheduled task.
+   */
+  public static final class Timeout {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(INIT);
+    // only accessed by the timer thread
+    private long remainingRounds;
+
+    private Timeout(Runnable task, long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the task if it has not run yet.
+     * 
+     * @return true if the task will not run
+     */
+    public boolean cancel() {
+      return state.compareAndSet(INIT, CANCELLED);
+    }
+
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+
+    private void expire() {
+      if (state.compareAndSet(INIT, EXPIRED)) {
+        try {
+          task.run();
+        } catch (Throwable t) {
+          logger.warn("Timer task failed", t);
+        }
+      }
+    }
+  }
+
+  private final class Worker implements Runnable {
+
+    private long tick;
+
+    @Override
+    public void run() {
+      while (!stopped) {
+        long deadline = startTime + (tick + 1) * tickNanos;
+        long sleepNanos = deadline - System.nanoTime();
+        if (sleepNanos > 0) {
+          LockSupport.parkNanos(this, sleepNanos);
+          continue;
+        }
+        transferPendingTimeouts();
+        expireTimeouts(wheel[(int) (tick & mask)]);
+        tick++;
+      }
+    }
+
+    private void transferPendingTimeouts() {
+      Timeout timeout;
+      while ((timeout = pendingTimeouts.poll()) != null) {
+        if (timeout.isCancelled()) {
+          continue;
+        }
+        long expirationTick = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+        // expired timeouts go in the current bucket
+        expirationTick = Math.max(expirationTick, tick);
+        timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+        wheel[(int) (expirationTick & mask)].add(timeout);
+      }
+    }
+
+    private void expireTimeouts(List<Timeout> bucket) {
+      Iterator<Timeout> it = bucket.iterator();
+      while (it.hasNext()) {
+        Timeout timeout = it.next();
+        if (timeout.isCancelled()) {
+          it.remove();
+        } else if (timeout.remainingRounds <= 0) {
+          it.remove();
+          timeout.expire();
+        } else {
+          timeout.remainingRounds--;
+        }
+      }
+    }
+  }
+}
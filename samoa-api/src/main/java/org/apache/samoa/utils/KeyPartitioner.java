@@ -0,0 +1,85 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
+
+/**
+ * Default {@link Partitioner}. It routes a {@link KeyedContentEvent} on its routing key, and any other event on the
+ * hash code of its String key. Both are put through the MurmurHash3 finalizer, so that consecutive keys (e.g. the
+ * attribute indices of the VHT) are spread evenly. Events without a key all go to the first replica.
+ * 
+ */
+public class KeyPartitioner implements Partitioner {
+
+  private static final long serialVersionUID = -3017255683094728351L;
+
+  @Override
+  public int hash(ContentEvent event) {
+    if (event instanceof KeyedContentEvent) {
+      return hashRoutingKey(((KeyedContentEvent) event).getRoutingKey());
+    }
+    String key = event.getKey();
+    if (key == null)
+      return 0;
+    return mix(key.hashCode());
+  }
+
+  @Override
+  public int partition(ContentEvent event, int numPartitions) {
+    return (hash(event) & Integer.MAX_VALUE) % numPartitions;
+  }
+
+  /**
+   * Hashes a routing key with the 64 bits MurmurHash3 finalizer.
+   * 
+   * @param routingKey
+   *          the routing key
+   * @return the hash
+   */
+  public static int hashRoutingKey(long routingKey) {
+    long h = routingKey;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  /**
+   * Mixes a hash code with the 32 bits MurmurHash3 finalizer.
+   * 
+   * @param hashCode
+   *          the hash code
+   * @return the mixed hash
+   */
+  public static int mix(int hashCode) {
+    int h = hashCode;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
@@ -0,0 +1,54 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+import org.apache.samoa.core.ContentEvent;
+
+/**
+ * Decides to which replica of a destination ProcessingItem an event of a GROUP_BY_KEY stream is sent. All the events
+ * with the same key must go to the same replica.
+ * 
+ */
+public interface Partitioner extends Serializable {
+
+  /**
+   * Computes a well-distributed hash of the key of an event. Used by engines that map hashes to partitions
+   * themselves.
+   * 
+   * @param event
+   *          the event
+   * @return the hash of the event key
+   */
+  public int hash(ContentEvent event);
+
+  /**
+   * Gets the index of the replica the event is sent to.
+   * 
+   * @param event
+   *          the event
+   * @param numPartitions
+   *          the number of replicas of the destination
+   * @return an index between 0 (inclusive) and numPartitions (exclusive)
+   */
+  public int partition(ContentEvent event, int numPartitions);
+}
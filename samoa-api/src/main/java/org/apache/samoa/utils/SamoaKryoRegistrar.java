@@ -0,0 +1,424 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.samoa.core.SerializableInstance;
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.DenseInstanceData;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.InstanceImpl;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.instances.SchemaRegistry;
+import org.apache.samoa.instances.SparseInstance;
+import org.apache.samoa.instances.SparseInstanceData;
+import org.apache.samoa.learners.InstanceContent;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.learners.InstancesContentEvent;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.apache.samoa.learners.classifiers.rules.common.ActiveRule;
+import org.apache.samoa.learners.classifiers.rules.common.Perceptron;
+import org.apache.samoa.learners.classifiers.rules.common.RulePassiveRegressionNode;
+import org.apache.samoa.learners.classifiers.rules.common.RuleSplitNode;
+import org.apache.samoa.learners.classifiers.rules.common.TargetMean;
+import org.apache.samoa.learners.classifiers.rules.distributed.AssignmentContentEvent;
+import org.apache.samoa.learners.classifiers.rules.distributed.PredicateContentEvent;
+import org.apache.samoa.learners.classifiers.rules.distributed.RuleContentEvent;
+import org.apache.samoa.learners.classifiers.trees.AttributeBatchContentEvent;
+import org.apache.samoa.learners.classifiers.trees.AttributeContentEvent;
+import org.apache.samoa.learners.classifiers.trees.ComputeContentEvent;
+import org.apache.samoa.learners.classifiers.trees.LocalResultContentEvent;
+import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
+import org.apache.samoa.moa.classifiers.core.conditionaltests.NominalAttributeBinaryTest;
+import org.apache.samoa.moa.classifiers.core.conditionaltests.NominalAttributeMultiwayTest;
+import org.apache.samoa.moa.classifiers.core.conditionaltests.NumericAttributeBinaryTest;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.ObjectMap;
+
+/**
+ * Registers the Kryo serializers of the events exchanged by the processors of a topology and of the instances and
+ * models they carry. Every engine applies the same registrations in the same order, so a class gets the same id on
+ * every worker.
+ */
+public final class SamoaKryoRegistrar {
+
+  private static final Map<Class<?>, Class<? extends Serializer>> serializers = newSerializers();
+
+  private SamoaKryoRegistrar() {
+  }
+
+  private static Map<Class<?>, Class<? extends Serializer>> newSerializers() {
+    Map<Class<?>, Class<? extends Serializer>> map = new LinkedHashMap<Class<?>, Class<? extends Serializer>>();
+    // instances
+    map.put(DenseInstanceData.class, DenseInstanceDataSerializer.class);
+    map.put(SparseInstanceData.class, SparseInstanceDataSerializer.class);
+    map.put(InstancesHeader.class, InstancesHeaderSerializer.class);
+    map.put(DenseInstance.class, InstanceSerializer.class);
+    map.put(SparseInstance.class, InstanceSerializer.class);
+    // SerializableInstance.HeaderFreeSerializer is opt-in, it needs the header registered on every receiver
+    map.put(SerializableInstance.class, InstanceSerializer.class);
+    // instance and result events
+    map.put(InstanceContent.class, InstanceContent.InstanceContentSerializer.class);
+    map.put(InstanceContentEvent.class, InstanceContentEvent.InstanceCESerializer.class);
+    map.put(InstancesContentEvent.class, InstancesContentEvent.InstancesCESerializer.class);
+    map.put(ResultContentEvent.class, ResultContentEvent.ResultCESerializer.class);
+    // vertical Hoeffding tree
+    map.put(AttributeContentEvent.class, AttributeContentEvent.AttributeCEFullPrecSerializer.class);
+    map.put(AttributeBatchContentEvent.class, AttributeBatchContentEvent.AttributeBatchCEFullPrecSerializer.class);
+    map.put(ComputeContentEvent.class, ComputeContentEvent.ComputeCEFullPrecSerializer.class);
+    map.put(LocalResultContentEvent.class, LocalResultContentEvent.LocalResultCESerializer.class);
+    map.put(AttributeSplitSuggestion.class, AttributeSplitSuggestion.AttributeSplitSuggestionSerializer.class);
+    map.put(NumericAttributeBinaryTest.class, NumericAttributeBinaryTest.NumericAttributeBinaryTestSerializer.class);
+    map.put(NominalAttributeBinaryTest.class, NominalAttributeBinaryTest.NominalAttributeBinaryTestSerializer.class);
+    map.put(NominalAttributeMultiwayTest.class,
+        NominalAttributeMultiwayTest.NominalAttributeMultiwayTestSerializer.class);
+    // AMRules, the rules are shipped rarely and keep their Java serialization
+    map.put(AssignmentContentEvent.class, AssignmentContentEvent.AssignmentCESerializer.class);
+    map.put(PredicateContentEvent.class, PredicateContentEvent.PredicateCESerializer.class);
+    map.put(RuleContentEvent.class, RuleContentEvent.RuleCESerializer.class);
+    map.put(ActiveRule.class, SerializableSerializer.class);
+    map.put(RuleSplitNode.class, SerializableSerializer.class);
+    map.put(RulePassiveRegressionNode.class, SerializableSerializer.class);
+    map.put(TargetMean.class, TargetMean.TargetMeanSerializer.class);
+    map.put(Perceptron.class, Perceptron.PerceptronSerializer.class);
+    return Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Gets the registered classes and their serializer classes, in registration order. Engines that only accept
+   * serializer classes, e.g. Flink, register these.
+   * 
+   * @return the serializer class of each registered class
+   */
+  public static Map<Class<?>, Class<? extends Serializer>> serializers() {
+    return serializers;
+  }
+
+  /**
+   * Registers the serializers in a Kryo instance. Classes that are already registered keep their registration, so
+   * that engine-specific registrations, e.g. the Samza registration file, take precedence.
+   * 
+   * @param kryo
+   *          the Kryo instance
+   */
+  public static void register(Kryo kryo) {
+    for (Map.Entry<Class<?>, Class<? extends Serializer>> entry : serializers.entrySet()) {
+      if (kryo.getClassResolver().getRegistration(entry.getKey()) == null) {
+        kryo.register(entry.getKey(), newSerializer(entry.getValue()));
+      }
+    }
+  }
+
+  private static Serializer<?> newSerializer(Class<? extends Serializer> serializerClass) {
+    try {
+      return serializerClass.newInstance();
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Unable to create serializer " + serializerClass.getName(), e);
+    }
+  }
+
+  /**
+   * The Kryo serializer of dense instance values.
+   */
+  public static final class DenseInstanceDataSerializer extends Serializer<DenseInstanceData> {
+
+    @Override
+    public void write(Kryo kryo, Output output, DenseInstanceData data) {
+      double[] values = data.toDoubleArray();
+      output.writeInt(values.length, true);
+      writeDoubles(output, values, values.length);
+    }
+
+    @Override
+    public DenseInstanceData read(Kryo kryo, Input input, Class<DenseInstanceData> type) {
+      return new DenseInstanceData(readDoubles(input, input.readInt(true)));
+    }
+  }
+
+  /**
+   * The Kryo serializer of sparse instance values. The indices are ascending and written as deltas, which mostly fit
+   * in a byte or two.
+   */
+  public static final class SparseInstanceDataSerializer extends Serializer<SparseInstanceData> {
+
+    @Override
+    public void write(Kryo kryo, Output output, SparseInstanceData data) {
+      output.writeInt(data.getNumberAttributes(), true);
+      int numValues = data.numValues();
+      output.writeInt(numValues, true);
+      int previous = 0;
+      for (int i = 0; i < numValues; i++) {
+        output.writeInt(data.index(i) - previous, true);
+        previous = data.index(i);
+      }
+      writeDoubles(output, data.getAttributeValues(), numValues);
+    }
+
+    @Override
+    public SparseInstanceData read(Kryo kryo, Input input, Class<SparseInstanceData> type) {
+      int numAttributes = input.readInt(true);
+      int numValues = input.readInt(true);
+      int[] indices = readIndices(input, numValues);
+      return new SparseInstanceData(readDoubles(input, numValues), indices, numAttributes);
+    }
+  }
+
+  /**
+   * The Kryo serializer of instance headers. Headers of numeric and nominal attributes with a single class are
+   * written as their relation name, class index and attributes, others fall back to Java serialization. A header is
+   * written once per object graph, e.g. once for all the instances of an InstancesContentEvent, and the headers read
+   * are registered in the {@link SchemaRegistry}, so the instances of a stream share one header on the receiver.
+   */
+  public static final class InstancesHeaderSerializer extends Serializer<InstancesHeader> {
+
+    private static final Object WRITTEN_HEADERS = new Object();
+    private static final Object READ_HEADERS = new Object();
+
+    private final SerializableSerializer fallback = new SerializableSerializer();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(Kryo kryo, Output output, InstancesHeader header) {
+      ObjectMap context = kryo.getGraphContext();
+      Map<Integer, Integer> written = (Map<Integer, Integer>) context.get(WRITTEN_HEADERS);
+      if (written == null) {
+        written = new HashMap<Integer, Integer>();
+        context.put(WRITTEN_HEADERS, written);
+      }
+      int schemaId = SchemaRegistry.schemaId(header);
+      Integer reference = written.get(schemaId);
+      if (reference != null) {
+        output.writeInt(reference, true);
+        return;
+      }
+      written.put(schemaId, written.size() + 1);
+      output.writeInt(0, true);
+
+      boolean compact = isCompact(header);
+      output.writeBoolean(compact);
+      if (!compact) {
+        fallback.write(kryo, output, header);
+        return;
+      }
+      output.writeString(header.getRelationName());
+      output.writeInt(header.classIndex(), true);
+      output.writeInt(header.numAttributes(), true);
+      for (int i = 0; i < header.numAttributes(); i++) {
+        Attribute attribute = header.attribute(i);
+        output.writeString(attribute.name());
+        if (attribute.isNominal()) {
+          List<String> values = attribute.getAttributeValues();
+          output.writeInt(values.size() + 1, true);
+          for (String value : values) {
+            output.writeString(value);
+          }
+        } else {
+          output.writeInt(0, true);
+        }
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InstancesHeader read(Kryo kryo, Input input, Class<InstancesHeader> type) {
+      ObjectMap context = kryo.getGraphContext();
+      List<InstancesHeader> read = (List<InstancesHeader>) context.get(READ_HEADERS);
+      if (read == null) {
+        read = new ArrayList<InstancesHeader>();
+        context.put(READ_HEADERS, read);
+      }
+      int reference = input.readInt(true);
+      if (reference > 0) {
+        return read.get(reference - 1);
+      }
+
+      InstancesHeader header;
+      if (!input.readBoolean()) {
+        header = (InstancesHeader) fallback.read(kryo, input, type);
+      } else {
+        String relationName = input.readString();
+        int classIndex = input.readInt(true);
+        int numAttributes = input.readInt(true);
+        List<Attribute> attributes = new ArrayList<Attribute>(numAttributes);
+        for (int i = 0; i < numAttributes; i++) {
+          String name = input.readString();
+          int numValues = input.readInt(true) - 1;
+          if (numValues < 0) {
+            attributes.add(new Attribute(name));
+          } else {
+            List<String> values = new ArrayList<String>(numValues);
+            for (int j = 0; j < numValues; j++) {
+              values.add(input.readString());
+            }
+            attributes.add(new Attribute(name, values));
+          }
+        }
+        header = new InstancesHeader(new Instances(relationName, attributes, 0));
+        header.setClassIndex(classIndex);
+      }
+      header = SchemaRegistry.lookup(SchemaRegistry.register(header));
+      read.add(header);
+      return header;
+    }
+
+    private static boolean isCompact(Instances header) {
+      // multi-target headers keep their output range in the instance information
+      if (header.classIndex() == Integer.MAX_VALUE) {
+        return false;
+      }
+      for (int i = 0; i < header.numAttributes(); i++) {
+        Attribute attribute = header.attribute(i);
+        if (!attribute.isNumeric() && !(attribute.isNominal() && attribute.getAttributeValues() != null)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The Kryo serializer of dense, sparse and serializable instances: the weight, the header and the values, dense or
+   * sparse as the instance holds them.
+   */
+  public static final class InstanceSerializer extends Serializer<InstanceImpl> {
+
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+
+    @Override
+    public void write(Kryo kryo, Output output, InstanceImpl instance) {
+      output.writeDouble(instance.weight());
+      kryo.writeObjectOrNull(output, instance.dataset(), InstancesHeader.class);
+      writeValues(output, instance);
+    }
+
+    @Override
+    public InstanceImpl read(Kryo kryo, Input input, Class<InstanceImpl> type) {
+      double weight = input.readDouble();
+      InstancesHeader header = kryo.readObjectOrNull(input, InstancesHeader.class);
+      InstanceImpl instance = readValues(input, weight, type);
+      if (header != null) {
+        instance.setDataset(header);
+      }
+      return instance;
+    }
+
+    /**
+     * Writes the values of an instance, without its weight and header.
+     * 
+     * @param output
+     *          the output
+     * @param instance
+     *          the instance
+     */
+    public static void writeValues(Output output, Instance instance) {
+      int numAttributes = instance.numAttributes();
+      int numValues = instance.numValues();
+      if (instance instanceof SparseInstance || numValues != numAttributes) {
+        output.writeByte(SPARSE);
+        output.writeInt(numAttributes, true);
+        output.writeInt(numValues, true);
+        int previous = 0;
+        for (int i = 0; i < numValues; i++) {
+          output.writeInt(instance.index(i) - previous, true);
+          previous = instance.index(i);
+        }
+        for (int i = 0; i < numValues; i++) {
+          output.writeDouble(instance.valueSparse(i));
+        }
+      } else {
+        output.writeByte(DENSE);
+        output.writeInt(numAttributes, true);
+        for (int i = 0; i < numAttributes; i++) {
+          output.writeDouble(instance.value(i));
+        }
+      }
+    }
+
+    /**
+     * Reads the values written by {@link #writeValues(Output, Instance)} into a new instance without header.
+     * 
+     * @param input
+     *          the input
+     * @param weight
+     *          the weight of the instance
+     * @param type
+     *          the class of the instance, DenseInstance, SparseInstance or SerializableInstance
+     * @return the instance
+     */
+    public static InstanceImpl readValues(Input input, double weight, Class<?> type) {
+      InstanceImpl instance;
+      if (input.readByte() == SPARSE) {
+        int numAttributes = input.readInt(true);
+        int numValues = input.readInt(true);
+        int[] indices = readIndices(input, numValues);
+        instance = new SparseInstance(weight, readDoubles(input, numValues), indices, numAttributes);
+      } else {
+        double[] values = readDoubles(input, input.readInt(true));
+        instance = type == SparseInstance.class ? new SparseInstance(weight, values) : new DenseInstance(weight,
+            values);
+      }
+      if (type == SerializableInstance.class) {
+        return new SerializableInstance(instance);
+      }
+      if (type == DenseInstance.class && instance instanceof SparseInstance) {
+        return new DenseInstance(instance);
+      }
+      return instance;
+    }
+  }
+
+  private static void writeDoubles(Output output, double[] values, int length) {
+    for (int i = 0; i < length; i++) {
+      output.writeDouble(values[i]);
+    }
+  }
+
+  private static double[] readDoubles(Input input, int length) {
+    double[] values = new double[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = input.readDouble();
+    }
+    return values;
+  }
+
+  private static int[] readIndices(Input input, int length) {
+    int[] indices = new int[length];
+    int previous = 0;
+    for (int i = 0; i < length; i++) {
+      previous += input.readInt(true);
+      indices[i] = previous;
+    }
+    return indices;
+  }
+}
@@ -0,0 +1,113 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock free queue for exactly one producer thread and one consumer thread. The capacity is rounded up to a
+ * power of two, so that a slot is found by masking the ever increasing head and tail counters.
+ * 
+ * The producer only writes the tail and the consumer only writes the head; both are published with ordered writes, which
+ * is all the visibility a single producer / single consumer pair needs. Using an instance from more threads on either
+ * side is not supported.
+ * 
+ * @param <E>
+ *          type of the elements
+ */
+public final class SpscRingBuffer<E> {
+
+  private final AtomicReferenceArray<E> slots;
+  private final int mask;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+
+  // producer's cached view of the head, refreshed only when the buffer looks full
+  private long headCache;
+
+  public SpscRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Adds an element, to be called by the producer thread only.
+   * 
+   * @return false if the buffer is full
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException("Null elements are not supported");
+    }
+    long t = tail.get();
+    if (t - headCache > mask) {
+      headCache = head.get();
+      if (t - headCache > mask) {
+        return false;
+      }
+    }
+    slots.lazySet((int) t & mask, element);
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /**
+   * Removes the oldest element, to be called by the consumer thread only.
+   * 
+   * @return the element or null if the buffer is empty
+   */
+  public E poll() {
+    long h = head.get();
+    if (h >= tail.get()) {
+      return null;
+    }
+    int index = (int) h & mask;
+    E element = slots.get(index);
+    slots.lazySet(index, null);
+    head.lazySet(h + 1);
+    return element;
+  }
+
+  /**
+   * @return the number of elements, exact only when called by one of the two threads while the other one is idle
+   */
+  public int size() {
+    long h = head.get();
+    return (int) (tail.get() - h);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int remainingCapacity() {
+    return capacity() - size();
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+}
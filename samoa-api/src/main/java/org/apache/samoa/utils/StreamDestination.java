@@ -25,7 +25,8 @@ import org.apache.samoa.topology.IProcessingItem;
 /**
  * Represents one destination for streams. It has the info of: the ProcessingItem, parallelismHint, and partitioning
  * scheme. Usage: - When ProcessingItem connects to a stream, it will pass a StreamDestination to the stream. - Stream
- * manages a set of StreamDestination. - Used in single-threaded and multi-threaded local mode.
+ * manages a set of StreamDestination. - Used in single-threaded and multi-threaded local mode. For GROUP_BY_KEY, the
+ * {@link Partitioner} of the destination decides which replica receives each event.
  * 
  * @author Anh Thu Vu
  * 
@@ -34,14 +35,20 @@ public class StreamDestination {
   private IProcessingItem pi;
   private int parallelism;
   private PartitioningScheme type;
+  private Partitioner partitioner;
 
   /*
    * Constructor
    */
   public StreamDestination(IProcessingItem pi, int parallelismHint, PartitioningScheme type) {
+    this(pi, parallelismHint, type, new KeyPartitioner());
+  }
+
+  public StreamDestination(IProcessingItem pi, int parallelismHint, PartitioningScheme type, Partitioner partitioner) {
     this.pi = pi;
     this.parallelism = parallelismHint;
     this.type = type;
+    this.partitioner = partitioner;
   }
 
   /*
@@ -59,4 +66,8 @@ public class StreamDestination {
     return this.type;
   }
 
+  public Partitioner getPartitioner() {
+    return this.partitioner;
+  }
+
 }
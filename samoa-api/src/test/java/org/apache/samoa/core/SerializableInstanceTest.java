@@ -0,0 +1,155 @@
+package org.apache.samoa.core;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.SchemaRegistry;
+import org.apache.samoa.instances.SparseInstance;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.learners.InstancesContentEvent;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+public class SerializableInstanceTest {
+
+  private static final int NUM_ATTRIBUTES = 50;
+
+  private Instances header;
+
+  @Before
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<Attribute>();
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      attributes.add(new Attribute("numeric_attribute_" + i));
+    }
+    attributes.add(new Attribute("class", new ArrayList<String>(Arrays.asList("first_class", "second_class",
+        "third_class"))));
+    header = new Instances("serializable-instance-test", attributes, 0);
+    header.setClassIndex(NUM_ATTRIBUTES - 1);
+  }
+
+  @Test
+  public void testDenseRoundTrip() {
+    Instance instance = denseInstance(5);
+    SerializableInstance copy = roundTrip(headerFreeKryo(), new SerializableInstance(instance));
+
+    assertEquals(instance.weight(), copy.weight(), 0.0);
+    assertArrayEquals(instance.toDoubleArray(), copy.toDoubleArray(), 0.0);
+    assertSame(SchemaRegistry.lookup(SchemaRegistry.schemaId(header)), copy.dataset());
+    assertEquals(2, (int) copy.classValue());
+    assertEquals("third_class", copy.classAttribute().value((int) copy.classValue()));
+  }
+
+  @Test
+  public void testSparseRoundTrip() {
+    Instance instance = new SparseInstance(2.0, new double[] { 1.5, -3, 1 }, new int[] { 4, 17, NUM_ATTRIBUTES - 1 },
+        NUM_ATTRIBUTES);
+    instance.setDataset(header);
+    SerializableInstance copy = roundTrip(headerFreeKryo(), new SerializableInstance(instance));
+
+    assertEquals(2.0, copy.weight(), 0.0);
+    assertEquals(3, copy.numValues());
+    assertEquals(17, copy.index(1));
+    assertEquals(-3, copy.value(17), 0.0);
+    assertEquals(0, copy.value(16), 0.0);
+    assertEquals(NUM_ATTRIBUTES, copy.numAttributes());
+    assertEquals(1, (int) copy.classValue());
+  }
+
+  @Test
+  public void testInstanceWithoutHeader() {
+    SerializableInstance copy = roundTrip(headerFreeKryo(), new SerializableInstance(new DenseInstance(1.0,
+        new double[] { 1, 2 })));
+    assertNull(copy.dataset());
+    assertEquals(2, copy.value(1), 0.0);
+  }
+
+  @Test(expected = KryoException.class)
+  public void testUnknownSchemaId() {
+    Output output = new Output(64);
+    output.writeInt(SchemaRegistry.schemaId(header) + 1);
+    output.writeDouble(1.0);
+    output.writeByte(0);
+    output.writeInt(0, true);
+    new SerializableInstance.HeaderFreeSerializer().read(new Kryo(), new Input(output.toBytes()),
+        SerializableInstance.class);
+  }
+
+  @Test
+  public void testEventsAreSmallerWithoutHeader() {
+    InstancesContentEvent batch = new InstancesContentEvent();
+    for (int i = 0; i < 10; i++) {
+      batch.add(new InstanceContentEvent(i, denseInstance(i), true, false).getInstanceContent());
+    }
+    Object[] events = {
+        new InstanceContentEvent(1, denseInstance(1), true, true),
+        batch,
+        new ResultContentEvent(1, denseInstance(1), 1, new double[] { 0.2, 0.7, 0.1 }, false) };
+
+    for (Object event : events) {
+      assertTrue(event.getClass().getSimpleName(), size(headerFreeKryo(), event) < size(new Kryo(), event));
+    }
+  }
+
+  private Instance denseInstance(int seed) {
+    double[] values = new double[NUM_ATTRIBUTES];
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      values[i] = seed * 0.5 + i;
+    }
+    values[NUM_ATTRIBUTES - 1] = seed % 3;
+    Instance instance = new DenseInstance(1.0, values);
+    instance.setDataset(header);
+    return instance;
+  }
+
+  private static Kryo headerFreeKryo() {
+    Kryo kryo = new Kryo();
+    kryo.register(SerializableInstance.class, new SerializableInstance.HeaderFreeSerializer());
+    return kryo;
+  }
+
+  private static SerializableInstance roundTrip(Kryo kryo, SerializableInstance instance) {
+    Output output = new Output(4096, -1);
+    kryo.writeObject(output, instance);
+    return kryo.readObject(new Input(output.toBytes()), SerializableInstance.class);
+  }
+
+  private static int size(Kryo kryo, Object event) {
+    Output output = new Output(4096, -1);
+    kryo.writeObject(output, event);
+    kryo.readObject(new Input(output.toBytes()), event.getClass());
+    return output.position();
+  }
+}
@@ -0,0 +1,161 @@
+package org.apache.samoa.evaluation;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncDumpWriterTest {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = File.createTempFile("dump", "");
+    assertTrue(dir.delete() && dir.mkdir());
+  }
+
+  @After
+  public void tearDown() {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  private static List<String> read(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    if (file.getName().endsWith(".gz")) {
+      in = new GZIPInputStream(in);
+    }
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  @Test
+  public void testLinesInOrder() throws IOException {
+    File file = new File(dir, "result.csv");
+    AsyncDumpWriter writer = new AsyncDumpWriter(file, false, 1024, 10);
+    for (int i = 0; i < 10000; i++) {
+      writer.println(i + ",0.5");
+    }
+    writer.close();
+    List<String> lines = read(file);
+    assertEquals(10000, lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      assertEquals(i + ",0.5", lines.get(i));
+    }
+  }
+
+  @Test
+  public void testFlush() throws IOException {
+    File file = new File(dir, "result.csv");
+    // neither the size nor the interval would trigger a write
+    AsyncDumpWriter writer = new AsyncDumpWriter(file, false, 1 << 20, 60000);
+    writer.println("header");
+    writer.println("row");
+    writer.flush();
+    assertEquals(2, read(file).size());
+    writer.println("last");
+    writer.close();
+    assertEquals(3, read(file).size());
+  }
+
+  @Test
+  public void testWriteOnFullBuffer() throws Exception {
+    File file = new File(dir, "result.csv");
+    AsyncDumpWriter writer = new AsyncDumpWriter(file, false, 64, 60000);
+    for (int i = 0; i < 100; i++) {
+      writer.println("row " + i);
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    while (file.length() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(file.length() > 0);
+    writer.close();
+  }
+
+  @Test
+  public void testGzipAppend() throws IOException {
+    File file = new File(dir, "predictions.csv.gz");
+    AsyncDumpWriter writer = new AsyncDumpWriter(file, false);
+    writer.println("true class,predicted class");
+    writer.println("1,1");
+    writer.close();
+    writer = new AsyncDumpWriter(file, true);
+    writer.println("0,1");
+    writer.close();
+    List<String> lines = read(file);
+    assertEquals(3, lines.size());
+    assertEquals("0,1", lines.get(2));
+  }
+
+  @Test
+  public void testInterruptedWriterClosesTheFile() throws Exception {
+    File file = new File(dir, "interrupted.csv.gz");
+    AsyncDumpWriter writer = new AsyncDumpWriter(file, false, 1 << 20, 60000);
+    writer.println("row 0");
+    writer.println("row 1");
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("samoa-dump-" + file.getName())) {
+        thread.interrupt();
+        thread.join();
+      }
+    }
+    try {
+      writer.close();
+      fail("the interruption should be reported");
+    } catch (IOException expected) {
+      // the lines appended before are written nonetheless
+    }
+    // the gzip trailer is written, reading would fail otherwise
+    List<String> lines = read(file);
+    assertEquals(2, lines.size());
+    assertEquals("row 1", lines.get(1));
+  }
+
+  @Test(expected = IOException.class)
+  public void testClosed() throws IOException {
+    AsyncDumpWriter writer = new AsyncDumpWriter(new File(dir, "result.csv"), false);
+    writer.close();
+    writer.println("too late");
+  }
+}
@@ -0,0 +1,53 @@
+package org.apache.samoa.learners;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ResultContentEventTest {
+
+  @Test
+  public void testFullResult() {
+    ResultContentEvent result = new ResultContentEvent(7, null, 1, new double[] { 0.2, 0.5, 0.3 }, false);
+    assertFalse(result.isCompact());
+    assertEquals(1, result.getPredictedClass());
+    assertArrayEquals(new double[] { 0.2, 0.5, 0.3 }, result.getClassVotes(), 0.0);
+  }
+
+  @Test
+  public void testCompactResult() {
+    ResultContentEvent result = new ResultContentEvent(7, null, 1, 2, true);
+    assertTrue(result.isCompact());
+    assertTrue(result.isLastEvent());
+    assertEquals(7, result.getInstanceIndex());
+    assertEquals(2, result.getPredictedClass());
+    assertArrayEquals(new double[] { 0.0, 0.0, 1.0 }, result.getClassVotes(), 0.0);
+  }
+
+  @Test
+  public void testEmptyResult() {
+    ResultContentEvent result = new ResultContentEvent(true);
+    assertFalse(result.isCompact());
+    assertEquals(-1, result.getPredictedClass());
+    assertNull(result.getClassVotes());
+  }
+}
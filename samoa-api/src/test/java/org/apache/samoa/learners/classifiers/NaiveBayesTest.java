@@ -0,0 +1,73 @@
+package org.apache.samoa.learners.classifiers;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NaiveBayesTest {
+
+  private static final double[][] TRAINING = { { 1.0, 0, 2.0, 0 }, { 0, 3.0, 0, 1 }, { 1.5, 0, 0, 0 },
+      { 0, 2.5, 1.0, 1 }, { 2.0, 0, 1.5, 0 }, { 0, 3.5, 0, 1 }, { 1.2, 0.5, 0, 0 }, { 0.2, 2.0, 0.5, 1 } };
+
+  private InstancesHeader header;
+
+  @Before
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      attributes.add(new Attribute("x" + i));
+    }
+    attributes.add(new Attribute("class", new ArrayList<>(Arrays.asList("a", "b"))));
+    Instances instances = new Instances("naive-bayes-test", attributes, 0);
+    instances.setClassIndex(3);
+    header = new InstancesHeader(instances);
+  }
+
+  private Instance dense(double... values) {
+    Instance inst = new DenseInstance(1.0, values);
+    inst.setDataset(header);
+    return inst;
+  }
+
+  @Test
+  public void testDenseVotesWithZeros() {
+    NaiveBayes learner = new NaiveBayes();
+    for (double[] values : TRAINING) {
+      learner.trainOnInstance(dense(values));
+    }
+    // the votes of the learner that walked every attribute of a dense instance, zeros included
+    assertArrayEquals(new double[] { -0.8937784992808012, -73.84394309002938 },
+        learner.getVotesForInstance(dense(1.2, 0, 0, 0)), 1e-9);
+    assertArrayEquals(new double[] { -71.83314102843345, 1.4287841826978713 },
+        learner.getVotesForInstance(dense(0, 3.0, 0.5, 0)), 1e-9);
+  }
+}
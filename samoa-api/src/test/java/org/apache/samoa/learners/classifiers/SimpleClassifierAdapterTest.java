@@ -0,0 +1,72 @@
+package org.apache.samoa.learners.classifiers;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.moa.classifiers.functions.MajorityClass;
+import org.junit.Test;
+
+public class SimpleClassifierAdapterTest {
+
+  private static Instances header(String name) {
+    List<Attribute> attributes = new ArrayList<>();
+    attributes.add(new Attribute("x"));
+    attributes.add(new Attribute("class", new ArrayList<>(Arrays.asList("a", "b"))));
+    Instances instances = new Instances(name, attributes, 0);
+    instances.setClassIndex(1);
+    return instances;
+  }
+
+  @Test
+  public void testSharedInstanceIsNotModified() {
+    SimpleClassifierAdapter adapter = new SimpleClassifierAdapter(new MajorityClass(), header("member"));
+    Instance shared = new DenseInstance(1.0, new double[] { 0.5, 1 });
+    InstancesHeader sharedHeader = new InstancesHeader(header("shared"));
+    shared.setDataset(sharedHeader);
+    Instances before = shared.dataset();
+
+    adapter.trainOnInstance(shared);
+    adapter.trainOnInstance(shared);
+    double[] votes = adapter.getVotesForInstance(shared);
+
+    assertSame(before, shared.dataset());
+    assertEquals(1, maxIndex(votes));
+  }
+
+  private static int maxIndex(double[] votes) {
+    int best = 0;
+    for (int i = 1; i < votes.length; i++) {
+      if (votes[i] > votes[best]) {
+        best = i;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,177 @@
+package org.apache.samoa.learners.classifiers;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.instances.SparseInstance;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SparseNaiveBayesTest {
+
+  private static final int NUM_ATTRIBUTES = 20000;
+  private static final int NUM_CLASSES = 3;
+  private static final int TOPIC_SIZE = 100;
+  private static final int NON_ZEROS = 30;
+
+  private InstancesHeader header;
+  private Random random;
+
+  @Before
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<>();
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      attributes.add(new Attribute("word_" + i));
+    }
+    attributes.add(new Attribute("class", new ArrayList<>(Arrays.asList("a", "b", "c"))));
+    Instances instances = new Instances("sparse-naive-bayes-test", attributes, 0);
+    instances.setClassIndex(NUM_ATTRIBUTES);
+    header = new InstancesHeader(instances);
+    random = new Random(42);
+  }
+
+  /**
+   * Half of the words of a document are drawn from the topic of its class, the others from the whole vocabulary.
+   */
+  private SparseInstance document(int classValue) {
+    double[] values = new double[NUM_ATTRIBUTES + 1];
+    for (int i = 0; i < NON_ZEROS; i++) {
+      int word = i % 2 == 0 ? classValue * TOPIC_SIZE + random.nextInt(TOPIC_SIZE) : random.nextInt(NUM_ATTRIBUTES);
+      values[word] += 1;
+    }
+    int numValues = 1;
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      if (values[i] != 0) {
+        numValues++;
+      }
+    }
+    double[] attributeValues = new double[numValues];
+    int[] indexValues = new int[numValues];
+    for (int i = 0, pos = 0; i < NUM_ATTRIBUTES; i++) {
+      if (values[i] != 0) {
+        attributeValues[pos] = values[i];
+        indexValues[pos++] = i;
+      }
+    }
+    attributeValues[numValues - 1] = classValue;
+    indexValues[numValues - 1] = NUM_ATTRIBUTES;
+    SparseInstance inst = new SparseInstance(1.0, attributeValues, indexValues, NUM_ATTRIBUTES + 1);
+    inst.setDataset(header);
+    return inst;
+  }
+
+  private static int argMax(double[] votes) {
+    int best = 0;
+    for (int i = 1; i < votes.length; i++) {
+      if (votes[i] > votes[best]) {
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  @Test
+  public void testUntrained() {
+    SparseNaiveBayes learner = new SparseNaiveBayes();
+    assertEquals(0, learner.getVotesForInstance(document(0)).length);
+  }
+
+  @Test
+  public void testLearnsTopics() {
+    SparseNaiveBayes learner = new SparseNaiveBayes();
+    for (int i = 0; i < 600; i++) {
+      learner.trainOnInstance(document(i % NUM_CLASSES));
+    }
+    int correct = 0;
+    for (int i = 0; i < 300; i++) {
+      Instance inst = document(i % NUM_CLASSES);
+      double[] votes = learner.getVotesForInstance(inst);
+      assertEquals(NUM_CLASSES, votes.length);
+      double sum = 0;
+      for (double vote : votes) {
+        sum += vote;
+      }
+      assertEquals(1.0, sum, 1e-9);
+      if (argMax(votes) == (int) inst.classValue()) {
+        correct++;
+      }
+    }
+    assertTrue("accuracy " + correct / 300.0, correct > 290);
+  }
+
+  @Test
+  public void testDenseAndSparseAgree() {
+    SparseNaiveBayes sparseLearner = new SparseNaiveBayes();
+    SparseNaiveBayes denseLearner = new SparseNaiveBayes();
+    for (int i = 0; i < 100; i++) {
+      SparseInstance sparse = document(i % NUM_CLASSES);
+      DenseInstance dense = new DenseInstance(sparse.weight(), sparse.toDoubleArray());
+      dense.setDataset(header);
+      sparseLearner.trainOnInstance(sparse);
+      denseLearner.trainOnInstance(dense);
+    }
+    for (int i = 0; i < 20; i++) {
+      SparseInstance sparse = document(i % NUM_CLASSES);
+      DenseInstance dense = new DenseInstance(sparse.weight(), sparse.toDoubleArray());
+      dense.setDataset(header);
+      assertArrayEquals(sparseLearner.getVotesForInstance(sparse), denseLearner.getVotesForInstance(dense), 1e-12);
+      assertArrayEquals(sparseLearner.getVotesForInstance(sparse), sparseLearner.getVotesForInstance(dense), 1e-12);
+    }
+  }
+
+  @Test
+  public void testOnlyNonZeroAttributesAreStored() {
+    SparseNaiveBayes learner = new SparseNaiveBayes();
+    Set<Integer> words = new HashSet<>();
+    for (int i = 0; i < 200; i++) {
+      Instance inst = document(i % NUM_CLASSES);
+      for (int v = 0; v < inst.numValues(); v++) {
+        if (inst.index(v) != NUM_ATTRIBUTES) {
+          words.add(inst.index(v));
+        }
+      }
+      learner.trainOnInstance(inst);
+    }
+    assertEquals(words.size(), learner.numObservedAttributes());
+  }
+
+  @Test
+  public void testCreate() {
+    SparseNaiveBayes learner = new SparseNaiveBayes();
+    learner.smoothingOption.setValue(0.1);
+    learner.trainOnInstance(document(1));
+    SparseNaiveBayes copy = learner.create();
+    assertEquals(0.1, copy.smoothingOption.getValue(), 0);
+    assertEquals(0, copy.getVotesForInstance(document(1)).length);
+  }
+}
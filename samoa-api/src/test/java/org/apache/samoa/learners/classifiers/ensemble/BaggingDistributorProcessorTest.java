@@ -0,0 +1,136 @@
+package org.apache.samoa.learners.classifiers.ensemble;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.topology.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BaggingDistributorProcessorTest {
+
+  private static final int ENSEMBLE_SIZE = 50;
+  private static final int NUM_ATTRIBUTES = 500;
+
+  private CountingStream[] streams;
+
+  @Before
+  public void setUp() {
+    streams = new CountingStream[ENSEMBLE_SIZE];
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      streams[i] = new CountingStream();
+    }
+  }
+
+  @Test
+  public void testTestEventIsSharedByMembers() {
+    BaggingDistributorProcessor processor = newProcessor(new BaggingDistributorProcessor(), streams);
+    InstanceContentEvent event = new InstanceContentEvent(1, newInstance(), false, true);
+    event.setEvaluationIndex(3);
+    processor.process(event);
+
+    InstanceContentEvent shared = (InstanceContentEvent) streams[0].events.get(0);
+    assertSame(event.getInstance(), shared.getInstance());
+    assertEquals(3, shared.getEvaluationIndex());
+    assertTrue(shared.isTesting());
+    for (CountingStream stream : streams) {
+      assertEquals(1, stream.events.size());
+      assertSame(shared, stream.events.get(0));
+    }
+  }
+
+  @Test
+  public void testBoostingTestEventsShareInstance() {
+    BaggingDistributorProcessor processor = newProcessor(new BoostingDistributorProcessor(), streams);
+    InstanceContentEvent event = new InstanceContentEvent(1, newInstance(), false, true);
+    processor.process(event);
+
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      InstanceContentEvent memberEvent = (InstanceContentEvent) streams[i].events.get(0);
+      assertEquals(i, memberEvent.getClassifierIndex());
+      assertSame(event.getInstance(), memberEvent.getInstance());
+    }
+  }
+
+  @Test
+  public void testTrainEventsOverrideWeightOnly() {
+    BaggingDistributorProcessor processor = newProcessor(new BaggingDistributorProcessor(), streams);
+    Instance instance = newInstance();
+    instance.setWeight(2.0);
+    InstanceContentEvent event = new InstanceContentEvent(1, instance, true, false);
+    processor.process(event);
+
+    int trained = 0;
+    for (CountingStream stream : streams) {
+      for (ContentEvent e : stream.events) {
+        Instance weighted = ((InstanceContentEvent) e).getInstance();
+        assertNotSame(event.getInstance(), weighted);
+        assertEquals(0.0, weighted.weight() % 2.0, 0.0);
+        assertTrue(weighted.weight() >= 2.0);
+        assertEquals(event.getInstance().value(NUM_ATTRIBUTES - 1), weighted.value(NUM_ATTRIBUTES - 1), 0.0);
+        trained++;
+      }
+    }
+    assertTrue(trained > 0);
+    assertEquals(2.0, event.getInstance().weight(), 0.0);
+  }
+
+  private static BaggingDistributorProcessor newProcessor(BaggingDistributorProcessor processor, Stream[] streams) {
+    processor.setEnsembleSize(streams.length);
+    processor.setOutputStreams(streams);
+    return processor;
+  }
+
+  private static Instance newInstance() {
+    double[] values = new double[NUM_ATTRIBUTES];
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      values[i] = i;
+    }
+    return new DenseInstance(1.0, values);
+  }
+
+  private static final class CountingStream implements Stream {
+
+    private final List<ContentEvent> events = new ArrayList<>();
+
+    @Override
+    public void put(ContentEvent event) {
+      events.add(event);
+    }
+
+    @Override
+    public String getStreamId() {
+      return "member";
+    }
+
+    @Override
+    public void setBatchSize(int batchsize) {
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package org.apache.samoa.learners.classifiers.ensemble;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.apache.samoa.topology.Stream;
+import org.apache.samoa.utils.KeyPartitioner;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PredictionCombinerProcessorTest {
+
+  private static final int ENSEMBLE_SIZE = 3;
+
+  private CollectingStream output;
+  private PredictionCombinerProcessor processor;
+  private Instance instance;
+
+  @Before
+  public void setUp() {
+    output = new CollectingStream();
+    processor = newProcessor(ENSEMBLE_SIZE, 0);
+    instance = new DenseInstance(1.0, new double[] { 1.0, 2.0, 0.0 });
+  }
+
+  @Test
+  public void testCombinesNormalizedVotes() {
+    assertFalse(processor.process(vote(7, 0, 2.0, 2.0, 0.0)));
+    assertFalse(processor.process(vote(8, 0, 0.0, 0.0, 5.0)));
+    assertFalse(processor.process(vote(7, 1, 0.0, 1.0, 0.0)));
+    assertEquals(2, processor.getNumPendingInstances());
+    assertTrue(processor.process(vote(7, 2, 0.0, 0.0, 0.0)));
+
+    assertEquals(1, output.events.size());
+    ResultContentEvent result = output.events.get(0);
+    assertEquals(7, result.getInstanceIndex());
+    assertEquals(7, result.getEvaluationIndex());
+    assertArrayEquals(new double[] { 0.5, 1.5, 0.0 }, result.getClassVotes(), 0.0);
+    assertEquals(1, processor.getNumPendingInstances());
+  }
+
+  @Test
+  public void testLongInstanceIndices() {
+    long first = 1;
+    long second = first + (1L << 32);
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      processor.process(vote(first, i, 1.0, 0.0));
+      processor.process(vote(second, i, 0.0, 1.0));
+    }
+    assertEquals(2, output.events.size());
+    assertEquals(first, output.events.get(0).getInstanceIndex());
+    assertArrayEquals(new double[] { 3.0, 0.0 }, output.events.get(0).getClassVotes(), 0.0);
+    assertEquals(second, output.events.get(1).getInstanceIndex());
+    assertArrayEquals(new double[] { 0.0, 3.0 }, output.events.get(1).getClassVotes(), 0.0);
+  }
+
+  @Test
+  public void testBoostingLongInstanceIndices() {
+    List<Attribute> attributes = new ArrayList<>();
+    attributes.add(new Attribute("x"));
+    attributes.add(new Attribute("class", new ArrayList<>(Arrays.asList("a", "b"))));
+    Instances header = new Instances("boosting", attributes, 0);
+    header.setClassIndex(1);
+    instance = new DenseInstance(1.0, new double[] { 0.5, 1 });
+    instance.setDataset(header);
+    BoostingPredictionCombinerProcessor boosting = new BoostingPredictionCombinerProcessor();
+    boosting.setEnsembleSize(ENSEMBLE_SIZE);
+    boosting.setOutputStream(output);
+    CollectingStream training = new CollectingStream();
+    training.keepEvents = false;
+    boosting.setTrainingStream(training);
+    boosting.onCreate(0);
+
+    // both indices would share a key if they were truncated to int
+    long first = 1;
+    long second = first + (1L << 32);
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      boosting.process(vote(first, i, 1.0, 0.0));
+      boosting.process(vote(second, i, 0.0, 1.0));
+    }
+    assertEquals(2, output.events.size());
+    assertEquals(first, output.events.get(0).getInstanceIndex());
+    assertEquals(second, output.events.get(1).getInstanceIndex());
+    assertTrue(boosting.mapPredictions.isEmpty());
+  }
+
+  @Test
+  public void testCompactResults() {
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      ResultContentEvent compact = new ResultContentEvent(3, null, 0, i == 0 ? 0 : 1, false);
+      compact.setClassifierIndex(i);
+      processor.process(compact);
+    }
+    assertEquals(1, output.events.size());
+    assertArrayEquals(new double[] { 1.0, 2.0 }, output.events.get(0).getClassVotes(), 0.0);
+  }
+
+  @Test
+  public void testWatermarkExpiresMissingVotes() {
+    processor = newProcessor(ENSEMBLE_SIZE, 10);
+    // the last member never votes for instance 0
+    processor.process(vote(0, 0, 1.0, 0.0));
+    processor.process(vote(0, 1, 1.0, 0.0));
+    for (int n = 1; n <= 10; n++) {
+      for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+        processor.process(vote(n, i, 0.0, 1.0));
+      }
+    }
+    assertEquals(10, output.events.size());
+    assertEquals(1, processor.getNumPendingInstances());
+    assertEquals(0, processor.getNumExpiredInstances());
+
+    processor.process(vote(11, 0, 0.0, 1.0));
+    assertEquals(11, output.events.size());
+    ResultContentEvent expired = output.events.get(10);
+    assertEquals(0, expired.getInstanceIndex());
+    assertArrayEquals(new double[] { 2.0, 0.0 }, expired.getClassVotes(), 0.0);
+    assertEquals(1, processor.getNumExpiredInstances());
+
+    // the vote arrives after all, too late
+    assertFalse(processor.process(vote(0, 2, 1.0, 0.0)));
+    assertEquals(1, processor.getNumLateVotes());
+    assertEquals(11, output.events.size());
+    assertEquals(1, processor.getNumPendingInstances());
+  }
+
+  @Test
+  public void testLastEventFlushesTheTail() {
+    processor = newProcessor(ENSEMBLE_SIZE, 10);
+    // the last member never votes for the final instances
+    for (int n = 0; n <= 10; n++) {
+      for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+        if (i < ENSEMBLE_SIZE - 1 || n < 8) {
+          processor.process(vote(n, i, n == 10, 0.0, 1.0));
+        }
+      }
+    }
+    assertEquals(11, output.events.size());
+    for (int n = 0; n <= 10; n++) {
+      assertEquals(n, output.events.get(n).getInstanceIndex());
+      assertEquals(n == 10, output.events.get(n).isLastEvent());
+    }
+    // the tail is emitted on the first last event, so the vote of the second member for it is late
+    assertArrayEquals(new double[] { 0.0, 1.0 }, output.events.get(10).getClassVotes(), 0.0);
+    assertEquals(3, processor.getNumExpiredInstances());
+    assertEquals(1, processor.getNumLateVotes());
+    assertEquals(0, processor.getNumPendingInstances());
+  }
+
+  @Test
+  public void testCompleteLastEventFlushesTheTail() {
+    // the last member skips instances 8 and 9, but votes for the final one
+    for (int n = 0; n <= 10; n++) {
+      for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+        if (i < ENSEMBLE_SIZE - 1 || n < 8 || n == 10) {
+          processor.process(vote(n, i, n == 10, 0.0, 1.0));
+        }
+      }
+    }
+    assertEquals(11, output.events.size());
+    assertEquals(8, output.events.get(8).getInstanceIndex());
+    assertEquals(9, output.events.get(9).getInstanceIndex());
+    assertFalse(output.events.get(9).isLastEvent());
+    ResultContentEvent last = output.events.get(10);
+    assertEquals(10, last.getInstanceIndex());
+    assertTrue(last.isLastEvent());
+    assertArrayEquals(new double[] { 0.0, 3.0 }, last.getClassVotes(), 0.0);
+    assertEquals(2, processor.getNumExpiredInstances());
+    assertEquals(0, processor.getNumPendingInstances());
+  }
+
+  @Test
+  public void testLastEventWaitsForAllTheVotes() {
+    processor.process(vote(0, 0, true, 1.0, 0.0));
+    processor.process(vote(0, 1, true, 1.0, 0.0));
+    assertTrue(output.events.isEmpty());
+    assertTrue(processor.process(vote(0, 2, true, 0.0, 1.0)));
+    assertEquals(1, output.events.size());
+    assertTrue(output.events.get(0).isLastEvent());
+    assertArrayEquals(new double[] { 2.0, 1.0 }, output.events.get(0).getClassVotes(), 0.0);
+  }
+
+  @Test
+  public void testPreAggregatedVotes() {
+    final int ensembleSize = 5;
+    PredictionCombinerProcessor direct = newProcessor(ensembleSize, 0);
+    CollectingStream partialOutput = new CollectingStream();
+    PredictionCombinerProcessor[] groups = new PredictionCombinerProcessor[2];
+    for (int g = 0; g < groups.length; g++) {
+      groups[g] = new PredictionCombinerProcessor();
+      groups[g].setEnsembleSize(g == 0 ? 2 : 3);
+      groups[g].setOutputStream(partialOutput);
+    }
+    CollectingStream finalOutput = new CollectingStream();
+    PredictionCombinerProcessor combiner = new PredictionCombinerProcessor();
+    combiner.setEnsembleSize(groups.length);
+    combiner.setPreAggregated(true);
+    combiner.setOutputStream(finalOutput);
+
+    double[][] predictions = { { 1.0, 1.0 }, { 0.0, 4.0 }, { 3.0, 1.0 }, { 0.0, 0.0 }, { 2.0, 0.0 } };
+    for (int i = 0; i < ensembleSize; i++) {
+      direct.process(vote(4, i, predictions[i]));
+      groups[i < 2 ? 0 : 1].process(vote(4, i, predictions[i]));
+    }
+    assertEquals(2, partialOutput.events.size());
+    for (ResultContentEvent partial : partialOutput.events) {
+      combiner.process(partial);
+    }
+
+    assertEquals(1, finalOutput.events.size());
+    assertEquals(4, finalOutput.events.get(0).getInstanceIndex());
+    assertArrayEquals(output.events.get(0).getClassVotes(), finalOutput.events.get(0).getClassVotes(), 1e-12);
+    assertTrue(((PredictionCombinerProcessor) combiner.newProcessor(combiner)).isPreAggregated());
+  }
+
+  @Test
+  public void testResultsOfAnInstanceShareAPartition() {
+    KeyPartitioner partitioner = new KeyPartitioner();
+    int[] counts = new int[4];
+    for (long n = 0; n < 1000; n++) {
+      int partition = partitioner.partition(vote(n, 0, 1.0), counts.length);
+      for (int i = 1; i < ENSEMBLE_SIZE; i++) {
+        ResultContentEvent other = vote(n, i, 1.0);
+        other.setEvaluationIndex(i);
+        assertEquals(partition, partitioner.partition(other, counts.length));
+      }
+      counts[partition]++;
+    }
+    for (int count : counts) {
+      assertTrue(count > 150);
+    }
+  }
+
+  @Test
+  public void testNewProcessorCopiesSettings() {
+    processor = newProcessor(ENSEMBLE_SIZE, 10);
+    PredictionCombinerProcessor copy = (PredictionCombinerProcessor) processor.newProcessor(processor);
+    assertSame(output, copy.getOutputStream());
+    assertEquals(ENSEMBLE_SIZE, copy.getEnsembleSize());
+    assertEquals(10, copy.getMaxVoteDelay());
+  }
+
+  private PredictionCombinerProcessor newProcessor(int ensembleSize, int maxVoteDelay) {
+    PredictionCombinerProcessor combiner = new PredictionCombinerProcessor();
+    combiner.setEnsembleSize(ensembleSize);
+    combiner.setMaxVoteDelay(maxVoteDelay);
+    combiner.setOutputStream(output);
+    combiner.onCreate(0);
+    return combiner;
+  }
+
+  private ResultContentEvent vote(long instanceIndex, int classifierIndex, double... classVotes) {
+    return vote(instanceIndex, classifierIndex, false, classVotes);
+  }
+
+  private ResultContentEvent vote(long instanceIndex, int classifierIndex, boolean isLastEvent, double... classVotes) {
+    ResultContentEvent event = new ResultContentEvent(instanceIndex, instance, 0, classVotes, isLastEvent);
+    event.setClassifierIndex(classifierIndex);
+    event.setEvaluationIndex((int) instanceIndex);
+    return event;
+  }
+
+  private static final class CollectingStream implements Stream {
+
+    private final List<ResultContentEvent> events = new ArrayList<>();
+    private boolean keepEvents = true;
+
+    @Override
+    public void put(ContentEvent event) {
+      if (keepEvents) {
+        events.add((ResultContentEvent) event);
+      }
+    }
+
+    @Override
+    public String getStreamId() {
+      return "result";
+    }
+
+    @Override
+    public void setBatchSize(int batchsize) {
+    }
+  }
+}
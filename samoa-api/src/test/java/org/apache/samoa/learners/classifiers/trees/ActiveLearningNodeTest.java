@@ -0,0 +1,112 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.topology.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ActiveLearningNodeTest {
+
+  private Instances dataset;
+  private List<ContentEvent> controlEvents;
+  private ModelAggregatorProcessor processor;
+
+  @Before
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<>();
+    attributes.add(new Attribute("a0"));
+    attributes.add(new Attribute("a1"));
+    attributes.add(new Attribute("class", Arrays.asList("yes", "no")));
+    dataset = new Instances("test", attributes, 0);
+    dataset.setClassIndex(2);
+
+    controlEvents = new ArrayList<>();
+    processor = new ModelAggregatorProcessor.Builder(dataset).splitBufferSize(2).build();
+    processor.setControlStream(new Stream() {
+      @Override
+      public void put(ContentEvent event) {
+        controlEvents.add(event);
+      }
+
+      @Override
+      public String getStreamId() {
+        return "control";
+      }
+
+      @Override
+      public void setBatchSize(int batchsize) {
+      }
+    });
+  }
+
+  @Test
+  public void testBufferWhileSplitting() {
+    ActiveLearningNode node = new ActiveLearningNode(new double[0], 1, 2);
+    node.learnFromInstance(newInstance(0), processor);
+    node.learnFromInstance(newInstance(1), processor);
+    assertEquals(2.0, node.getWeightSeen(), 0.0);
+
+    node.requestDistributedSuggestions(1, processor);
+    assertEquals(1, controlEvents.size());
+    for (int i = 0; i < 3; i++) {
+      node.learnFromInstance(newInstance(i % 2), processor);
+    }
+    // buffered instances are not learnt until they are replayed
+    assertEquals(2.0, node.getWeightSeen(), 0.0);
+    assertEquals(2, processor.getBufferedInstanceCount());
+    assertEquals(1, processor.getThrownAwayInstanceCount());
+
+    node.endSplitting();
+    List<Instance> buffered = node.drainSplitBuffer();
+    assertEquals(2, buffered.size());
+    assertNull(node.drainSplitBuffer());
+    assertTrue(processor.toString().contains("BufferedInstanceCount: 2"));
+  }
+
+  @Test
+  public void testNoBufferThrowsAway() {
+    ActiveLearningNode node = new ActiveLearningNode(new double[0], 1);
+    node.learnFromInstance(newInstance(0), processor);
+    node.requestDistributedSuggestions(1, processor);
+    node.learnFromInstance(newInstance(1), processor);
+
+    assertNull(node.drainSplitBuffer());
+    assertEquals(0, processor.getBufferedInstanceCount());
+    assertEquals(1, processor.getThrownAwayInstanceCount());
+  }
+
+  private Instance newInstance(int classValue) {
+    Instance inst = new DenseInstance(1.0, new double[] { classValue * 2.0, 1.0, classValue });
+    inst.setDataset(dataset);
+    return inst;
+  }
+}
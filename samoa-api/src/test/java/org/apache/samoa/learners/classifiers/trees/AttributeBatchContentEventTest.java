@@ -0,0 +1,89 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+public class AttributeBatchContentEventTest {
+
+  private static final double DELTA = 1e-6;
+
+  private AttributeBatchContentEvent event;
+
+  @Before
+  public void setUp() {
+    event = new AttributeBatchContentEvent.Builder(42, 7).isNominal(false).capacity(1).build();
+    for (int i = 0; i < 100; i++) {
+      event.add(i * 0.5, i % 3, 1.0 + i);
+    }
+  }
+
+  @Test
+  public void testAddGrowsColumns() {
+    assertEquals(100, event.size());
+    assertTrue(event.getValues().length >= 100);
+    assertEquals(49.5, event.getValues()[99], DELTA);
+    assertEquals(0, event.getClasses()[99]);
+    assertEquals(100.0, event.getWeights()[99], DELTA);
+  }
+
+  @Test
+  public void testRoutingKey() {
+    AttributeBatchContentEvent other = new AttributeBatchContentEvent.Builder(42, 8).build();
+    assertEquals(AttributeContentEvent.routingKey(42, 7), event.getRoutingKey());
+    assertTrue(event.getRoutingKey() != other.getRoutingKey());
+  }
+
+  @Test
+  public void testSerializerRoundTrip() {
+    assertRoundTrip(new AttributeBatchContentEvent.AttributeBatchCESerializer());
+  }
+
+  @Test
+  public void testFullPrecSerializerRoundTrip() {
+    assertRoundTrip(new AttributeBatchContentEvent.AttributeBatchCEFullPrecSerializer());
+  }
+
+  private void assertRoundTrip(Serializer<AttributeBatchContentEvent> serializer) {
+    Kryo kryo = new Kryo();
+    kryo.register(AttributeBatchContentEvent.class, serializer);
+    Output output = new Output(4096, -1);
+    kryo.writeObject(output, event);
+    AttributeBatchContentEvent copy = kryo.readObject(new Input(output.toBytes()), AttributeBatchContentEvent.class);
+
+    assertEquals(event.getLearningNodeId(), copy.getLearningNodeId());
+    assertEquals(event.getObsIndex(), copy.getObsIndex());
+    assertEquals(event.isNominal(), copy.isNominal());
+    assertEquals(event.size(), copy.size());
+    for (int i = 0; i < event.size(); i++) {
+      assertEquals(event.getValues()[i], copy.getValues()[i], DELTA);
+      assertEquals(event.getClasses()[i], copy.getClasses()[i]);
+      assertEquals(event.getWeights()[i], copy.getWeights()[i], DELTA);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
+import org.apache.samoa.topology.Stream;
+import org.junit.Test;
+
+public class LocalStatisticsProcessorTest {
+
+  private static final long LEARNING_NODE_ID = 3;
+  private static final int NUM_ATTRIBUTES = 50;
+  private static final int NUM_INSTANCES = 300;
+
+  @Test
+  public void testTopSuggestions() {
+    LocalStatisticsProcessor.TopSuggestions top = new LocalStatisticsProcessor.TopSuggestions();
+    top.offer(null);
+    assertNull(top.getBest());
+    top.offer(suggestion(0.3));
+    top.offer(suggestion(0.7));
+    top.offer(suggestion(0.1));
+    top.offer(suggestion(0.5));
+    assertEquals(0.7, top.getBest().merit, 0.0);
+    assertEquals(0.5, top.getSecondBest().merit, 0.0);
+
+    LocalStatisticsProcessor.TopSuggestions other = new LocalStatisticsProcessor.TopSuggestions();
+    other.offer(suggestion(0.6));
+    other.offer(suggestion(0.9));
+    top.merge(other);
+    assertEquals(0.9, top.getBest().merit, 0.0);
+    assertEquals(0.7, top.getSecondBest().merit, 0.0);
+  }
+
+  @Test
+  public void testParallelComputeMatchesSequential() {
+    LocalResultContentEvent sequential = compute(1);
+    LocalResultContentEvent parallel = compute(4);
+
+    assertNotNull(sequential.getBestSuggestion());
+    assertNotNull(sequential.getSecondBestSuggestion());
+    assertEquals(sequential.getBestSuggestion().merit, parallel.getBestSuggestion().merit, 0.0);
+    assertEquals(sequential.getSecondBestSuggestion().merit, parallel.getSecondBestSuggestion().merit, 0.0);
+  }
+
+  @Test
+  public void testComputePoolIsShared() {
+    LocalStatisticsProcessor processor = new LocalStatisticsProcessor.Builder().computeParallelism(3).build();
+    processor.onCreate(0);
+    LocalStatisticsProcessor replica = (LocalStatisticsProcessor) processor.newProcessor(processor);
+    replica.onCreate(1);
+    LocalStatisticsProcessor other = new LocalStatisticsProcessor.Builder().computeParallelism(3).build();
+    other.onCreate(0);
+    assertNotNull(processor.getComputePool());
+    assertSame(processor.getComputePool(), replica.getComputePool());
+    assertSame(processor.getComputePool(), other.getComputePool());
+    assertEquals(3, processor.getComputePool().getParallelism());
+
+    LocalStatisticsProcessor sequential = new LocalStatisticsProcessor.Builder().build();
+    sequential.onCreate(0);
+    assertNull(sequential.getComputePool());
+  }
+
+  private static LocalResultContentEvent compute(int computeParallelism) {
+    LocalStatisticsProcessor processor = new LocalStatisticsProcessor.Builder()
+        .computeParallelism(computeParallelism)
+        .build();
+    CapturingStream stream = new CapturingStream();
+    processor.setComputationResultStream(stream);
+    processor.onCreate(0);
+
+    Random random = new Random(1);
+    double[] classDist = new double[2];
+    AttributeBatchContentEvent[] batches = new AttributeBatchContentEvent[NUM_ATTRIBUTES];
+    for (int att = 0; att < NUM_ATTRIBUTES; att++) {
+      batches[att] = new AttributeBatchContentEvent.Builder(LEARNING_NODE_ID, att).build();
+    }
+    for (int i = 0; i < NUM_INSTANCES; i++) {
+      int classValue = random.nextInt(2);
+      classDist[classValue]++;
+      for (int att = 0; att < NUM_ATTRIBUTES; att++) {
+        // the first attributes are more correlated with the class
+        double noise = random.nextGaussian() * (att + 1);
+        batches[att].add(classValue * 10 + noise, classValue, 1.0);
+      }
+    }
+    for (AttributeBatchContentEvent batch : batches) {
+      processor.process(batch);
+    }
+    processor.process(new ComputeContentEvent(1, LEARNING_NODE_ID, classDist));
+
+    assertEquals(1, stream.events.size());
+    assertEquals(1, processor.getNumComputes());
+    assertTrue(processor.getMaxComputeNanos() <= processor.getTotalComputeNanos());
+    assertTrue(processor.toString().contains("ComputeCount: 1"));
+    assertTrue(processor.toString().contains("MaxComputeMicros: "));
+    return (LocalResultContentEvent) stream.events.get(0);
+  }
+
+  private static AttributeSplitSuggestion suggestion(double merit) {
+    return new AttributeSplitSuggestion(null, new double[0][], merit);
+  }
+
+  private static final class CapturingStream implements Stream {
+
+    private final List<ContentEvent> events = new ArrayList<>();
+
+    @Override
+    public void put(ContentEvent event) {
+      events.add(event);
+    }
+
+    @Override
+    public String getStreamId() {
+      return "compute";
+    }
+
+    @Override
+    public void setBatchSize(int batchsize) {
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.AttributeClassObserver;
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.NominalAttributeClassObserver;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalStatisticsTableTest {
+
+  private static final int NUM_LEAVES = 500;
+  private static final int NUM_ATTRIBUTES = 40;
+
+  private LocalStatisticsTable table;
+  private AttributeClassObserver[][] observers;
+
+  @Before
+  public void setUp() {
+    table = new LocalStatisticsTable();
+    observers = new AttributeClassObserver[NUM_LEAVES][NUM_ATTRIBUTES];
+    for (int leaf = 0; leaf < NUM_LEAVES; leaf++) {
+      // only every third attribute is routed to this processor
+      for (int att = leaf % 3; att < NUM_ATTRIBUTES; att += 3) {
+        observers[leaf][att] = new NominalAttributeClassObserver();
+        table.put(leaf, att, observers[leaf][att]);
+      }
+    }
+  }
+
+  @Test
+  public void testGet() {
+    for (int leaf = 0; leaf < NUM_LEAVES; leaf++) {
+      for (int att = 0; att < NUM_ATTRIBUTES; att++) {
+        assertSame(observers[leaf][att], table.get(leaf, att));
+      }
+    }
+    assertNull(table.get(NUM_LEAVES, 0));
+    assertEquals(NUM_LEAVES, table.numRows());
+  }
+
+  @Test
+  public void testPutReplaces() {
+    int size = table.size();
+    AttributeClassObserver replacement = new NominalAttributeClassObserver();
+    table.put(0, 0, replacement);
+    assertSame(replacement, table.get(0, 0));
+    assertEquals(size, table.size());
+  }
+
+  @Test
+  public void testRowScan() {
+    LocalStatisticsTable.Row row = table.row(7);
+    Set<Integer> scanned = new HashSet<>();
+    for (int slot = 0; slot < row.capacity(); slot++) {
+      if (row.observerAt(slot) != null) {
+        assertSame(observers[7][row.obsIndexAt(slot)], row.observerAt(slot));
+        scanned.add(row.obsIndexAt(slot));
+      }
+    }
+    assertEquals(row.size(), scanned.size());
+    assertEquals(13, scanned.size());
+  }
+
+  @Test
+  public void testRemoveRow() {
+    int size = table.size();
+    for (int leaf = 0; leaf < NUM_LEAVES; leaf += 2) {
+      size -= table.row(leaf).size();
+      assertTrue(table.removeRow(leaf));
+    }
+    assertFalse(table.removeRow(0));
+    assertEquals(NUM_LEAVES / 2, table.numRows());
+    assertEquals(size, table.size());
+    for (int leaf = 0; leaf < NUM_LEAVES; leaf++) {
+      if (leaf % 2 == 0) {
+        assertNull(table.row(leaf));
+      } else {
+        assertSame(observers[leaf][leaf % 3], table.get(leaf, leaf % 3));
+      }
+    }
+  }
+
+  @Test
+  public void testEstimateFootprint() {
+    long footprint = table.estimateFootprint();
+    // a few tens of bytes per observer at most
+    assertTrue(footprint > 0);
+    assertTrue(footprint < 48L * table.size() + 128L * table.numRows());
+  }
+}
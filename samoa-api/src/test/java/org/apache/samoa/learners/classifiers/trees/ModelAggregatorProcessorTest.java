@@ -0,0 +1,151 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.Processor;
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.learners.InstanceContent;
+import org.apache.samoa.learners.InstancesContentEvent;
+import org.apache.samoa.topology.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModelAggregatorProcessorTest {
+
+  private Instances dataset;
+  private ModelAggregatorProcessor processor;
+  private LocalStatisticsProcessor localStatistics;
+  // delivers the time-out events on the thread of the processor, as the
+  // engines that queue the events do
+  private ExecutorService processorThread;
+
+  @Before
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<>();
+    attributes.add(new Attribute("a0"));
+    attributes.add(new Attribute("a1"));
+    attributes.add(new Attribute("class", Arrays.asList("yes", "no")));
+    dataset = new Instances("test", attributes, 0);
+    dataset.setClassIndex(2);
+
+    // two local statistics PIs are expected, but only one is there
+    processor = new ModelAggregatorProcessor.Builder(dataset).parallelismHint(2).timeOut(1).build();
+    localStatistics = new LocalStatisticsProcessor.Builder().build();
+    processorThread = Executors.newSingleThreadExecutor();
+
+    processor.setResultStream(new DirectStream(null));
+    processor.setAttributeStream(new DirectStream(localStatistics));
+    processor.setControlStream(new DirectStream(localStatistics));
+    processor.setTimeOutStream(new Stream() {
+      @Override
+      public void put(final ContentEvent event) {
+        processorThread.submit(new Runnable() {
+          @Override
+          public void run() {
+            processor.process(event);
+          }
+        });
+      }
+
+      @Override
+      public String getStreamId() {
+        return "timeOut";
+      }
+
+      @Override
+      public void setBatchSize(int batchsize) {
+      }
+    });
+    localStatistics.setComputationResultStream(new DirectStream(processor));
+    processor.onCreate(0);
+    localStatistics.onCreate(0);
+  }
+
+  @After
+  public void tearDown() {
+    processorThread.shutdownNow();
+  }
+
+  @Test
+  public void testSplitTimesOutWithoutInput() throws Exception {
+    Random random = new Random(1);
+    for (int i = 0; i < 300; i++) {
+      int classValue = random.nextInt(2);
+      Instance inst = new DenseInstance(1.0, new double[] { classValue * 10 + random.nextGaussian(),
+          random.nextGaussian(), classValue });
+      inst.setDataset(dataset);
+      InstancesContentEvent event = new InstancesContentEvent();
+      event.add(new InstanceContent(i, inst, true, false));
+      processor.process(event);
+    }
+    // the split waits for the results of the missing local statistics PI
+    assertTrue(processor.toString().contains("DecisionNodeCount: 0"));
+
+    // no more input, the time-out alone continues the split
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!processor.toString().contains("DecisionNodeCount: 1") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertTrue(processor.toString().contains("DecisionNodeCount: 1"));
+  }
+
+  /**
+   * Calls the destination processor on the thread that puts the event, as the local engine does.
+   */
+  private static final class DirectStream implements Stream {
+
+    private final Processor destination;
+
+    DirectStream(Processor destination) {
+      this.destination = destination;
+    }
+
+    @Override
+    public void put(ContentEvent event) {
+      if (destination != null) {
+        destination.process(event);
+      }
+    }
+
+    @Override
+    public String getStreamId() {
+      return "direct";
+    }
+
+    @Override
+    public void setBatchSize(int batchsize) {
+    }
+  }
+}
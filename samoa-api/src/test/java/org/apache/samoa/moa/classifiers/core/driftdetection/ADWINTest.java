@@ -0,0 +1,126 @@
+package org.apache.samoa.moa.classifiers.core.driftdetection;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ADWINTest {
+
+  private static final int STREAM_LENGTH = 20000;
+
+  // change points and final state recorded with the linked list implementation of ADWIN on the same streams
+  private static final int[] ABRUPT_CHANGES = { 10047, 10079, 10111 };
+  private static final int[] GAUSSIAN_CHANGES = { 7135, 7231, 7263, 7487, 14047, 14079, 14111 };
+  private static final int[] GRADUAL_CHANGES = { 3391, 3423, 5983, 6975, 8383, 8447, 8735, 9087, 10591, 11103, 11871,
+      12831, 13695, 14335, 15519, 15807, 16383, 16415, 17311, 18207, 19487 };
+
+  @Test
+  public void testAbruptChange() {
+    ADWIN adwin = new ADWIN();
+    assertArrayEquals(ABRUPT_CHANGES, changePoints(adwin, stream(1)));
+    assertEquals(10016, adwin.getWidth());
+    assertEquals(0.8013178913738019, adwin.getEstimation(), 0.0);
+    assertEquals(0.1592075283380463, adwin.getVariance(), 0.0);
+    assertEquals(39887, adwin.getBucketsUsed());
+    assertEquals(1.00641808E8, adwin.getWidthT(), 0.0);
+  }
+
+  @Test
+  public void testGaussianChanges() {
+    ADWIN adwin = new ADWIN(0.01);
+    assertArrayEquals(GAUSSIAN_CHANGES, changePoints(adwin, stream(2)));
+    assertEquals(6016, adwin.getWidth());
+    assertEquals(-0.3063464813219591, adwin.getEstimation(), 0.0);
+    assertEquals(1.010667440788482, adwin.getVariance(), 0.0);
+    assertEquals(7, adwin.getNumberDetections());
+  }
+
+  @Test
+  public void testGradualChange() {
+    ADWIN adwin = new ADWIN();
+    assertArrayEquals(GRADUAL_CHANGES, changePoints(adwin, stream(3)));
+    assertEquals(5152, adwin.getWidth());
+    assertEquals(0.45632763975155277, adwin.getEstimation(), 0.0);
+    assertEquals(0.2480927249503301, adwin.getVariance(), 0.0);
+    assertEquals(8.1211152E7, adwin.getWidthT(), 0.0);
+  }
+
+  @Test
+  public void testSetInputs() {
+    double[] values = stream(3);
+    ADWIN single = new ADWIN();
+    ADWIN batch = new ADWIN();
+    int batchSize = 100;
+    for (int offset = 0; offset < values.length; offset += batchSize) {
+      boolean change = false;
+      for (int j = offset; j < offset + batchSize; j++) {
+        change |= single.setInput(values[j]);
+      }
+      assertEquals(change, batch.setInputs(values, offset, batchSize));
+      assertEquals(single.getWidth(), batch.getWidth());
+      assertEquals(single.getTotal(), batch.getTotal(), 0.0);
+    }
+    assertEquals(single.getNumberDetections(), batch.getNumberDetections());
+    assertEquals(single.getVariance(), batch.getVariance(), 0.0);
+    assertFalse(new ADWIN().setInputs(Arrays.copyOf(values, 10)));
+  }
+
+  private static int[] changePoints(ADWIN adwin, double[] values) {
+    List<Integer> changes = new ArrayList<>();
+    for (int i = 0; i < values.length; i++) {
+      if (adwin.setInput(values[i])) {
+        changes.add(i);
+      }
+    }
+    int[] points = new int[changes.size()];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = changes.get(i);
+    }
+    return points;
+  }
+
+  private static double[] stream(int seed) {
+    Random random = new Random(seed);
+    double[] values = new double[STREAM_LENGTH];
+    for (int i = 0; i < STREAM_LENGTH; i++) {
+      switch (seed) {
+      case 1:
+        // errors of a learner whose error rate jumps from 0.2 to 0.8
+        values[i] = random.nextDouble() < (i < STREAM_LENGTH / 2 ? 0.2 : 0.8) ? 1 : 0;
+        break;
+      case 2:
+        values[i] = random.nextGaussian() + (i < 7000 ? 0 : i < 14000 ? 0.5 : -0.3);
+        break;
+      default:
+        // error rate rising from 0.1 to 0.5
+        values[i] = random.nextDouble() < 0.1 + 0.4 * i / STREAM_LENGTH ? 1 : 0;
+      }
+    }
+    return values;
+  }
+}
@@ -0,0 +1,84 @@
+package org.apache.samoa.moa.core;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.AttributeClassObserver;
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.GaussianNumericAttributeClassObserver;
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.NominalAttributeClassObserver;
+import org.apache.samoa.moa.classifiers.core.driftdetection.ChangeDetector;
+import org.apache.samoa.moa.classifiers.core.driftdetection.PageHinkleyDM;
+import org.apache.samoa.moa.classifiers.core.splitcriteria.InfoGainSplitCriterion;
+import org.apache.samoa.moa.classifiers.core.splitcriteria.SplitCriterion;
+import org.junit.Test;
+
+public class PrototypesTest {
+
+  @Test
+  public void testObserverIsCreatedEmptyWithOptions() {
+    GaussianNumericAttributeClassObserver prototype = new GaussianNumericAttributeClassObserver();
+    prototype.numBinsOption.setValue(7);
+    prototype.observeAttributeClass(1.0, 0, 1.0);
+    prototype.observeAttributeClass(2.0, 1, 1.0);
+
+    AttributeClassObserver created = Prototypes.create((AttributeClassObserver) prototype);
+    assertNotSame(prototype, created);
+    assertEquals(GaussianNumericAttributeClassObserver.class, created.getClass());
+    GaussianNumericAttributeClassObserver observer = (GaussianNumericAttributeClassObserver) created;
+    assertEquals(7, observer.numBinsOption.getValue());
+    assertEquals(0, observer.getSplitPointSuggestions().length);
+  }
+
+  @Test
+  public void testSplitCriterionKeepsOptions() {
+    InfoGainSplitCriterion prototype = new InfoGainSplitCriterion();
+    prototype.minBranchFracOption.setValue(0.25);
+
+    SplitCriterion created = Prototypes.create((SplitCriterion) prototype);
+    assertNotSame(prototype, created);
+    assertEquals(0.25, ((InfoGainSplitCriterion) created).minBranchFracOption.getValue(), 0.0);
+  }
+
+  @Test
+  public void testChangeDetectorIsReset() {
+    PageHinkleyDM prototype = new PageHinkleyDM();
+    prototype.lambdaOption.setValue(10.0);
+    for (int i = 0; i < 100; i++) {
+      prototype.input(i % 2);
+    }
+
+    ChangeDetector created = Prototypes.create((ChangeDetector) prototype);
+    assertEquals(10.0, ((PageHinkleyDM) created).lambdaOption.getValue(), 0.0);
+    assertEquals(0.0, created.getEstimation(), 0.0);
+    assertFalse(created.getChange());
+  }
+
+  @Test
+  public void testSubclassFallsBackToCopy() {
+    AttributeClassObserver created = Prototypes.create((AttributeClassObserver) new CustomObserver());
+    assertEquals(CustomObserver.class, created.getClass());
+  }
+
+  static class CustomObserver extends NominalAttributeClassObserver {
+    private static final long serialVersionUID = 1L;
+  }
+}
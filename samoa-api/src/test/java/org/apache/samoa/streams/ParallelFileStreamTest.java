@@ -0,0 +1,170 @@
+package org.apache.samoa.streams;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.moa.core.InstanceExample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelFileStreamTest {
+
+  private static final String HEADER = "@relation parallel\n"
+      + "@attribute x numeric\n"
+      + "@attribute color {red,'dark blue',green}\n"
+      + "@attribute y numeric\n"
+      + "@attribute class {a,b}\n";
+
+  private File baseDir;
+
+  @Before
+  public void setUp() throws IOException {
+    baseDir = File.createTempFile("parallelfs", "");
+    baseDir.delete();
+    baseDir.mkdir();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(baseDir);
+  }
+
+  private static String row(Random random, boolean csv) {
+    double x = Math.round(random.nextGaussian() * 1e4) / 1e3;
+    String color = new String[] { "red", "'dark blue'", "green", "?" }[random.nextInt(4)];
+    String label = random.nextBoolean() ? "a" : "b";
+    if (!csv && random.nextInt(4) == 0) {
+      return "{0 " + x + ",3 " + label + "}";
+    }
+    return x + "," + color + "," + random.nextInt(100) + "," + label;
+  }
+
+  private File writeFile(String name, String header, int numRows, long seed, boolean csv) throws IOException {
+    File file = new File(baseDir, name);
+    Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    writer.write(header);
+    Random random = new Random(seed);
+    for (int i = 0; i < numRows; i++) {
+      writer.write(row(random, csv));
+      writer.write(i % 7 == 0 ? "\r\n" : "\n");
+    }
+    writer.close();
+    return file;
+  }
+
+  private static String describe(Instance instance) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < instance.numValues(); i++) {
+      sb.append(instance.index(i)).append('=').append(instance.valueSparse(i)).append(' ');
+    }
+    return sb.toString();
+  }
+
+  private static List<String> readAll(InstanceStream stream) {
+    List<String> instances = new ArrayList<String>();
+    while (stream.hasMoreInstances()) {
+      InstanceExample example = (InstanceExample) stream.nextInstance();
+      assertEquals(3, example.getData().classIndex());
+      instances.add(describe(example.getData()));
+    }
+    return instances;
+  }
+
+  private static List<String> readSequentially(File file) {
+    ArffFileStream stream = new ArffFileStream();
+    stream.arffFileOption.setValue(file.getAbsolutePath());
+    stream.prepareForUse();
+    return readAll(stream);
+  }
+
+  private static ParallelFileStream parallelStream(File path, int numThreads, boolean relaxed) {
+    ParallelFileStream stream = new ParallelFileStream();
+    stream.fileOption.setValue(path.getAbsolutePath());
+    stream.numThreadsOption.setValue(numThreads);
+    stream.chunkSizeOption.setValue(1);
+    stream.maxPendingChunksOption.setValue(3);
+    stream.relaxedOrderOption.setValue(relaxed);
+    stream.prepareForUse();
+    return stream;
+  }
+
+  @Test
+  public void testFileOrder() throws IOException {
+    File file = writeFile("data.arff", HEADER + "% comment\n@data\n", 5000, 1, false);
+    List<String> expected = readSequentially(file);
+    assertEquals(5000, expected.size());
+
+    ParallelFileStream stream = parallelStream(file, 4, false);
+    assertEquals(4, stream.getHeader().numAttributes());
+    assertEquals("dark blue", stream.getHeader().attribute(1).value(1));
+    assertEquals(expected, readAll(stream));
+    assertNull(stream.nextInstance());
+
+    stream.restart();
+    assertEquals(expected, readAll(stream));
+  }
+
+  @Test
+  public void testRelaxedOrderOfADirectory() throws IOException {
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 3; i++) {
+      File file = writeFile(i + ".arff", HEADER + "@data\n", 2000, i, false);
+      expected.addAll(readSequentially(file));
+    }
+    writeFile("ignored.csv", "x,color,y,class\n", 10, 0, true);
+
+    List<String> actual = readAll(parallelStream(baseDir, 3, true));
+    Collections.sort(expected);
+    Collections.sort(actual);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testCsv() throws IOException {
+    File arffFile = writeFile("data.arff", HEADER + "@data\n", 3000, 5, true);
+    File csvFile = writeFile("data.csv", "x,color,y,class\n", 3000, 5, true);
+    File headerFile = writeFile("header.arff", HEADER + "@data\n", 0, 0, true);
+
+    ParallelFileStream stream = new ParallelFileStream();
+    stream.fileOption.setValue(csvFile.getAbsolutePath());
+    stream.formatOption.setChosenIndex(1);
+    stream.headerFileOption.setValue(headerFile.getAbsolutePath());
+    stream.chunkSizeOption.setValue(1);
+    stream.prepareForUse();
+    assertEquals(readSequentially(arffFile), readAll(stream));
+    assertFalse(stream.hasMoreInstances());
+  }
+}
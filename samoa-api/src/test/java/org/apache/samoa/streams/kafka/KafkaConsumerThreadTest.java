@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.samoa.streams.kafka;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the buffered Kafka consumer path against a mock consumer
+ */
+public class KafkaConsumerThreadTest {
+
+    private static final String TOPIC = "test-kct-mock";
+    private static final int TIMEOUT = 100;
+
+    private MockConsumer<String, byte[]> consumer;
+    private TopicPartition partition;
+    private KafkaUtils kafkaUtils;
+
+    @Before
+    public void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        partition = new TopicPartition(TOPIC, 0);
+        consumer.subscribe(Arrays.asList(TOPIC));
+        consumer.rebalance(Collections.singletonList(partition));
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        offsets.put(partition, 0L);
+        consumer.updateBeginningOffsets(offsets);
+        kafkaUtils = new KafkaUtils(new Properties(), null, TIMEOUT);
+    }
+
+    @After
+    public void tearDown() {
+        kafkaUtils.closeConsumer();
+    }
+
+    @Test
+    public void testEventsKeepOrder() {
+        addRecords(0, 100);
+        kafkaUtils.initializeConsumer(consumer, Arrays.asList(TOPIC), new IndexDeserializer(), 16);
+        for (int i = 0; i < 100; i++) {
+            InstanceContentEvent event = (InstanceContentEvent) kafkaUtils.getNextKafkaEvent();
+            assertEquals(i, event.getInstanceIndex());
+        }
+    }
+
+    @Test
+    public void testFullBufferPausesConsumer() throws InterruptedException {
+        addRecords(0, 100);
+        kafkaUtils.initializeConsumer(consumer, Arrays.asList(TOPIC), new IndexDeserializer(), 16);
+        assertTrue("Consumer should pause on a full buffer", waitForPause(true));
+        assertEquals(Collections.singleton(partition), consumer.paused());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, ((InstanceContentEvent) kafkaUtils.getNextKafkaEvent()).getInstanceIndex());
+        }
+        assertTrue("Consumer should resume once the buffer is drained", waitForPause(false));
+        assertTrue(consumer.paused().isEmpty());
+
+        addRecords(100, 10);
+        for (int i = 100; i < 110; i++) {
+            assertEquals(i, ((InstanceContentEvent) kafkaUtils.getNextKafkaEvent()).getInstanceIndex());
+        }
+    }
+
+    @Test
+    public void testRawMessages() throws Exception {
+        addRecords(0, 10);
+        kafkaUtils.initializeConsumer(consumer, Arrays.asList(TOPIC), null, 4);
+        int received = 0;
+        while (received < 10) {
+            List<byte[]> messages = kafkaUtils.getKafkaMessages();
+            for (byte[] message : messages) {
+                assertEquals(received++, ByteBuffer.wrap(message).getLong());
+            }
+        }
+    }
+
+    private void addRecords(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            byte[] value = ByteBuffer.allocate(8).putLong(i).array();
+            consumer.addRecord(new ConsumerRecord<String, byte[]>(TOPIC, 0, i, null, value));
+        }
+    }
+
+    private boolean waitForPause(boolean paused) throws InterruptedException {
+        for (int i = 0; i < 500 && kafkaUtils.isConsumerPaused() != paused; i++) {
+            Thread.sleep(10);
+        }
+        return kafkaUtils.isConsumerPaused() == paused;
+    }
+
+    private static class IndexDeserializer implements KafkaDeserializer<InstanceContentEvent> {
+
+        @Override
+        public InstanceContentEvent deserialize(byte[] message) {
+            return new InstanceContentEvent(ByteBuffer.wrap(message).getLong(), null, true, false);
+        }
+    }
+}
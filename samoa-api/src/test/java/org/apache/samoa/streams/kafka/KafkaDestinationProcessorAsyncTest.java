@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.samoa.streams.kafka;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.Properties;
+import java.util.Random;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.junit.Before;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of the asynchronous mode of KafkaDestinationProcessor against a mock
+ * producer
+ */
+public class KafkaDestinationProcessorAsyncTest {
+
+    private static final String TOPIC = "test-kdp-mock";
+    private static final int MAX_IN_FLIGHT = 4;
+
+    private MockProducer<String, byte[]> producer;
+    private KafkaUtils kafkaUtils;
+    private KafkaDestinationProcessor kdp;
+    private InstancesHeader header;
+    private Random r;
+
+    @Before
+    public void setUp() {
+        producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+        kafkaUtils = new KafkaUtils(null, new Properties(), 0, MAX_IN_FLIGHT);
+        kafkaUtils.initializeProducer(producer);
+        kdp = new KafkaDestinationProcessor(kafkaUtils, TOPIC, new OosTestSerializer(), true);
+        header = TestUtilsForKafka.generateHeader(10);
+        r = new Random(1);
+    }
+
+    @Test
+    public void testSendDoesNotWaitForBroker() {
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            assertTrue(kdp.process(TestUtilsForKafka.getData(r, 10, header)));
+        }
+        assertEquals(MAX_IN_FLIGHT, producer.history().size());
+        assertEquals(MAX_IN_FLIGHT, kafkaUtils.getInFlightCount());
+
+        kdp.flush();
+        assertEquals(0, kafkaUtils.getInFlightCount());
+        assertEquals(0, kdp.getErrorCount());
+    }
+
+    @Test
+    public void testFullWindowBlocks() throws InterruptedException {
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            kdp.process(TestUtilsForKafka.getData(r, 10, header));
+        }
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                kdp.process(TestUtilsForKafka.getData(r, 10, header));
+            }
+        });
+        sender.start();
+        sender.join(200);
+        assertTrue("Send should block on a full window", sender.isAlive());
+        assertEquals(MAX_IN_FLIGHT, producer.history().size());
+
+        assertTrue(producer.completeNext());
+        sender.join(5000);
+        assertFalse(sender.isAlive());
+        assertEquals(MAX_IN_FLIGHT + 1, producer.history().size());
+    }
+
+    @Test
+    public void testErrorsAreCounted() {
+        for (int i = 0; i < 3; i++) {
+            kdp.process(TestUtilsForKafka.getData(r, 10, header));
+        }
+        assertTrue(producer.errorNext(new RuntimeException("broker down")));
+        assertTrue(producer.errorNext(new RuntimeException("broker down")));
+        assertTrue(producer.completeNext());
+        assertEquals(2, kdp.getErrorCount());
+        assertEquals(0, kafkaUtils.getInFlightCount());
+    }
+
+    @Test
+    public void testLastEventFlushes() {
+        kdp.process(TestUtilsForKafka.getData(r, 10, header));
+        InstanceContentEvent last = TestUtilsForKafka.getData(r, 10, header);
+        last.setLast(true);
+        kdp.process(last);
+        assertEquals(0, kafkaUtils.getInFlightCount());
+        assertEquals(2, producer.history().size());
+    }
+}
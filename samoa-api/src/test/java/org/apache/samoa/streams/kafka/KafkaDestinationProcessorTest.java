@@ -73,6 +73,7 @@ public class KafkaDestinationProcessorTest {
     private static final String BROKERHOST = "127.0.0.1";
     private static final String BROKERPORT = "9092";
     private static final String TOPIC = "test-kdp";
+    private static final String TOPIC_ASYNC = "test-kdp-async";
     private static final int NUM_INSTANCES = 11111;
     private static final int CONSUMER_TIMEOUT = 1000;
 
@@ -104,6 +105,7 @@ public class KafkaDestinationProcessorTest {
 
         // create topic
         AdminUtils.createTopic(zkUtils, TOPIC, 1, 1, new Properties(), RackAwareMode.Disabled$.MODULE$);
+        AdminUtils.createTopic(zkUtils, TOPIC_ASYNC, 1, 1, new Properties(), RackAwareMode.Disabled$.MODULE$);
 
     }
 
@@ -172,4 +174,35 @@ public class KafkaDestinationProcessorTest {
         Thread.sleep(2 * CONSUMER_TIMEOUT);
         assertEquals("Number of sent and received instances", z, i[0]);
     }
+
+    @Test
+    public void testSendingDataAsync() throws InterruptedException {
+
+        Properties props = TestUtilsForKafka.getProducerProperties(BROKERHOST, BROKERPORT);
+        KafkaDestinationProcessor kdp = new KafkaDestinationProcessor(props, TOPIC_ASYNC, new OosTestSerializer(), 1000, 5, 64 * 1024);
+        kdp.onCreate(1);
+
+        Random r = new Random();
+        InstancesHeader header = TestUtilsForKafka.generateHeader(10);
+
+        for (int z = 0; z < NUM_INSTANCES; z++) {
+            kdp.process(TestUtilsForKafka.getData(r, 10, header));
+        }
+        kdp.flush();
+        assertEquals("Number of failed sends", 0, kdp.getErrorCount());
+
+        // everything is acknowledged after the flush, so read the topic from the beginning
+        Properties consumerProps = TestUtilsForKafka.getConsumerProperties(BROKERHOST, BROKERPORT);
+        consumerProps.setProperty("group.id", "test-async");
+        consumerProps.setProperty("auto.offset.reset", "earliest");
+        KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProps);
+        consumer.subscribe(Arrays.asList(TOPIC_ASYNC));
+        int received = 0;
+        long deadline = System.currentTimeMillis() + 30 * CONSUMER_TIMEOUT;
+        while (received < NUM_INSTANCES && System.currentTimeMillis() < deadline) {
+            received += consumer.poll(CONSUMER_TIMEOUT).count();
+        }
+        consumer.close();
+        assertEquals("Number of sent and received instances", NUM_INSTANCES, received);
+    }
 }
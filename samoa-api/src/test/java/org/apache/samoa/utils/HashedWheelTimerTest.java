@@ -0,0 +1,101 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedWheelTimerTest {
+
+  private HashedWheelTimer timer;
+
+  @Before
+  public void setUp() {
+    // small wheel, so that long delays need several rounds
+    timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+  }
+
+  @After
+  public void tearDown() {
+    timer.stop();
+  }
+
+  @Test
+  public void testTimeoutFires() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    long start = System.nanoTime();
+    HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    }, 200, TimeUnit.MILLISECONDS);
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    assertTrue(timeout.isExpired());
+    assertFalse(timeout.cancel());
+  }
+
+  @Test
+  public void testCancelledTimeoutDoesNotFire() throws InterruptedException {
+    final AtomicInteger fired = new AtomicInteger();
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        fired.incrementAndGet();
+      }
+    };
+    HashedWheelTimer.Timeout cancelled = timer.newTimeout(task, 50, TimeUnit.MILLISECONDS);
+    final CountDownLatch latch = new CountDownLatch(1);
+    timer.newTimeout(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    }, 150, TimeUnit.MILLISECONDS);
+
+    assertTrue(cancelled.cancel());
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(0, fired.get());
+    assertTrue(cancelled.isCancelled());
+  }
+
+  @Test
+  public void testManyTimeouts() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(100);
+    for (int i = 0; i < 100; i++) {
+      timer.newTimeout(new Runnable() {
+        @Override
+        public void run() {
+          latch.countDown();
+        }
+      }, i * 3, TimeUnit.MILLISECONDS);
+    }
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+  }
+}
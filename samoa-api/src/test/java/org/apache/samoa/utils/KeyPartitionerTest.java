@@ -0,0 +1,105 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
+import org.apache.samoa.examples.HelloWorldContentEvent;
+import org.junit.Test;
+
+public class KeyPartitionerTest {
+  private final KeyPartitioner partitioner = new KeyPartitioner();
+
+  @Test
+  public void testNullKey() {
+    assertEquals(0, partitioner.partition(new HelloWorldContentEvent(1, false), 7));
+  }
+
+  @Test
+  public void testSameKeySamePartition() {
+    for (int i = 0; i < 100; i++) {
+      int p = partitioner.partition(new StringKeyEvent("key" + i), 7);
+      assertTrue(p >= 0 && p < 7);
+      assertEquals(p, partitioner.partition(new StringKeyEvent("key" + i), 7));
+    }
+  }
+
+  @Test
+  public void testRoutingKeySpread() {
+    int numPartitions = 4;
+    int[] counts = new int[numPartitions];
+    for (long key = 0; key < 4000; key++) {
+      counts[partitioner.partition(new RoutingKeyEvent(key), numPartitions)]++;
+    }
+    for (int count : counts) {
+      assertTrue("Consecutive routing keys are not spread evenly.", count > 800 && count < 1200);
+    }
+  }
+
+  @Test
+  public void testNegativeRoutingKey() {
+    for (long key = -1000; key < 0; key++) {
+      int p = partitioner.partition(new RoutingKeyEvent(key), 3);
+      assertTrue(p >= 0 && p < 3);
+    }
+  }
+
+  private static class StringKeyEvent implements ContentEvent {
+    private static final long serialVersionUID = 1L;
+    private String key;
+
+    StringKeyEvent(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public void setKey(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public boolean isLastEvent() {
+      return false;
+    }
+  }
+
+  private static class RoutingKeyEvent extends StringKeyEvent implements KeyedContentEvent {
+    private static final long serialVersionUID = 1L;
+    private final long routingKey;
+
+    RoutingKeyEvent(long routingKey) {
+      super(Long.toString(routingKey));
+      this.routingKey = routingKey;
+    }
+
+    @Override
+    public long getRoutingKey() {
+      return routingKey;
+    }
+  }
+}
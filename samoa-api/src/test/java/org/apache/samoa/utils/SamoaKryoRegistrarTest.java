@@ -0,0 +1,258 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.samoa.core.SerializableInstance;
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.DenseInstanceData;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.instances.InstancesHeader;
+import org.apache.samoa.instances.SchemaRegistry;
+import org.apache.samoa.instances.SparseInstance;
+import org.apache.samoa.instances.SparseInstanceData;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.learners.InstancesContentEvent;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.apache.samoa.learners.classifiers.rules.common.ActiveRule;
+import org.apache.samoa.learners.classifiers.rules.common.Perceptron;
+import org.apache.samoa.learners.classifiers.rules.common.RulePassiveRegressionNode;
+import org.apache.samoa.learners.classifiers.rules.common.RuleSplitNode;
+import org.apache.samoa.learners.classifiers.rules.common.TargetMean;
+import org.apache.samoa.learners.classifiers.rules.distributed.AssignmentContentEvent;
+import org.apache.samoa.learners.classifiers.rules.distributed.PredicateContentEvent;
+import org.apache.samoa.learners.classifiers.rules.distributed.RuleContentEvent;
+import org.apache.samoa.learners.classifiers.trees.AttributeBatchContentEvent;
+import org.apache.samoa.learners.classifiers.trees.AttributeContentEvent;
+import org.apache.samoa.learners.classifiers.trees.ComputeContentEvent;
+import org.apache.samoa.learners.classifiers.trees.LocalResultContentEvent;
+import org.apache.samoa.moa.classifiers.core.AttributeSplitSuggestion;
+import org.apache.samoa.moa.classifiers.core.conditionaltests.NominalAttributeBinaryTest;
+import org.apache.samoa.moa.classifiers.core.conditionaltests.NominalAttributeMultiwayTest;
+import org.apache.samoa.moa.classifiers.core.conditionaltests.NumericAttributeBinaryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+public class SamoaKryoRegistrarTest {
+
+  private static final int NUM_ATTRIBUTES = 30;
+
+  private Instances header;
+
+  private Map<Class<?>, Object> samples;
+
+  @Before
+  public void setUp() throws Exception {
+    List<Attribute> attributes = new ArrayList<Attribute>();
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      attributes.add(new Attribute("attribute_" + i));
+    }
+    attributes.add(new Attribute("class", new ArrayList<String>(Arrays.asList("yes", "no", "maybe"))));
+    header = new Instances("registrar-test", attributes, 0);
+    header.setClassIndex(NUM_ATTRIBUTES - 1);
+
+    Instance dense = denseInstance(1);
+    SparseInstance sparse = new SparseInstance(0.5, new double[] { 2.5, 1 }, new int[] { 3, NUM_ATTRIBUTES - 1 },
+        NUM_ATTRIBUTES);
+    sparse.setDataset(header);
+    InstancesContentEvent batch = new InstancesContentEvent();
+    for (int i = 0; i < 5; i++) {
+      batch.add(new InstanceContentEvent(i, denseInstance(i), true, i == 4).getInstanceContent());
+    }
+    NumericAttributeBinaryTest numericTest = new NumericAttributeBinaryTest(2, 0.75, true);
+    AttributeSplitSuggestion suggestion = new AttributeSplitSuggestion(numericTest, new double[][] { { 3, 1 },
+        { 0, 4 } }, 0.42);
+    ActiveRule rule = new ActiveRule.Builder().threshold(50).alpha(0.005).changeDetection(true)
+        .predictionFunction(0).statistics(new double[3]).learningRatio(0.1).id(7).build();
+
+    samples = new LinkedHashMap<Class<?>, Object>();
+    samples.put(DenseInstanceData.class, new DenseInstanceData(new double[] { 1, 2, 3 }));
+    samples.put(SparseInstanceData.class, new SparseInstanceData(new double[] { 4, 5 }, new int[] { 1, 70 }, 100));
+    samples.put(InstancesHeader.class, new InstancesHeader(header));
+    samples.put(DenseInstance.class, dense);
+    samples.put(SparseInstance.class, sparse);
+    samples.put(SerializableInstance.class, new SerializableInstance(sparse));
+    samples.put(org.apache.samoa.learners.InstanceContent.class,
+        new InstanceContentEvent(9, dense, true, false).getInstanceContent());
+    samples.put(InstanceContentEvent.class, new InstanceContentEvent(9, dense, false, true));
+    samples.put(InstancesContentEvent.class, batch);
+    samples.put(ResultContentEvent.class, new ResultContentEvent(9, dense, 1, new double[] { 0.1, 0.6, 0.3 }, false));
+    samples.put(AttributeContentEvent.class, new AttributeContentEvent());
+    samples.put(AttributeBatchContentEvent.class, new AttributeBatchContentEvent());
+    samples.put(ComputeContentEvent.class, newInstance(ComputeContentEvent.class, new Class<?>[] { long.class,
+        long.class, double[].class }, 5L, 6L, new double[] { 10, 20, 30 }));
+    samples.put(LocalResultContentEvent.class, newInstance(LocalResultContentEvent.class, new Class<?>[] {
+        long.class, AttributeSplitSuggestion.class, AttributeSplitSuggestion.class }, 5L, suggestion, null));
+    samples.put(AttributeSplitSuggestion.class, suggestion);
+    samples.put(NumericAttributeBinaryTest.class, numericTest);
+    samples.put(NominalAttributeBinaryTest.class, new NominalAttributeBinaryTest(4, 1));
+    samples.put(NominalAttributeMultiwayTest.class, new NominalAttributeMultiwayTest(4));
+    samples.put(AssignmentContentEvent.class, new AssignmentContentEvent(7, sparse));
+    samples.put(PredicateContentEvent.class, new PredicateContentEvent(7, new RuleSplitNode(numericTest,
+        new double[] { 1, 2, 3 }), new RulePassiveRegressionNode(new double[] { 4, 5, 6 })));
+    samples.put(RuleContentEvent.class, new RuleContentEvent(7, rule, false));
+    samples.put(ActiveRule.class, rule);
+    samples.put(RuleSplitNode.class, new RuleSplitNode(numericTest, new double[] { 1, 2, 3 }));
+    samples.put(RulePassiveRegressionNode.class, new RulePassiveRegressionNode(new double[] { 4, 5, 6 }));
+    samples.put(TargetMean.class, new TargetMean());
+    samples.put(Perceptron.class, new Perceptron());
+  }
+
+  @Test
+  public void testEveryRegisteredTypeHasASample() {
+    assertEquals(SamoaKryoRegistrar.serializers().keySet(), samples.keySet());
+  }
+
+  @Test
+  public void testRoundTrip() {
+    Kryo kryo = registeredKryo();
+    for (Object sample : samples.values()) {
+      byte[] bytes = serialize(kryo, sample);
+      Object copy = kryo.readObject(new Input(bytes), sample.getClass());
+      assertEquals(sample.getClass(), copy.getClass());
+      assertArrayEquals(sample.getClass().getName(), bytes, serialize(kryo, copy));
+    }
+  }
+
+  @Test
+  public void testInstanceValues() {
+    Kryo kryo = registeredKryo();
+    SerializableInstance sparse = roundTrip(kryo, (SerializableInstance) samples.get(SerializableInstance.class));
+    assertEquals(0.5, sparse.weight(), 0.0);
+    assertEquals(2, sparse.numValues());
+    assertEquals(2.5, sparse.value(3), 0.0);
+    assertEquals("no", sparse.classAttribute().value((int) sparse.classValue()));
+
+    ResultContentEvent result = roundTrip(kryo, (ResultContentEvent) samples.get(ResultContentEvent.class));
+    assertEquals(9, result.getInstanceIndex());
+    assertEquals(1, result.getPredictedClass());
+    assertArrayEquals(new double[] { 0.1, 0.6, 0.3 }, result.getClassVotes(), 0.0);
+    assertArrayEquals(denseInstance(1).toDoubleArray(), result.getInstance().toDoubleArray(), 0.0);
+
+    ResultContentEvent compact = roundTrip(kryo, new ResultContentEvent(3, null, 0, 2, true));
+    assertTrue(compact.isCompact());
+    assertTrue(compact.isLastEvent());
+    assertNull(compact.getInstance());
+  }
+
+  @Test
+  public void testHeadersAreShared() {
+    Kryo kryo = registeredKryo();
+    InstancesHeader first = roundTrip(kryo, new InstancesHeader(header));
+    InstancesHeader second = roundTrip(kryo, new InstancesHeader(header));
+    assertSame(first, second);
+    assertEquals(NUM_ATTRIBUTES - 1, first.classIndex());
+    assertEquals("maybe", first.classAttribute().value(2));
+  }
+
+  @Test
+  public void testEventsCarryTheirHeaderByDefault() {
+    // a header that no Kryo instance of this JVM has read yet, as on a worker without the processors of the stream
+    List<Attribute> attributes = new ArrayList<Attribute>();
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      attributes.add(header.attribute(i));
+    }
+    Instances unseen = new Instances("registrar-test-" + System.nanoTime(), attributes, 0);
+    unseen.setClassIndex(NUM_ATTRIBUTES - 1);
+    Instance instance = new DenseInstance(1.0, denseInstance(3).toDoubleArray());
+    instance.setDataset(unseen);
+    Output output = new Output(4096, -1);
+    registeredKryo().writeObject(output, new InstanceContentEvent(3, instance, true, false));
+    assertNull(SchemaRegistry.lookup(SchemaRegistry.schemaId(unseen)));
+
+    InstanceContentEvent copy = registeredKryo().readObject(new Input(output.toBytes()), InstanceContentEvent.class);
+    assertEquals(unseen.getRelationName(), copy.getInstance().dataset().getRelationName());
+    assertEquals("maybe", copy.getInstance().classAttribute().value(2));
+  }
+
+  @Test
+  public void testEventsOfAStreamCarryNoHeaderWhenOptedIn() {
+    Kryo kryo = new Kryo();
+    kryo.register(SerializableInstance.class, new SerializableInstance.HeaderFreeSerializer());
+    SamoaKryoRegistrar.register(kryo);
+    int headerSize = serialize(kryo, new InstancesHeader(header)).length;
+    int first = serialize(kryo, new InstanceContentEvent(1, denseInstance(1), true, false)).length;
+    int second = serialize(kryo, new InstanceContentEvent(2, denseInstance(2), true, false)).length;
+    assertEquals(first, second);
+    // a double per attribute and a few bytes of event, instance and schema id
+    assertTrue(second < NUM_ATTRIBUTES * 8 + 32);
+    assertTrue(second < headerSize);
+  }
+
+  @Test
+  public void testExistingRegistrationIsKept() {
+    Kryo kryo = new Kryo();
+    SerializableInstance.HeaderFreeSerializer serializer = new SerializableInstance.HeaderFreeSerializer();
+    kryo.register(SerializableInstance.class, serializer);
+    SamoaKryoRegistrar.register(kryo);
+    assertSame(serializer, kryo.getSerializer(SerializableInstance.class));
+    assertTrue(kryo.getSerializer(ResultContentEvent.class) instanceof ResultContentEvent.ResultCESerializer);
+  }
+
+  private Instance denseInstance(int seed) {
+    double[] values = new double[NUM_ATTRIBUTES];
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      values[i] = seed + i * 0.1;
+    }
+    values[NUM_ATTRIBUTES - 1] = seed % 3;
+    Instance instance = new DenseInstance(1.0, values);
+    instance.setDataset(header);
+    return instance;
+  }
+
+  private static <T> T newInstance(Class<T> type, Class<?>[] parameterTypes, Object... args) throws Exception {
+    Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+    constructor.setAccessible(true);
+    return constructor.newInstance(args);
+  }
+
+  private static Kryo registeredKryo() {
+    Kryo kryo = new Kryo();
+    SamoaKryoRegistrar.register(kryo);
+    return kryo;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T roundTrip(Kryo kryo, T object) {
+    return (T) kryo.readObject(new Input(serialize(kryo, object)), object.getClass());
+  }
+
+  private static byte[] serialize(Kryo kryo, Object object) {
+    Output output = new Output(4096, -1);
+    kryo.writeObject(output, object);
+    byte[] bytes = output.toBytes();
+    kryo.readObject(new Input(bytes), object.getClass());
+    return bytes;
+  }
+}
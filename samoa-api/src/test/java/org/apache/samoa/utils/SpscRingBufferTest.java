@@ -0,0 +1,83 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SpscRingBufferTest {
+
+  @Test
+  public void testCapacityIsPowerOfTwo() {
+    assertEquals(1, new SpscRingBuffer<Integer>(1).capacity());
+    assertEquals(8, new SpscRingBuffer<Integer>(5).capacity());
+    assertEquals(16, new SpscRingBuffer<Integer>(16).capacity());
+  }
+
+  @Test
+  public void testOfferAndPollWrapAround() {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(4);
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 4; i++) {
+        assertTrue(buffer.offer(round * 4 + i));
+      }
+      assertFalse(buffer.offer(-1));
+      assertEquals(0, buffer.remainingCapacity());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(Integer.valueOf(round * 4 + i), buffer.poll());
+      }
+      assertNull(buffer.poll());
+      assertTrue(buffer.isEmpty());
+    }
+  }
+
+  @Test
+  public void testProducerAndConsumerThreads() throws InterruptedException {
+    final int count = 1000000;
+    final SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(64);
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < count; i++) {
+          while (!buffer.offer(i)) {
+            Thread.yield();
+          }
+        }
+      }
+    });
+    producer.start();
+    for (int i = 0; i < count; i++) {
+      Integer value;
+      while ((value = buffer.poll()) == null) {
+        Thread.yield();
+      }
+      assertEquals(i, value.intValue());
+    }
+    producer.join();
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveCapacity() {
+    new SpscRingBuffer<Integer>(0);
+  }
+}
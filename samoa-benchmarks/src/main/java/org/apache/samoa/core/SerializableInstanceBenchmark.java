@@ -0,0 +1,129 @@
+package org.apache.samoa.core;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.learners.InstancesContentEvent;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.apache.samoa.utils.SamoaKryoRegistrar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Time to write and read back an event carrying instances of 50 attributes: an instance event, a batch of 10
+ * instances and a result event. The events go through plain Kryo, through the serializers of
+ * {@link SamoaKryoRegistrar}, which send the header once per event, and through the registrar with the opt-in
+ * {@link SerializableInstance.HeaderFreeSerializer}, which sends a schema id instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializableInstanceBenchmark {
+
+  private static final int NUM_ATTRIBUTES = 50;
+
+  @Param({ "instance", "batch", "result" })
+  public String event;
+
+  @Param({ "kryo", "registrar", "headerFree" })
+  public String serializer;
+
+  private Instances header;
+  private Object content;
+  private Kryo kryo;
+  private Output output;
+
+  @Setup
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<Attribute>();
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      attributes.add(new Attribute("numeric_attribute_" + i));
+    }
+    attributes.add(new Attribute("class", new ArrayList<String>(Arrays.asList("first_class", "second_class",
+        "third_class"))));
+    header = new Instances("serializable-instance-benchmark", attributes, 0);
+    header.setClassIndex(NUM_ATTRIBUTES - 1);
+
+    if (event.equals("instance")) {
+      content = new InstanceContentEvent(1, denseInstance(1), true, true);
+    } else if (event.equals("batch")) {
+      InstancesContentEvent batch = new InstancesContentEvent();
+      for (int i = 0; i < 10; i++) {
+        batch.add(new InstanceContentEvent(i, denseInstance(i), true, false).getInstanceContent());
+      }
+      content = batch;
+    } else {
+      content = new ResultContentEvent(1, denseInstance(1), 1, new double[] { 0.2, 0.7, 0.1 }, false);
+    }
+
+    kryo = new Kryo();
+    if (serializer.equals("headerFree")) {
+      kryo.register(SerializableInstance.class, new SerializableInstance.HeaderFreeSerializer());
+    }
+    if (!serializer.equals("kryo")) {
+      SamoaKryoRegistrar.register(kryo);
+    }
+    output = new Output(1 << 16, -1);
+  }
+
+  private Instance denseInstance(int seed) {
+    double[] values = new double[NUM_ATTRIBUTES];
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      values[i] = seed * 0.5 + i;
+    }
+    values[NUM_ATTRIBUTES - 1] = seed % 3;
+    Instance instance = new DenseInstance(1.0, values);
+    instance.setDataset(header);
+    return instance;
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    output.clear();
+    kryo.writeObject(output, content);
+    return kryo.readObject(new Input(output.getBuffer(), 0, output.position()), content.getClass());
+  }
+}
@@ -0,0 +1,119 @@
+package org.apache.samoa.evaluation;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one dump row on the processing thread: an auto-flushing {@link PrintStream}, as the evaluators used before,
+ * against the {@link AsyncDumpWriter}. {@link #asyncAppend(OpenWriter)} times the appends alone, the writer is opened
+ * and closed outside the measurement; {@link #asyncUntilClosed()} also waits for the background thread to write every
+ * row out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AsyncDumpWriterBenchmark {
+
+  private static final int ROWS = 100000;
+  private static final String ROW = "12345,0.8765,0.8123,0.7456";
+
+  private File file;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = File.createTempFile("dump", ".csv");
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void printStream() throws IOException {
+    PrintStream stream = new PrintStream(new FileOutputStream(file), true);
+    for (int i = 0; i < ROWS; i++) {
+      stream.println(ROW);
+      stream.flush();
+    }
+    stream.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void asyncAppend(OpenWriter open) throws IOException {
+    for (int i = 0; i < ROWS; i++) {
+      open.writer.println(ROW);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void asyncUntilClosed() throws IOException {
+    AsyncDumpWriter writer = new AsyncDumpWriter(file, false);
+    for (int i = 0; i < ROWS; i++) {
+      writer.println(ROW);
+    }
+    writer.close();
+  }
+
+  /**
+   * A writer opened before and closed after every invocation, so that only the appends are measured.
+   */
+  @State(Scope.Thread)
+  public static class OpenWriter {
+
+    private AsyncDumpWriter writer;
+
+    @Setup(Level.Invocation)
+    public void open(AsyncDumpWriterBenchmark benchmark) throws IOException {
+      writer = new AsyncDumpWriter(benchmark.file, false);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+}
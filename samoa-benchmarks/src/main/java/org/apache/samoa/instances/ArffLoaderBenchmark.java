@@ -0,0 +1,102 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load a dense ARFF file of 20000 instances with 20 numeric attributes and a nominal class (about 3.6 MB)
+ * with {@link ArffLoader}, from a Reader through the StreamTokenizer path, and with the {@link ArffTokenizer} from a
+ * channel and from a buffer, as for a memory-mapped file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ArffLoaderBenchmark {
+
+  private static final int NUM_ATTRIBUTES = 20;
+  private static final int NUM_INSTANCES = 20000;
+
+  private String input;
+  private byte[] bytes;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder("@relation throughput\n");
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      sb.append("@attribute a").append(i).append(" numeric\n");
+    }
+    sb.append("@attribute class {a,b,c,d}\n@data\n");
+    Random random = new Random(1);
+    for (int i = 0; i < NUM_INSTANCES; i++) {
+      for (int j = 0; j < NUM_ATTRIBUTES; j++) {
+        sb.append(String.format(Locale.ROOT, "%.5f,", random.nextDouble() * 100));
+      }
+      sb.append("abcd".charAt(random.nextInt(4))).append('\n');
+    }
+    input = sb.toString();
+    bytes = input.getBytes(Charset.forName("UTF-8"));
+  }
+
+  @Benchmark
+  public int reader() {
+    return count(new ArffLoader(new StringReader(input), 0, -1));
+  }
+
+  @Benchmark
+  public int channel() {
+    return count(new ArffLoader(Channels.newChannel(new ByteArrayInputStream(bytes)), -1));
+  }
+
+  @Benchmark
+  public int buffer() {
+    return count(new ArffLoader(ByteBuffer.wrap(bytes), -1));
+  }
+
+  private static int count(ArffLoader loader) {
+    int count = 0;
+    while (loader.readInstance() != null) {
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,119 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load 20000 dense instances of 50 numeric attributes from the block-columnar binary format with
+ * {@link BinaryInstancesLoader}, against parsing the same instances from ARFF text with {@link ArffLoader}, from a
+ * Reader and from a buffer. The binary file is written once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BinaryInstancesBenchmark {
+
+  private static final int NUM_ATTRIBUTES = 50;
+  private static final int NUM_ROWS = 20000;
+
+  private String arff;
+  private byte[] arffBytes;
+  private File file;
+
+  @Setup
+  public void setUp() throws IOException {
+    StringBuilder sb = new StringBuilder("@relation load\n");
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      sb.append("@attribute a").append(i).append(" numeric\n");
+    }
+    sb.append("@attribute class {a,b}\n@data\n");
+    Random random = new Random(3);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      for (int j = 0; j < NUM_ATTRIBUTES; j++) {
+        sb.append(String.format(Locale.ROOT, "%.6f,", random.nextDouble()));
+      }
+      sb.append(random.nextBoolean() ? "a\n" : "b\n");
+    }
+    arff = sb.toString();
+    arffBytes = arff.getBytes(Charset.forName("UTF-8"));
+
+    file = File.createTempFile("instances", ".bin");
+    BinaryInstancesWriter writer = new BinaryInstancesWriter(file,
+        new Instances(new ArffLoader(new StringReader(arff), 0, -1)), false, 4096, false);
+    ArffLoader arffLoader = new ArffLoader(new StringReader(arff), 0, -1);
+    Instance instance;
+    while ((instance = arffLoader.readInstance()) != null) {
+      writer.write(instance);
+    }
+    writer.close();
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  public int arffReader() {
+    return count(new ArffLoader(new StringReader(arff), 0, -1));
+  }
+
+  @Benchmark
+  public int arffBuffer() {
+    return count(new ArffLoader(ByteBuffer.wrap(arffBytes), -1));
+  }
+
+  @Benchmark
+  public int binary() throws IOException {
+    return count(new BinaryInstancesLoader(file));
+  }
+
+  private static int count(Loader loader) {
+    int count = 0;
+    while (loader.readInstance() != null) {
+      count++;
+    }
+    return count;
+  }
+}
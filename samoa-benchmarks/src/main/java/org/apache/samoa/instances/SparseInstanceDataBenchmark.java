@@ -0,0 +1,139 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to read every attribute of one instance, by dense index with {@link InstanceData#value(int)} or by visiting the
+ * non-zeros with {@link InstanceData#forEachNonZero(NonZeroVisitor)}, on dense and sparse data of the same values.
+ * {@link #binarySearchWalk()} repeats the binary search that {@link SparseInstanceData#value(int)} used to do for every
+ * lookup, as the baseline of the sequential walk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SparseInstanceDataBenchmark {
+
+  private static final int NUM_ATTRIBUTES = 10000;
+
+  @Param({ "0.001", "0.01", "0.1", "0.5" })
+  public double density;
+
+  private DenseInstanceData denseData;
+  private SparseInstanceData sparseData;
+  private SumVisitor visitor;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(3);
+    double[] dense = new double[NUM_ATTRIBUTES];
+    int numValues = 0;
+    for (int i = 0; i < dense.length; i++) {
+      if (random.nextDouble() < density) {
+        dense[i] = random.nextDouble() < 0.1 ? Double.NaN : random.nextGaussian();
+        numValues++;
+      }
+    }
+    double[] values = new double[numValues];
+    int[] indices = new int[numValues];
+    for (int i = 0, pos = 0; i < dense.length; i++) {
+      if (dense[i] != 0) {
+        values[pos] = dense[i];
+        indices[pos++] = i;
+      }
+    }
+    denseData = new DenseInstanceData(dense);
+    sparseData = new SparseInstanceData(values, indices, dense.length);
+    visitor = new SumVisitor();
+  }
+
+  @Benchmark
+  public double denseWalk() {
+    return walk(denseData);
+  }
+
+  @Benchmark
+  public double sparseWalk() {
+    return walk(sparseData);
+  }
+
+  @Benchmark
+  public double binarySearchWalk() {
+    double sum = 0;
+    int[] indices = sparseData.getIndexValues();
+    double[] values = sparseData.getAttributeValues();
+    for (int i = 0; i < sparseData.numAttributes(); i++) {
+      int location = sparseData.locateIndex(i);
+      if (location >= 0 && indices[location] == i) {
+        sum += values[location];
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double denseForEachNonZero() {
+    visitor.sum = 0;
+    denseData.forEachNonZero(visitor);
+    return visitor.sum;
+  }
+
+  @Benchmark
+  public double sparseForEachNonZero() {
+    visitor.sum = 0;
+    sparseData.forEachNonZero(visitor);
+    return visitor.sum;
+  }
+
+  private static double walk(InstanceData data) {
+    double sum = 0;
+    for (int i = 0; i < data.numAttributes(); i++) {
+      sum += data.value(i);
+    }
+    return sum;
+  }
+
+  private static final class SumVisitor implements NonZeroVisitor {
+    private double sum;
+
+    @Override
+    public void visit(int index, double value) {
+      sum += value;
+    }
+  }
+}
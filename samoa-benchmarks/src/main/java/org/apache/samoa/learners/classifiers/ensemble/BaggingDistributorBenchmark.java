@@ -0,0 +1,133 @@
+package org.apache.samoa.learners.classifiers.ensemble;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.moa.core.MiscUtils;
+import org.apache.samoa.topology.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of distributing one instance to the members of a Bagging ensemble, testing and training, with the events
+ * sharing the instance as {@link BaggingDistributorProcessor} does against a copy of the instance and a new event for
+ * every member, as the distributor did before. Run with {@code -prof gc} to compare the allocation per instance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BaggingDistributorBenchmark {
+
+  @Param({ "50" })
+  public int ensembleSize;
+
+  @Param({ "500" })
+  public int numAttributes;
+
+  private SinkStream[] streams;
+  private BaggingDistributorProcessor processor;
+  private Instance instance;
+  private Random random;
+  private long instanceIndex;
+
+  @Setup
+  public void setUp() {
+    streams = new SinkStream[ensembleSize];
+    for (int i = 0; i < ensembleSize; i++) {
+      streams[i] = new SinkStream();
+    }
+    processor = new BaggingDistributorProcessor();
+    processor.setEnsembleSize(ensembleSize);
+    processor.setOutputStreams(streams);
+    double[] values = new double[numAttributes];
+    for (int i = 0; i < numAttributes; i++) {
+      values[i] = i;
+    }
+    instance = new DenseInstance(1.0, values);
+    random = new Random(1);
+  }
+
+  @Benchmark
+  public int shared() {
+    processor.process(new InstanceContentEvent(instanceIndex++, instance, true, true));
+    return streams[0].count;
+  }
+
+  @Benchmark
+  public int copies() {
+    InstanceContentEvent inEvent = new InstanceContentEvent(instanceIndex++, instance, true, true);
+    for (int i = 0; i < ensembleSize; i++) {
+      Instance instanceCopy = inEvent.getInstance().copy();
+      streams[i].put(new InstanceContentEvent(inEvent.getInstanceIndex(), instanceCopy, false, true));
+    }
+    for (int i = 0; i < ensembleSize; i++) {
+      int k = MiscUtils.poisson(1.0, random);
+      if (k > 0) {
+        Instance weightedInstance = inEvent.getInstance().copy();
+        weightedInstance.setWeight(instance.weight() * k);
+        streams[i].put(new InstanceContentEvent(inEvent.getInstanceIndex(), weightedInstance, true, false));
+      }
+    }
+    return streams[0].count;
+  }
+
+  /**
+   * Member stream that keeps the last event only, so that the events are not optimized away.
+   */
+  private static final class SinkStream implements Stream {
+
+    private ContentEvent last;
+    private int count;
+
+    @Override
+    public void put(ContentEvent event) {
+      last = event;
+      count++;
+    }
+
+    @Override
+    public String getStreamId() {
+      return "member";
+    }
+
+    @Override
+    public void setBatchSize(int batchsize) {
+    }
+  }
+}
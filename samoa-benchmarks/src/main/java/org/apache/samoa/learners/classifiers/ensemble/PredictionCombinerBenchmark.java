@@ -0,0 +1,143 @@
+package org.apache.samoa.learners.classifiers.ensemble;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.apache.samoa.moa.core.DoubleVector;
+import org.apache.samoa.topology.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost per vote of combining the predictions of a 100 member ensemble with {@link PredictionCombinerProcessor}, against
+ * the boxed maps and the vector per vote of the former combiner. The members lag behind each other by up to
+ * {@value #WINDOW} instances, so about as many instances are pending at any time. Run with {@code -prof gc} to compare
+ * the allocation per vote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PredictionCombinerBenchmark {
+
+  private static final int ENSEMBLE_SIZE = 100;
+  private static final int WINDOW = 50;
+
+  private final double[] prediction = { 0.1, 0.3, 0.6 };
+  private SinkStream output;
+  private PredictionCombinerProcessor processor;
+  private Map<Integer, Integer> counts;
+  private Map<Integer, DoubleVector> combinedVotes;
+  private int instanceIndex;
+
+  @Setup
+  public void setUp() {
+    output = new SinkStream();
+    processor = new PredictionCombinerProcessor();
+    processor.setEnsembleSize(ENSEMBLE_SIZE);
+    processor.setOutputStream(output);
+    processor.onCreate(0);
+    counts = new HashMap<>();
+    combinedVotes = new HashMap<>();
+    // start with a full window, so that every instance gets all its votes
+    instanceIndex = WINDOW;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENSEMBLE_SIZE)
+  public int primitiveTable() {
+    int n = instanceIndex++;
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      ResultContentEvent vote = new ResultContentEvent(n - (i % WINDOW), null, 0, prediction, false);
+      vote.setClassifierIndex(i);
+      processor.process(vote);
+    }
+    return output.count;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENSEMBLE_SIZE)
+  public int boxedMaps() {
+    int n = instanceIndex++;
+    for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+      int index = n - (i % WINDOW);
+      ResultContentEvent inEvent = new ResultContentEvent(index, null, 0, prediction, false);
+      inEvent.setClassifierIndex(i);
+      DoubleVector vote = new DoubleVector(inEvent.getClassVotes());
+      vote.normalize();
+      DoubleVector combinedVote = combinedVotes.get(index);
+      if (combinedVote == null) {
+        combinedVote = new DoubleVector();
+      }
+      vote.scaleValues(1.0);
+      combinedVote.addValues(vote);
+      combinedVotes.put(index, combinedVote);
+      Integer count = counts.get(index);
+      counts.put(index, count == null ? 1 : count + 1);
+      if (counts.get(index) == ENSEMBLE_SIZE) {
+        output.put(new ResultContentEvent(index, null, 0, combinedVote.getArrayCopy(), false));
+        counts.remove(index);
+        combinedVotes.remove(index);
+      }
+    }
+    return output.count;
+  }
+
+  /**
+   * Output stream that keeps the last combined vote only, so that it is not optimized away.
+   */
+  private static final class SinkStream implements Stream {
+
+    private ContentEvent last;
+    private int count;
+
+    @Override
+    public void put(ContentEvent event) {
+      last = event;
+      count++;
+    }
+
+    @Override
+    public String getStreamId() {
+      return "result";
+    }
+
+    @Override
+    public void setBatchSize(int batchsize) {
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package org.apache.samoa.learners.classifiers.trees;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.AttributeClassObserver;
+import org.apache.samoa.moa.classifiers.core.attributeclassobservers.GaussianNumericAttributeClassObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+/**
+ * Cost of shipping one batch of instances of a VHT leaf to the local statistics, as columnar
+ * {@link AttributeBatchContentEvent}s against one {@link AttributeContentEvent} per attribute value kept in a list per
+ * attribute, as the batch event did before.
+ * 
+ * The build and process benchmarks cover the local and threads engines, which hand the events over by reference: the
+ * events of a batch are built as {@link ActiveLearningNode} does and applied to the attribute observers as
+ * {@link LocalStatisticsProcessor} does (with a lookup in a Guava table per value for the list). The Kryo benchmarks
+ * cover the distributed engines such as Storm and Samza, which serialize every event: each batch is written and read
+ * back with the full precision serializers registered in bin/samza-kryo. Run with {@code -prof gc} to compare the
+ * allocation per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AttributeBatchBenchmark {
+
+  private static final long LEARNING_NODE_ID = 1;
+
+  @Param({ "1000" })
+  public int numAttributes;
+
+  @Param({ "200" })
+  public int batchSize;
+
+  private double[][] values;
+  private int[] classes;
+
+  private LocalStatisticsProcessor processor;
+  private Table<Long, Integer, AttributeClassObserver> localStats;
+
+  private Kryo kryo;
+  private Output output;
+  private AttributeBatchContentEvent[] columns;
+  private List<List<ContentEvent>> lists;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    values = new double[batchSize][numAttributes];
+    classes = new int[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      for (int a = 0; a < numAttributes; a++) {
+        values[i][a] = random.nextGaussian();
+      }
+      classes[i] = random.nextInt(2);
+    }
+
+    processor = new LocalStatisticsProcessor.Builder().build();
+    processor.onCreate(0);
+    localStats = HashBasedTable.create();
+
+    kryo = new Kryo();
+    kryo.register(AttributeContentEvent.class, new AttributeContentEvent.AttributeCEFullPrecSerializer());
+    kryo.register(AttributeBatchContentEvent.class,
+        new AttributeBatchContentEvent.AttributeBatchCEFullPrecSerializer());
+    output = new Output(1 << 16, -1);
+    columns = buildColumns();
+    lists = buildLists();
+  }
+
+  private AttributeBatchContentEvent[] buildColumns() {
+    AttributeBatchContentEvent[] batch = new AttributeBatchContentEvent[numAttributes];
+    for (int i = 0; i < batchSize; i++) {
+      for (int a = 0; a < numAttributes; a++) {
+        if (batch[a] == null) {
+          batch[a] = new AttributeBatchContentEvent.Builder(LEARNING_NODE_ID, a).isNominal(false).build();
+        }
+        batch[a].add(values[i][a], classes[i], 1.0);
+      }
+    }
+    return batch;
+  }
+
+  private List<List<ContentEvent>> buildLists() {
+    List<List<ContentEvent>> batch = new LinkedList<>();
+    for (int a = 0; a < numAttributes; a++) {
+      batch.add(new LinkedList<ContentEvent>());
+    }
+    for (int i = 0; i < batchSize; i++) {
+      int a = 0;
+      for (List<ContentEvent> list : batch) {
+        list.add(new AttributeContentEvent.Builder(LEARNING_NODE_ID, a).attrValue(values[i][a])
+            .classValue(classes[i]).weight(1.0).isNominal(false).build());
+        a++;
+      }
+    }
+    return batch;
+  }
+
+  @Benchmark
+  public AttributeBatchContentEvent[] columnarBuildAndProcess() {
+    AttributeBatchContentEvent[] batch = buildColumns();
+    for (AttributeBatchContentEvent event : batch) {
+      processor.process(event);
+    }
+    return batch;
+  }
+
+  @Benchmark
+  public List<List<ContentEvent>> perAttributeBuildAndProcess() {
+    List<List<ContentEvent>> batch = buildLists();
+    for (List<ContentEvent> list : batch) {
+      for (ContentEvent contentEvent : list) {
+        AttributeContentEvent ace = (AttributeContentEvent) contentEvent;
+        Long learningNodeId = ace.getLearningNodeId();
+        Integer obsIndex = ace.getObsIndex();
+        AttributeClassObserver obs = localStats.get(learningNodeId, obsIndex);
+        if (obs == null) {
+          obs = new GaussianNumericAttributeClassObserver();
+          localStats.put(learningNodeId, obsIndex, obs);
+        }
+        obs.observeAttributeClass(ace.getAttrVal(), ace.getClassVal(), ace.getWeight());
+      }
+    }
+    return batch;
+  }
+
+  @Benchmark
+  public Object columnarKryo() {
+    Object read = null;
+    for (AttributeBatchContentEvent event : columns) {
+      output.clear();
+      kryo.writeObject(output, event);
+      read = kryo.readObject(new Input(output.getBuffer(), 0, output.position()), AttributeBatchContentEvent.class);
+    }
+    return read;
+  }
+
+  @Benchmark
+  public Object perAttributeKryo() {
+    Object read = null;
+    for (List<ContentEvent> list : lists) {
+      output.clear();
+      kryo.writeObject(output, list);
+      read = kryo.readObject(new Input(output.getBuffer(), 0, output.position()), LinkedList.class);
+    }
+    return read;
+  }
+}
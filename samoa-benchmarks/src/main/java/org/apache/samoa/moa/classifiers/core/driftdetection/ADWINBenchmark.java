@@ -0,0 +1,81 @@
+package org.apache.samoa.moa.classifiers.core.driftdetection;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost per input of {@link ADWIN} over a stream of 0/1 errors whose rate jumps from 0.2 to 0.8 halfway, so that the
+ * window grows, detects the change and shrinks. Every invocation runs a new detector over the whole stream, one value
+ * at a time with {@link ADWIN#setInput(double)} or in one call to {@link ADWIN#setInputs(double[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ADWINBenchmark {
+
+  private static final int STREAM_LENGTH = 20000;
+
+  private double[] values;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    values = new double[STREAM_LENGTH];
+    for (int i = 0; i < STREAM_LENGTH; i++) {
+      values[i] = random.nextDouble() < (i < STREAM_LENGTH / 2 ? 0.2 : 0.8) ? 1 : 0;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STREAM_LENGTH)
+  public ADWIN setInput() {
+    ADWIN adwin = new ADWIN();
+    for (double value : values) {
+      adwin.setInput(value);
+    }
+    return adwin;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STREAM_LENGTH)
+  public ADWIN setInputs() {
+    ADWIN adwin = new ADWIN();
+    adwin.setInputs(values);
+    return adwin;
+  }
+}
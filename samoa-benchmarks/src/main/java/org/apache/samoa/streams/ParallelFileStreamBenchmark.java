@@ -0,0 +1,122 @@
+package org.apache.samoa.streams;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to read a local ARFF file of 50000 instances with 20 numeric attributes, sequentially with
+ * {@link ArffFileStream} and in chunks of 256 KB with {@link ParallelFileStream}. The file is written once per trial
+ * and stays in the page cache, so the benchmark measures the parsing rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParallelFileStreamBenchmark {
+
+  private static final int NUM_ROWS = 50000;
+
+  private File file;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = File.createTempFile("parallelfs", ".arff");
+    Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    writer.write("@relation throughput\n");
+    for (int i = 0; i < 20; i++) {
+      writer.write("@attribute a" + i + " numeric\n");
+    }
+    writer.write("@attribute class {a,b}\n@data\n");
+    Random random = new Random(3);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      for (int j = 0; j < 20; j++) {
+        writer.write(String.format(Locale.ROOT, "%.5f,", random.nextDouble()));
+      }
+      writer.write(random.nextBoolean() ? "a\n" : "b\n");
+    }
+    writer.close();
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  public int arffFileStream() {
+    ArffFileStream stream = new ArffFileStream();
+    stream.arffFileOption.setValue(file.getAbsolutePath());
+    stream.prepareForUse();
+    return count(stream);
+  }
+
+  @Benchmark
+  public int parallelFileStream(Parsers parsers) {
+    ParallelFileStream stream = new ParallelFileStream();
+    stream.fileOption.setValue(file.getAbsolutePath());
+    stream.numThreadsOption.setValue(parsers.numThreads);
+    stream.chunkSizeOption.setValue(256);
+    stream.prepareForUse();
+    return count(stream);
+  }
+
+  private static int count(InstanceStream stream) {
+    int count = 0;
+    while (stream.hasMoreInstances()) {
+      stream.nextInstance();
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Number of parsing threads, a separate state so that the sequential benchmark runs once.
+   */
+  @State(Scope.Benchmark)
+  public static class Parsers {
+
+    @Param({ "1", "4" })
+    public int numThreads;
+  }
+}
@@ -0,0 +1,120 @@
+package org.apache.samoa.streams.kafka;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the buffered Kafka entrance: the records of a {@link MockConsumer} are polled by the consumer thread of
+ * {@link KafkaUtils} into its ring buffer and taken one by one with {@link KafkaUtils#getNextKafkaEvent()}, as the
+ * entrance processor does. Every invocation starts a consumer thread and drains all the records, so the score is the
+ * time per event including the hand-over between the two threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KafkaConsumerThreadBenchmark {
+
+  private static final String TOPIC = "benchmark";
+  private static final int NUM_RECORDS = 100000;
+
+  @Param({ "16", "1024" })
+  public int bufferSize;
+
+  private ConsumerRecord<String, byte[]>[] records;
+  private MockConsumer<String, byte[]> consumer;
+  private KafkaUtils kafkaUtils;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    records = new ConsumerRecord[NUM_RECORDS];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      byte[] value = ByteBuffer.allocate(8).putLong(i).array();
+      records[i] = new ConsumerRecord<>(TOPIC, 0, i, null, value);
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void startConsumer() {
+    TopicPartition partition = new TopicPartition(TOPIC, 0);
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.subscribe(Arrays.asList(TOPIC));
+    consumer.rebalance(Collections.singletonList(partition));
+    consumer.updateBeginningOffsets(Collections.singletonMap(partition, 0L));
+    for (ConsumerRecord<String, byte[]> record : records) {
+      consumer.addRecord(record);
+    }
+    kafkaUtils = new KafkaUtils(new Properties(), null, 100);
+  }
+
+  @TearDown(Level.Invocation)
+  public void stopConsumer() {
+    kafkaUtils.closeConsumer();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public ContentEvent drain() {
+    kafkaUtils.initializeConsumer(consumer, Arrays.asList(TOPIC), new IndexDeserializer(), bufferSize);
+    ContentEvent event = null;
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      event = kafkaUtils.getNextKafkaEvent();
+    }
+    return event;
+  }
+
+  private static class IndexDeserializer implements KafkaDeserializer<InstanceContentEvent> {
+
+    @Override
+    public InstanceContentEvent deserialize(byte[] message) {
+      return new InstanceContentEvent(ByteBuffer.wrap(message).getLong(), null, true, false);
+    }
+  }
+}
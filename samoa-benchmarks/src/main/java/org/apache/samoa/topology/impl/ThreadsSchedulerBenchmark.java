@@ -0,0 +1,130 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.Processor;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the two schedulers of the threads engine: one {@link ThreadsEventRunnable} submitted to a single thread
+ * executor per event, against the bounded {@link ThreadsMailbox} drained by a {@link ThreadsMailboxWorker}. Every
+ * invocation sends a batch of events to one PI instance and waits until all of them are processed. Run with
+ * {@code -prof gc} to compare the allocation per event (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ThreadsSchedulerBenchmark {
+
+  private static final int BATCH = 1000;
+
+  @Param({ "executor", "mailbox" })
+  public String scheduler;
+
+  @Param({ "1024" })
+  public int mailboxCapacity;
+
+  private final ContentEvent event = new InstanceContentEvent(0, null, true, false);
+  private CountingProcessor processor;
+  private ThreadsProcessingItem pi;
+  private long sent;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ThreadsEngine.clearThreadPool();
+    if (scheduler.equals("mailbox")) {
+      ThreadsEngine.setMailboxScheduler(1, mailboxCapacity, ThreadsOverflowPolicy.BLOCK);
+    } else {
+      ThreadsEngine.setNumberOfThreads(1);
+    }
+    processor = new CountingProcessor(new AtomicLong());
+    pi = new ThreadsProcessingItem(processor, 1);
+    pi.setupInstances();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ThreadsEngine.clearThreadPool();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public long processEvents() {
+    for (int i = 0; i < BATCH; i++) {
+      pi.processEvent(event, 0);
+    }
+    sent += BATCH;
+    while (processor.processed.get() < sent) {
+      Thread.yield();
+    }
+    return sent;
+  }
+
+  /**
+   * Counts the processed events, the copies made for the PI instances share the counter.
+   */
+  private static final class CountingProcessor implements Processor {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLong processed;
+
+    CountingProcessor(AtomicLong processed) {
+      this.processed = processed;
+    }
+
+    @Override
+    public boolean process(ContentEvent event) {
+      processed.incrementAndGet();
+      return true;
+    }
+
+    @Override
+    public void onCreate(int id) {
+    }
+
+    @Override
+    public Processor newProcessor(Processor p) {
+      return new CountingProcessor(((CountingProcessor) p).processed);
+    }
+  }
+}
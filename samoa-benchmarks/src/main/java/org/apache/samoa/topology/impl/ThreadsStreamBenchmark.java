@@ -0,0 +1,119 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Emit throughput of {@link ThreadsStream#put(ContentEvent)} when several producers write to the same SHUFFLE stream,
+ * as the replicas of the local statistics do. The destination discards the events, so only the routing is measured.
+ * The serialized variant takes a lock around every put, as the synchronized put did, to show how the contention-free
+ * path scales with the number of producers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ThreadsStreamBenchmark {
+
+  @Param({ "false", "true" })
+  public boolean serialized;
+
+  @Param({ "8" })
+  public int parallelism;
+
+  private final ContentEvent event = new InstanceContentEvent(0, null, true, false);
+  private final Object lock = new Object();
+  private ThreadsStream stream;
+
+  @Setup
+  public void setUp() {
+    stream = new ThreadsStream(null);
+    new DiscardingProcessingItem(parallelism).connectInputShuffleStream(stream);
+  }
+
+  private void put() {
+    if (serialized) {
+      synchronized (lock) {
+        stream.put(event);
+      }
+    } else {
+      stream.put(event);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void oneProducer() {
+    put();
+  }
+
+  @Benchmark
+  @Threads(2)
+  public void twoProducers() {
+    put();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void fourProducers() {
+    put();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void eightProducers() {
+    put();
+  }
+
+  /**
+   * Destination PI that drops the events instead of scheduling them.
+   */
+  private static final class DiscardingProcessingItem extends ThreadsProcessingItem {
+
+    DiscardingProcessingItem(int parallelism) {
+      super(null, parallelism);
+    }
+
+    @Override
+    public void processEvent(ContentEvent event, int counter) {
+      if (counter < 0 || counter >= this.getParallelism())
+        throw new IllegalArgumentException("No replica " + counter);
+    }
+  }
+}
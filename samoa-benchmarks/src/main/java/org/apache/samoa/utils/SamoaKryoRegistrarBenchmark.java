@@ -0,0 +1,127 @@
+package org.apache.samoa.utils;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.samoa.core.SerializableInstance;
+import org.apache.samoa.instances.Attribute;
+import org.apache.samoa.instances.DenseInstance;
+import org.apache.samoa.instances.Instance;
+import org.apache.samoa.instances.Instances;
+import org.apache.samoa.learners.InstanceContentEvent;
+import org.apache.samoa.learners.InstancesContentEvent;
+import org.apache.samoa.learners.ResultContentEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Time to write and read back an instance and the instance, batch and result events with the serializers of
+ * {@link SamoaKryoRegistrar}, against the field serializers that a Kryo instance without registrations falls back to.
+ * The instances have 30 attributes. Dense and sparse instances and the split models are left out, plain Kryo cannot
+ * create them without a no-arg constructor; the VHT events are measured by the AttributeBatchBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SamoaKryoRegistrarBenchmark {
+
+  private static final int NUM_ATTRIBUTES = 30;
+
+  @Param({ "instance", "instanceEvent", "instancesEvent", "resultEvent" })
+  public String sample;
+
+  @Param({ "kryo", "registrar" })
+  public String serializer;
+
+  private Instances header;
+  private Object object;
+  private Kryo kryo;
+  private Output output;
+
+  @Setup
+  public void setUp() {
+    List<Attribute> attributes = new ArrayList<Attribute>();
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      attributes.add(new Attribute("attribute_" + i));
+    }
+    attributes.add(new Attribute("class", new ArrayList<String>(Arrays.asList("yes", "no", "maybe"))));
+    header = new Instances("registrar-benchmark", attributes, 0);
+    header.setClassIndex(NUM_ATTRIBUTES - 1);
+
+    if (sample.equals("instance")) {
+      object = new SerializableInstance(denseInstance(1));
+    } else if (sample.equals("instanceEvent")) {
+      object = new InstanceContentEvent(9, denseInstance(1), false, true);
+    } else if (sample.equals("instancesEvent")) {
+      InstancesContentEvent batch = new InstancesContentEvent();
+      for (int i = 0; i < 5; i++) {
+        batch.add(new InstanceContentEvent(i, denseInstance(i), true, i == 4).getInstanceContent());
+      }
+      object = batch;
+    } else {
+      object = new ResultContentEvent(9, denseInstance(1), 1, new double[] { 0.1, 0.6, 0.3 }, false);
+    }
+
+    kryo = new Kryo();
+    if (serializer.equals("registrar")) {
+      SamoaKryoRegistrar.register(kryo);
+    }
+    output = new Output(1 << 16, -1);
+  }
+
+  private Instance denseInstance(int seed) {
+    double[] values = new double[NUM_ATTRIBUTES];
+    for (int i = 0; i < NUM_ATTRIBUTES - 1; i++) {
+      values[i] = seed + i * 0.1;
+    }
+    values[NUM_ATTRIBUTES - 1] = seed % 3;
+    Instance instance = new DenseInstance(1.0, values);
+    instance.setDataset(header);
+    return instance;
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    output.clear();
+    kryo.writeObject(output, object);
+    return kryo.readObject(new Input(output.getBuffer(), 0, output.position()), object.getClass());
+  }
+}
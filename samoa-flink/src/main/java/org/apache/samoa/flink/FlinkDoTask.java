@@ -20,12 +20,15 @@ package org.apache.samoa.flink;
  * #L%
  */
 
+import com.esotericsoftware.kryo.Serializer;
 import com.github.javacliparser.ClassOption;
 
+import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.samoa.flink.topology.impl.FlinkComponentFactory;
 import org.apache.samoa.flink.topology.impl.FlinkTopology;
 import org.apache.samoa.tasks.Task;
+import org.apache.samoa.utils.SamoaKryoRegistrar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +67,7 @@ public class FlinkDoTask {
 		}
 		
 		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		registerSerializers(env.getConfig());
 		task.setFactory(new FlinkComponentFactory(env));
 		task.init();
 		
@@ -75,6 +79,13 @@ public class FlinkDoTask {
 
 	}
 
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static void registerSerializers(ExecutionConfig config) {
+		for (Map.Entry<Class<?>, Class<? extends Serializer>> entry : SamoaKryoRegistrar.serializers().entrySet()) {
+			config.registerTypeWithKryoSerializer(entry.getKey(), (Class) entry.getValue());
+		}
+	}
+
 
 	
 
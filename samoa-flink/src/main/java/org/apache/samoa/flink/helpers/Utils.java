@@ -30,12 +30,16 @@ import org.apache.flink.api.java.typeutils.TypeExtractor;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.flink.topology.impl.SamoaType;
+import org.apache.samoa.utils.KeyPartitioner;
+import org.apache.samoa.utils.Partitioner;
 import org.apache.samoa.utils.PartitioningScheme;
 
 import static org.apache.flink.api.common.typeinfo.BasicTypeInfo.STRING_TYPE_INFO;
 
 public class Utils {
 
+	private static final Partitioner partitioner = new KeyPartitioner();
+
 	public static TypeInformation<SamoaType> tempTypeInfo = new TupleTypeInfo(SamoaType.class, STRING_TYPE_INFO, TypeExtractor.getForClass(ContentEvent.class), STRING_TYPE_INFO);
 
 	public static DataStream subscribe(DataStream<SamoaType> stream, PartitioningScheme partitioning) {
@@ -43,10 +47,10 @@ public class Utils {
 			case BROADCAST:
 				return stream.broadcast();
 			case GROUP_BY_KEY:
-				return stream.keyBy(new KeySelector<SamoaType, String>() {
+				return stream.keyBy(new KeySelector<SamoaType, Integer>() {
 					@Override
-					public String getKey(SamoaType samoaType) throws Exception {
-						return samoaType.f0;
+					public Integer getKey(SamoaType samoaType) throws Exception {
+						return partitioner.hash(samoaType.f1);
 					}
 				});
 			case SHUFFLE:
@@ -25,6 +25,7 @@ package org.apache.samoa.flink.topology.impl;
 
 import org.apache.flink.api.java.tuple.Tuple3;
 import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.KeyedContentEvent;
 
 public class SamoaType extends Tuple3<String, ContentEvent, String> {
 	public SamoaType() {
@@ -35,8 +36,11 @@ public class SamoaType extends Tuple3<String, ContentEvent, String> {
 		super(key, event, streamId);
 	}
 
+	private static final String NO_KEY = "";
+
 	public static SamoaType of(ContentEvent event, String streamId) {
-		String key = event.getKey() == null ? "none" : event.getKey();
+		// grouping hashes the event itself, so keyed events do not need to carry a stringified copy of their key
+		String key = (event instanceof KeyedContentEvent || event.getKey() == null) ? NO_KEY : event.getKey();
 		return new SamoaType(key, event, streamId);
 	}
 }
@@ -20,16 +20,26 @@ package org.apache.samoa.instances;
  * #L%
  */
 
-import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.io.Reader;
-import java.io.StreamTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ArffLoader implements Loader {
+/**
+ * Loader of ARFF files. The file is parsed from its bytes by an {@link ArffTokenizer}: numbers are parsed in place,
+ * nominal values are looked up in a hash index of the UTF-8 bytes of their labels, and the values of sparse instances
+ * are collected in primitive arrays reused from one instance to the next.
+ */
+public class ArffLoader implements Loader, Closeable {
 
   /**
    * The instance information.
@@ -39,9 +49,18 @@ public class ArffLoader implements Loader {
   protected InstancesHeader streamHeader;
 
   /**
-   * The stream tokenizer.
+   * The tokenizer.
+   */
+  private transient ArffTokenizer tokenizer;
+
+  /**
+   * The indices of the values of the nominal attributes, null for the other attributes.
    */
-  protected transient StreamTokenizer streamTokenizer;
+  private transient ArffTokenizer.NominalIndex[] nominalIndices;
+
+  private transient int[] sparseIndices = new int[16];
+
+  private transient double[] sparseValues = new double[16];
 
   /**
    * Instantiates a new arff loader.
@@ -53,11 +72,50 @@ public class ArffLoader implements Loader {
   public ArffLoader(Reader reader, int size, int classAttribute) {
     // size is not used
     this(reader);
-    if (classAttribute < 0) {
-      this.instanceInformation.setClassIndex(this.instanceInformation.numAttributes() - 1);
-      //System.out.print(this.instanceInformation.classIndex());
-    } else if (classAttribute > 0) {
-      this.instanceInformation.setClassIndex(classAttribute - 1);
+    setClassAttribute(classAttribute);
+  }
+
+  /**
+   * Instantiates a new arff loader reading the bytes of a channel, e.g., the channel of an input stream.
+   *
+   * @param channel the channel
+   * @param classAttribute the class attribute, 1-based, -1 for the last attribute or 0 for none
+   */
+  public ArffLoader(ReadableByteChannel channel, int classAttribute) {
+    this(new ArffTokenizer(channel, ArffTokenizer.DEFAULT_BUFFER_SIZE), null);
+    setClassAttribute(classAttribute);
+  }
+
+  /**
+   * Instantiates a new arff loader reading the remaining bytes of a buffer, e.g., a memory-mapped file.
+   *
+   * @param buffer the buffer
+   * @param classAttribute the class attribute, 1-based, -1 for the last attribute or 0 for none
+   */
+  public ArffLoader(ByteBuffer buffer, int classAttribute) {
+    this(new ArffTokenizer(buffer), null);
+    setClassAttribute(classAttribute);
+  }
+
+  /**
+   * Instantiates a new arff loader reading the data section of an ARFF file, i.e. its instances, with a header read
+   * beforehand. This allows parsing parts of a file, e.g. line-aligned chunks, independently.
+   *
+   * @param data the bytes of the instances
+   * @param header the header of the file
+   */
+  public ArffLoader(ByteBuffer data, InstanceInformation header) {
+    this.tokenizer = new ArffTokenizer(data);
+    this.instanceInformation = header;
+    this.auxAttributes = new ArrayList<Attribute>(header.numAttributes());
+    for (int i = 0; i < header.numAttributes(); i++) {
+      auxAttributes.add(header.attribute(i));
+    }
+    this.nominalIndices = newNominalIndices(auxAttributes);
+    try {
+      tokenizer.nextToken();
+    } catch (IOException ex) {
+      Logger.getLogger(ArffLoader.class.getName()).log(Level.SEVERE, null, ex);
     }
   }
 
@@ -79,21 +137,12 @@ public class ArffLoader implements Loader {
    * @param range
    */
   public ArffLoader(Reader reader, Range range) {
+    this(new ArffTokenizer(new ReaderChannel(reader), ArffTokenizer.DEFAULT_BUFFER_SIZE), range);
+  }
+
+  ArffLoader(ArffTokenizer tokenizer, Range range) {
     this.range = range;
-    BufferedReader br = new BufferedReader(reader);
-
-    //Init streamTokenizer
-    streamTokenizer = new StreamTokenizer(br);
-    streamTokenizer.resetSyntax();
-    streamTokenizer.whitespaceChars(0, ' ');
-    streamTokenizer.wordChars(' ' + 1, '\u00FF');
-    streamTokenizer.whitespaceChars(',', ',');
-    streamTokenizer.commentChar('%');
-    streamTokenizer.quoteChar('"');
-    streamTokenizer.quoteChar('\'');
-    streamTokenizer.ordinaryChar('{');
-    streamTokenizer.ordinaryChar('}');
-    streamTokenizer.eolIsSignificant(true);
+    this.tokenizer = tokenizer;
 
     this.instanceInformation = this.getHeader();
 
@@ -103,6 +152,65 @@ public class ArffLoader implements Loader {
 
   }
 
+  /**
+   * Opens an ARFF file. Files up to 2 GB are memory-mapped, larger ones are read through their channel, which stays
+   * open until the loader is closed.
+   *
+   * @param file the file
+   * @param classAttribute the class attribute, 1-based, -1 for the last attribute or 0 for none
+   * @return the loader
+   * @throws IOException if the file cannot be opened
+   */
+  public static ArffLoader open(File file, int classAttribute) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      if (channel.size() <= Integer.MAX_VALUE) {
+        // the mapping stays valid after the file is closed
+        return new ArffLoader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), classAttribute);
+      }
+      ArffLoader loader = new ArffLoader(channel, classAttribute);
+      // the loader owns the channel from now on
+      randomAccessFile = null;
+      return loader;
+    } finally {
+      if (randomAccessFile != null) {
+        randomAccessFile.close();
+      }
+    }
+  }
+
+  /**
+   * Closes the channel the loader reads from, if any.
+   *
+   * @throws IOException if the channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (tokenizer != null) {
+      tokenizer.close();
+    }
+  }
+
+  /**
+   * Gets the number of bytes of the input parsed so far. Right after the header is read, this is the offset of the
+   * first line of the data section.
+   *
+   * @return the position in the input
+   */
+  public long getPosition() {
+    return tokenizer.position();
+  }
+
+  private void setClassAttribute(int classAttribute) {
+    if (classAttribute < 0) {
+      this.instanceInformation.setClassIndex(this.instanceInformation.numAttributes() - 1);
+      //System.out.print(this.instanceInformation.classIndex());
+    } else if (classAttribute > 0) {
+      this.instanceInformation.setClassIndex(classAttribute - 1);
+    }
+  }
+
   /**
    * Gets the structure.
    *
@@ -118,16 +226,15 @@ public class ArffLoader implements Loader {
    * @return the instance
    */
   public Instance readInstance() {
-    while (streamTokenizer.ttype == StreamTokenizer.TT_EOL) {
+    while (tokenizer.ttype == ArffTokenizer.TT_EOL) {
       try {
-        streamTokenizer.nextToken();
+        tokenizer.nextToken();
       } catch (IOException ex) {
         Logger.getLogger(ArffLoader.class.getName()).log(Level.SEVERE, null, ex);
       }
     }
-    if (streamTokenizer.ttype == '{') {
+    if (tokenizer.ttype == '{') {
       return readInstanceSparse();
-      // return readDenseInstanceSparse();
     } else {
       return readInstanceDense();
     }
@@ -140,20 +247,7 @@ public class ArffLoader implements Loader {
    * @return the instance
    */
   public Instance readInstance(Reader reader) {
-    while (streamTokenizer.ttype == StreamTokenizer.TT_EOL) {
-      try {
-        streamTokenizer.nextToken();
-      } catch (IOException ex) {
-        Logger.getLogger(ArffLoader.class.getName()).log(Level.SEVERE, null, ex);
-      }
-    }
-    if (streamTokenizer.ttype == '{') {
-      return readInstanceSparse();
-      // return readDenseInstanceSparse();
-    } else {
-      return readInstanceDense();
-    }
-
+    return readInstance();
   }
 
   /**
@@ -163,39 +257,20 @@ public class ArffLoader implements Loader {
    */
   public Instance readInstanceDense() {
     Instance instance = newDenseInstance(this.instanceInformation.numAttributes());
-    //System.out.println(this.instanceInformation.numAttributes());
     int numAttribute = 0;
     try {
-      while (numAttribute == 0 && streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
+      while (numAttribute == 0 && tokenizer.ttype != ArffTokenizer.TT_EOF) {
         //For each line
-        while (streamTokenizer.ttype != StreamTokenizer.TT_EOL
-            && streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
+        while (tokenizer.ttype != ArffTokenizer.TT_EOL
+            && tokenizer.ttype != ArffTokenizer.TT_EOF) {
           //For each item
-          if (streamTokenizer.ttype == StreamTokenizer.TT_NUMBER) {
-            //System.out.println(streamTokenizer.nval + "Num ");
-            instance.setValue(numAttribute, streamTokenizer.nval);//this.setValue(instance, numAttribute, streamTokenizer.nval, true);
-            ++numAttribute;
-
-          } else if (streamTokenizer.sval != null && (streamTokenizer.ttype == StreamTokenizer.TT_WORD
-              || streamTokenizer.ttype == 34 || streamTokenizer.ttype == 39)) {
-            //System.out.println(streamTokenizer.sval + "Str");
-            boolean isNumeric = this.auxAttributes.get(numAttribute).isNumeric();
-            double value;
-            if ("?".equals(streamTokenizer.sval)) {
-              value = Double.NaN; //Utils.missingValue();
-            } else if (isNumeric == true) {
-              value = Double.valueOf(streamTokenizer.sval).doubleValue();
-            } else {
-              value = this.auxAttributes.get(numAttribute).indexOfValue(streamTokenizer.sval);
-            }
-
-            instance.setValue(numAttribute,value);//this.setValue(instance, numAttribute, value, isNumeric);
+          if (tokenizer.ttype == ArffTokenizer.TT_WORD || tokenizer.ttype == '"' || tokenizer.ttype == '\'') {
+            instance.setValue(numAttribute, parseValue(numAttribute));
             ++numAttribute;
           }
-          streamTokenizer.nextToken();
+          tokenizer.nextToken();
         }
-        streamTokenizer.nextToken();
-        //System.out.println("EOL");
+        tokenizer.nextToken();
       }
 
     } catch (IOException ex) {
@@ -204,6 +279,20 @@ public class ArffLoader implements Loader {
     return (numAttribute > 0) ? instance : null;
   }
 
+  /**
+   * Parses the current token as a value of the given attribute.
+   */
+  private double parseValue(int numAttribute) {
+    if (tokenizer.isMissingValue()) {
+      return Double.NaN; //Utils.missingValue();
+    }
+    ArffTokenizer.NominalIndex nominalIndex = this.nominalIndices[numAttribute];
+    if (nominalIndex == null) {
+      return tokenizer.doubleValue();
+    }
+    return tokenizer.nominalIndex(nominalIndex);
+  }
+
   protected void setValue(Instance instance, int numAttribute, double value, boolean isNumber) {
     double valueAttribute;
 
@@ -232,134 +321,44 @@ public class ArffLoader implements Loader {
    */
   private Instance readInstanceSparse() {
     //Return a Sparse Instance
-    Instance instance = newSparseInstance(1.0); //, null); //(this.instanceInformation.numAttributes() + 1);
-    //System.out.println(this.instanceInformation.numAttributes());
+    Instance instance = newSparseInstance(1.0);
     int numAttribute;
-    ArrayList<Double> attributeValues = new ArrayList<Double>();
-    List<Integer> indexValues = new ArrayList<Integer>();
+    int numValues = 0;
     try {
-      //while (streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
-      streamTokenizer.nextToken(); // Remove the '{' char
+      tokenizer.nextToken(); // Remove the '{' char
       //For each line
-      while (streamTokenizer.ttype != StreamTokenizer.TT_EOL
-          && streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
-        while (streamTokenizer.ttype != '}') {
+      while (tokenizer.ttype != ArffTokenizer.TT_EOL
+          && tokenizer.ttype != ArffTokenizer.TT_EOF) {
+        while (tokenizer.ttype != '}' && tokenizer.ttype != ArffTokenizer.TT_EOL
+            && tokenizer.ttype != ArffTokenizer.TT_EOF) {
           //For each item
-          //streamTokenizer.nextToken();
-          //while (streamTokenizer.ttype != '}'){
-          //System.out.println(streamTokenizer.nval +"-"+ streamTokenizer.sval);
-          //numAttribute = (int) streamTokenizer.nval;
-          if (streamTokenizer.ttype == StreamTokenizer.TT_NUMBER) {
-            numAttribute = (int) streamTokenizer.nval;
-          } else {
-            numAttribute = Integer.parseInt(streamTokenizer.sval);
-          }
-          streamTokenizer.nextToken();
-
-          if (streamTokenizer.ttype == StreamTokenizer.TT_NUMBER) {
-            //System.out.print(streamTokenizer.nval + " ");
-            this.setSparseValue(instance, indexValues, attributeValues, numAttribute, streamTokenizer.nval, true);
-            //numAttribute++;
-
-          } else if (streamTokenizer.sval != null && (streamTokenizer.ttype == StreamTokenizer.TT_WORD
-              || streamTokenizer.ttype == 34 || streamTokenizer.ttype == 39)) {
-            //System.out.print(streamTokenizer.sval + "-");
-            if (this.auxAttributes.get(numAttribute).isNumeric()) {
-              this.setSparseValue(instance, indexValues, attributeValues, numAttribute, Double.valueOf(streamTokenizer.sval).doubleValue(), true);
-            } else {
-              this.setSparseValue(instance, indexValues, attributeValues, numAttribute, this.auxAttributes.get(numAttribute).indexOfValue(streamTokenizer.sval), false);
-            }
-          }
-          streamTokenizer.nextToken();
-        }
-        streamTokenizer.nextToken(); //Remove the '}' char
-      }
-      streamTokenizer.nextToken();
-      //System.out.println("EOL");
-      //}
-
-    } catch (IOException ex) {
-      Logger.getLogger(ArffLoader.class.getName()).log(Level.SEVERE, null, ex);
-    }
-    int[] arrayIndexValues = new int[attributeValues.size()];
-    double[] arrayAttributeValues = new double[attributeValues.size()];
-    for (int i = 0; i < arrayIndexValues.length; i++) {
-      arrayIndexValues[i] = indexValues.get(i).intValue();
-      arrayAttributeValues[i] = attributeValues.get(i).doubleValue();
-    }
-    instance.addSparseValues(arrayIndexValues, arrayAttributeValues, this.instanceInformation.numAttributes());
-    return instance;
+          numAttribute = tokenizer.intValue();
+          tokenizer.nextToken();
 
-  }
-
-  private void setSparseValue(Instance instance, List<Integer> indexValues, List<Double> attributeValues, int numAttribute, double value, boolean isNumber) {
-    double valueAttribute;
-    if (isNumber && this.auxAttributes.get(numAttribute).isNominal) {
-      valueAttribute = this.auxAttributes.get(numAttribute).indexOfValue(Double.toString(value));
-    } else {
-      valueAttribute = value;
-    }
-    //if (this.instanceInformation.classIndex() == numAttribute) {
-    //    setClassValue(instance, valueAttribute);
-    //} else {
-    //instance.setValue(numAttribute, valueAttribute);
-    indexValues.add(numAttribute);
-    attributeValues.add(valueAttribute);
-    //}
-    //System.out.println(numAttribute+":"+valueAttribute+","+this.instanceInformation.classIndex()+","+value);
-  }
-
-  /**
-   * Reads an instance sparse and returns a dense one.
-   *
-   * @return the instance
-   */
-  private Instance readDenseInstanceSparse() {
-    //Returns a dense instance
-    Instance instance = newDenseInstance(this.instanceInformation.numAttributes());
-    //System.out.println(this.instanceInformation.numAttributes());
-    int numAttribute;
-    try {
-      //while (streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
-      streamTokenizer.nextToken(); // Remove the '{' char
-      //For each line
-      while (streamTokenizer.ttype != StreamTokenizer.TT_EOL
-          && streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
-        while (streamTokenizer.ttype != '}') {
-          //For each item
-          //streamTokenizer.nextToken();
-          //while (streamTokenizer.ttype != '}'){
-          //System.out.print(streamTokenizer.nval+":");
-          numAttribute = (int) streamTokenizer.nval;
-          streamTokenizer.nextToken();
-
-          if (streamTokenizer.ttype == StreamTokenizer.TT_NUMBER) {
-            //System.out.print(streamTokenizer.nval + " ");
-            instance.setValue(numAttribute, streamTokenizer.nval);//this.setValue(instance, numAttribute, streamTokenizer.nval, true);
-            //numAttribute++;
-
-          } else if (streamTokenizer.sval != null && (streamTokenizer.ttype == StreamTokenizer.TT_WORD
-              || streamTokenizer.ttype == 34)) {
-            //System.out.print(streamTokenizer.sval + "/"+this.auxAttributes.get(numAttribute).indexOfValue(streamTokenizer.sval)+" ");
-            if (this.auxAttributes.get(numAttribute).isNumeric()) {
-              instance.setValue(numAttribute, Double.valueOf(streamTokenizer.sval).doubleValue());//this.setValue(instance, numAttribute, Double.valueOf(streamTokenizer.sval).doubleValue(), true);
-            } else {
-              instance.setValue(numAttribute, this.auxAttributes.get(numAttribute).indexOfValue(streamTokenizer.sval));//this.setValue(instance, numAttribute, this.auxAttributes.get(numAttribute).indexOfValue(streamTokenizer.sval), false);
-              //numAttribute++;
+          if (tokenizer.ttype == ArffTokenizer.TT_WORD || tokenizer.ttype == '"' || tokenizer.ttype == '\'') {
+            if (numValues == sparseIndices.length) {
+              sparseIndices = Arrays.copyOf(sparseIndices, numValues << 1);
+              sparseValues = Arrays.copyOf(sparseValues, numValues << 1);
             }
+            sparseIndices[numValues] = numAttribute;
+            sparseValues[numValues] = parseValue(numAttribute);
+            numValues++;
           }
-          streamTokenizer.nextToken();
+          tokenizer.nextToken();
+        }
+        if (tokenizer.ttype == '}') {
+          tokenizer.nextToken(); //Remove the '}' char
         }
-        streamTokenizer.nextToken(); //Remove the '}' char
       }
-      streamTokenizer.nextToken();
-      //System.out.println("EOL");
-      //}
+      tokenizer.nextToken();
 
     } catch (IOException ex) {
       Logger.getLogger(ArffLoader.class.getName()).log(Level.SEVERE, null, ex);
     }
+    instance.addSparseValues(Arrays.copyOf(sparseIndices, numValues), Arrays.copyOf(sparseValues, numValues),
+        this.instanceInformation.numAttributes());
     return instance;
+
   }
 
   //protected List<Attribute> inputAttributes;
@@ -368,107 +367,75 @@ public class ArffLoader implements Loader {
   protected List<Attribute> auxAttributes;
 
   private InstanceInformation getHeader() {
-    //commented JD
-    //this.range.setUpper(10000); //TO DO: Create a new range object with isInRange that does not need the upper limit
     String relation = "file stream";
-    //System.out.println("RELATION " + relation);
-    //inputAttributes = new ArrayList<Attribute>();
-    //outputAttributes = new ArrayList<Attribute>();
-    //ArrayList<Attribute>
     auxAttributes = new ArrayList<Attribute>();//JD
     int numAttributes = 0;
     try {
-      streamTokenizer.nextToken();
-      while (streamTokenizer.ttype != StreamTokenizer.TT_EOF) {
+      tokenizer.nextToken();
+      while (tokenizer.ttype != ArffTokenizer.TT_EOF) {
         //For each line
-        //if (streamTokenizer.ttype == '@') {
-        if (streamTokenizer.ttype == StreamTokenizer.TT_WORD && streamTokenizer.sval.startsWith("@") == true) {
-          //streamTokenizer.nextToken();
-          String token = streamTokenizer.sval.toUpperCase();
+        if (tokenizer.ttype == ArffTokenizer.TT_WORD && tokenizer.stringValue().startsWith("@")) {
+          String token = tokenizer.stringValue().toUpperCase();
           if (token.startsWith("@RELATION")) {
-            streamTokenizer.nextToken();
-            relation = streamTokenizer.sval;
-            //  System.out.println("RELATION " + relation);
+            tokenizer.nextToken();
+            relation = tokenValue();
           } else if (token.startsWith("@ATTRIBUTE")) {
-            streamTokenizer.nextToken();
-            String name = streamTokenizer.sval;
-            //System.out.println("* " + name);
-            if (name == null) {
-              name = Double.toString(streamTokenizer.nval);
-            }
-            streamTokenizer.nextToken();
-            String type = streamTokenizer.sval;
-            // System.out.println("* " + name + ":" + type + " ");
-            if (streamTokenizer.ttype == '{') {
-              streamTokenizer.nextToken();
+            tokenizer.nextToken();
+            String name = tokenValue();
+            tokenizer.nextToken();
+            if (tokenizer.ttype == '{') {
+              tokenizer.nextToken();
               List<String> attributeLabels = new ArrayList<String>();
-              while (streamTokenizer.ttype != '}') {
-
-                if (streamTokenizer.sval != null) {
-                  attributeLabels.add(streamTokenizer.sval);
-                  // System.out.print(streamTokenizer.sval + ",");
-                } else {
-                  attributeLabels.add(Double.toString(streamTokenizer.nval));
-                  //System.out.print(streamTokenizer.nval + ",");
+              while (tokenizer.ttype != '}' && tokenizer.ttype != ArffTokenizer.TT_EOF) {
+                if (tokenValue() != null) {
+                  attributeLabels.add(tokenValue());
                 }
-
-                streamTokenizer.nextToken();
+                tokenizer.nextToken();
               }
-              // System.out.println();
-              //attributes.add(new Attribute(name, attributeLabels));
-              //commented JD
-              /* if (this.range.isInRange(numAttribute)) {
-                             outputAttributes.add(new Attribute(name, attributeLabels));
-                             } else {
-                             inputAttributes.add(new Attribute(name, attributeLabels));
-                             }*/
               auxAttributes.add(new Attribute(name, attributeLabels));
               ++numAttributes;
             } else {
               // Add attribute
-              //commented JD
-              /*if (this.range.isInRange(numAttribute)) {
-                             outputAttributes.add(new Attribute(name));
-                             } else {
-                             inputAttributes.add(new Attribute(name));
-                             }*/
               auxAttributes.add(new Attribute(name));
               ++numAttributes;
             }
 
           } else if (token.startsWith("@DATA")) {
-            //System.out.print("END");
-            streamTokenizer.nextToken();
+            tokenizer.nextToken();
             break;
           }
         }
-        streamTokenizer.nextToken();
+        tokenizer.nextToken();
       }
       if (range != null) {
         this.range.setUpper(numAttributes);
       }
-      /*if (range==null) //is single-target. All instances should go to inputAtrributes (see setClassIndex(int) from InstanceInformation )
-             inputAttributes=auxAttributes;
-             else//is multi-target
-             {
-             this.range.setUpper(numAttribute);
-             for (int i=0; i<auxAttributes.size();i++)
-             {
-             //if (this.range.isInRange(i))
-             //	outputAttributes.add(auxAttributes.get(i));
-             //else
-             inputAttributes.add(auxAttributes.get(i));
-
-             }
-             }*/
 
     } catch (IOException ex) {
       Logger.getLogger(ArffLoader.class.getName()).log(Level.SEVERE, null, ex);
     }
-    // this.range.setUpper(inputAttributes.size()+outputAttributes.size());
+    this.nominalIndices = newNominalIndices(auxAttributes);
     return new InstanceInformation(relation, auxAttributes);
   }
 
+  private static ArffTokenizer.NominalIndex[] newNominalIndices(List<Attribute> attributes) {
+    ArffTokenizer.NominalIndex[] indices = new ArffTokenizer.NominalIndex[attributes.size()];
+    for (int i = 0; i < indices.length; i++) {
+      if (attributes.get(i).isNominal()) {
+        indices[i] = new ArffTokenizer.NominalIndex(attributes.get(i));
+      }
+    }
+    return indices;
+  }
+
+  /**
+   * @return the current token if it is a word or a quoted string, null otherwise
+   */
+  private String tokenValue() {
+    int ttype = tokenizer.ttype;
+    return (ttype == ArffTokenizer.TT_WORD || ttype == '"' || ttype == '\'') ? tokenizer.stringValue() : null;
+  }
+
   protected Instance newSparseInstance(double d, double[] res) {
     Instance inst = new SparseInstance(d, res); //is it dense?
     //inst.setInstanceInformation(this.instanceInformation);
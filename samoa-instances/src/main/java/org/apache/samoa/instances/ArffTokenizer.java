@@ -0,0 +1,505 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Tokenizer of ARFF files working on bytes. It splits its input like the java.io.StreamTokenizer set up by the former
+ * ArffLoader: tokens are separated by white space and commas, can be quoted with single or double quotes, '{' and '}'
+ * are tokens of their own, '%' starts a comment and end of lines are significant.
+ * 
+ * The input is either a single ByteBuffer, e.g., a memory-mapped file, or a channel read into a window that is
+ * refilled when it is exhausted. The bytes of the current token are always contiguous in the buffer, so that numbers
+ * and nominal values are parsed in place, without building a String per token.
+ */
+final class ArffTokenizer {
+
+  static final int TT_EOF = -1;
+  static final int TT_EOL = '\n';
+  static final int TT_WORD = -3;
+  static final int TT_NOTHING = -4;
+
+  static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // exact powers of ten as doubles
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+      1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  // bytes that can be part of a word
+  private static final boolean[] WORD_BYTES = new boolean[256];
+
+  static {
+    for (int c = ' ' + 1; c < WORD_BYTES.length; c++) {
+      WORD_BYTES[c] = c != ',' && c != '{' && c != '}' && c != '"' && c != '\'' && c != '%';
+    }
+  }
+
+  private final ReadableByteChannel channel;
+  private ByteBuffer buffer;
+  private int pos;
+  private int limit;
+  private boolean endOfInput;
+  // offset in the input of the first byte of the buffer, minus the initial position of a buffer
+  private long base;
+
+  /**
+   * Type of the current token: TT_EOF, TT_EOL, TT_WORD, the quote character of a quoted token, '{' or '}'.
+   */
+  int ttype = TT_NOTHING;
+
+  private int tokenStart;
+  private int tokenEnd;
+  private boolean escaped;
+
+  /**
+   * Tokenizes the remaining bytes of a buffer.
+   */
+  ArffTokenizer(ByteBuffer buffer) {
+    this.channel = null;
+    this.buffer = buffer;
+    this.pos = buffer.position();
+    this.limit = buffer.limit();
+    this.endOfInput = true;
+    this.base = -buffer.position();
+  }
+
+  /**
+   * Tokenizes the bytes read from a channel.
+   */
+  ArffTokenizer(ReadableByteChannel channel, int bufferSize) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.limit = 0;
+  }
+
+  /**
+   * Reads the next token.
+   * 
+   * @return the type of the token
+   */
+  int nextToken() throws IOException {
+    int c = peek();
+    // skip white space and separators
+    while (c >= 0 && (c <= ' ' || c == ',') && c != '\n' && c != '\r') {
+      pos++;
+      c = peek();
+    }
+    if (c == '%') {
+      // comment until the end of the line
+      while (c >= 0 && c != '\n' && c != '\r') {
+        pos++;
+        c = peek();
+      }
+    }
+    if (c < 0) {
+      return ttype = TT_EOF;
+    }
+    if (c == '\n' || c == '\r') {
+      pos++;
+      if (c == '\r' && peek() == '\n') {
+        pos++;
+      }
+      return ttype = TT_EOL;
+    }
+    if (c == '{' || c == '}') {
+      pos++;
+      return ttype = c;
+    }
+    if (c == '"' || c == '\'') {
+      return ttype = readQuoted(c);
+    }
+    tokenStart = pos;
+    escaped = false;
+    int offset = 0;
+    do {
+      // scan the bytes already in the buffer, then refill if the token may go on
+      int i = tokenStart + offset;
+      while (i < limit && WORD_BYTES[buffer.get(i) & 0xFF]) {
+        i++;
+      }
+      offset = i - tokenStart;
+    } while (tokenStart + offset == limit && fill(tokenStart, offset));
+    tokenEnd = tokenStart + offset;
+    pos = tokenEnd;
+    return ttype = TT_WORD;
+  }
+
+  /**
+   * @return the number of bytes of the input read so far, up to the end of the current token
+   */
+  long position() {
+    return base + pos;
+  }
+
+  /**
+   * @return the current token as a String, with the escape sequences of quoted tokens resolved
+   */
+  String stringValue() {
+    if (escaped) {
+      return unescape();
+    }
+    return new String(bytes(), UTF_8);
+  }
+
+  /**
+   * @return true if the current token is "?", i.e. a missing value
+   */
+  boolean isMissingValue() {
+    return tokenEnd - tokenStart == 1 && buffer.get(tokenStart) == '?';
+  }
+
+  /**
+   * Parses the current token like Double.valueOf. Plain decimal numbers that can be converted exactly are parsed in
+   * place, the others go through Double.parseDouble.
+   * 
+   * @return the value of the token
+   * @throws NumberFormatException
+   *           if the token is not a number
+   */
+  double doubleValue() {
+    int i = tokenStart;
+    int end = tokenEnd;
+    boolean negative = false;
+    if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+      negative = buffer.get(i) == '-';
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean dot = false;
+    boolean any = false;
+    for (; i < end; i++) {
+      int c = buffer.get(i);
+      if (c >= '0' && c <= '9') {
+        any = true;
+        if (mantissa != 0 || c != '0') {
+          if (++digits > 18) {
+            return slowDoubleValue();
+          }
+          mantissa = mantissa * 10 + (c - '0');
+        }
+        if (dot) {
+          exponent--;
+        }
+      } else if (c == '.' && !dot) {
+        dot = true;
+      } else {
+        break;
+      }
+    }
+    if (!any) {
+      return slowDoubleValue();
+    }
+    if (i < end) {
+      int c = buffer.get(i);
+      if ((c != 'e' && c != 'E') || ++i == end) {
+        return slowDoubleValue();
+      }
+      boolean negativeExponent = false;
+      if (buffer.get(i) == '-' || buffer.get(i) == '+') {
+        negativeExponent = buffer.get(i) == '-';
+        if (++i == end) {
+          return slowDoubleValue();
+        }
+      }
+      int exp = 0;
+      for (; i < end; i++) {
+        c = buffer.get(i);
+        if (c < '0' || c > '9' || exp > 1000) {
+          return slowDoubleValue();
+        }
+        exp = exp * 10 + (c - '0');
+      }
+      exponent += negativeExponent ? -exp : exp;
+    }
+    double value;
+    if (mantissa == 0) {
+      value = 0.0;
+    } else if (mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+      // both operands are exact, so the result is correctly rounded
+      value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+    } else {
+      return slowDoubleValue();
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses the current token like Integer.parseInt.
+   */
+  int intValue() {
+    int i = tokenStart;
+    int end = tokenEnd;
+    if (end - i == 0 || end - i > 9) {
+      return Integer.parseInt(stringValue());
+    }
+    int value = 0;
+    for (; i < end; i++) {
+      int c = buffer.get(i);
+      if (c < '0' || c > '9') {
+        return Integer.parseInt(stringValue());
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Looks up the current token in the values of a nominal attribute.
+   * 
+   * @return the index of the value, or -1 if the attribute does not have it
+   */
+  int nominalIndex(NominalIndex index) {
+    if (escaped) {
+      return index.indexOf(unescape());
+    }
+    return index.indexOf(buffer, tokenStart, tokenEnd);
+  }
+
+  private byte[] bytes() {
+    byte[] bytes = new byte[tokenEnd - tokenStart];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(tokenStart + i);
+    }
+    return bytes;
+  }
+
+  private double slowDoubleValue() {
+    return Double.parseDouble(stringValue());
+  }
+
+  private int readQuoted(int quote) throws IOException {
+    pos++;
+    tokenStart = pos;
+    escaped = false;
+    int offset = 0;
+    int c;
+    // like StreamTokenizer, a quoted token ends at the closing quote or at the end of the line
+    while ((c = peekToken(offset)) >= 0 && c != quote && c != '\n' && c != '\r') {
+      if (c == '\\') {
+        escaped = true;
+        if (peekToken(offset + 1) >= 0) {
+          offset++;
+        }
+      }
+      offset++;
+    }
+    tokenEnd = pos + offset;
+    pos = c == quote ? tokenEnd + 1 : tokenEnd;
+    return quote;
+  }
+
+  private String unescape() {
+    String raw = new String(bytes(), UTF_8);
+    StringBuilder sb = new StringBuilder(raw.length());
+    for (int i = 0; i < raw.length(); i++) {
+      char c = raw.charAt(i);
+      if (c == '\\' && i + 1 < raw.length()) {
+        c = raw.charAt(++i);
+        switch (c) {
+        case 'a':
+          c = 0x7;
+          break;
+        case 'b':
+          c = '\b';
+          break;
+        case 'f':
+          c = 0xC;
+          break;
+        case 'n':
+          c = '\n';
+          break;
+        case 'r':
+          c = '\r';
+          break;
+        case 't':
+          c = '\t';
+          break;
+        case 'v':
+          c = 0xB;
+          break;
+        default:
+          if (c >= '0' && c <= '7') {
+            // up to three octal digits, the first one at most 3 for three digits
+            int value = c - '0';
+            int maxDigits = c <= '3' ? 3 : 2;
+            for (int d = 1; d < maxDigits && i + 1 < raw.length() && raw.charAt(i + 1) >= '0'
+                && raw.charAt(i + 1) <= '7'; d++) {
+              value = value * 8 + (raw.charAt(++i) - '0');
+            }
+            c = (char) value;
+          }
+        }
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Closes the channel, if any.
+   */
+  void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private int peek() throws IOException {
+    if (pos < limit || fill(pos, 0)) {
+      return buffer.get(pos) & 0xFF;
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the byte at the given offset of the current token, refilling the buffer while keeping the token if needed.
+   * The token start may move when the buffer is refilled, so the offset is relative.
+   */
+  private int peekToken(int offset) throws IOException {
+    if (tokenStart + offset < limit || fill(tokenStart, offset)) {
+      return buffer.get(tokenStart + offset) & 0xFF;
+    }
+    return -1;
+  }
+
+  /**
+   * Reads more bytes, moving the bytes from start to the beginning of the buffer.
+   * 
+   * @return true if the byte at start + offset is available
+   */
+  private boolean fill(int start, int offset) throws IOException {
+    this.tokenStart = start;
+    while (!endOfInput && start + offset >= limit) {
+      int kept = limit - start;
+      if (start > 0) {
+        for (int i = 0; i < kept; i++) {
+          buffer.put(i, buffer.get(start + i));
+        }
+        pos -= start;
+        base += start;
+        this.tokenStart = 0;
+        start = 0;
+      } else if (kept == buffer.capacity()) {
+        // a token longer than the buffer
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() << 1);
+        buffer.position(0).limit(kept);
+        larger.put(buffer);
+        buffer = larger;
+      }
+      buffer.clear();
+      buffer.position(kept);
+      int read = channel.read(buffer);
+      limit = kept;
+      if (read < 0) {
+        endOfInput = true;
+      } else {
+        limit += read;
+      }
+    }
+    return start + offset < limit;
+  }
+
+  /**
+   * Index of the values of a nominal attribute, looked up with the UTF-8 bytes of a token. When the attribute has the
+   * same value several times, the last index is returned, like {@link Attribute#indexOfValue(String)}.
+   */
+  static final class NominalIndex {
+
+    private final Attribute attribute;
+    private final byte[][] labels;
+    private final int[] slots;
+
+    NominalIndex(Attribute attribute) {
+      this.attribute = attribute;
+      int numValues = attribute.numValues();
+      this.labels = new byte[numValues][];
+      int capacity = Integer.highestOneBit(Math.max(numValues, 1) * 2 + 1) << 1;
+      this.slots = new int[capacity];
+      for (int v = 0; v < numValues; v++) {
+        byte[] label = attribute.value(v).getBytes(UTF_8);
+        labels[v] = label;
+        int slot = hash(label, 0, label.length) & (capacity - 1);
+        while (slots[slot] != 0 && !equals(labels[slots[slot] - 1], label)) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        slots[slot] = v + 1;
+      }
+    }
+
+    int indexOf(ByteBuffer buffer, int start, int end) {
+      int mask = slots.length - 1;
+      int slot = hash(buffer, start, end) & mask;
+      while (slots[slot] != 0) {
+        byte[] label = labels[slots[slot] - 1];
+        if (matches(label, buffer, start, end)) {
+          return slots[slot] - 1;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    int indexOf(String value) {
+      return attribute.indexOfValue(value);
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + bytes[i];
+      }
+      return h ^ (h >>> 16);
+    }
+
+    private static int hash(ByteBuffer buffer, int start, int end) {
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + buffer.get(i);
+      }
+      return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(byte[] a, byte[] b) {
+      return Arrays.equals(a, b);
+    }
+
+    private static boolean matches(byte[] label, ByteBuffer buffer, int start, int end) {
+      if (label.length != end - start) {
+        return false;
+      }
+      for (int i = 0; i < label.length; i++) {
+        if (label[i] != buffer.get(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of the binary instance files written by {@link BinaryInstancesWriter} and read by {@link BinaryInstancesLoader}.
+ * All numbers are little-endian.
+ * 
+ * <pre>
+ * prefix:  int magic, int version, byte layout, int blockSize, long numInstances, long indexOffset (0 if no index)
+ * header:  int length, then relation name, int numAttributes, int classIndex, and for each attribute its name and
+ *          int numValues (-1 if numeric) followed by the labels; strings are an int length and UTF-8 bytes
+ * blocks:  dense:  int numRows, double weights[numRows], then double values[numRows] for each attribute in turn
+ *          sparse: int numRows, int numValues, int rowStarts[numRows + 1], double weights[numRows],
+ *                  int indices[numValues], double values[numValues]
+ * index:   int numBlocks, then long offset and long firstInstance of each block
+ * </pre>
+ */
+final class BinaryInstancesFormat {
+
+  static final int MAGIC = 0x49424d53; // "SMBI"
+  static final int VERSION = 1;
+
+  static final byte LAYOUT_DENSE = 0;
+  static final byte LAYOUT_SPARSE = 1;
+
+  static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  static final int PREFIX_SIZE = 29;
+  static final int NUM_INSTANCES_POSITION = 13;
+  static final int INDEX_OFFSET_POSITION = 21;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private BinaryInstancesFormat() {
+  }
+
+  static ByteBuffer encodeHeader(Instances header) {
+    List<byte[]> strings = new ArrayList<byte[]>();
+    strings.add(encode(header.getRelationName()));
+    int size = 4 + 4; // numAttributes and classIndex
+    for (int i = 0; i < header.numAttributes(); i++) {
+      Attribute attribute = header.attribute(i);
+      strings.add(encode(attribute.name()));
+      size += 4;
+      for (int v = 0; attribute.isNominal() && v < attribute.numValues(); v++) {
+        strings.add(encode(attribute.value(v)));
+      }
+    }
+    for (byte[] string : strings) {
+      size += 4 + string.length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(4 + size).order(BYTE_ORDER);
+    buffer.putInt(size);
+    int s = 0;
+    put(buffer, strings.get(s++));
+    buffer.putInt(header.numAttributes());
+    buffer.putInt(header.classIndex());
+    for (int i = 0; i < header.numAttributes(); i++) {
+      Attribute attribute = header.attribute(i);
+      put(buffer, strings.get(s++));
+      buffer.putInt(attribute.isNominal() ? attribute.numValues() : -1);
+      for (int v = 0; attribute.isNominal() && v < attribute.numValues(); v++) {
+        put(buffer, strings.get(s++));
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  static InstanceInformation decodeHeader(ByteBuffer buffer) throws IOException {
+    String relation = getString(buffer);
+    int numAttributes = buffer.getInt();
+    int classIndex = buffer.getInt();
+    List<Attribute> attributes = new ArrayList<Attribute>(numAttributes);
+    for (int i = 0; i < numAttributes; i++) {
+      String name = getString(buffer);
+      int numValues = buffer.getInt();
+      if (numValues < 0) {
+        attributes.add(new Attribute(name));
+      } else {
+        List<String> labels = new ArrayList<String>(numValues);
+        for (int v = 0; v < numValues; v++) {
+          labels.add(getString(buffer));
+        }
+        attributes.add(new Attribute(name, labels));
+      }
+    }
+    InstanceInformation information = new InstanceInformation(relation, attributes);
+    information.setClassIndex(classIndex);
+    return information;
+  }
+
+  /**
+   * @return the size in bytes of a dense block
+   */
+  static long denseBlockSize(int numRows, int numAttributes) {
+    return 4 + 8L * numRows * (1 + numAttributes);
+  }
+
+  /**
+   * @return the size in bytes of a sparse block
+   */
+  static long sparseBlockSize(int numRows, int numValues) {
+    return 8 + 4L * (numRows + 1) + 8L * numRows + 12L * numValues;
+  }
+
+  private static byte[] encode(String string) {
+    return string == null ? new byte[0] : string.getBytes(UTF_8);
+  }
+
+  private static void put(ByteBuffer buffer, byte[] string) {
+    buffer.putInt(string.length);
+    buffer.put(string);
+  }
+
+  private static String getString(ByteBuffer buffer) throws IOException {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Corrupted binary instances header");
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
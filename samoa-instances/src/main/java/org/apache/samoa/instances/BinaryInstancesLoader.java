@@ -0,0 +1,281 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Loader of the binary instance files written by {@link BinaryInstancesWriter}. The file is memory-mapped and the
+ * values of each block are copied in bulk into the arrays of its instances, without any parsing. Files larger than
+ * 2 GB are mapped in windows of 1 GB.
+ */
+public class BinaryInstancesLoader implements Loader {
+
+  private static final long serialVersionUID = -1409766380357813217L;
+
+  private static final long WINDOW_SIZE = 1L << 30;
+
+  private final File file;
+  private final InstanceInformation instanceInformation;
+  private final boolean sparse;
+  private final boolean indexed;
+  private final long numInstances;
+  private final long dataStart;
+  private final long dataEnd;
+  private final long fileSize;
+
+  private transient FileChannel channel;
+  private transient ByteBuffer window;
+  private long windowStart;
+
+  private long nextBlock;
+  private long nextInstance;
+
+  // instances of the current block
+  private Instance[] rows = new Instance[0];
+  private int numRows;
+  private int nextRow;
+
+  /**
+   * Opens a binary instance file.
+   * 
+   * @param file
+   *          the file
+   * @throws IOException
+   *           if the file cannot be read or is not a binary instance file
+   */
+  public BinaryInstancesLoader(File file) throws IOException {
+    this.file = file;
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      this.channel = randomAccessFile.getChannel();
+      this.fileSize = channel.size();
+      if (fileSize < BinaryInstancesFormat.PREFIX_SIZE + 4) {
+        throw new IOException("Not a binary instance file: " + file);
+      }
+      ByteBuffer prefix = map(0, BinaryInstancesFormat.PREFIX_SIZE + 4);
+      if (prefix.getInt() != BinaryInstancesFormat.MAGIC) {
+        throw new IOException("Not a binary instance file: " + file);
+      }
+      int version = prefix.getInt();
+      if (version != BinaryInstancesFormat.VERSION) {
+        throw new IOException("Unsupported binary instance file version " + version + ": " + file);
+      }
+      this.sparse = prefix.get() == BinaryInstancesFormat.LAYOUT_SPARSE;
+      this.numInstances = prefix.getLong(BinaryInstancesFormat.NUM_INSTANCES_POSITION);
+      long indexOffset = prefix.getLong(BinaryInstancesFormat.INDEX_OFFSET_POSITION);
+      int headerSize = prefix.getInt(BinaryInstancesFormat.PREFIX_SIZE);
+      this.dataStart = BinaryInstancesFormat.PREFIX_SIZE + 4 + headerSize;
+      if (numInstances < 0 || indexOffset != 0 && (indexOffset < dataStart || indexOffset + 4 > fileSize)) {
+        throw new IOException("Corrupt binary instance file: " + file);
+      }
+      this.instanceInformation = BinaryInstancesFormat.decodeHeader(map(BinaryInstancesFormat.PREFIX_SIZE + 4,
+          headerSize));
+      this.dataEnd = indexOffset > 0 ? indexOffset : fileSize;
+      this.indexed = indexOffset > 0;
+      this.nextBlock = dataStart;
+    } finally {
+      // the mappings stay valid after the file is closed
+      randomAccessFile.close();
+      this.channel = null;
+    }
+  }
+
+  @Override
+  public InstanceInformation getStructure() {
+    return this.instanceInformation;
+  }
+
+  /**
+   * @return the number of instances in the file
+   */
+  public long numInstances() {
+    return numInstances;
+  }
+
+  @Override
+  public Instance readInstance() {
+    if (nextRow == numRows) {
+      try {
+        if (!readBlock()) {
+          return null;
+        }
+      } catch (IOException ioe) {
+        throw new RuntimeException("Failed reading binary instances from " + file, ioe);
+      }
+    }
+    nextInstance++;
+    Instance instance = rows[nextRow];
+    rows[nextRow++] = null;
+    return instance;
+  }
+
+  /**
+   * Moves to an instance, so that it is the next one read. The block index is used if the file has one, otherwise the
+   * blocks before the instance are skipped one by one, reading only their sizes.
+   * 
+   * @param instance
+   *          the position of the instance in the file, starting at 0
+   */
+  public void seek(long instance) throws IOException {
+    if (instance < 0 || instance > numInstances) {
+      throw new IllegalArgumentException("Instance " + instance + " out of range [0, " + numInstances + "]");
+    }
+    long block = dataStart;
+    long blockFirstInstance = 0;
+    if (indexed) {
+      ByteBuffer index = map(dataEnd, 4);
+      int numBlocks = index.getInt();
+      index = map(dataEnd + 4, 16L * numBlocks);
+      int low = 0;
+      int high = numBlocks - 1;
+      // last block starting at or before the instance
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        if (index.getLong(index.position() + 16 * middle + 8) <= instance) {
+          low = middle + 1;
+        } else {
+          high = middle - 1;
+        }
+      }
+      if (high >= 0) {
+        block = index.getLong(index.position() + 16 * high);
+        blockFirstInstance = index.getLong(index.position() + 16 * high + 8);
+      }
+    }
+    while (block < dataEnd) {
+      ByteBuffer sizes = map(block, 8);
+      int blockRows = sizes.getInt();
+      if (blockFirstInstance + blockRows > instance) {
+        break;
+      }
+      block += blockSize(blockRows, sizes);
+      blockFirstInstance += blockRows;
+    }
+    this.nextBlock = block;
+    this.nextInstance = blockFirstInstance;
+    this.numRows = 0;
+    this.nextRow = 0;
+    while (nextInstance < instance) {
+      readInstance();
+    }
+  }
+
+  private long blockSize(int blockRows, ByteBuffer sizes) {
+    if (sparse) {
+      return BinaryInstancesFormat.sparseBlockSize(blockRows, sizes.getInt());
+    }
+    return BinaryInstancesFormat.denseBlockSize(blockRows, instanceInformation.numAttributes());
+  }
+
+  private boolean readBlock() throws IOException {
+    if (nextBlock >= dataEnd) {
+      return false;
+    }
+    ByteBuffer sizes = map(nextBlock, 8);
+    int blockRows = sizes.getInt();
+    long size = blockSize(blockRows, sizes);
+    ByteBuffer block = map(nextBlock, size);
+    nextBlock += size;
+
+    if (rows.length < blockRows) {
+      rows = new Instance[blockRows];
+    }
+    int numAttributes = instanceInformation.numAttributes();
+    block.getInt();
+    if (sparse) {
+      int numValues = block.getInt();
+      int[] rowStarts = getInts(block, blockRows + 1);
+      double[] weights = getDoubles(block, blockRows);
+      int[] indices = getInts(block, numValues);
+      double[] values = getDoubles(block, numValues);
+      for (int r = 0; r < blockRows; r++) {
+        rows[r] = new SparseInstance(weights[r], Arrays.copyOfRange(values, rowStarts[r], rowStarts[r + 1]),
+            Arrays.copyOfRange(indices, rowStarts[r], rowStarts[r + 1]), numAttributes);
+      }
+    } else {
+      double[] weights = getDoubles(block, blockRows);
+      double[][] values = new double[blockRows][numAttributes];
+      double[] column = new double[blockRows];
+      for (int a = 0; a < numAttributes; a++) {
+        block.asDoubleBuffer().get(column, 0, blockRows);
+        block.position(block.position() + 8 * blockRows);
+        for (int r = 0; r < blockRows; r++) {
+          values[r][a] = column[r];
+        }
+      }
+      for (int r = 0; r < blockRows; r++) {
+        rows[r] = new DenseInstance(weights[r], values[r]);
+      }
+    }
+    this.numRows = blockRows;
+    this.nextRow = 0;
+    return blockRows > 0 || readBlock();
+  }
+
+  private static int[] getInts(ByteBuffer buffer, int length) {
+    int[] array = new int[length];
+    buffer.asIntBuffer().get(array);
+    buffer.position(buffer.position() + 4 * length);
+    return array;
+  }
+
+  private static double[] getDoubles(ByteBuffer buffer, int length) {
+    double[] array = new double[length];
+    buffer.asDoubleBuffer().get(array);
+    buffer.position(buffer.position() + 8 * length);
+    return array;
+  }
+
+  /**
+   * Gets a buffer over a range of the file, positioned at its start, remapping the window of the file if needed.
+   */
+  private ByteBuffer map(long position, long length) throws IOException {
+    if (window == null || position < windowStart || position + length > windowStart + window.capacity()) {
+      long start = fileSize <= Integer.MAX_VALUE ? 0 : position;
+      long size = fileSize <= Integer.MAX_VALUE ? fileSize : Math.min(fileSize - start, Math.max(length, WINDOW_SIZE));
+      if (position + length > fileSize || size > Integer.MAX_VALUE) {
+        throw new IOException("Range [" + position + ", " + (position + length) + ") not in file " + file);
+      }
+      FileChannel mapped = channel;
+      RandomAccessFile randomAccessFile = null;
+      if (mapped == null) {
+        randomAccessFile = new RandomAccessFile(file, "r");
+        mapped = randomAccessFile.getChannel();
+      }
+      try {
+        window = mapped.map(FileChannel.MapMode.READ_ONLY, start, size).order(BinaryInstancesFormat.BYTE_ORDER);
+        windowStart = start;
+      } finally {
+        if (randomAccessFile != null) {
+          randomAccessFile.close();
+        }
+      }
+    }
+    ByteBuffer buffer = window.duplicate().order(BinaryInstancesFormat.BYTE_ORDER);
+    buffer.position((int) (position - windowStart));
+    return buffer;
+  }
+}
@@ -0,0 +1,223 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Writer of binary instance files, read back by {@link BinaryInstancesLoader}. Instances are written in blocks of a
+ * fixed number of rows, either dense, with the values of each attribute stored contiguously, or sparse, in compressed
+ * sparse row form. An index of the blocks can be appended to the file, for seeking.
+ */
+public class BinaryInstancesWriter implements Closeable {
+
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final int numAttributes;
+  private final boolean sparse;
+  private final int blockSize;
+  private final boolean blockIndex;
+
+  // rows of the current block
+  private int numRows;
+  private final double[] weights;
+  private final double[] values; // dense, attribute after attribute
+  private final int[] rowStarts; // sparse
+  private int[] sparseIndices = new int[16];
+  private double[] sparseValues = new double[16];
+
+  private long numInstances;
+  private long[] blockOffsets = new long[16];
+  private long[] blockFirstInstances = new long[16];
+  private int numBlocks;
+
+  /**
+   * Creates a binary instance file, replacing the file if it exists.
+   * 
+   * @param destination
+   *          the file
+   * @param header
+   *          the header of the instances
+   * @param sparse
+   *          true to write rows in sparse form
+   * @param blockSize
+   *          the number of rows of a block
+   * @param blockIndex
+   *          true to append an index of the blocks
+   */
+  public BinaryInstancesWriter(File destination, Instances header, boolean sparse, int blockSize, boolean blockIndex)
+      throws IOException {
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+    }
+    this.numAttributes = header.numAttributes();
+    this.sparse = sparse;
+    this.blockSize = blockSize;
+    this.blockIndex = blockIndex;
+    this.weights = new double[blockSize];
+    this.values = sparse ? null : new double[blockSize * numAttributes];
+    this.rowStarts = sparse ? new int[blockSize + 1] : null;
+
+    this.file = new RandomAccessFile(destination, "rw");
+    this.channel = file.getChannel();
+    channel.truncate(0);
+    ByteBuffer prefix = ByteBuffer.allocate(BinaryInstancesFormat.PREFIX_SIZE).order(BinaryInstancesFormat.BYTE_ORDER);
+    prefix.putInt(BinaryInstancesFormat.MAGIC);
+    prefix.putInt(BinaryInstancesFormat.VERSION);
+    prefix.put(sparse ? BinaryInstancesFormat.LAYOUT_SPARSE : BinaryInstancesFormat.LAYOUT_DENSE);
+    prefix.putInt(blockSize);
+    prefix.putLong(0); // number of instances and index offset, written on close
+    prefix.putLong(0);
+    prefix.flip();
+    write(prefix);
+    write(BinaryInstancesFormat.encodeHeader(header));
+  }
+
+  /**
+   * Writes an instance.
+   * 
+   * @param instance
+   *          the instance, with the attributes of the header
+   */
+  public void write(Instance instance) throws IOException {
+    weights[numRows] = instance.weight();
+    if (sparse) {
+      int numValues = rowStarts[numRows];
+      int instanceValues = instance.numValues();
+      if (numValues + instanceValues > sparseIndices.length) {
+        int capacity = Math.max(sparseIndices.length << 1, numValues + instanceValues);
+        sparseIndices = Arrays.copyOf(sparseIndices, capacity);
+        sparseValues = Arrays.copyOf(sparseValues, capacity);
+      }
+      for (int i = 0; i < instanceValues; i++) {
+        sparseIndices[numValues] = instance.index(i);
+        sparseValues[numValues] = instance.valueSparse(i);
+        numValues++;
+      }
+      rowStarts[numRows + 1] = numValues;
+    } else {
+      for (int a = 0; a < numAttributes; a++) {
+        values[a * blockSize + numRows] = instance.value(a);
+      }
+    }
+    numRows++;
+    numInstances++;
+    if (numRows == blockSize) {
+      writeBlock();
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if (numBlocks == blockOffsets.length) {
+      blockOffsets = Arrays.copyOf(blockOffsets, numBlocks << 1);
+      blockFirstInstances = Arrays.copyOf(blockFirstInstances, numBlocks << 1);
+    }
+    blockOffsets[numBlocks] = channel.position();
+    blockFirstInstances[numBlocks] = numInstances - numRows;
+    numBlocks++;
+
+    ByteBuffer buffer;
+    if (sparse) {
+      int numValues = rowStarts[numRows];
+      buffer = allocate(BinaryInstancesFormat.sparseBlockSize(numRows, numValues));
+      buffer.putInt(numRows);
+      buffer.putInt(numValues);
+      buffer.asIntBuffer().put(rowStarts, 0, numRows + 1);
+      buffer.position(buffer.position() + 4 * (numRows + 1));
+      putDoubles(buffer, weights, 0, numRows);
+      buffer.asIntBuffer().put(sparseIndices, 0, numValues);
+      buffer.position(buffer.position() + 4 * numValues);
+      putDoubles(buffer, sparseValues, 0, numValues);
+    } else {
+      buffer = allocate(BinaryInstancesFormat.denseBlockSize(numRows, numAttributes));
+      buffer.putInt(numRows);
+      putDoubles(buffer, weights, 0, numRows);
+      for (int a = 0; a < numAttributes; a++) {
+        putDoubles(buffer, values, a * blockSize, numRows);
+      }
+    }
+    buffer.flip();
+    write(buffer);
+    numRows = 0;
+  }
+
+  private static ByteBuffer allocate(long size) {
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Block of " + size + " bytes, use a smaller block size");
+    }
+    return ByteBuffer.allocate((int) size).order(BinaryInstancesFormat.BYTE_ORDER);
+  }
+
+  private static void putDoubles(ByteBuffer buffer, double[] array, int offset, int length) {
+    buffer.asDoubleBuffer().put(array, offset, length);
+    buffer.position(buffer.position() + 8 * length);
+  }
+
+  private void write(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * @return the number of instances written so far
+   */
+  public long getNumInstances() {
+    return numInstances;
+  }
+
+  /**
+   * Writes the last block and the index, and closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (numRows > 0) {
+        writeBlock();
+      }
+      long indexOffset = 0;
+      if (blockIndex) {
+        indexOffset = channel.position();
+        ByteBuffer index = allocate(4 + 16L * numBlocks);
+        index.putInt(numBlocks);
+        for (int b = 0; b < numBlocks; b++) {
+          index.putLong(blockOffsets[b]);
+          index.putLong(blockFirstInstances[b]);
+        }
+        index.flip();
+        write(index);
+      }
+      ByteBuffer counts = ByteBuffer.allocate(16).order(BinaryInstancesFormat.BYTE_ORDER);
+      counts.putLong(numInstances);
+      counts.putLong(indexOffset);
+      counts.flip();
+      channel.position(BinaryInstancesFormat.NUM_INSTANCES_POSITION);
+      write(counts);
+    } finally {
+      file.close();
+    }
+  }
+}
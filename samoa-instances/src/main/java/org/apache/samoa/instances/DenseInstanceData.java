@@ -128,6 +128,21 @@ public class DenseInstanceData implements InstanceData{
     return isMissing(indexAttribute);
   }
 
+  /**
+   * Visits the non-zero values.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void forEachNonZero(NonZeroVisitor visitor) {
+    double[] values = this.attributeValues;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != 0) {
+        visitor.visit(i, values[i]);
+      }
+    }
+  }
+
   /**
    * To double array.
    *
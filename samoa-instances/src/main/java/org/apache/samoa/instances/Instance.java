@@ -148,6 +148,15 @@ public interface Instance extends Serializable {
    */
   public boolean isMissingSparse(int p1);
 
+  /**
+   * Visits the non-zero values of the instance, class included, in increasing
+   * attribute index order. Missing values are visited as NaN. On sparse
+   * instances the cost is proportional to the number of non-zeros.
+   *
+   * @param visitor the visitor
+   */
+  public void forEachNonZero(NonZeroVisitor visitor);
+
   /**
    * To double array.
    *
@@ -78,6 +78,15 @@ public interface InstanceData extends Serializable {
    */
   public boolean isMissingSparse(int p1);
 
+  /**
+   * Visits the non-zero values in increasing attribute index order. Sparse
+   * data only visits its stored values, so the cost is proportional to the
+   * number of non-zeros instead of the number of attributes.
+   *
+   * @param visitor the visitor
+   */
+  public void forEachNonZero(NonZeroVisitor visitor);
+
   /**
    * To double array.
    *
@@ -227,6 +227,16 @@ public class InstanceImpl implements MultiLabelInstance {
     return this.instanceData.isMissingSparse(p);
   }
 
+  /**
+   * Visits the non-zero values.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void forEachNonZero(NonZeroVisitor visitor) {
+    this.instanceData.forEachNonZero(visitor);
+  }
+
   /**
    * String value.
    *
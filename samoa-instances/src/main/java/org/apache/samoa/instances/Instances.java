@@ -22,6 +22,8 @@ import java.io.InputStream;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
@@ -106,6 +108,17 @@ public class Instances implements Serializable {
     this.instances = new ArrayList<Instance>();
   }
 
+  /**
+   * Instantiates a new instances read by a loader.
+   *
+   * @param loader the loader
+   */
+  public Instances(Loader loader) {
+    this.loader = loader;
+    this.instanceInformation = loader.getStructure();
+    this.instances = new ArrayList<Instance>();
+  }
+
   public Instances(InputStream inputStream, int classAttribute, String encodingFormat) {
     this.classAttribute = classAttribute;
 
@@ -498,6 +511,19 @@ public class Instances implements Serializable {
     return this.instanceInformation;
   }
 
+  /**
+   * Registers the header of deserialized instances, e.g. of a learner shipped with a topology, so that instances sent
+   * to this JVM without their header can be reattached to it.
+   *
+   * @see SchemaRegistry
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    if (this.instanceInformation != null) {
+      SchemaRegistry.register(this);
+    }
+  }
+
   public Attribute attribute(String name) {
 
     for (int i = 0; i < numAttributes(); i++) {
@@ -0,0 +1,35 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Callback receiving the non-zero values of an instance, see {@link Instance#forEachNonZero(NonZeroVisitor)}.
+ */
+public interface NonZeroVisitor {
+
+  /**
+   * Visits a non-zero value.
+   *
+   * @param index the index of the attribute
+   * @param value the value of the attribute, NaN if it is missing
+   */
+  public void visit(int index, double value);
+}
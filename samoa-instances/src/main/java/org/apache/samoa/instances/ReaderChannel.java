@@ -0,0 +1,94 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Channel of the UTF-8 bytes of the characters of a Reader, so that loaders parsing bytes can also read from a Reader.
+ */
+final class ReaderChannel implements ReadableByteChannel {
+
+  private static final int CHAR_BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final CharsetEncoder encoder;
+  private final CharBuffer chars;
+  private boolean endOfInput;
+  private boolean flushed;
+  private boolean open = true;
+
+  ReaderChannel(Reader reader) {
+    this.reader = reader;
+    this.encoder = Charset.forName("UTF-8").newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    this.chars.flip();
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    int start = dst.position();
+    while (dst.hasRemaining() && !flushed) {
+      CoderResult result = encoder.encode(chars, dst, endOfInput);
+      if (result.isOverflow()) {
+        break;
+      }
+      if (endOfInput) {
+        if (encoder.flush(dst).isOverflow()) {
+          break;
+        }
+        flushed = true;
+      } else if (dst.position() > start) {
+        // return what is available instead of waiting for more characters
+        break;
+      } else {
+        chars.compact();
+        int read = reader.read(chars);
+        chars.flip();
+        if (read < 0) {
+          endOfInput = true;
+        }
+      }
+    }
+    int written = dst.position() - start;
+    return written == 0 && flushed ? -1 : written;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() throws IOException {
+    open = false;
+    reader.close();
+  }
+}
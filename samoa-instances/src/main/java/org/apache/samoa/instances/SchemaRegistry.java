@@ -0,0 +1,165 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the headers whose instances travel between processors without their header. A header is identified by
+ * a schema id computed from its relation name, class index and attributes, so every JVM of a topology derives the same
+ * id for the same header without any coordination. The sender writes the id in place of the header and the receiver
+ * reattaches the header registered under it.
+ */
+public final class SchemaRegistry {
+
+  /** The id written for instances that have no header. Never returned by {@link #schemaId(Instances)}. */
+  public static final int NO_SCHEMA = 0;
+
+  private static final ConcurrentMap<Integer, InstancesHeader> headers = new ConcurrentHashMap<Integer, InstancesHeader>();
+
+  /** The last computed id, the instances of a stream share their instance information. */
+  private static volatile CachedId last;
+
+  private SchemaRegistry() {
+  }
+
+  /**
+   * Registers a header, instances are not copied.
+   *
+   * @param header the header
+   * @return the schema id of the header
+   * @throws IllegalStateException if a different header is already registered under the same id
+   */
+  public static int register(Instances header) {
+    CachedId cached = last;
+    if (cached != null && cached.registered && cached.matches(header.instanceInformation)) {
+      return cached.schemaId;
+    }
+    int schemaId = schemaId(header);
+    InstancesHeader registered = headers.get(schemaId);
+    if (registered == null) {
+      registered = headers.putIfAbsent(schemaId, new InstancesHeader(header));
+    }
+    if (registered != null && registered.instanceInformation != header.instanceInformation
+        && !sameSchema(registered, header)) {
+      throw new IllegalStateException("Schema id " + schemaId + " of relation " + header.getRelationName()
+          + " is already used by relation " + registered.getRelationName());
+    }
+    last = new CachedId(header.instanceInformation, schemaId, true);
+    return schemaId;
+  }
+
+  /**
+   * Gets the header registered under a schema id.
+   *
+   * @param schemaId the schema id
+   * @return the header, or null if none is registered in this JVM
+   */
+  public static InstancesHeader lookup(int schemaId) {
+    return headers.get(schemaId);
+  }
+
+  /**
+   * Computes the schema id of a header. Consecutive calls for headers sharing their instance information, such as
+   * the headers of the instances of a stream, reuse the previous result.
+   *
+   * @param header the header
+   * @return the schema id, never {@link #NO_SCHEMA}
+   */
+  public static int schemaId(Instances header) {
+    InstanceInformation information = header.instanceInformation;
+    CachedId cached = last;
+    if (cached != null && cached.matches(information)) {
+      return cached.schemaId;
+    }
+    int hash = hash(0, header.getRelationName());
+    hash = 31 * hash + information.classIndex();
+    hash = 31 * hash + header.numAttributes();
+    for (int i = 0; i < header.numAttributes(); i++) {
+      Attribute attribute = header.attribute(i);
+      hash = hash(hash, attribute.name());
+      hash = 31 * hash + typeOf(attribute);
+      List<String> values = attribute.getAttributeValues();
+      if (attribute.isNominal() && values != null) {
+        for (String value : values) {
+          hash = hash(hash, value);
+        }
+      }
+    }
+    // final avalanche of MurmurHash3, the ids of similar headers differ in many bits
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    int schemaId = hash == NO_SCHEMA ? 1 : hash;
+    last = new CachedId(information, schemaId, false);
+    return schemaId;
+  }
+
+  private static boolean sameSchema(Instances a, Instances b) {
+    if (!equal(a.getRelationName(), b.getRelationName()) || a.classIndex() != b.classIndex()
+        || a.numAttributes() != b.numAttributes()) {
+      return false;
+    }
+    for (int i = 0; i < a.numAttributes(); i++) {
+      Attribute x = a.attribute(i);
+      Attribute y = b.attribute(i);
+      if (!equal(x.name(), y.name()) || typeOf(x) != typeOf(y)
+          || (x.isNominal() && !equal(x.getAttributeValues(), y.getAttributeValues()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int typeOf(Attribute attribute) {
+    return attribute.isNominal() ? 1 : attribute.isNumeric() ? 2 : 3;
+  }
+
+  private static int hash(int hash, String value) {
+    return 31 * hash + (value == null ? 0 : value.hashCode());
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static final class CachedId {
+    final InstanceInformation information;
+    final int classIndex;
+    final int schemaId;
+    final boolean registered;
+
+    CachedId(InstanceInformation information, int schemaId, boolean registered) {
+      this.information = information;
+      this.classIndex = information.classIndex();
+      this.schemaId = schemaId;
+      this.registered = registered;
+    }
+
+    boolean matches(InstanceInformation information) {
+      return this.information == information && this.classIndex == information.classIndex();
+    }
+  }
+}
@@ -114,6 +114,13 @@ public class SparseInstanceData implements InstanceData {
    */
   protected int numberAttributes;
 
+  /**
+   * Position found by the last call to {@link #value(int)}. It is only a hint:
+   * it is checked against the indices before use, so instances shared between
+   * threads stay correct when it is overwritten concurrently.
+   */
+  private transient int lastPosition = -1;
+
   /**
    * Gets the number of attributes.
    *
@@ -132,9 +139,26 @@ public class SparseInstanceData implements InstanceData {
    */
   @Override
   public double value(int indexAttribute) {
+    int[] indices = this.indexValues;
+    int position = this.lastPosition;
+    // Walks in increasing index order, the common case, resolve in O(1) from
+    // the position of the previous lookup
+    if (position >= -1 && position < indices.length
+        && (position < 0 || indices[position] <= indexAttribute)) {
+      if (position >= 0 && indices[position] == indexAttribute) {
+        return attributeValues[position];
+      }
+      int next = position + 1;
+      if (next == indices.length || indices[next] > indexAttribute) {
+        return 0.0;
+      }
+      if (indices[next] == indexAttribute) {
+        this.lastPosition = next;
+        return attributeValues[next];
+      }
+    }
     int location = locateIndex(indexAttribute);
-    //return location == -1 ? 0 : this.attributeValues[location];
-    //      int index = locateIndex(attIndex);
+    this.lastPosition = location;
     if ((location >= 0) && (indexValues[location] == indexAttribute)) {
       return attributeValues[location];
     } else {
@@ -196,6 +220,22 @@ public class SparseInstanceData implements InstanceData {
     return Double.isNaN(this.valueSparse(indexAttribute));
   }
 
+  /**
+   * Visits the non-zero values, only the stored ones are read.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void forEachNonZero(NonZeroVisitor visitor) {
+    int[] indices = this.indexValues;
+    double[] values = this.attributeValues;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != 0) {
+        visitor.visit(indices[i], values[i]);
+      }
+    }
+  }
+
   /**
    * To double array.
    *
@@ -26,9 +26,18 @@ import org.apache.samoa.instances.InstanceInformation;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class ArffLoaderTest {
 
@@ -108,4 +117,71 @@ public class ArffLoaderTest {
     assertEquals(145, instance.value(8), 0);
     assertEquals(0, instance.value(9), 0);
   }
+
+  private static final String MIXED = "% a comment\r\n"
+      + "@relation mixed\r\n"
+      + "@attribute x numeric\r\n"
+      + "@attribute 'the label' {'a b',\"c\\\"d\",\u00e9t\u00e9,?}\r\n"
+      + "@attribute y real\r\n"
+      + "@data\r\n"
+      + "\r\n"
+      + "-1.5e3, 'a b', ? % trailing comment\r\n"
+      + "{0 2.25,1 \u00e9t\u00e9,2 ?}\r\n"
+      + "{1 \"c\\\"d\"}\r\n"
+      + ".5,unknown,7\r\n";
+
+  private static void checkMixed(ArffLoader loader) {
+    InstanceInformation header = loader.getStructure();
+    assertEquals("mixed", header.getRelationName());
+    assertEquals("the label", header.attribute(1).name());
+    assertEquals("c\"d", header.attribute(1).value(1));
+    assertEquals("\u00e9t\u00e9", header.attribute(1).value(2));
+
+    Instance instance = loader.readInstance();
+    assertEquals(3, instance.numAttributes());
+    assertEquals(-1500, instance.value(0), 0);
+    assertEquals(0, instance.value(1), 0);
+    assertTrue(Double.isNaN(instance.value(2)));
+
+    instance = loader.readInstance();
+    assertTrue(instance instanceof SparseInstance);
+    assertEquals(3, instance.numValues());
+    assertEquals(2.25, instance.value(0), 0);
+    assertEquals(2, instance.value(1), 0);
+    assertTrue(Double.isNaN(instance.value(2)));
+
+    instance = loader.readInstance();
+    assertEquals(1, instance.numValues());
+    assertEquals(1, instance.index(0));
+    assertEquals(1, instance.value(1), 0);
+
+    instance = loader.readInstance();
+    assertEquals(0.5, instance.value(0), 0);
+    assertEquals(-1, instance.value(1), 0);
+    assertEquals(7, instance.value(2), 0);
+
+    assertNull(loader.readInstance());
+  }
+
+  @Test
+  public void testReadMixedInstances() throws IOException {
+    byte[] bytes = MIXED.getBytes(Charset.forName("UTF-8"));
+    checkMixed(new ArffLoader(new StringReader(MIXED)));
+    checkMixed(new ArffLoader(Channels.newChannel(new ByteArrayInputStream(bytes)), 0));
+    checkMixed(new ArffLoader(ByteBuffer.wrap(bytes), 0));
+    // a buffer smaller than most tokens, refilled while reading each of them
+    checkMixed(new ArffLoader(new ArffTokenizer(Channels.newChannel(new ByteArrayInputStream(bytes)), 3), null));
+
+    File file = File.createTempFile("mixed", ".arff");
+    try {
+      FileOutputStream out = new FileOutputStream(file);
+      out.write(bytes);
+      out.close();
+      ArffLoader loader = ArffLoader.open(file, 0);
+      checkMixed(loader);
+      loader.close();
+    } finally {
+      file.delete();
+    }
+  }
 }
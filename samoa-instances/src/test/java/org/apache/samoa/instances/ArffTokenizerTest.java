@@ -0,0 +1,105 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ArffTokenizerTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static ArffTokenizer tokenizer(String input) {
+    return new ArffTokenizer(ByteBuffer.wrap(input.getBytes(UTF_8)));
+  }
+
+  @Test
+  public void testDoubleValue() throws IOException {
+    Random random = new Random(7);
+    for (int i = 0; i < 100000; i++) {
+      String token;
+      switch (i % 6) {
+      case 0:
+        token = Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(60) - 30));
+        break;
+      case 1:
+        token = String.format(Locale.ROOT, "%.6f", random.nextDouble() * 1000);
+        break;
+      case 2:
+        token = Long.toString(random.nextLong());
+        break;
+      case 3:
+        token = Float.toString(random.nextFloat());
+        break;
+      case 4:
+        token = (random.nextBoolean() ? "+" : "-") + random.nextInt(100000) + "e" + (random.nextInt(60) - 30);
+        break;
+      default:
+        token = "." + random.nextInt(Integer.MAX_VALUE) + random.nextInt(Integer.MAX_VALUE);
+      }
+      ArffTokenizer tokenizer = tokenizer(token);
+      assertEquals(ArffTokenizer.TT_WORD, tokenizer.nextToken());
+      assertEquals(token, Double.doubleToLongBits(Double.parseDouble(token)),
+          Double.doubleToLongBits(tokenizer.doubleValue()));
+    }
+  }
+
+  @Test
+  public void testTokens() throws IOException {
+    ArffTokenizer tokenizer = tokenizer("a,{ 'b c' \"d\\te\"} % comment\r\n\n 12 'open\nx");
+    assertEquals(ArffTokenizer.TT_WORD, tokenizer.nextToken());
+    assertEquals("a", tokenizer.stringValue());
+    assertEquals('{', tokenizer.nextToken());
+    assertEquals('\'', tokenizer.nextToken());
+    assertEquals("b c", tokenizer.stringValue());
+    assertEquals('"', tokenizer.nextToken());
+    assertEquals("d\te", tokenizer.stringValue());
+    assertEquals('}', tokenizer.nextToken());
+    assertEquals(ArffTokenizer.TT_EOL, tokenizer.nextToken());
+    assertEquals(ArffTokenizer.TT_EOL, tokenizer.nextToken());
+    assertEquals(ArffTokenizer.TT_WORD, tokenizer.nextToken());
+    assertEquals(12, tokenizer.intValue());
+    // like StreamTokenizer, an unterminated quote ends with the line
+    assertEquals('\'', tokenizer.nextToken());
+    assertEquals("open", tokenizer.stringValue());
+    assertEquals(ArffTokenizer.TT_EOL, tokenizer.nextToken());
+    assertEquals(ArffTokenizer.TT_WORD, tokenizer.nextToken());
+    assertEquals(ArffTokenizer.TT_EOF, tokenizer.nextToken());
+  }
+
+  @Test
+  public void testNominalIndex() throws IOException {
+    Attribute attribute = new Attribute("nominal", Arrays.asList("x", "y z", "\u00e9t\u00e9", "x"));
+    ArffTokenizer.NominalIndex index = new ArffTokenizer.NominalIndex(attribute);
+    ArffTokenizer tokenizer = tokenizer("x 'y z' \u00e9t\u00e9 w");
+    for (String value : new String[] { "x", "y z", "\u00e9t\u00e9", "w" }) {
+      tokenizer.nextToken();
+      assertEquals(attribute.indexOfValue(value), tokenizer.nominalIndex(index));
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryInstancesTest {
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("instances", ".bin");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  private static String arff(int numRows, boolean sparse, long seed) {
+    StringBuilder sb = new StringBuilder("@relation 'binary test'\n");
+    sb.append("@attribute x numeric\n@attribute color {red,'dark blue',green}\n@attribute y numeric\n");
+    sb.append("@attribute class {a,b}\n@data\n");
+    Random random = new Random(seed);
+    for (int i = 0; i < numRows; i++) {
+      String x = random.nextInt(10) == 0 ? "?" : Double.toString(random.nextGaussian());
+      if (sparse) {
+        sb.append("{0 ").append(x).append(random.nextBoolean() ? ",2 " + random.nextInt(9) : "").append(",3 b}\n");
+      } else {
+        sb.append(x).append(",'dark blue',").append(random.nextInt(100)).append(random.nextBoolean() ? ",a\n" : ",b\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  private static List<Instance> readAll(Loader loader) {
+    List<Instance> instances = new ArrayList<Instance>();
+    Instance instance;
+    while ((instance = loader.readInstance()) != null) {
+      instances.add(instance);
+    }
+    return instances;
+  }
+
+  private static void assertSameInstance(Instance expected, Instance actual) {
+    assertEquals(expected.getClass(), actual.getClass());
+    assertEquals(expected.weight(), actual.weight(), 0);
+    assertEquals(expected.numValues(), actual.numValues());
+    for (int i = 0; i < expected.numValues(); i++) {
+      assertEquals(expected.index(i), actual.index(i));
+      assertEquals(Double.doubleToLongBits(expected.valueSparse(i)), Double.doubleToLongBits(actual.valueSparse(i)));
+    }
+  }
+
+  private List<Instance> roundTrip(String arff, boolean sparse, int blockSize, boolean blockIndex)
+      throws IOException {
+    Instances header = new Instances(new ArffLoader(new StringReader(arff), 0, -1));
+    List<Instance> expected = readAll(new ArffLoader(new StringReader(arff), 0, -1));
+    expected.get(0).setWeight(2.5);
+    BinaryInstancesWriter writer = new BinaryInstancesWriter(file, header, sparse, blockSize, blockIndex);
+    for (Instance instance : expected) {
+      writer.write(instance);
+    }
+    writer.close();
+    assertEquals(expected.size(), writer.getNumInstances());
+    return expected;
+  }
+
+  @Test
+  public void testDenseRoundTrip() throws IOException {
+    List<Instance> expected = roundTrip(arff(1000, false, 1), false, 64, false);
+    BinaryInstancesLoader loader = new BinaryInstancesLoader(file);
+    InstanceInformation header = loader.getStructure();
+    assertEquals("binary test", header.getRelationName());
+    assertEquals(4, header.numAttributes());
+    assertEquals(3, header.classIndex());
+    assertTrue(header.attribute(0).isNumeric());
+    assertEquals("dark blue", header.attribute(1).value(1));
+    assertEquals(1000, loader.numInstances());
+
+    List<Instance> actual = readAll(loader);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertSameInstance(expected.get(i), actual.get(i));
+    }
+    assertNull(loader.readInstance());
+  }
+
+  @Test
+  public void testSparseRoundTripAndSeek() throws IOException {
+    for (boolean blockIndex : new boolean[] { false, true }) {
+      List<Instance> expected = roundTrip(arff(1000, true, 2), true, 100, blockIndex);
+      BinaryInstancesLoader loader = new BinaryInstancesLoader(file);
+      List<Instance> actual = readAll(loader);
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertSameInstance(expected.get(i), actual.get(i));
+      }
+
+      for (int position : new int[] { 0, 99, 100, 101, 555, 999 }) {
+        loader.seek(position);
+        assertSameInstance(expected.get(position), loader.readInstance());
+      }
+      loader.seek(1000);
+      assertNull(loader.readInstance());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testIndexOffsetOutOfTheFile() throws IOException {
+    roundTrip(arff(10, false, 4), false, 4, true);
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      ByteBuffer indexOffset = ByteBuffer.allocate(8).order(BinaryInstancesFormat.BYTE_ORDER);
+      indexOffset.putLong(0, randomAccessFile.length());
+      randomAccessFile.getChannel().write(indexOffset, BinaryInstancesFormat.INDEX_OFFSET_POSITION);
+    } finally {
+      randomAccessFile.close();
+    }
+    new BinaryInstancesLoader(file);
+  }
+}
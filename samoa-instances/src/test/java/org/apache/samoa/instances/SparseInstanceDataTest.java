@@ -0,0 +1,122 @@
+package org.apache.samoa.instances;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SparseInstanceDataTest {
+
+  private static final int NUM_ATTRIBUTES = 10000;
+
+  private static SparseInstanceData sparse(double[] dense) {
+    int numValues = 0;
+    for (double value : dense) {
+      if (value != 0) {
+        numValues++;
+      }
+    }
+    double[] values = new double[numValues];
+    int[] indices = new int[numValues];
+    for (int i = 0, pos = 0; i < dense.length; i++) {
+      if (dense[i] != 0) {
+        values[pos] = dense[i];
+        indices[pos++] = i;
+      }
+    }
+    return new SparseInstanceData(values, indices, dense.length);
+  }
+
+  private static double[] randomDense(Random random, double density) {
+    double[] dense = new double[NUM_ATTRIBUTES];
+    for (int i = 0; i < dense.length; i++) {
+      if (random.nextDouble() < density) {
+        dense[i] = random.nextDouble() < 0.1 ? Double.NaN : random.nextGaussian();
+      }
+    }
+    return dense;
+  }
+
+  @Test
+  public void testValueInAnyOrder() {
+    Random random = new Random(7);
+    double[] dense = randomDense(random, 0.05);
+    SparseInstanceData data = sparse(dense);
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      order.add(i);
+    }
+    for (int i = 0; i < NUM_ATTRIBUTES; i++) {
+      assertEquals(dense[i], data.value(i), 0);
+    }
+    for (int i = NUM_ATTRIBUTES - 1; i >= 0; i--) {
+      assertEquals(dense[i], data.value(i), 0);
+    }
+    // skips over stored values and jumps back
+    for (int i = 0; i < NUM_ATTRIBUTES; i += 7) {
+      assertEquals(dense[i], data.value(i), 0);
+    }
+    Collections.shuffle(order, random);
+    for (int i : order) {
+      assertEquals(dense[i], data.value(i), 0);
+    }
+    assertEquals(0, new SparseInstanceData(new double[0], new int[0], 10).value(3), 0);
+  }
+
+  @Test
+  public void testForEachNonZero() {
+    double[] dense = randomDense(new Random(11), 0.05);
+    // stored zeros are not visited
+    SparseInstanceData data = new SparseInstanceData(new double[] { 1, 0, Double.NaN }, new int[] { 2, 4, 9 }, 10);
+    final List<Integer> indices = new ArrayList<>();
+    data.forEachNonZero(new NonZeroVisitor() {
+      @Override
+      public void visit(int index, double value) {
+        indices.add(index);
+      }
+    });
+    assertEquals(2, indices.size());
+    assertEquals(9, (int) indices.get(1));
+
+    final double[] fromSparse = new double[NUM_ATTRIBUTES];
+    final double[] fromDense = new double[NUM_ATTRIBUTES];
+    sparse(dense).forEachNonZero(new NonZeroVisitor() {
+      @Override
+      public void visit(int index, double value) {
+        fromSparse[index] = value;
+      }
+    });
+    new DenseInstance(1, dense).forEachNonZero(new NonZeroVisitor() {
+      @Override
+      public void visit(int index, double value) {
+        fromDense[index] = value;
+      }
+    });
+    assertArrayEquals(dense, fromSparse, 0);
+    assertArrayEquals(dense, fromDense, 0);
+  }
+}
@@ -27,7 +27,6 @@ package org.apache.samoa.topology.impl;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.topology.AbstractStream;
 import org.apache.samoa.topology.IProcessingItem;
@@ -38,6 +37,13 @@ import org.apache.samoa.utils.StreamDestination;
  * @author abifet
  */
 class SimpleStream extends AbstractStream {
+  // The local engine processes one event at a time: the processors are called
+  // on the thread that puts the event. Events put by other threads, such as
+  // the split time-outs of the shared timer, wait until the event in progress
+  // and the events it caused are processed. The lock is reentrant, so the
+  // engine thread never waits on itself.
+  private static final Object processingLock = new Object();
+
   private List<StreamDestination> destinations;
   private int maxCounter;
   private int eventCounter;
@@ -58,7 +64,9 @@ class SimpleStream extends AbstractStream {
 
   @Override
   public void put(ContentEvent event) {
-    this.put(event, this.getNextCounter());
+    synchronized (processingLock) {
+      this.put(event, this.getNextCounter());
+    }
   }
 
   private void put(ContentEvent event, int counter) {
@@ -72,10 +80,7 @@ class SimpleStream extends AbstractStream {
         pi.processEvent(event, counter % parallelism);
         break;
       case GROUP_BY_KEY:
-        HashCodeBuilder hb = new HashCodeBuilder();
-        hb.append(event.getKey());
-        int key = hb.build() % parallelism;
-        pi.processEvent(event, key);
+        pi.processEvent(event, destination.getPartitioner().partition(event, parallelism));
         break;
       case BROADCAST:
         for (int p = 0; p < parallelism; p++) {
@@ -27,6 +27,8 @@ import java.util.List;
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.topology.AbstractStream;
 import org.apache.samoa.topology.IProcessingItem;
+import org.apache.samoa.utils.KeyPartitioner;
+import org.apache.samoa.utils.Partitioner;
 import org.apache.samoa.utils.PartitioningScheme;
 import org.apache.samoa.utils.StreamDestination;
 import org.apache.samza.system.OutgoingMessageEnvelope;
@@ -100,7 +102,8 @@ public class SamzaStream extends AbstractStream implements Serializable {
     // Create a new one
     if (resultStream == null) {
       String topicName = this.getStreamId() + "-" + Integer.toString(systemStreams.size());
-      resultStream = new SamzaSystemStream(this.systemName, topicName, scheme, parallelism);
+      resultStream = new SamzaSystemStream(this.systemName, topicName, scheme, parallelism,
+          destination.getPartitioner());
       systemStreams.add(resultStream);
     }
 
@@ -151,17 +154,24 @@ public class SamzaStream extends AbstractStream implements Serializable {
     private String stream;
     private PartitioningScheme scheme;
     private int parallelism;
+    private Partitioner partitioner;
 
     private transient SystemStream actualSystemStream = null;
 
     /*
      * Constructors
      */
-    public SamzaSystemStream(String system, String stream, PartitioningScheme scheme, int parallelism) {
+    public SamzaSystemStream(String system, String stream, PartitioningScheme scheme, int parallelism,
+        Partitioner partitioner) {
       this.system = system;
       this.stream = stream;
       this.scheme = scheme;
       this.parallelism = parallelism;
+      this.partitioner = partitioner;
+    }
+
+    public SamzaSystemStream(String system, String stream, PartitioningScheme scheme, int parallelism) {
+      this(system, stream, scheme, parallelism, new KeyPartitioner());
     }
 
     public SamzaSystemStream(String system, String stream, PartitioningScheme scheme) {
@@ -233,7 +243,10 @@ public class SamzaStream extends AbstractStream implements Serializable {
     }
 
     private void sendGroupByKey(MessageCollector collector, ContentEvent event) {
-      collector.send(new OutgoingMessageEnvelope(this.actualSystemStream, event.getKey(), null, event));
+      // The stream has one partition per replica, and an Integer partition key
+      // p is sent to partition p (as in sendBroadcast)
+      int partition = this.partitioner.partition(event, this.parallelism);
+      collector.send(new OutgoingMessageEnvelope(this.actualSystemStream, partition, null, event));
     }
 
     private synchronized void sendBroadcast(MessageCollector collector, ContentEvent event) {
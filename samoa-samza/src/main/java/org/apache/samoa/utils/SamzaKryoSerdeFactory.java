@@ -49,12 +49,14 @@ public class SamzaKryoSerdeFactory<T> implements SerdeFactory<T> {
 
     public SamzaKryoSerde(String registrationInfo) {
       this.kryo = new Kryo();
+      // entries of the registration file take precedence over the defaults
+      SamoaKryoRegistrar.register(this.kryo);
       this.register(registrationInfo);
     }
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private void register(String registrationInfo) {
-      if (registrationInfo == null)
+      if (registrationInfo == null || registrationInfo.trim().isEmpty())
         return;
 
       String[] infoList = registrationInfo.split(SamzaConfigFactory.COMMA);
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.samoa.topology.impl.StormKryoDecorator;
 import org.apache.samoa.topology.impl.StormSamoaUtils;
 import org.apache.samoa.topology.impl.StormTopology;
 import org.slf4j.Logger;
@@ -64,6 +65,7 @@ public class LocalStormDoTask {
     Config conf = new Config();
     // conf.putAll(Utils.readStormConfig());
     conf.setDebug(false);
+    conf.registerDecorator(StormKryoDecorator.class);
 
     // local mode
     conf.setMaxTaskParallelism(numWorker);
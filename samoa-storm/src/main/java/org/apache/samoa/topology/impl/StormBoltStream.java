@@ -46,7 +46,7 @@ class StormBoltStream extends StormStream {
 
   @Override
   public void put(ContentEvent contentEvent) {
-    outputCollector.emit(this.outputStreamId, new Values(contentEvent, contentEvent.getKey()));
+    outputCollector.emit(this.outputStreamId, new Values(contentEvent));
   }
 
   public void setCollector(OutputCollector outputCollector) {
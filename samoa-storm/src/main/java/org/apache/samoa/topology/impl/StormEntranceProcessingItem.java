@@ -157,8 +157,7 @@ class StormEntranceProcessingItem extends AbstractEntranceProcessingItem impleme
       // Fields(StormSamoaUtils.CONTENT_EVENT_FIELD,
       // StormSamoaUtils.KEY_FIELD));
       // }
-      declarer.declareStream(outputStream.getOutputId(), new Fields(StormSamoaUtils.CONTENT_EVENT_FIELD,
-          StormSamoaUtils.KEY_FIELD));
+      declarer.declareStream(outputStream.getOutputId(), new Fields(StormSamoaUtils.CONTENT_EVENT_FIELD));
     }
 
     StormStream createStream(String piId) {
@@ -173,7 +172,7 @@ class StormEntranceProcessingItem extends AbstractEntranceProcessingItem impleme
     // }
 
     private Values newValues(ContentEvent contentEvent) {
-      return new Values(contentEvent, contentEvent.getKey());
+      return new Values(contentEvent);
     }
 
     // private final static class StormTupleInfo {
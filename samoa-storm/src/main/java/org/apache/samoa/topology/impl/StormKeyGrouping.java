@@ -0,0 +1,65 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.utils.Partitioner;
+
+import backtype.storm.generated.GlobalStreamId;
+import backtype.storm.grouping.CustomStreamGrouping;
+import backtype.storm.task.WorkerTopologyContext;
+
+/**
+ * Storm grouping for GROUP_BY_KEY streams. It sends each tuple to the task chosen by a SAMOA {@link Partitioner} on the
+ * content event, instead of hashing the key field of the tuple like a fields grouping does.
+ * 
+ */
+class StormKeyGrouping implements CustomStreamGrouping {
+
+  private static final long serialVersionUID = 4601386472163537260L;
+
+  private final Partitioner partitioner;
+  // One pre-built singleton list per target task, so that choosing a task does
+  // not allocate
+  private List<List<Integer>> targets;
+
+  StormKeyGrouping(Partitioner partitioner) {
+    this.partitioner = partitioner;
+  }
+
+  @Override
+  public void prepare(WorkerTopologyContext context, GlobalStreamId stream, List<Integer> targetTasks) {
+    this.targets = new ArrayList<List<Integer>>(targetTasks.size());
+    for (Integer task : targetTasks) {
+      this.targets.add(Collections.singletonList(task));
+    }
+  }
+
+  @Override
+  public List<Integer> chooseTasks(int taskId, List<Object> values) {
+    ContentEvent event = (ContentEvent) values.get(0);
+    return this.targets.get(this.partitioner.partition(event, this.targets.size()));
+  }
+}
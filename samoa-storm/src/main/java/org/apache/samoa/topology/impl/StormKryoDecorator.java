@@ -0,0 +1,38 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.samoa.utils.SamoaKryoRegistrar;
+
+import backtype.storm.serialization.IKryoDecorator;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/**
+ * Registers the SAMOA serializers in the Kryo instances of the Storm workers.
+ */
+public class StormKryoDecorator implements IKryoDecorator {
+
+  @Override
+  public void decorate(Kryo kryo) {
+    SamoaKryoRegistrar.register(kryo);
+  }
+}
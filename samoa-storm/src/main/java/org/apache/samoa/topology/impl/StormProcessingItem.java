@@ -31,6 +31,7 @@ import org.apache.samoa.topology.AbstractProcessingItem;
 import org.apache.samoa.topology.ProcessingItem;
 import org.apache.samoa.topology.Stream;
 import org.apache.samoa.topology.impl.StormStream.InputStreamId;
+import org.apache.samoa.utils.KeyPartitioner;
 import org.apache.samoa.utils.PartitioningScheme;
 
 import backtype.storm.task.OutputCollector;
@@ -76,10 +77,10 @@ class StormProcessingItem extends AbstractProcessingItem implements StormTopolog
       piBoltDeclarer.shuffleGrouping(inputId.getComponentId(), inputId.getStreamId());
       break;
     case GROUP_BY_KEY:
-      piBoltDeclarer.fieldsGrouping(
+      piBoltDeclarer.customGrouping(
           inputId.getComponentId(),
           inputId.getStreamId(),
-          new Fields(StormSamoaUtils.KEY_FIELD));
+          new StormKeyGrouping(new KeyPartitioner()));
       break;
     case BROADCAST:
       piBoltDeclarer.allGrouping(
@@ -155,8 +156,7 @@ class StormProcessingItem extends AbstractProcessingItem implements StormTopolog
     public void declareOutputFields(OutputFieldsDeclarer declarer) {
       for (StormStream stream : streams) {
         declarer.declareStream(stream.getOutputId(),
-            new Fields(StormSamoaUtils.CONTENT_EVENT_FIELD,
-                StormSamoaUtils.KEY_FIELD));
+            new Fields(StormSamoaUtils.CONTENT_EVENT_FIELD));
       }
     }
 
@@ -47,7 +47,6 @@ public class StormSamoaUtils {
 
   private static final Logger logger = LoggerFactory.getLogger(StormSamoaUtils.class);
 
-  static final String KEY_FIELD = "key";
   static final String CONTENT_EVENT_FIELD = "content_event";
 
   static Properties getProperties() throws IOException {
@@ -74,6 +74,7 @@ public class StormTopologySubmitter {
     conf.putAll(Utils.readCommandLineOpts());
     conf.setDebug(false);
     conf.setNumWorkers(numWorkers);
+    conf.registerDecorator(StormKryoDecorator.class);
 
     String profilerOption =
         props.getProperty(StormTopologySubmitter.YJP_OPTIONS_KEY);
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import org.apache.samoa.tasks.Task;
 import org.apache.samoa.topology.impl.ThreadsComponentFactory;
 import org.apache.samoa.topology.impl.ThreadsEngine;
+import org.apache.samoa.topology.impl.ThreadsOverflowPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +65,30 @@ public class LocalThreadsDoTask {
     }
     logger.info("Number of threads:{}", numThreads);
 
+    // Get mailbox capacity, a positive value enables the mailbox scheduler
+    int mailboxCapacity = 0;
+    for (int i = 0; i < tmpArgs.size() - 1; i++) {
+      if (tmpArgs.get(i).equals("-q")) {
+        try {
+          mailboxCapacity = Integer.parseInt(tmpArgs.get(i + 1));
+          tmpArgs.remove(i + 1);
+          tmpArgs.remove(i);
+        } catch (NumberFormatException e) {
+          System.err.println("Invalid mailbox capacity.");
+          System.err.println(e.getStackTrace());
+        }
+      }
+    }
+
+    // Shed events sent to full mailboxes instead of blocking the producers
+    ThreadsOverflowPolicy overflowPolicy = ThreadsOverflowPolicy.BLOCK;
+    if (tmpArgs.remove("-shed")) {
+      overflowPolicy = ThreadsOverflowPolicy.SHED;
+    }
+    if (mailboxCapacity > 0) {
+      logger.info("Mailbox capacity:{}, overflow policy:{}", mailboxCapacity, overflowPolicy);
+    }
+
     args = tmpArgs.toArray(new String[0]);
 
     StringBuilder cliString = new StringBuilder();
@@ -85,6 +110,10 @@ public class LocalThreadsDoTask {
     task.setFactory(new ThreadsComponentFactory());
     task.init();
 
-    ThreadsEngine.submitTopology(task.getTopology(), numThreads);
+    if (mailboxCapacity > 0) {
+      ThreadsEngine.submitTopology(task.getTopology(), numThreads, mailboxCapacity, overflowPolicy);
+    } else {
+      ThreadsEngine.submitTopology(task.getTopology(), numThreads);
+    }
   }
 }
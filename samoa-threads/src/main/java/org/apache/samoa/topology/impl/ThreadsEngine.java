@@ -31,12 +31,23 @@ import org.apache.samoa.topology.Topology;
 /**
  * Multithreaded engine.
  * 
+ * Events can be scheduled in two ways. By default, every event is wrapped in a {@link ThreadsEventRunnable} and
+ * submitted to the (unbounded) single thread executor of the destination PI instance. With the mailbox scheduler (see
+ * {@link #submitTopology(Topology, int, int, ThreadsOverflowPolicy)}), every PI instance gets a bounded
+ * {@link ThreadsMailbox} that is drained in batches by a {@link ThreadsMailboxWorker}, which avoids the per-event
+ * allocation and gives back-pressure to the producers.
+ * 
  * @author Anh Thu Vu
  * 
  */
 public class ThreadsEngine {
 
+  public static final int DEFAULT_MAILBOX_BATCH_SIZE = 64;
+
   private static final List<ExecutorService> threadPool = new ArrayList<ExecutorService>();
+  private static final List<ThreadsMailboxWorker> workers = new ArrayList<ThreadsMailboxWorker>();
+  private static int mailboxCapacity = 0;
+  private static ThreadsOverflowPolicy overflowPolicy = ThreadsOverflowPolicy.BLOCK;
 
   /*
    * Create and manage threads
@@ -56,6 +67,8 @@ public class ThreadsEngine {
   }
 
   public static int getNumberOfThreads() {
+    if (isMailboxSchedulerEnabled())
+      return workers.size();
     return threadPool.size();
   }
 
@@ -66,6 +79,59 @@ public class ThreadsEngine {
     return threadPool.get(index);
   }
 
+  /*
+   * Mailbox scheduler
+   */
+  public static void setMailboxScheduler(int numThreads, int capacity, ThreadsOverflowPolicy policy) {
+    if (numThreads < 1)
+      throw new IllegalStateException("Number of threads must be a positive integer.");
+    if (capacity < 1)
+      throw new IllegalStateException("Mailbox capacity must be a positive integer.");
+    if (workers.size() > numThreads)
+      throw new IllegalStateException("You cannot set a numThreads smaller than the current number of workers.");
+
+    mailboxCapacity = capacity;
+    overflowPolicy = policy;
+    for (int i = workers.size(); i < numThreads; i++) {
+      ThreadsMailboxWorker worker = new ThreadsMailboxWorker(i, DEFAULT_MAILBOX_BATCH_SIZE);
+      worker.start();
+      workers.add(worker);
+    }
+  }
+
+  public static boolean isMailboxSchedulerEnabled() {
+    return mailboxCapacity > 0;
+  }
+
+  public static int getMailboxCapacity() {
+    return mailboxCapacity;
+  }
+
+  public static ThreadsOverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public static ThreadsMailboxWorker getWorkerWithIndex(int index) {
+    if (workers.size() <= 0)
+      throw new IllegalStateException("Try to get ThreadsMailboxWorker from an empty pool.");
+    index %= workers.size();
+    return workers.get(index);
+  }
+
+  /**
+   * Creates the mailbox of a PI instance and registers it with the worker assigned to the instance.
+   * 
+   * @param piInstance
+   *          the PI instance
+   * @return the new mailbox
+   */
+  public static ThreadsMailbox createMailbox(ThreadsProcessingItemInstance piInstance) {
+    ThreadsMailboxWorker worker = getWorkerWithIndex(piInstance.getThreadIndex());
+    ThreadsMailbox mailbox = new ThreadsMailbox(piInstance, worker, mailboxCapacity, overflowPolicy);
+    worker.register(mailbox);
+    return mailbox;
+  }
+
   /*
    * Submit topology and start
    */
@@ -76,6 +142,26 @@ public class ThreadsEngine {
 
   public static void submitTopology(Topology topology, int numThreads) {
     ThreadsEngine.setNumberOfThreads(numThreads);
+    // PIs set up from now on are scheduled on the executors
+    mailboxCapacity = 0;
+    ThreadsEngine.submitTopology(topology);
+  }
+
+  /**
+   * Submits the topology to be run with the mailbox scheduler.
+   * 
+   * @param topology
+   *          the topology
+   * @param numThreads
+   *          the number of worker threads
+   * @param mailboxCapacity
+   *          the number of events each PI instance can queue
+   * @param overflowPolicy
+   *          what to do with an event sent to a full mailbox
+   */
+  public static void submitTopology(Topology topology, int numThreads, int mailboxCapacity,
+      ThreadsOverflowPolicy overflowPolicy) {
+    ThreadsEngine.setMailboxScheduler(numThreads, mailboxCapacity, overflowPolicy);
     ThreadsEngine.submitTopology(topology);
   }
 
@@ -96,6 +182,22 @@ public class ThreadsEngine {
     }
 
     threadPool.clear();
+
+    for (ThreadsMailboxWorker worker : workers) {
+      worker.shutdown();
+    }
+
+    for (ThreadsMailboxWorker worker : workers) {
+      try {
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+      }
+    }
+
+    workers.clear();
+    mailboxCapacity = 0;
+    overflowPolicy = ThreadsOverflowPolicy.BLOCK;
   }
 
 }
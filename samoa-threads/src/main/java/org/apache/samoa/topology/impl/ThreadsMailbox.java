@@ -0,0 +1,231 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.samoa.core.ContentEvent;
+
+/**
+ * Bounded multi-producer single-consumer mailbox of a ThreadsProcessingItemInstance. Any thread may put events into
+ * the mailbox, while only the ThreadsMailboxWorker that owns it takes them out and processes them.
+ * 
+ * The events are kept in a pre-allocated ring buffer, so that putting an event does not allocate. When the ring is
+ * full, the {@link ThreadsOverflowPolicy} decides whether the producer waits or the event is dropped. Worker threads
+ * never wait indefinitely on a full mailbox: in a cyclic topology (e.g. the VHT feedback loop between the model
+ * aggregator and the local statistics) two workers could otherwise wait on each other forever. After
+ * {@link #WORKER_BLOCK_NANOS}, or immediately if the mailbox is drained by the producing worker itself, the event is
+ * admitted into an unbounded overflow queue instead.
+ * 
+ */
+public class ThreadsMailbox {
+
+  // How long a worker thread waits on a full mailbox before overflowing
+  static final long WORKER_BLOCK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  // Back-off between two attempts of a blocked producer
+  private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final ThreadsProcessingItemInstance piInstance;
+  private final ThreadsMailboxWorker worker;
+  private final ThreadsOverflowPolicy overflowPolicy;
+
+  private final AtomicReferenceArray<ContentEvent> ring;
+  private final int mask;
+  // Next position to be claimed by a producer
+  private final AtomicLong tail = new AtomicLong();
+  // Next position to be read by the consumer, only written by the worker
+  private final AtomicLong head = new AtomicLong();
+
+  private final Queue<ContentEvent> overflow = new ConcurrentLinkedQueue<ContentEvent>();
+  private final AtomicLong shedEvents = new AtomicLong();
+  private final AtomicLong overflowedEvents = new AtomicLong();
+
+  public ThreadsMailbox(ThreadsProcessingItemInstance piInstance, ThreadsMailboxWorker worker, int capacity,
+      ThreadsOverflowPolicy overflowPolicy) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("Mailbox capacity must be a positive integer.");
+    this.piInstance = piInstance;
+    this.worker = worker;
+    this.overflowPolicy = overflowPolicy;
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity)
+      size <<= 1;
+    this.ring = new AtomicReferenceArray<ContentEvent>(size);
+    this.mask = size - 1;
+  }
+
+  public ThreadsProcessingItemInstance getProcessingItemInstance() {
+    return this.piInstance;
+  }
+
+  public ThreadsMailboxWorker getWorker() {
+    return this.worker;
+  }
+
+  /**
+   * Gets the number of events the ring buffer can hold. It is the requested capacity rounded up to a power of 2.
+   * 
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return this.ring.length();
+  }
+
+  /**
+   * Gets the number of events dropped because the mailbox was full.
+   * 
+   * @return the number of shed events
+   */
+  public long getShedEvents() {
+    return this.shedEvents.get();
+  }
+
+  /**
+   * Gets the number of events that worker threads admitted past the capacity of the mailbox.
+   * 
+   * @return the number of overflowed events
+   */
+  public long getOverflowedEvents() {
+    return this.overflowedEvents.get();
+  }
+
+  /**
+   * Gets the number of events waiting in the mailbox.
+   * 
+   * @return the number of pending events
+   */
+  public int size() {
+    return (int) (this.tail.get() - this.head.get()) + this.overflow.size();
+  }
+
+  /**
+   * Checks whether there are events waiting in the mailbox. The check is conservative: an event whose slot is claimed
+   * but not yet published counts as pending.
+   * 
+   * @return true if the mailbox is not empty
+   */
+  public boolean hasPending() {
+    return this.tail.get() != this.head.get() || !this.overflow.isEmpty();
+  }
+
+  /**
+   * Puts an event into the mailbox and wakes up its worker.
+   * 
+   * @param event
+   *          the event
+   * @return true if the event was accepted, false if it was shed
+   */
+  public boolean put(ContentEvent event) {
+    if (!this.offer(event)) {
+      if (this.overflowPolicy == ThreadsOverflowPolicy.SHED && !event.isLastEvent()) {
+        this.shedEvents.incrementAndGet();
+        return false;
+      }
+      this.waitAndPut(event);
+    }
+    this.worker.wakeUp();
+    return true;
+  }
+
+  private void waitAndPut(ContentEvent event) {
+    Thread current = Thread.currentThread();
+    boolean fromWorker = current instanceof ThreadsMailboxWorker;
+    // The mailbox cannot be drained while its own worker is waiting on it
+    if (current == this.worker) {
+      this.addToOverflow(event);
+      return;
+    }
+    long deadline = System.nanoTime() + WORKER_BLOCK_NANOS;
+    while (!this.offer(event)) {
+      this.worker.wakeUp();
+      if (fromWorker && System.nanoTime() - deadline > 0) {
+        this.addToOverflow(event);
+        return;
+      }
+      LockSupport.parkNanos(this, BACKOFF_NANOS);
+    }
+  }
+
+  private void addToOverflow(ContentEvent event) {
+    this.overflow.offer(event);
+    this.overflowedEvents.incrementAndGet();
+  }
+
+  /*
+   * Claims a slot in the ring and publishes the event. Once events have
+   * overflowed, new events follow them until the overflow queue is drained, so
+   * that events from one producer keep their order.
+   */
+  private boolean offer(ContentEvent event) {
+    if (!this.overflow.isEmpty())
+      return false;
+    long t;
+    do {
+      t = this.tail.get();
+      if (t - this.head.get() > this.mask)
+        return false;
+    } while (!this.tail.compareAndSet(t, t + 1));
+    this.ring.lazySet((int) t & this.mask, event);
+    return true;
+  }
+
+  /*
+   * Takes the next event, or null if there is none. Only called by the worker.
+   */
+  private ContentEvent poll() {
+    long h = this.head.get();
+    int index = (int) h & this.mask;
+    ContentEvent event = this.ring.get(index);
+    if (event != null) {
+      // Free the slot before releasing it to the producers
+      this.ring.lazySet(index, null);
+      this.head.lazySet(h + 1);
+      return event;
+    }
+    return this.overflow.poll();
+  }
+
+  /**
+   * Processes up to maxEvents pending events with the processor of the PI instance. Only called by the worker.
+   * 
+   * @param maxEvents
+   *          the maximum number of events to process
+   * @return the number of processed events
+   */
+  public int drain(int maxEvents) {
+    int count = 0;
+    ContentEvent event;
+    while (count < maxEvents && (event = this.poll()) != null) {
+      try {
+        this.piInstance.processEvent(event);
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,118 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Worker thread of the mailbox scheduler. Each worker owns the mailboxes of the PI instances assigned to its index,
+ * and drains them in a round-robin fashion, processing at most batchSize events of one mailbox before moving to the
+ * next one. When all its mailboxes are empty, the worker parks until a producer wakes it up.
+ * 
+ */
+public class ThreadsMailboxWorker extends Thread {
+
+  // Upper bound on the time an idle worker sleeps without being woken up
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final int batchSize;
+  // Replaced (never modified) when a mailbox is registered,
+  // so that the worker loop can iterate it without locking
+  private volatile ThreadsMailbox[] mailboxes = new ThreadsMailbox[0];
+  private volatile boolean running = true;
+  private volatile boolean sleeping = false;
+
+  public ThreadsMailboxWorker(int index, int batchSize) {
+    super("samoa-threads-worker-" + index);
+    if (batchSize < 1)
+      throw new IllegalArgumentException("Batch size must be a positive integer.");
+    this.batchSize = batchSize;
+  }
+
+  public int getBatchSize() {
+    return this.batchSize;
+  }
+
+  public ThreadsMailbox[] getMailboxes() {
+    return this.mailboxes;
+  }
+
+  /**
+   * Registers a mailbox to be drained by this worker.
+   * 
+   * @param mailbox
+   *          the mailbox
+   */
+  public synchronized void register(ThreadsMailbox mailbox) {
+    ThreadsMailbox[] updated = Arrays.copyOf(this.mailboxes, this.mailboxes.length + 1);
+    updated[updated.length - 1] = mailbox;
+    this.mailboxes = updated;
+  }
+
+  /**
+   * Wakes up the worker if it is parked. Called by producers after putting an event.
+   */
+  public void wakeUp() {
+    if (this.sleeping)
+      LockSupport.unpark(this);
+  }
+
+  /**
+   * Stops the worker once all its mailboxes are drained.
+   */
+  public void shutdown() {
+    this.running = false;
+    LockSupport.unpark(this);
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      int processed = 0;
+      for (ThreadsMailbox mailbox : this.mailboxes) {
+        processed += mailbox.drain(this.batchSize);
+      }
+      if (processed == 0) {
+        if (!this.running && !this.hasPending())
+          break;
+        this.idle();
+      }
+    }
+  }
+
+  private void idle() {
+    this.sleeping = true;
+    // Re-check after announcing the nap, a producer may have missed it
+    if (!this.hasPending())
+      LockSupport.parkNanos(this, MAX_PARK_NANOS);
+    this.sleeping = false;
+  }
+
+  private boolean hasPending() {
+    for (ThreadsMailbox mailbox : this.mailboxes) {
+      if (mailbox.hasPending())
+        return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,36 @@
+package org.apache.samoa.topology.impl;
+
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * What a {@link ThreadsMailbox} does with an event when it is full.
+ * 
+ */
+public enum ThreadsOverflowPolicy {
+  /**
+   * The producer waits until the mailbox has room for the event.
+   */
+  BLOCK,
+  /**
+   * The event is dropped and counted. The last event of a stream is never dropped.
+   */
+  SHED
+}
@@ -82,6 +82,11 @@ public class ThreadsProcessingItem extends AbstractProcessingItem {
           "ThreadsWorkerProcessingItem(s) need to be setup before process any event (i.e. in ThreadsTopology.start()).");
 
     ThreadsProcessingItemInstance piInstance = this.piInstances.get(counter);
+    ThreadsMailbox mailbox = piInstance.getMailbox();
+    if (mailbox != null) {
+      mailbox.put(event);
+      return;
+    }
     ThreadsEventRunnable runnable = new ThreadsEventRunnable(piInstance, event);
     ThreadsEngine.getThreadWithIndex(piInstance.getThreadIndex()).submit(runnable);
   }
@@ -96,7 +101,10 @@ public class ThreadsProcessingItem extends AbstractProcessingItem {
     for (int i = 0; i < this.getParallelism(); i++) {
       Processor newProcessor = this.getProcessor().newProcessor(this.getProcessor());
       newProcessor.onCreate(i + 1);
-      this.piInstances.add(new ThreadsProcessingItemInstance(newProcessor, this.offset + i));
+      ThreadsProcessingItemInstance piInstance = new ThreadsProcessingItemInstance(newProcessor, this.offset + i);
+      if (ThreadsEngine.isMailboxSchedulerEnabled())
+        piInstance.setMailbox(ThreadsEngine.createMailbox(piInstance));
+      this.piInstances.add(piInstance);
     }
   }
 
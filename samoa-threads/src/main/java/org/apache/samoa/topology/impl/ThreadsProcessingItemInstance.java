@@ -34,6 +34,8 @@ public class ThreadsProcessingItemInstance {
 
   private Processor processor;
   private int threadIndex;
+  // Only set when the engine runs the mailbox scheduler
+  private ThreadsMailbox mailbox;
 
   public ThreadsProcessingItemInstance(Processor processor, int threadIndex) {
     this.processor = processor;
@@ -44,6 +46,14 @@ public class ThreadsProcessingItemInstance {
     return this.threadIndex;
   }
 
+  public ThreadsMailbox getMailbox() {
+    return this.mailbox;
+  }
+
+  public void setMailbox(ThreadsMailbox mailbox) {
+    this.mailbox = mailbox;
+  }
+
   public Processor getProcessor() {
     return this.processor;
   }
@@ -22,8 +22,8 @@ package org.apache.samoa.topology.impl;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.samoa.core.ContentEvent;
 import org.apache.samoa.topology.AbstractStream;
 import org.apache.samoa.topology.IProcessingItem;
@@ -38,9 +38,19 @@ import org.apache.samoa.utils.StreamDestination;
 public class ThreadsStream extends AbstractStream {
 
   private List<StreamDestination> destinations;
-  private int counter = 0;
   private int maxCounter = 1;
 
+  // Each producer thread (e.g. each replica of the source PI) advances its
+  // own shuffle counter, so that concurrent calls to put() neither contend on
+  // a shared counter nor need to be synchronized. Every counter starts at a
+  // random position to keep the events of all producers spread evenly.
+  private final ThreadLocal<int[]> counter = new ThreadLocal<int[]>() {
+    @Override
+    protected int[] initialValue() {
+      return new int[] { ThreadLocalRandom.current().nextInt(Math.max(maxCounter, 1)) };
+    }
+  };
+
   public ThreadsStream(IProcessingItem sourcePi) {
     destinations = new LinkedList<StreamDestination>();
   }
@@ -55,14 +65,15 @@ public class ThreadsStream extends AbstractStream {
   }
 
   private int getNextCounter() {
-    if (maxCounter > 0 && counter >= maxCounter)
-      counter = 0;
-    this.counter++;
-    return this.counter;
+    int[] producerCounter = this.counter.get();
+    if (maxCounter > 0 && producerCounter[0] >= maxCounter)
+      producerCounter[0] = 0;
+    producerCounter[0]++;
+    return producerCounter[0];
   }
 
   @Override
-  public synchronized void put(ContentEvent event) {
+  public void put(ContentEvent event) {
     this.put(event, this.getNextCounter());
   }
 
@@ -77,7 +88,7 @@ public class ThreadsStream extends AbstractStream {
         pi.processEvent(event, counter % parallelism);
         break;
       case GROUP_BY_KEY:
-        pi.processEvent(event, getPIIndexForKey(event.getKey(), parallelism));
+        pi.processEvent(event, destination.getPartitioner().partition(event, parallelism));
         break;
       case BROADCAST:
         for (int p = 0; p < parallelism; p++) {
@@ -88,21 +99,4 @@ public class ThreadsStream extends AbstractStream {
     }
   }
 
-  private static int getPIIndexForKey(String key, int parallelism) {
-    // If key is null, return a default index: 0
-    if (key == null)
-      return 0;
-
-    // HashCodeBuilder object does not have reset() method
-    // So all objects that get appended will be included in the
-    // computation of the hashcode.
-    // To avoid initialize a HashCodeBuilder for each event,
-    // here I use the static method with reflection on the event's key
-    int index = HashCodeBuilder.reflectionHashCode(key, true) % parallelism;
-    if (index < 0) {
-      index += parallelism;
-    }
-    return index;
-  }
-
 }
@@ -48,6 +48,27 @@ public class AlgosTest {
 
   }
 
+  @Test(timeout = 60000)
+  public void testVHTWithThreadsMailbox() throws Exception {
+
+    TestParams vhtConfig = new TestParams.Builder()
+        .inputInstances(200_000)
+        .samplingSize(20_000)
+        .evaluationInstances(200_000)
+        .classifiedInstances(200_000)
+        .labelSamplingSize(10l)
+        .classificationsCorrect(55f)
+        .kappaStat(-0.1f)
+        .kappaTempStat(-0.1f)
+        .cliStringTemplate(TestParams.Templates.PREQEVAL_VHT_RANDOMTREE + " -t 2 -q 1024")
+        .resultFilePollTimeout(10)
+        .prePollWait(10)
+        .taskClassName(LocalThreadsDoTask.class.getName())
+        .build();
+    TestUtils.test(vhtConfig);
+
+  }
+
   @Test(timeout = 180000)
   public void testBaggingWithThreads() throws Exception {
     TestParams baggingConfig = new TestParams.Builder()
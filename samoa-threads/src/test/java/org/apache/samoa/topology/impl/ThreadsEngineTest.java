@@ -119,6 +119,48 @@ public class ThreadsEngineTest {
     }
   }
 
+  @Test
+  public void testSetMailboxScheduler() {
+    ThreadsEngine.setMailboxScheduler(numThreads, 128, ThreadsOverflowPolicy.SHED);
+    assertTrue("Mailbox scheduler was not enabled.", ThreadsEngine.isMailboxSchedulerEnabled());
+    assertEquals("Number of threads is not set correctly.", numThreads,
+        ThreadsEngine.getNumberOfThreads(), 0);
+    assertEquals("Mailbox capacity is not set correctly.", 128, ThreadsEngine.getMailboxCapacity());
+    assertEquals("Overflow policy is not set correctly.", ThreadsOverflowPolicy.SHED,
+        ThreadsEngine.getOverflowPolicy());
+    for (int i = 0; i < numThreads + 3; i++) {
+      assertNotNull("ThreadsMailboxWorker is not initialized correctly.", ThreadsEngine.getWorkerWithIndex(i));
+    }
+  }
+
+  @Test
+  public void testSubmitTopologyWithMailboxes() {
+    ThreadsEngine.submitTopology(topology, numThreads, 128, ThreadsOverflowPolicy.BLOCK);
+    new Verifications() {
+      {
+        topology.run();
+        times = 1;
+      }
+    };
+    assertTrue("Mailbox scheduler was not enabled.", ThreadsEngine.isMailboxSchedulerEnabled());
+    ThreadsEngine.submitTopology(topology, numThreads);
+    assertFalse("Mailbox scheduler was not disabled.", ThreadsEngine.isMailboxSchedulerEnabled());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSetMailboxSchedulerZeroCapacity() {
+    ThreadsEngine.setMailboxScheduler(numThreads, 0, ThreadsOverflowPolicy.BLOCK);
+    // Exception expected
+  }
+
+  @Test
+  public void testClearMailboxScheduler() {
+    ThreadsEngine.setMailboxScheduler(numThreads, 128, ThreadsOverflowPolicy.BLOCK);
+    ThreadsEngine.clearThreadPool();
+    assertFalse("Mailbox scheduler was not disabled.", ThreadsEngine.isMailboxSchedulerEnabled());
+    assertEquals("ThreadsEngine was not shutdown properly.", 0, ThreadsEngine.getNumberOfThreads());
+  }
+
   @Test
   public void testSubmitTopology() {
     ThreadsEngine.submitTopology(topology, numThreads);
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * SAMOA
+ * %%
+ * Copyright (C) 2014 - 2015 Apache Software Foundation
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.apache.samoa.topology.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.samoa.core.ContentEvent;
+import org.apache.samoa.core.Processor;
+import org.apache.samoa.examples.HelloWorldContentEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThreadsMailboxTest {
+
+  private final int capacity = 6;
+
+  private RecordingProcessor processor;
+  private ThreadsProcessingItemInstance piInstance;
+  private ThreadsMailboxWorker worker;
+
+  @Before
+  public void setUp() throws Exception {
+    processor = new RecordingProcessor();
+    piInstance = new ThreadsProcessingItemInstance(processor, 0);
+    worker = new ThreadsMailboxWorker(0, 4);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    if (worker.isAlive()) {
+      worker.shutdown();
+      worker.join();
+    }
+  }
+
+  @Test
+  public void testCapacityIsRoundedToPowerOfTwo() {
+    ThreadsMailbox mailbox = new ThreadsMailbox(piInstance, worker, capacity, ThreadsOverflowPolicy.BLOCK);
+    assertEquals("Capacity was not rounded up correctly.", 8, mailbox.getCapacity());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCapacityZero() {
+    new ThreadsMailbox(piInstance, worker, 0, ThreadsOverflowPolicy.BLOCK);
+  }
+
+  @Test
+  public void testDrainInOrder() {
+    ThreadsMailbox mailbox = new ThreadsMailbox(piInstance, worker, capacity, ThreadsOverflowPolicy.BLOCK);
+    for (int i = 0; i < 5; i++) {
+      assertTrue("Event was not accepted.", mailbox.put(new HelloWorldContentEvent(i, false)));
+    }
+    assertEquals("Wrong number of pending events.", 5, mailbox.size());
+    assertEquals("Drain does not respect the batch size.", 3, mailbox.drain(3));
+    assertEquals("Wrong number of remaining events.", 2, mailbox.drain(10));
+    assertFalse("Mailbox should be empty.", mailbox.hasPending());
+    assertEquals("Events were not processed in order.", sequence(5), processor.getReceived());
+  }
+
+  @Test
+  public void testShedWhenFull() {
+    ThreadsMailbox mailbox = new ThreadsMailbox(piInstance, worker, capacity, ThreadsOverflowPolicy.SHED);
+    int accepted = 0;
+    for (int i = 0; i < 10; i++) {
+      if (mailbox.put(new HelloWorldContentEvent(i, false)))
+        accepted++;
+    }
+    assertEquals("Mailbox accepted more events than its capacity.", mailbox.getCapacity(), accepted);
+    assertEquals("Shed events were not counted.", 10 - mailbox.getCapacity(), mailbox.getShedEvents());
+    mailbox.drain(Integer.MAX_VALUE);
+    assertEquals("The oldest events should have been kept.", sequence(mailbox.getCapacity()), processor.getReceived());
+  }
+
+  @Test(timeout = 10000)
+  public void testBlockUntilDrained() throws Exception {
+    ThreadsMailbox mailbox = new ThreadsMailbox(piInstance, worker, capacity, ThreadsOverflowPolicy.BLOCK);
+    worker.register(mailbox);
+    worker.start();
+    int numEvents = 1000;
+    for (int i = 0; i < numEvents; i++) {
+      assertTrue("Event was not accepted.", mailbox.put(new HelloWorldContentEvent(i, i == numEvents - 1)));
+    }
+    worker.shutdown();
+    worker.join();
+    assertEquals("Events were lost or reordered.", sequence(numEvents), processor.getReceived());
+    assertEquals("A producer thread should never overflow.", 0, mailbox.getOverflowedEvents());
+  }
+
+  private static List<Integer> sequence(int n) {
+    List<Integer> list = new ArrayList<Integer>(n);
+    for (int i = 0; i < n; i++)
+      list.add(i);
+    return list;
+  }
+
+  private static class RecordingProcessor implements Processor {
+    private static final long serialVersionUID = 1L;
+    private final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+
+    @Override
+    public boolean process(ContentEvent event) {
+      received.add(((HelloWorldContentEvent) event).getHelloWorldData());
+      return true;
+    }
+
+    @Override
+    public void onCreate(int id) {
+    }
+
+    @Override
+    public Processor newProcessor(Processor processor) {
+      return new RecordingProcessor();
+    }
+
+    public List<Integer> getReceived() {
+      return new ArrayList<Integer>(received);
+    }
+  }
+}